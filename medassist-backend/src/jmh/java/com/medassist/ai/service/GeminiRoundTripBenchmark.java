@@ -0,0 +1,105 @@
+package com.medassist.ai.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medassist.medicine.dto.MedicineAnalysisRequest;
+import com.medassist.medicine.dto.MedicineAnalysisResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end latency of an image analysis against a local Gemini stub that answers each
+ * call after a fixed delay: one multimodal call against text extraction followed by
+ * analysis. Nothing is cached, so every invocation reaches the stub, e.g.
+ * mvn -Pbenchmarks test-compile exec:exec -Djmh.args="GeminiRoundTripBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class GeminiRoundTripBenchmark {
+
+    /** Stub latency of each Gemini call in milliseconds */
+    @Param({"50", "400"})
+    public long callLatencyMillis;
+
+    private GeminiStubServer stub;
+    private GeminiConcurrencyLimiter concurrencyLimiter;
+    private GeminiAIService singlePassService;
+    private GeminiAIService twoStepService;
+    private byte[] image;
+
+    @Setup
+    public void setUp() throws IOException {
+        stub = new GeminiStubServer(callLatencyMillis);
+        concurrencyLimiter = new GeminiConcurrencyLimiter(new SimpleMeterRegistry());
+        concurrencyLimiter.start();
+        singlePassService = service(true);
+        twoStepService = service(false);
+        // About the size of an encoded 1024px upload
+        image = new byte[64 * 1024];
+        new Random(48).nextBytes(image);
+    }
+
+    @TearDown
+    public void tearDown() {
+        stub.close();
+        concurrencyLimiter.stop();
+    }
+
+    @Benchmark
+    public MedicineAnalysisResponse singlePass() throws Exception {
+        return singlePassService.analyzeMedicine(request()).get();
+    }
+
+    @Benchmark
+    public MedicineAnalysisResponse twoStep() throws Exception {
+        return twoStepService.analyzeMedicine(request()).get();
+    }
+
+    private MedicineAnalysisRequest request() {
+        MedicineAnalysisRequest request = new MedicineAnalysisRequest(null,
+            MedicineAnalysisRequest.AnalysisType.IMAGE_ANALYSIS);
+        request.setImageBytes(image);
+        request.setImageMimeType("image/jpeg");
+        return request;
+    }
+
+    private GeminiAIService service(boolean singlePass) {
+        GeminiConfig config = new GeminiConfig();
+        ReflectionTestUtils.setField(config, "apiKey", "benchmark-key");
+        ReflectionTestUtils.setField(config, "model", "gemini-stub");
+        ReflectionTestUtils.setField(config, "timeoutSeconds", 30);
+        ReflectionTestUtils.setField(config, "maxRetries", 0);
+        ReflectionTestUtils.setField(config, "singlePassImageAnalysis", singlePass);
+
+        // No caches at all, so neither the extracted text nor the analysis is reused
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of());
+        cacheManager.afterPropertiesSet();
+
+        return new GeminiAIService(WebClient.create(stub.baseUrl()), config, new PromptTemplateService(),
+            new ObjectMapper(), cacheManager, new InFlightRequestRegistry(new SimpleMeterRegistry()),
+            new AnalysisCacheKeys(null, config), null, concurrencyLimiter);
+    }
+}
@@ -0,0 +1,112 @@
+package com.medassist.ai.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the scalar and Vector API raster kernels on synthetic medicine-packaging
+ * images at the processing sizes: a printed carton face with a coloured brand band, large
+ * and small text and sensor noise. For example
+ * mvn -Pbenchmarks test-compile exec:exec -Djmh.args="RasterKernelBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class RasterKernelBenchmark {
+
+    /** Width x height: a landscape carton, a square crop and a portrait blister pack */
+    @Param({"1024x768", "1024x1024", "576x1024"})
+    public String size;
+
+    @Param({"scalar", "vector"})
+    public String kernels;
+
+    private RasterKernels rasterKernels;
+    private int[] sourcePixels;
+    private int[] working;
+    private int width;
+    private int height;
+
+    @Setup
+    public void setUp() {
+        rasterKernels = "vector".equals(kernels) ? RasterEnhancer.VECTOR_KERNELS : RasterEnhancer.SCALAR_KERNELS;
+        if (rasterKernels == null) {
+            throw new IllegalStateException("Vector kernels unavailable; run with --add-modules jdk.incubator.vector");
+        }
+        String[] dimensions = size.split("x");
+        width = Integer.parseInt(dimensions[0]);
+        height = Integer.parseInt(dimensions[1]);
+        sourcePixels = packagingImage(width, height);
+        working = new int[sourcePixels.length];
+    }
+
+    @Benchmark
+    public int[] contrast() {
+        System.arraycopy(sourcePixels, 0, working, 0, sourcePixels.length);
+        rasterKernels.contrast(working, 0, working.length);
+        return working;
+    }
+
+    @Benchmark
+    public int[] enhance() {
+        System.arraycopy(sourcePixels, 0, working, 0, sourcePixels.length);
+        RasterEnhancer.enhance(rasterKernels, working, width, height);
+        return working;
+    }
+
+    private static int[] packagingImage(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setColor(new Color(0xF4F1EA));
+        g.fillRect(0, 0, width, height);
+        g.setColor(new Color(0xC8102E));
+        g.fillRect(0, height / 8, width, height / 6);
+        g.setColor(Color.WHITE);
+        g.setFont(new Font(Font.SANS_SERIF, Font.BOLD, height / 10));
+        g.drawString("IBUPROFEN", width / 20, height / 8 + height / 8);
+        g.setColor(new Color(0x1A1A1A));
+        g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, Math.max(10, height / 40)));
+        for (int line = 0; line < 12; line++) {
+            g.drawString("200 mg film-coated tablets - Lot 24B17 - EXP 11/2027", width / 20,
+                height / 2 + line * height / 30);
+        }
+        g.dispose();
+
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        Random random = new Random(41);
+        for (int i = 0; i < pixels.length; i++) {
+            int noise = random.nextInt(17) - 8;
+            int rgb = pixels[i];
+            pixels[i] = (clamp(((rgb >> 16) & 0xFF) + noise) << 16)
+                | (clamp(((rgb >> 8) & 0xFF) + noise) << 8)
+                | clamp((rgb & 0xFF) + noise);
+        }
+        return pixels;
+    }
+
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(255, value));
+    }
+}
@@ -0,0 +1,167 @@
+package com.medassist.ai.controller;
+
+import com.medassist.ai.dto.AnalysisJobResponse;
+import com.medassist.ai.service.AIServiceExceptionHandler.ErrorResponse;
+import com.medassist.ai.service.AnalysisJobService;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Locale;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Asynchronous counterpart of the image and combined analysis endpoints: a submission
+ * returns 202 with a job id, and the outcome is polled or pushed over server-sent events.
+ */
+@RestController
+@RequestMapping("/api/v1/ai/medicine/jobs")
+@Validated
+public class AnalysisJobController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisJobController.class);
+
+    private static final String ADMIN_AUTHORITY = "ADMIN_ACCESS";
+
+    private final AnalysisJobService analysisJobService;
+
+    @Autowired
+    public AnalysisJobController(AnalysisJobService analysisJobService) {
+        this.analysisJobService = analysisJobService;
+    }
+
+    /**
+     * Queue an image analysis; HIGH priority is granted to administrators only
+     */
+    @PostMapping("/image")
+    public ResponseEntity<AnalysisJobResponse> submitImageAnalysis(
+            @RequestParam("file") @NotNull(message = "Image file is required") MultipartFile file,
+            @RequestParam(defaultValue = "NORMAL") String priority,
+            Authentication authentication) throws IOException {
+
+        AnalysisJobResponse job = analysisJobService.submitImageAnalysis(file,
+            grantedPriority(priority, authentication));
+        logger.info("Queued image analysis job {}", job.getJobId());
+        return accepted(job);
+    }
+
+    /**
+     * Queue a combined text and image analysis; HIGH priority is granted to administrators only
+     */
+    @PostMapping("/combined")
+    public ResponseEntity<AnalysisJobResponse> submitCombinedAnalysis(
+            @RequestParam @NotBlank(message = "Query cannot be blank") String query,
+            @RequestParam("image") @NotNull(message = "Image file is required") MultipartFile imageFile,
+            @RequestParam(defaultValue = "NORMAL") String priority,
+            Authentication authentication) throws IOException {
+
+        AnalysisJobResponse job = analysisJobService.submitCombinedAnalysis(query.trim(), imageFile,
+            grantedPriority(priority, authentication));
+        logger.info("Queued combined analysis job {}", job.getJobId());
+        return accepted(job);
+    }
+
+    /**
+     * Current state of a job; the result is included once it succeeded
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<AnalysisJobResponse> getJob(@PathVariable String jobId) {
+        AnalysisJobResponse job = analysisJobService.find(jobId);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Server-sent events for a job: the current state at once, then the final state, after
+     * which the stream is closed. Each event is named after the job status.
+     */
+    @GetMapping(value = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamJob(@PathVariable String jobId) {
+        SseEmitter emitter = new SseEmitter(analysisJobService.getMaxWait().toMillis());
+        boolean[] finished = new boolean[1];
+        AnalysisJobResponse current = analysisJobService.subscribe(jobId,
+            update -> publish(emitter, update, finished));
+        if (current == null) {
+            return ResponseEntity.notFound().build();
+        }
+        publish(emitter, current, finished);
+        return ResponseEntity.ok(emitter);
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ErrorResponse> handleQueueFull(RejectedExecutionException ex) {
+        logger.warn("Analysis job rejected: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "30")
+            .body(new ErrorResponse("AI_QUEUE_FULL", "Too many pending analyses, retry later"));
+    }
+
+    /**
+     * Send a state unless the final one has been sent; the final state completes the stream.
+     * The finishing worker may race the initial send, hence the lock.
+     */
+    private void publish(SseEmitter emitter, AnalysisJobResponse state, boolean[] finished) {
+        synchronized (emitter) {
+            if (finished[0]) {
+                return;
+            }
+            try {
+                emitter.send(SseEmitter.event()
+                    .name(state.getStatus().name().toLowerCase(Locale.ROOT))
+                    .data(state, MediaType.APPLICATION_JSON));
+                if (state.getStatus().isTerminal()) {
+                    finished[0] = true;
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away or the stream timed out; polling still works
+                finished[0] = true;
+                logger.debug("Job event stream for {} closed: {}", state.getJobId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Priority the job is queued at. HIGH runs ahead of every other job, so a caller without
+     * administrative access who asks for it is queued at NORMAL instead.
+     */
+    private static AnalysisJobService.Priority grantedPriority(String requested, Authentication authentication) {
+        AnalysisJobService.Priority priority = parsePriority(requested);
+        if (priority == AnalysisJobService.Priority.HIGH && !isAdmin(authentication)) {
+            logger.debug("HIGH priority requested without administrative access, queuing at NORMAL");
+            return AnalysisJobService.Priority.NORMAL;
+        }
+        return priority;
+    }
+
+    private static boolean isAdmin(Authentication authentication) {
+        return authentication != null && authentication.getAuthorities().stream()
+            .anyMatch(authority -> ADMIN_AUTHORITY.equals(authority.getAuthority()));
+    }
+
+    private static AnalysisJobService.Priority parsePriority(String priority) {
+        try {
+            return AnalysisJobService.Priority.valueOf(priority.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Priority must be one of HIGH, NORMAL or LOW");
+        }
+    }
+
+    private static ResponseEntity<AnalysisJobResponse> accepted(AnalysisJobResponse job) {
+        return ResponseEntity.accepted()
+            .location(URI.create("/api/v1/ai/medicine/jobs/" + job.getJobId()))
+            .body(job);
+    }
+}
@@ -1,19 +1,25 @@
 package com.medassist.ai.controller;
 
+import com.medassist.ai.dto.AnalysisStreamEvent;
 import com.medassist.medicine.dto.MedicineAnalysisResponse;
 import com.medassist.ai.service.MedicineAIService;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Locale;
 import java.util.concurrent.CompletableFuture;
 
 @RestController
@@ -132,6 +138,43 @@ public class MedicineAIController {
         }
     }
 
+    /**
+     * Stream a text analysis as server-sent events: "text" chunks of the model output,
+     * "field" events as analysis fields complete, then "result" (or "error")
+     */
+    @PostMapping(value = "/analyze/text/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<AnalysisStreamEvent>> streamMedicineByText(
+            @RequestParam @NotBlank(message = "Query cannot be blank") String query) {
+
+        logger.info("Received streamed text analysis request for: {}", query);
+        return toServerSentEvents(medicineAIService.streamMedicineByText(query.trim()));
+    }
+
+    /**
+     * Stream an image analysis as server-sent events
+     */
+    @PostMapping(value = "/analyze/image/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<AnalysisStreamEvent>> streamMedicineByImage(
+            @RequestParam("file") @NotNull(message = "Image file is required") MultipartFile file) throws IOException {
+
+        logger.info("Received streamed image analysis request");
+        return toServerSentEvents(medicineAIService.streamMedicineByImage(file));
+    }
+
+    /**
+     * Stream a combined text and image analysis as server-sent events
+     */
+    @PostMapping(value = "/analyze/combined/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<AnalysisStreamEvent>> streamMedicineCombined(
+            @RequestParam @NotBlank(message = "Query cannot be blank") String query,
+            @RequestParam("image") @NotNull(message = "Image file is required") MultipartFile imageFile)
+            throws IOException {
+
+        logger.info("Received streamed combined analysis request: query='{}', image='{}'",
+            query, imageFile.getOriginalFilename());
+        return toServerSentEvents(medicineAIService.streamMedicineCombined(query.trim(), imageFile));
+    }
+
     /**
      * Analyze drug interactions
      */
@@ -191,6 +234,12 @@ public class MedicineAIController {
         return ResponseEntity.ok().build();
     }
 
+    private static Flux<ServerSentEvent<AnalysisStreamEvent>> toServerSentEvents(Flux<AnalysisStreamEvent> events) {
+        return events.map(event -> ServerSentEvent.builder(event)
+            .event(event.getType().name().toLowerCase(Locale.ROOT))
+            .build());
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException ex) {
         logger.warn("Image analysis failed: {}", ex.getMessage());
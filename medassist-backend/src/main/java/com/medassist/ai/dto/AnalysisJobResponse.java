@@ -0,0 +1,75 @@
+package com.medassist.ai.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.medassist.medicine.dto.MedicineAnalysisResponse;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of an asynchronous medicine analysis job; the result is present once it succeeded
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AnalysisJobResponse {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED;
+
+        public boolean isTerminal() {
+            return this == SUCCEEDED || this == FAILED;
+        }
+    }
+
+    @JsonProperty("job_id")
+    private String jobId;
+
+    @JsonProperty("status")
+    private Status status;
+
+    @JsonProperty("analysis_type")
+    private String analysisType;
+
+    @JsonProperty("priority")
+    private String priority;
+
+    @JsonProperty("submitted_at")
+    private LocalDateTime submittedAt;
+
+    @JsonProperty("completed_at")
+    private LocalDateTime completedAt;
+
+    @JsonProperty("error")
+    private String error;
+
+    @JsonProperty("result")
+    private MedicineAnalysisResponse result;
+
+    public AnalysisJobResponse() {}
+
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public String getAnalysisType() { return analysisType; }
+    public void setAnalysisType(String analysisType) { this.analysisType = analysisType; }
+
+    public String getPriority() { return priority; }
+    public void setPriority(String priority) { this.priority = priority; }
+
+    public LocalDateTime getSubmittedAt() { return submittedAt; }
+    public void setSubmittedAt(LocalDateTime submittedAt) { this.submittedAt = submittedAt; }
+
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+
+    public MedicineAnalysisResponse getResult() { return result; }
+    public void setResult(MedicineAnalysisResponse result) { this.result = result; }
+}
@@ -0,0 +1,88 @@
+package com.medassist.ai.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.medassist.medicine.dto.MedicineAnalysisResponse;
+
+/**
+ * One event of a streamed medicine analysis: a chunk of model text, a field of the
+ * analysis once its value is complete, the final result, or an error that ends the stream
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AnalysisStreamEvent {
+
+    public enum Type {
+        TEXT,
+        FIELD,
+        RESULT,
+        ERROR
+    }
+
+    @JsonProperty("type")
+    private Type type;
+
+    @JsonProperty("text")
+    private String text;
+
+    @JsonProperty("field")
+    private String field;
+
+    @JsonProperty("value")
+    private JsonNode value;
+
+    @JsonProperty("result")
+    private MedicineAnalysisResponse result;
+
+    @JsonProperty("error")
+    private String error;
+
+    public AnalysisStreamEvent() {}
+
+    private AnalysisStreamEvent(Type type) {
+        this.type = type;
+    }
+
+    public static AnalysisStreamEvent text(String text) {
+        AnalysisStreamEvent event = new AnalysisStreamEvent(Type.TEXT);
+        event.text = text;
+        return event;
+    }
+
+    public static AnalysisStreamEvent field(String field, JsonNode value) {
+        AnalysisStreamEvent event = new AnalysisStreamEvent(Type.FIELD);
+        event.field = field;
+        event.value = value;
+        return event;
+    }
+
+    public static AnalysisStreamEvent result(MedicineAnalysisResponse result) {
+        AnalysisStreamEvent event = new AnalysisStreamEvent(Type.RESULT);
+        event.result = result;
+        return event;
+    }
+
+    public static AnalysisStreamEvent error(String error) {
+        AnalysisStreamEvent event = new AnalysisStreamEvent(Type.ERROR);
+        event.error = error;
+        return event;
+    }
+
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+
+    public String getText() { return text; }
+    public void setText(String text) { this.text = text; }
+
+    public String getField() { return field; }
+    public void setField(String field) { this.field = field; }
+
+    public JsonNode getValue() { return value; }
+    public void setValue(JsonNode value) { this.value = value; }
+
+    public MedicineAnalysisResponse getResult() { return result; }
+    public void setResult(MedicineAnalysisResponse result) { this.result = result; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
@@ -1,6 +1,7 @@
 package com.medassist.ai.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.Base64;
 import java.util.List;
 
 public class GeminiRequest {
@@ -112,16 +113,21 @@ public class GeminiRequest {
         @JsonProperty("mime_type")
         private String mimeType;
 
+        // Raw bytes; Jackson writes them as base64 straight into the request body
         @JsonProperty("data")
-        private String data;
+        private byte[] data;
 
         public InlineData() {}
 
-        public InlineData(String mimeType, String data) {
+        public InlineData(String mimeType, byte[] data) {
             this.mimeType = mimeType;
             this.data = data;
         }
 
+        public InlineData(String mimeType, String base64Data) {
+            this(mimeType, Base64.getMimeDecoder().decode(base64Data));
+        }
+
         public String getMimeType() {
             return mimeType;
         }
@@ -130,11 +136,11 @@ public class GeminiRequest {
             this.mimeType = mimeType;
         }
 
-        public String getData() {
+        public byte[] getData() {
             return data;
         }
 
-        public void setData(String data) {
+        public void setData(byte[] data) {
             this.data = data;
         }
     }
@@ -0,0 +1,50 @@
+package com.medassist.ai.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Durable copy of a cached AI result, keyed like its in-memory cache entry. The payload is
+ * the result serialised as JSON; rows past expires_at are ignored and purged at startup.
+ */
+@Entity
+@Table(name = "ai_result_cache", indexes = {
+    @Index(name = "idx_ai_result_cache_hits", columnList = "cache_name, hit_count"),
+    @Index(name = "idx_ai_result_cache_expires", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AiResultEntry {
+
+    @Id
+    @Column(name = "cache_key", length = 1024)
+    private String cacheKey;
+
+    @Column(name = "cache_name", nullable = false, length = 64)
+    private String cacheName;
+
+    @Column(name = "analysis_type", nullable = false, length = 32)
+    private String analysisType;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "hit_count", nullable = false)
+    private long hitCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "last_hit_at")
+    private LocalDateTime lastHitAt;
+}
@@ -0,0 +1,53 @@
+package com.medassist.ai.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Durable record of a finished asynchronous analysis job, so its outcome can still be
+ * polled after it has left the in-memory job store or from another instance. The result
+ * is the analysis serialised as JSON; rows past expires_at are purged.
+ */
+@Entity
+@Table(name = "ai_analysis_job", indexes = {
+    @Index(name = "idx_ai_analysis_job_expires", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AnalysisJobEntry {
+
+    @Id
+    @Column(name = "job_id", length = 36)
+    private String jobId;
+
+    @Column(name = "status", nullable = false, length = 16)
+    private String status;
+
+    @Column(name = "analysis_type", nullable = false, length = 32)
+    private String analysisType;
+
+    @Column(name = "priority", nullable = false, length = 16)
+    private String priority;
+
+    @Column(name = "result", columnDefinition = "TEXT")
+    private String result;
+
+    @Column(name = "error", length = 512)
+    private String error;
+
+    @Column(name = "submitted_at", nullable = false)
+    private LocalDateTime submittedAt;
+
+    @Column(name = "completed_at", nullable = false)
+    private LocalDateTime completedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,149 @@
+package com.medassist.ai.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC access to ai_result_cache.
+ *
+ * Results and hit counts are written behind the request path in batches, so writes are
+ * PostgreSQL ON CONFLICT upserts and additive counter updates rather than entity merges.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AiResultJdbcRepository {
+
+    private static final String SELECT_PAYLOAD_SQL =
+        "SELECT payload FROM ai_result_cache WHERE cache_key = ? AND cache_name = ? AND expires_at > ?";
+
+    private static final String UPSERT_SQL =
+        "INSERT INTO ai_result_cache (cache_key, cache_name, analysis_type, payload, hit_count, created_at, expires_at) " +
+        "VALUES (?, ?, ?, ?, 0, ?, ?) " +
+        "ON CONFLICT (cache_key) DO UPDATE SET cache_name = EXCLUDED.cache_name, analysis_type = EXCLUDED.analysis_type, " +
+        "payload = EXCLUDED.payload, created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at";
+
+    private static final String RECORD_HITS_SQL =
+        "UPDATE ai_result_cache SET hit_count = hit_count + ?, last_hit_at = ? WHERE cache_key = ?";
+
+    private static final String SELECT_HOTTEST_SQL =
+        "SELECT cache_key, payload FROM ai_result_cache WHERE cache_name = ? AND expires_at > ? " +
+        "ORDER BY hit_count DESC LIMIT ?";
+
+    private static final String DELETE_EXPIRED_SQL =
+        "DELETE FROM ai_result_cache WHERE expires_at <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * A result waiting to be written
+     */
+    public static final class PendingResult {
+        private final String cacheKey;
+        private final String cacheName;
+        private final String analysisType;
+        private final String payload;
+        private final Timestamp createdAt;
+        private final Timestamp expiresAt;
+
+        public PendingResult(String cacheKey, String cacheName, String analysisType, String payload,
+                             Timestamp createdAt, Timestamp expiresAt) {
+            this.cacheKey = cacheKey;
+            this.cacheName = cacheName;
+            this.analysisType = analysisType;
+            this.payload = payload;
+            this.createdAt = createdAt;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getCacheKey() { return cacheKey; }
+        public String getCacheName() { return cacheName; }
+        public String getAnalysisType() { return analysisType; }
+        public String getPayload() { return payload; }
+        public Timestamp getCreatedAt() { return createdAt; }
+        public Timestamp getExpiresAt() { return expiresAt; }
+    }
+
+    /**
+     * Receives stored results as they are read, without materialising the result set
+     */
+    @FunctionalInterface
+    public interface ResultRowHandler {
+        void accept(String cacheKey, String payload);
+    }
+
+    /**
+     * JSON payload of an unexpired result, or null
+     */
+    public String findPayload(String cacheName, String cacheKey, Timestamp now) {
+        List<String> payloads = jdbcTemplate.queryForList(SELECT_PAYLOAD_SQL, String.class, cacheKey, cacheName, now);
+        return payloads.isEmpty() ? null : payloads.get(0);
+    }
+
+    /**
+     * Insert or replace results
+     */
+    public void upsert(List<PendingResult> results) {
+        jdbcTemplate.batchUpdate(UPSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                PendingResult result = results.get(i);
+                ps.setString(1, result.getCacheKey());
+                ps.setString(2, result.getCacheName());
+                ps.setString(3, result.getAnalysisType());
+                ps.setString(4, result.getPayload());
+                ps.setTimestamp(5, result.getCreatedAt());
+                ps.setTimestamp(6, result.getExpiresAt());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return results.size();
+            }
+        });
+    }
+
+    /**
+     * Add hit counts accumulated since the last flush
+     */
+    public void recordHits(Map<String, Integer> hits, Timestamp now) {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(hits.entrySet());
+        jdbcTemplate.batchUpdate(RECORD_HITS_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setInt(1, entries.get(i).getValue());
+                ps.setTimestamp(2, now);
+                ps.setString(3, entries.get(i).getKey());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entries.size();
+            }
+        });
+    }
+
+    /**
+     * Stream the most-hit unexpired results of a cache
+     */
+    public void forEachHottest(String cacheName, Timestamp now, int limit, ResultRowHandler handler) {
+        jdbcTemplate.query(SELECT_HOTTEST_SQL, rs -> {
+            handler.accept(rs.getString(1), rs.getString(2));
+        }, cacheName, now, limit);
+    }
+
+    /**
+     * Remove expired results
+     */
+    public int deleteExpired(Timestamp now) {
+        return jdbcTemplate.update(DELETE_EXPIRED_SQL, now);
+    }
+}
@@ -0,0 +1,93 @@
+package com.medassist.ai.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * JDBC access to ai_analysis_job. Jobs are written once, when they finish, from the
+ * worker thread; the write is a PostgreSQL ON CONFLICT upsert so a retried write is
+ * harmless.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AnalysisJobJdbcRepository {
+
+    private static final String UPSERT_SQL =
+        "INSERT INTO ai_analysis_job (job_id, status, analysis_type, priority, result, error, " +
+        "submitted_at, completed_at, expires_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+        "ON CONFLICT (job_id) DO UPDATE SET status = EXCLUDED.status, result = EXCLUDED.result, " +
+        "error = EXCLUDED.error, completed_at = EXCLUDED.completed_at, expires_at = EXCLUDED.expires_at";
+
+    private static final String SELECT_SQL =
+        "SELECT job_id, status, analysis_type, priority, result, error, submitted_at, completed_at " +
+        "FROM ai_analysis_job WHERE job_id = ? AND expires_at > ?";
+
+    private static final String DELETE_EXPIRED_SQL =
+        "DELETE FROM ai_analysis_job WHERE expires_at <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * A finished job as stored
+     */
+    public static final class StoredJob {
+        private final String jobId;
+        private final String status;
+        private final String analysisType;
+        private final String priority;
+        private final String result;
+        private final String error;
+        private final Timestamp submittedAt;
+        private final Timestamp completedAt;
+
+        public StoredJob(String jobId, String status, String analysisType, String priority, String result,
+                         String error, Timestamp submittedAt, Timestamp completedAt) {
+            this.jobId = jobId;
+            this.status = status;
+            this.analysisType = analysisType;
+            this.priority = priority;
+            this.result = result;
+            this.error = error;
+            this.submittedAt = submittedAt;
+            this.completedAt = completedAt;
+        }
+
+        public String getJobId() { return jobId; }
+        public String getStatus() { return status; }
+        public String getAnalysisType() { return analysisType; }
+        public String getPriority() { return priority; }
+        public String getResult() { return result; }
+        public String getError() { return error; }
+        public Timestamp getSubmittedAt() { return submittedAt; }
+        public Timestamp getCompletedAt() { return completedAt; }
+    }
+
+    /**
+     * Insert or replace a finished job, kept until expiresAt
+     */
+    public void save(StoredJob job, Timestamp expiresAt) {
+        jdbcTemplate.update(UPSERT_SQL, job.getJobId(), job.getStatus(), job.getAnalysisType(), job.getPriority(),
+            job.getResult(), job.getError(), job.getSubmittedAt(), job.getCompletedAt(), expiresAt);
+    }
+
+    /**
+     * Unexpired job with the id, or null
+     */
+    public StoredJob find(String jobId, Timestamp now) {
+        List<StoredJob> jobs = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> new StoredJob(
+            rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4),
+            rs.getString(5), rs.getString(6), rs.getTimestamp(7), rs.getTimestamp(8)), jobId, now);
+        return jobs.isEmpty() ? null : jobs.get(0);
+    }
+
+    /**
+     * Remove expired jobs
+     */
+    public int deleteExpired(Timestamp now) {
+        return jdbcTemplate.update(DELETE_EXPIRED_SQL, now);
+    }
+}
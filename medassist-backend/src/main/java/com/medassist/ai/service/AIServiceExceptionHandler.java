@@ -1,5 +1,6 @@
 package com.medassist.ai.service;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -43,6 +44,9 @@ public class AIServiceExceptionHandler {
         logger.error("Async operation failed", e);
 
         Throwable cause = e.getCause();
+        if (cause instanceof GeminiCapacityException) {
+            return handleGeminiCapacity((GeminiCapacityException) cause);
+        }
         if (cause instanceof TimeoutException) {
             return ResponseEntity.status(HttpStatus.REQUEST_TIMEOUT)
                 .body(new ErrorResponse("AI_SERVICE_TIMEOUT", "AI service request timed out"));
@@ -52,6 +56,14 @@ public class AIServiceExceptionHandler {
             .body(new ErrorResponse("AI_SERVICE_ERROR", "AI service operation failed"));
     }
 
+    @ExceptionHandler(GeminiCapacityException.class)
+    public ResponseEntity<ErrorResponse> handleGeminiCapacity(GeminiCapacityException e) {
+        logger.warn("Gemini call refused: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "5")
+            .body(new ErrorResponse("AI_SERVICE_BUSY", "AI service is busy, please retry shortly"));
+    }
+
     @ExceptionHandler(TimeoutException.class)
     public ResponseEntity<ErrorResponse> handleTimeoutException(TimeoutException e) {
         logger.error("Timeout in AI service", e);
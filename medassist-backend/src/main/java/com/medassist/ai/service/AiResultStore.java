@@ -0,0 +1,300 @@
+package com.medassist.ai.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medassist.ai.repository.AiResultJdbcRepository;
+import com.medassist.ai.repository.AiResultJdbcRepository.PendingResult;
+import com.medassist.medicine.dto.MedicineAnalysisResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable second tier behind the in-memory AI result caches, so Gemini results survive
+ * restarts and are shared between instances.
+ *
+ * Reads go through to ai_result_cache on an in-memory miss. Writes and hit counts are
+ * queued and flushed in batches by a background thread, keeping the database off the
+ * request path; the most-hit results are loaded back into the in-memory caches at startup.
+ * Each analysis type has its own time to live.
+ */
+@Slf4j
+@Service
+public class AiResultStore {
+
+    static final String TEXT_EXTRACTION = "TEXT_EXTRACTION";
+
+    // Bounds the queue while the database is unreachable; further results stay memory-only
+    private static final int MAX_PENDING_RESULTS = 10_000;
+
+    private final AiResultJdbcRepository repository;
+    private final ObjectMapper objectMapper;
+    private final CacheManager cacheManager;
+    private final Counter storeHits;
+    private final Counter storeMisses;
+
+    private final ConcurrentHashMap<String, PendingResult> pendingResults = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> pendingHits = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flusher;
+
+    @Value("${ai.result-store.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${ai.result-store.flush-interval-ms:2000}")
+    private long flushIntervalMs = 2000;
+
+    @Value("${ai.result-store.warm-up-limit:200}")
+    private int warmUpLimit = 200;
+
+    @Value("${ai.result-store.ttl-hours.text-query:720}")
+    private long textQueryTtlHours = 720;
+
+    @Value("${ai.result-store.ttl-hours.image-analysis:168}")
+    private long imageAnalysisTtlHours = 168;
+
+    @Value("${ai.result-store.ttl-hours.combined:168}")
+    private long combinedTtlHours = 168;
+
+    @Value("${ai.result-store.ttl-hours.text-extraction:720}")
+    private long textExtractionTtlHours = 720;
+
+    public AiResultStore(AiResultJdbcRepository repository, ObjectMapper objectMapper,
+                         CacheManager cacheManager, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.cacheManager = cacheManager;
+        this.storeHits = Counter.builder("ai.result_store.lookups").tag("result", "hit")
+            .description("In-memory cache misses served from the durable result store")
+            .register(meterRegistry);
+        this.storeMisses = Counter.builder("ai.result_store.lookups").tag("result", "miss")
+            .description("In-memory cache misses not found in the durable result store")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ai-result-store-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (flusher != null) {
+            flusher.shutdown();
+            flushQuietly();
+        }
+    }
+
+    /**
+     * Purge expired results and load the most-hit ones into the in-memory caches
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Timestamp now = now();
+            int purged = repository.deleteExpired(now);
+            int loaded = load(GeminiAIService.ANALYSIS_CACHE, MedicineAnalysisResponse.class, now)
+                + load(GeminiAIService.TEXT_EXTRACTION_CACHE, String.class, now);
+            log.info("AI result store warm-up: {} results loaded, {} expired purged", loaded, purged);
+        } catch (RuntimeException e) {
+            log.warn("AI result store warm-up failed, caches start cold: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Stored result for the key, or null when absent, expired or unreadable
+     */
+    public <T> T get(String cacheName, String key, Class<T> type) {
+        if (!enabled) {
+            return null;
+        }
+        String payload;
+        PendingResult pending = pendingResults.get(key);
+        if (pending != null && pending.getCacheName().equals(cacheName)) {
+            payload = pending.getPayload();
+        } else {
+            try {
+                payload = repository.findPayload(cacheName, key, now());
+            } catch (RuntimeException e) {
+                log.warn("AI result store lookup failed: {}", e.getMessage());
+                return null;
+            }
+        }
+        if (payload == null) {
+            storeMisses.increment();
+            return null;
+        }
+
+        T value = deserialize(payload, type);
+        if (value != null) {
+            storeHits.increment();
+            pendingHits.merge(key, 1, Integer::sum);
+        }
+        return value;
+    }
+
+    /**
+     * Queue a result for writing; it expires after the time to live of its analysis type
+     */
+    public void put(String cacheName, String key, String analysisType, Object value) {
+        if (!enabled) {
+            return;
+        }
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialise {} result for the result store: {}", cacheName, e.getMessage());
+            return;
+        }
+        if (pendingResults.size() >= MAX_PENDING_RESULTS && !pendingResults.containsKey(key)) {
+            log.debug("AI result store queue full, not persisting {}", key);
+            return;
+        }
+        long nowMillis = System.currentTimeMillis();
+        Timestamp expiresAt = new Timestamp(nowMillis + ttl(analysisType).toMillis());
+        pendingResults.put(key, new PendingResult(key, cacheName, analysisType, payload,
+            new Timestamp(nowMillis), expiresAt));
+    }
+
+    /**
+     * Write queued results and hit counts. A batch the database rejects as invalid is
+     * retried row by row and the offending rows dropped; any other failure re-queues the
+     * batch unless a newer result for the same key has been queued meanwhile.
+     */
+    public synchronized void flush() {
+        List<PendingResult> results = new ArrayList<>();
+        for (String key : pendingResults.keySet()) {
+            PendingResult result = pendingResults.remove(key);
+            if (result != null) {
+                results.add(result);
+            }
+        }
+        Map<String, Integer> hits = new HashMap<>();
+        for (String key : pendingHits.keySet()) {
+            Integer count = pendingHits.remove(key);
+            if (count != null) {
+                hits.put(key, count);
+            }
+        }
+
+        if (!results.isEmpty()) {
+            try {
+                repository.upsert(results);
+            } catch (DataIntegrityViolationException e) {
+                upsertEach(results);
+            } catch (RuntimeException e) {
+                requeue(results);
+                throw e;
+            }
+        }
+        if (!hits.isEmpty()) {
+            repository.recordHits(hits, now());
+        }
+    }
+
+    /**
+     * Number of results waiting to be written
+     */
+    public int pendingCount() {
+        return pendingResults.size();
+    }
+
+    Duration ttl(String analysisType) {
+        long hours = switch (analysisType) {
+            case "TEXT_QUERY" -> textQueryTtlHours;
+            case "IMAGE_ANALYSIS" -> imageAnalysisTtlHours;
+            case "COMBINED" -> combinedTtlHours;
+            case TEXT_EXTRACTION -> textExtractionTtlHours;
+            default -> throw new IllegalArgumentException("Unknown analysis type: " + analysisType);
+        };
+        return Duration.ofHours(hours);
+    }
+
+    private void upsertEach(List<PendingResult> results) {
+        for (int i = 0; i < results.size(); i++) {
+            PendingResult result = results.get(i);
+            try {
+                repository.upsert(List.of(result));
+            } catch (DataIntegrityViolationException e) {
+                log.warn("AI result store rejected {}, dropping it: {}", result.getCacheKey(), e.getMessage());
+            } catch (RuntimeException e) {
+                requeue(results.subList(i, results.size()));
+                throw e;
+            }
+        }
+    }
+
+    private void requeue(List<PendingResult> results) {
+        for (PendingResult result : results) {
+            pendingResults.putIfAbsent(result.getCacheKey(), result);
+        }
+    }
+
+    private <T> int load(String cacheName, Class<T> type, Timestamp now) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return 0;
+        }
+        int[] loaded = {0};
+        repository.forEachHottest(cacheName, now, warmUpLimit, (key, payload) -> {
+            T value = deserialize(payload, type);
+            if (value != null) {
+                cache.put(key, value);
+                loaded[0]++;
+            }
+        });
+        return loaded[0];
+    }
+
+    private <T> T deserialize(String payload, Class<T> type) {
+        try {
+            return objectMapper.readValue(payload, type);
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable {} in the result store, ignoring it: {}", type.getSimpleName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("AI result store flush failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    private static Timestamp now() {
+        return new Timestamp(System.currentTimeMillis());
+    }
+}
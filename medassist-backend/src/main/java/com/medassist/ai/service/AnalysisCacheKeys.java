@@ -0,0 +1,171 @@
+package com.medassist.ai.service;
+
+import com.medassist.medicine.dto.MedicineAnalysisRequest;
+import com.medassist.medicine.service.MedicineSynonymIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Builds the {@code medicine-analysis} cache key for a request. Queries are canonicalised
+ * (case, whitespace, strength units) and a query naming exactly one catalogue medicine is
+ * replaced by that medicine's id, so "Advil 200 mg" and " ibuprofen 200MG" share an entry.
+ * Images are keyed by the SHA-256 of the uploaded bytes (or of their data when no digest
+ * was taken), queries too long to fit the durable store's key column by their SHA-256, and
+ * every key carries the analysis type,
+ * model and prompt-template version so results never leak across them.
+ */
+@Component
+@RequiredArgsConstructor
+public class AnalysisCacheKeys {
+
+    // Bump whenever canonicalisation changes, so analyses cached under keys built the old way
+    // (possibly shared by queries now told apart) are no longer served
+    private static final String KEY_FORMAT = "2";
+
+    // NFKC folds the micro sign into the Greek mu, so only the latter needs matching. Comma
+    // groups of three digits ("1,000") are thousands, any other comma a decimal mark ("1,5")
+    private static final Pattern STRENGTH = Pattern.compile(
+        "(?<![\\d.,])(\\d{1,3}(?:,\\d{3})+(?:\\.\\d+)?|\\d+(?:[.,]\\d+)?)\\s*(mg|milligrams?|g|grams?|mcg|\u03bcg|ug|micrograms?|ml|millilit(?:er|re)s?|iu|units?|%)(?![\\p{L}\\d])");
+    private static final Pattern THOUSANDS = Pattern.compile("\\d{1,3}(?:,\\d{3})+(?:\\.\\d+)?");
+
+    // Longer queries are keyed by their digest, keeping keys well inside ai_result_cache.cache_key
+    static final int MAX_QUERY_KEY_LENGTH = 256;
+
+    private final MedicineSynonymIndex medicineSynonymIndex;
+    private final GeminiConfig config;
+
+    /**
+     * Cache key for the request, or null when it has neither a query nor an image
+     */
+    public String keyFor(MedicineAnalysisRequest request) {
+        String query = canonicalQuery(request.getQuery());
+        String image = request.getImageDigest() != null ? request.getImageDigest()
+            : request.getImageBytes() != null ? imageDigest(request.getImageBytes(), request.getImageMimeType())
+            : request.getImageData() != null ? imageDigest(request.getImageData(), request.getImageMimeType()) : null;
+        if (query == null && image == null) {
+            return null;
+        }
+
+        StringBuilder key = new StringBuilder(request.getAnalysisType().name())
+            .append('|').append(config.getModel())
+            .append('|').append(PromptTemplateService.TEMPLATE_VERSION)
+            .append("|k").append(KEY_FORMAT);
+        if (query != null) {
+            String resolved = resolveSynonyms(query);
+            if (resolved.length() > MAX_QUERY_KEY_LENGTH) {
+                key.append("|qh=").append(HexFormat.of().formatHex(
+                    InFlightRequestRegistry.sha256().digest(resolved.getBytes(StandardCharsets.UTF_8))));
+            } else {
+                key.append("|q=").append(resolved);
+            }
+        }
+        if (image != null) {
+            key.append("|img=").append(image);
+        }
+        return key.toString();
+    }
+
+    /**
+     * Cache key of the text extracted from the upload with the given content digest
+     */
+    public String extractionKeyFor(String imageDigest) {
+        return AiResultStore.TEXT_EXTRACTION + '|' + config.getModel()
+            + '|' + PromptTemplateService.TEMPLATE_VERSION + "|img=" + imageDigest;
+    }
+
+    /**
+     * Query folded to lower case with whitespace collapsed and strengths written as
+     * number plus canonical unit (grams as milligrams, micrograms as mcg); null when blank
+     */
+    static String canonicalQuery(String query) {
+        if (query == null) {
+            return null;
+        }
+        String text = Normalizer.normalize(query, Normalizer.Form.NFKC)
+            .toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+        if (text.isEmpty()) {
+            return null;
+        }
+
+        Matcher matcher = STRENGTH.matcher(text);
+        StringBuilder out = new StringBuilder(text.length());
+        while (matcher.find()) {
+            matcher.appendReplacement(out, Matcher.quoteReplacement(
+                canonicalStrength(matcher.group(1), matcher.group(2))));
+        }
+        matcher.appendTail(out);
+        return out.toString();
+    }
+
+    /**
+     * Canonical query with the medicine name replaced by "#id" when, strengths aside, it
+     * names exactly one catalogue medicine
+     */
+    String resolveSynonyms(String canonicalQuery) {
+        List<String> strengths = new ArrayList<>();
+        Matcher matcher = STRENGTH.matcher(canonicalQuery);
+        while (matcher.find()) {
+            strengths.add(matcher.group());
+        }
+        String name = STRENGTH.matcher(canonicalQuery).replaceAll(" ").trim().replaceAll("\\s+", " ");
+        if (name.isEmpty()) {
+            return canonicalQuery;
+        }
+
+        List<Long> ids = medicineSynonymIndex.resolve(name);
+        if (ids.size() != 1) {
+            return canonicalQuery;
+        }
+        StringBuilder resolved = new StringBuilder("#").append(ids.get(0));
+        for (String strength : strengths) {
+            resolved.append(' ').append(strength);
+        }
+        return resolved.toString();
+    }
+
+    private static String canonicalStrength(String amount, String unit) {
+        BigDecimal value = new BigDecimal(THOUSANDS.matcher(amount).matches()
+            ? amount.replace(",", "") : amount.replace(',', '.'));
+        String canonicalUnit;
+        if (unit.startsWith("mg") || unit.startsWith("milligram")) {
+            canonicalUnit = "mg";
+        } else if (unit.equals("g") || unit.startsWith("gram")) {
+            value = value.multiply(BigDecimal.valueOf(1000));
+            canonicalUnit = "mg";
+        } else if (unit.equals("mcg") || unit.equals("\u03bcg") || unit.equals("ug") || unit.startsWith("microgram")) {
+            canonicalUnit = "mcg";
+        } else if (unit.equals("ml") || unit.startsWith("millilit")) {
+            canonicalUnit = "ml";
+        } else if (unit.equals("iu") || unit.startsWith("unit")) {
+            canonicalUnit = "iu";
+        } else {
+            canonicalUnit = unit;
+        }
+        return value.stripTrailingZeros().toPlainString() + canonicalUnit;
+    }
+
+    private static String imageDigest(String imageData, String mimeType) {
+        return imageDigest(imageData.getBytes(StandardCharsets.US_ASCII), mimeType);
+    }
+
+    private static String imageDigest(byte[] imageData, String mimeType) {
+        MessageDigest digest = InFlightRequestRegistry.sha256();
+        if (mimeType != null) {
+            digest.update(mimeType.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) 0);
+        digest.update(imageData);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
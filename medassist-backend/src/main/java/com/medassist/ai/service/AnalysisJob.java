@@ -0,0 +1,126 @@
+package com.medassist.ai.service;
+
+import com.medassist.ai.dto.AnalysisJobResponse;
+import com.medassist.ai.dto.AnalysisJobResponse.Status;
+import com.medassist.medicine.dto.MedicineAnalysisResponse;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * In-memory state of one analysis job. Status changes and listener registration are
+ * synchronised on the job, so a listener added before completion is handed out exactly once.
+ */
+final class AnalysisJob {
+
+    private final String id;
+    private final String analysisType;
+    private final AnalysisJobService.Priority priority;
+    private final long submittedAt;
+
+    private Status status = Status.QUEUED;
+    private long completedAt;
+    private MedicineAnalysisResponse result;
+    private String error;
+    private List<Consumer<AnalysisJobResponse>> listeners;
+
+    AnalysisJob(String id, String analysisType, AnalysisJobService.Priority priority, long submittedAt) {
+        this.id = id;
+        this.analysisType = analysisType;
+        this.priority = priority;
+        this.submittedAt = submittedAt;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    String getAnalysisType() {
+        return analysisType;
+    }
+
+    AnalysisJobService.Priority getPriority() {
+        return priority;
+    }
+
+    long getSubmittedAt() {
+        return submittedAt;
+    }
+
+    synchronized Status getStatus() {
+        return status;
+    }
+
+    synchronized long getCompletedAt() {
+        return completedAt;
+    }
+
+    synchronized MedicineAnalysisResponse getResult() {
+        return result;
+    }
+
+    synchronized String getError() {
+        return error;
+    }
+
+    synchronized void start() {
+        if (status == Status.QUEUED) {
+            status = Status.RUNNING;
+        }
+    }
+
+    /**
+     * Move to a final state. Returns the listeners to notify, which no longer receive
+     * anything from the job, or null when the job had already finished.
+     */
+    synchronized List<Consumer<AnalysisJobResponse>> finish(Status finalStatus, MedicineAnalysisResponse result,
+                                                            String error, long now) {
+        if (status.isTerminal()) {
+            return null;
+        }
+        this.status = finalStatus;
+        this.result = result;
+        this.error = error;
+        this.completedAt = now;
+        List<Consumer<AnalysisJobResponse>> toNotify = listeners != null ? listeners : List.of();
+        listeners = null;
+        return toNotify;
+    }
+
+    /**
+     * Current state; the listener is registered, and later called once with the final
+     * state, only when the returned state is not final
+     */
+    synchronized AnalysisJobResponse subscribe(Consumer<AnalysisJobResponse> listener) {
+        if (!status.isTerminal()) {
+            if (listeners == null) {
+                listeners = new ArrayList<>(1);
+            }
+            listeners.add(listener);
+        }
+        return toResponse();
+    }
+
+    synchronized AnalysisJobResponse toResponse() {
+        AnalysisJobResponse response = new AnalysisJobResponse();
+        response.setJobId(id);
+        response.setStatus(status);
+        response.setAnalysisType(analysisType);
+        response.setPriority(priority.name());
+        response.setSubmittedAt(toLocalDateTime(submittedAt));
+        if (status.isTerminal()) {
+            response.setCompletedAt(toLocalDateTime(completedAt));
+        }
+        response.setResult(result);
+        response.setError(error);
+        return response;
+    }
+
+    static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
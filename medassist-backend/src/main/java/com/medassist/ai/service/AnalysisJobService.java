@@ -0,0 +1,410 @@
+package com.medassist.ai.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medassist.ai.dto.AnalysisJobResponse;
+import com.medassist.ai.dto.AnalysisJobResponse.Status;
+import com.medassist.ai.repository.AnalysisJobJdbcRepository;
+import com.medassist.ai.repository.AnalysisJobJdbcRepository.StoredJob;
+import com.medassist.medicine.dto.MedicineAnalysisRequest;
+import com.medassist.medicine.dto.MedicineAnalysisResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Runs image and combined medicine analyses as background jobs, so the submitting request
+ * returns a job id at once instead of holding its connection through preprocessing and the
+ * Gemini calls.
+ *
+ * The upload is read and validated while the request is still open; the analysis then runs
+ * on a fixed pool of workers that take queued jobs by priority, then in submission order.
+ * Queued jobs hold their upload in memory, so the queue is bounded both in jobs and in
+ * upload bytes.
+ * Job state lives in memory while a job is pending and for a retention period after it
+ * finishes; finished jobs are also written to ai_analysis_job, so a poll that reaches
+ * another instance, or arrives after eviction, still finds the outcome.
+ */
+@Slf4j
+@Service
+public class AnalysisJobService {
+
+    public enum Priority {
+        HIGH,
+        NORMAL,
+        LOW
+    }
+
+    private static final long SWEEP_INTERVAL_SECONDS = 60;
+    private static final long BYTES_PER_MB = 1024L * 1024;
+
+    private final MedicineAIService medicineAIService;
+    private final ImageProcessingService imageProcessingService;
+    private final AnalysisJobJdbcRepository repository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Map<Status, Counter> completions = new EnumMap<>(Status.class);
+
+    private final ConcurrentHashMap<String, AnalysisJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private final AtomicLong sequence = new AtomicLong();
+    private ThreadPoolExecutor workers;
+    private ScheduledExecutorService sweeper;
+
+    @Value("${ai.jobs.workers:4}")
+    private int workerCount = 4;
+
+    @Value("${ai.jobs.max-queued:200}")
+    private int maxQueued = 200;
+
+    @Value("${ai.jobs.max-queued-mb:256}")
+    private long maxQueuedMb = 256;
+
+    @Value("${ai.jobs.timeout-seconds:120}")
+    private long timeoutSeconds = 120;
+
+    @Value("${ai.jobs.retention-minutes:15}")
+    private long retentionMinutes = 15;
+
+    @Value("${ai.jobs.store.enabled:true}")
+    private boolean storeEnabled = true;
+
+    @Value("${ai.jobs.store.ttl-hours:24}")
+    private long storeTtlHours = 24;
+
+    /**
+     * Starts the analysis of an ingested upload; called on a worker thread
+     */
+    interface Analysis {
+        CompletableFuture<MedicineAnalysisResponse> start(ImageUpload upload) throws IOException;
+    }
+
+    public AnalysisJobService(MedicineAIService medicineAIService, ImageProcessingService imageProcessingService,
+                              AnalysisJobJdbcRepository repository, ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry) {
+        this.medicineAIService = medicineAIService;
+        this.imageProcessingService = imageProcessingService;
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        for (Status status : new Status[] {Status.SUCCEEDED, Status.FAILED}) {
+            completions.put(status, Counter.builder("ai.jobs.completed").tag("status", status.name().toLowerCase())
+                .description("Analysis jobs finished, by outcome")
+                .register(meterRegistry));
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+            new PriorityBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "ai-job-worker-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        workers.prestartAllCoreThreads();
+        Gauge.builder("ai.jobs.queued", queued, AtomicInteger::get)
+            .description("Analysis jobs waiting for a worker")
+            .register(meterRegistry);
+        Gauge.builder("ai.jobs.queued.bytes", queuedBytes, AtomicLong::get)
+            .description("Upload bytes held by analysis jobs waiting for a worker")
+            .register(meterRegistry);
+
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ai-job-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweepQuietly, SWEEP_INTERVAL_SECONDS, SWEEP_INTERVAL_SECONDS,
+            TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+        if (workers != null) {
+            List<Runnable> pending = workers.shutdownNow();
+            for (Runnable runnable : pending) {
+                JobTask task = (JobTask) runnable;
+                task.upload.close();
+                complete(task.job, Status.FAILED, null, "Service shut down before the analysis started");
+            }
+        }
+    }
+
+    /**
+     * Queue an analysis of the uploaded image
+     *
+     * @throws IllegalArgumentException when the upload is not an acceptable image
+     * @throws RejectedExecutionException when the queue is full in jobs or in upload bytes
+     */
+    public AnalysisJobResponse submitImageAnalysis(MultipartFile file, Priority priority) throws IOException {
+        return submit(MedicineAnalysisRequest.AnalysisType.IMAGE_ANALYSIS, priority, file,
+            medicineAIService::analyzeMedicineByImage);
+    }
+
+    /**
+     * Queue an analysis of the query together with the uploaded image
+     *
+     * @throws IllegalArgumentException when the upload is not an acceptable image
+     * @throws RejectedExecutionException when the queue is full in jobs or in upload bytes
+     */
+    public AnalysisJobResponse submitCombinedAnalysis(String query, MultipartFile file, Priority priority)
+            throws IOException {
+        return submit(MedicineAnalysisRequest.AnalysisType.COMBINED, priority, file,
+            upload -> medicineAIService.analyzeMedicineCombined(query, upload));
+    }
+
+    AnalysisJobResponse submit(MedicineAnalysisRequest.AnalysisType type, Priority priority, MultipartFile file,
+                               Analysis analysis) throws IOException {
+        // Reserved before the upload is read into memory, released when a worker takes the job
+        long size = Math.max(file.getSize(), 0);
+        if (queued.incrementAndGet() > maxQueued) {
+            leaveQueue(size);
+            throw new RejectedExecutionException("Analysis queue is full");
+        }
+        if (queuedBytes.addAndGet(size) > maxQueuedMb * BYTES_PER_MB) {
+            leaveQueue(size);
+            throw new RejectedExecutionException("Analysis queue holds too many upload bytes");
+        }
+        ImageUpload upload;
+        try {
+            upload = imageProcessingService.ingest(file);
+        } catch (IOException | RuntimeException e) {
+            leaveQueue(size);
+            throw e;
+        }
+
+        AnalysisJob job = new AnalysisJob(UUID.randomUUID().toString(), type.name(), priority,
+            System.currentTimeMillis());
+        jobs.put(job.getId(), job);
+        try {
+            // execute rather than submit, so the queue orders the JobTask itself
+            workers.execute(new JobTask(job, upload, size, analysis, sequence.incrementAndGet()));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            leaveQueue(size);
+            upload.close();
+            throw e;
+        }
+        log.debug("Queued {} job {} at {} priority", type, job.getId(), priority);
+        return job.toResponse();
+    }
+
+    private void leaveQueue(long size) {
+        queued.decrementAndGet();
+        queuedBytes.addAndGet(-size);
+    }
+
+    /**
+     * Current state of the job, or null when it is unknown or has expired
+     */
+    public AnalysisJobResponse find(String jobId) {
+        AnalysisJob job = jobs.get(jobId);
+        return job != null ? job.toResponse() : loadStored(jobId);
+    }
+
+    /**
+     * Current state of the job, or null when it is unknown. When the returned state is not
+     * final, the listener is called once, on the finishing worker, with the final state.
+     */
+    public AnalysisJobResponse subscribe(String jobId, Consumer<AnalysisJobResponse> listener) {
+        AnalysisJob job = jobs.get(jobId);
+        return job != null ? job.subscribe(listener) : loadStored(jobId);
+    }
+
+    /**
+     * How long a client may wait for a job to finish: the queue wait plus the analysis timeout
+     */
+    public Duration getMaxWait() {
+        return Duration.ofSeconds(timeoutSeconds * 2);
+    }
+
+    private final class JobTask implements Runnable, Comparable<JobTask> {
+        private final AnalysisJob job;
+        private final ImageUpload upload;
+        private final long size;
+        private final Analysis analysis;
+        private final long sequence;
+
+        JobTask(AnalysisJob job, ImageUpload upload, long size, Analysis analysis, long sequence) {
+            this.job = job;
+            this.upload = upload;
+            this.size = size;
+            this.analysis = analysis;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(JobTask other) {
+            int byPriority = job.getPriority().compareTo(other.job.getPriority());
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+
+        @Override
+        public void run() {
+            leaveQueue(size);
+            job.start();
+            try {
+                CompletableFuture<MedicineAnalysisResponse> future;
+                // The image is processed before start returns; the Gemini call does not need the upload
+                try (ImageUpload ingested = upload) {
+                    future = analysis.start(ingested);
+                }
+                MedicineAnalysisResponse result = awaitResult(future);
+                if ("ERROR".equals(result.getAnalysisSource())) {
+                    complete(job, Status.FAILED, null, result.getDescription());
+                } else {
+                    complete(job, Status.SUCCEEDED, result, null);
+                }
+            } catch (AnalysisFailure e) {
+                complete(job, Status.FAILED, null, e.getMessage());
+            } catch (IOException | RuntimeException e) {
+                log.warn("Analysis job {} failed: {}", job.getId(), e.getMessage());
+                complete(job, Status.FAILED, null, "Analysis failed: " + e.getMessage());
+            }
+        }
+
+        private MedicineAnalysisResponse awaitResult(CompletableFuture<MedicineAnalysisResponse> future) {
+            try {
+                return future.get(timeoutSeconds, TimeUnit.SECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                throw new AnalysisFailure("Analysis timed out after " + timeoutSeconds + " seconds");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                log.warn("Analysis job {} failed: {}", job.getId(), cause.getMessage());
+                throw new AnalysisFailure("Analysis failed: " + cause.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AnalysisFailure("Analysis was interrupted");
+            }
+        }
+    }
+
+    private static final class AnalysisFailure extends RuntimeException {
+        AnalysisFailure(String message) {
+            super(message);
+        }
+    }
+
+    private void complete(AnalysisJob job, Status status, MedicineAnalysisResponse result, String error) {
+        List<Consumer<AnalysisJobResponse>> listeners = job.finish(status, result, error, System.currentTimeMillis());
+        if (listeners == null) {
+            return;
+        }
+        completions.get(status).increment();
+        // Stored before listeners hear of it, so a follow-up poll on any instance finds the outcome
+        if (storeEnabled) {
+            store(job);
+        }
+        AnalysisJobResponse finished = job.toResponse();
+        for (Consumer<AnalysisJobResponse> listener : listeners) {
+            try {
+                listener.accept(finished);
+            } catch (RuntimeException e) {
+                log.warn("Listener for analysis job {} failed: {}", job.getId(), e.getMessage());
+            }
+        }
+    }
+
+    private void store(AnalysisJob job) {
+        try {
+            String payload = job.getResult() != null ? objectMapper.writeValueAsString(job.getResult()) : null;
+            StoredJob stored = new StoredJob(job.getId(), job.getStatus().name(), job.getAnalysisType(),
+                job.getPriority().name(), payload, truncate(job.getError()),
+                new Timestamp(job.getSubmittedAt()), new Timestamp(job.getCompletedAt()));
+            repository.save(stored, new Timestamp(job.getCompletedAt() + TimeUnit.HOURS.toMillis(storeTtlHours)));
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Could not store analysis job {}, it stays memory-only: {}", job.getId(), e.getMessage());
+        }
+    }
+
+    private AnalysisJobResponse loadStored(String jobId) {
+        if (!storeEnabled) {
+            return null;
+        }
+        try {
+            StoredJob stored = repository.find(jobId, new Timestamp(System.currentTimeMillis()));
+            if (stored == null) {
+                return null;
+            }
+            AnalysisJobResponse response = new AnalysisJobResponse();
+            response.setJobId(stored.getJobId());
+            response.setStatus(Status.valueOf(stored.getStatus()));
+            response.setAnalysisType(stored.getAnalysisType());
+            response.setPriority(stored.getPriority());
+            response.setSubmittedAt(stored.getSubmittedAt().toLocalDateTime());
+            response.setCompletedAt(stored.getCompletedAt().toLocalDateTime());
+            response.setError(stored.getError());
+            if (stored.getResult() != null) {
+                response.setResult(objectMapper.readValue(stored.getResult(), MedicineAnalysisResponse.class));
+            }
+            return response;
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Could not load analysis job {}: {}", jobId, e.getMessage());
+            return null;
+        }
+    }
+
+    private void sweepQuietly() {
+        try {
+            sweep(System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            log.warn("Analysis job sweep failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Drop finished jobs past the retention period from memory, and expired ones from the table
+     */
+    void sweep(long now) {
+        long cutoff = now - TimeUnit.MINUTES.toMillis(retentionMinutes);
+        Iterator<AnalysisJob> iterator = jobs.values().iterator();
+        while (iterator.hasNext()) {
+            AnalysisJob job = iterator.next();
+            if (job.getStatus().isTerminal() && job.getCompletedAt() < cutoff) {
+                iterator.remove();
+            }
+        }
+        if (storeEnabled) {
+            repository.deleteExpired(new Timestamp(now));
+        }
+    }
+
+    private static String truncate(String error) {
+        return error != null && error.length() > 512 ? error.substring(0, 512) : error;
+    }
+}
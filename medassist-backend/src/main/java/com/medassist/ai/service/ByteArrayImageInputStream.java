@@ -0,0 +1,53 @@
+package com.medassist.ai.service;
+
+import javax.imageio.stream.ImageInputStreamImpl;
+import java.util.Objects;
+
+/**
+ * ImageInputStream reading directly from a byte array region. ImageIO's own streams over
+ * an InputStream copy everything they read into a memory or file cache to support
+ * seeking; an array is already seekable, so decoders read the upload buffer in place.
+ */
+final class ByteArrayImageInputStream extends ImageInputStreamImpl {
+
+    private final byte[] data;
+    private final int offset;
+    private final int length;
+
+    ByteArrayImageInputStream(byte[] data, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, data.length);
+        this.data = data;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int read() {
+        bitOffset = 0;
+        if (streamPos >= length) {
+            return -1;
+        }
+        return data[offset + (int) streamPos++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        Objects.checkFromIndexSize(off, len, b.length);
+        bitOffset = 0;
+        if (len == 0) {
+            return 0;
+        }
+        if (streamPos >= length) {
+            return -1;
+        }
+        int count = (int) Math.min(len, length - streamPos);
+        System.arraycopy(data, offset + (int) streamPos, b, off, count);
+        streamPos += count;
+        return count;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+}
@@ -1,15 +1,21 @@
 package com.medassist.ai.service;
 
+import com.medassist.medicine.entity.AvailabilityKeyword;
 import com.medassist.medicine.entity.Medicine;
 import com.medassist.pharmacy.entity.Pharmacy;
+import com.medassist.medicine.repository.AvailabilityKeywordRepository;
 import com.medassist.medicine.repository.MedicineRepository;
+import com.medassist.medicine.service.AvailabilityKeywords;
 import com.medassist.pharmacy.repository.PharmacyRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Service;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 @Service
@@ -18,6 +24,7 @@ public class CoreDataInitializationService implements CommandLineRunner {
 
     private final MedicineRepository medicineRepository;
     private final PharmacyRepository pharmacyRepository;
+    private final AvailabilityKeywordRepository availabilityKeywordRepository;
 
     @Override
     public void run(String... args) throws Exception {
@@ -27,6 +34,9 @@ public class CoreDataInitializationService implements CommandLineRunner {
         if (pharmacyRepository.count() == 0) {
             initializePharmacies();
         }
+        if (availabilityKeywordRepository.count() == 0) {
+            initializeAvailabilityKeywords();
+        }
     }
 
     private void initializeMedicines() {
@@ -197,4 +207,17 @@ public class CoreDataInitializationService implements CommandLineRunner {
         pharmacyRepository.saveAll(Arrays.asList(cvs, walgreens, local24h, riteAid));
         log.info("Sample pharmacies initialized successfully!");
     }
+
+    private void initializeAvailabilityKeywords() {
+        // Built-in lists become editable rows
+        List<AvailabilityKeyword> keywords = new ArrayList<>();
+        for (Map.Entry<AvailabilityKeyword.KeywordList, Set<String>> entry : AvailabilityKeywords.DEFAULT_KEYWORDS.entrySet()) {
+            for (String keyword : entry.getValue()) {
+                keywords.add(new AvailabilityKeyword(entry.getKey(), keyword));
+            }
+        }
+
+        availabilityKeywordRepository.saveAll(keywords);
+        log.info("Availability keywords initialized successfully!");
+    }
 }
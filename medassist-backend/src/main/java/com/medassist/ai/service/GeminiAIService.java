@@ -1,5 +1,6 @@
 package com.medassist.ai.service;
 
+import com.medassist.ai.dto.AnalysisStreamEvent;
 import com.medassist.ai.dto.GeminiRequest;
 import com.medassist.ai.dto.GeminiResponse;
 import com.medassist.medicine.dto.MedicineAnalysisRequest;
@@ -7,19 +8,26 @@ import com.medassist.medicine.dto.MedicineAnalysisResponse;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.util.retry.Retry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -27,23 +35,65 @@ public class GeminiAIService {
 
     private static final Logger logger = LoggerFactory.getLogger(GeminiAIService.class);
 
+    static final String ANALYSIS_CACHE = "medicine-analysis";
+    static final String TEXT_EXTRACTION_CACHE = "image-text-extraction";
+    static final String TEXT_EXTRACTION_FAILED = "Unable to extract text from image";
+
     private final WebClient webClient;
     private final GeminiConfig config;
     private final PromptTemplateService promptTemplateService;
     private final ObjectMapper objectMapper;
+    private final CacheManager cacheManager;
+    private final InFlightRequestRegistry inFlightRequests;
+    private final AnalysisCacheKeys analysisCacheKeys;
+    private final AiResultStore resultStore;
+    private final GeminiConcurrencyLimiter concurrencyLimiter;
 
     /**
-     * Analyze medicine based on text query
+     * Analyze medicine based on text query, image or both. Successful analyses are cached
+     * under the canonical key of the request; error responses, failed calls and analyses of
+     * text reused from a near-duplicate image (which never saw this image) are not.
      */
-    @Cacheable(value = "medicine-analysis", key = "#request.query")
     public CompletableFuture<MedicineAnalysisResponse> analyzeMedicine(MedicineAnalysisRequest request) {
         logger.info("Starting medicine analysis for query: {}", request.getQuery());
 
-        return switch (request.getAnalysisType()) {
-            case TEXT_QUERY -> analyzeTextQuery(request);
-            case IMAGE_ANALYSIS -> analyzeImageOnly(request);
-            case COMBINED -> analyzeCombined(request);
-        };
+        return cached(ANALYSIS_CACHE, analysisCacheKeys.keyFor(request), request.getAnalysisType().name(),
+            MedicineAnalysisResponse.class, () -> switch (request.getAnalysisType()) {
+                case TEXT_QUERY -> analyzeTextQuery(request);
+                case IMAGE_ANALYSIS -> analyzeImageOnly(request);
+                case COMBINED -> analyzeCombined(request);
+            }, GeminiAIService::isCacheableAnalysis);
+    }
+
+    /**
+     * Analyze medicine as a stream of events: model text as it is generated, analysis fields
+     * as their values complete, then the parsed result, cached as by {@link #analyzeMedicine}.
+     * A cached analysis is streamed as its result alone; a failure ends the stream with an
+     * error event.
+     */
+    public Flux<AnalysisStreamEvent> streamMedicineAnalysis(MedicineAnalysisRequest request) {
+        logger.info("Starting streamed medicine analysis for query: {}", request.getQuery());
+
+        String key = analysisCacheKeys.keyFor(request);
+        MedicineAnalysisResponse cached = key != null
+            ? lookup(ANALYSIS_CACHE, key, MedicineAnalysisResponse.class) : null;
+        if (cached != null) {
+            return Flux.just(AnalysisStreamEvent.result(cached));
+        }
+        return Mono.defer(() -> prepareStreamedCall(request))
+            .flatMapMany(call -> streamAnalysis(request, call, key))
+            .onErrorResume(error -> {
+                logger.error("Streamed medicine analysis failed", error);
+                return Flux.just(AnalysisStreamEvent.error("AI analysis failed: " + error.getMessage()));
+            });
+    }
+
+    /**
+     * Cached analysis for the request, or null; lets callers skip preparing its image
+     */
+    public MedicineAnalysisResponse findCachedAnalysis(MedicineAnalysisRequest request) {
+        String key = analysisCacheKeys.keyFor(request);
+        return key != null ? lookup(ANALYSIS_CACHE, key, MedicineAnalysisResponse.class) : null;
     }
 
     /**
@@ -68,13 +118,27 @@ public class GeminiAIService {
     }
 
     /**
-     * Analyze medicine based on image only
+     * Analyze medicine based on image only: in one call when enabled, else (or when that
+     * call fails) by extracting the text first and analysing it in a second call
      */
     private CompletableFuture<MedicineAnalysisResponse> analyzeImageOnly(MedicineAnalysisRequest request) {
         logger.info("Starting image analysis for medicine identification");
 
-        // First extract text from image
-        return extractTextFromImage(request.getImageData(), request.getImageMimeType())
+        String reusedText = nearDuplicateText(request);
+        byte[] image = reusedText == null ? imageBytes(request) : null;
+        if (useSinglePass(request, image)) {
+            return analyzeInSinglePass(request, image, promptTemplateService.getImageAnalysisPrompt(null),
+                "IMAGE_ANALYSIS", () -> analyzeImageInTwoSteps(request, image, null));
+        }
+        return analyzeImageInTwoSteps(request, image, reusedText);
+    }
+
+    private CompletableFuture<MedicineAnalysisResponse> analyzeImageInTwoSteps(MedicineAnalysisRequest request,
+                                                                               byte[] image, String reusedText) {
+        // First extract text from image, or reuse the text of a near-duplicate upload
+        CompletableFuture<String> text = reusedText != null ? CompletableFuture.completedFuture(reusedText)
+            : extractTextFromImage(image, request.getImageMimeType(), request.getImageDigest());
+        return text
             .thenCompose(extractedText -> {
                 // Then analyze the extracted text
                 String analysisPrompt = promptTemplateService.getMedicineAnalysisPrompt(extractedText);
@@ -86,6 +150,9 @@ public class GeminiAIService {
                             MedicineAnalysisResponse result = parseAnalysisResponse(response);
                             result.setAnalysisSource("IMAGE_ANALYSIS");
                             result.setExtractedText(extractedText);
+                            if (reusedText != null) {
+                                markNearDuplicate(result, request.getDuplicateSimilarity());
+                            }
                             return result;
                         } catch (Exception e) {
                             logger.error("Error parsing image analysis response", e);
@@ -96,13 +163,26 @@ public class GeminiAIService {
     }
 
     /**
-     * Analyze medicine using both text query and image
+     * Analyze medicine using both text query and image, in one call or two as for images only
      */
     private CompletableFuture<MedicineAnalysisResponse> analyzeCombined(MedicineAnalysisRequest request) {
         logger.info("Starting combined analysis for medicine identification");
 
-        // First extract text from image
-        return extractTextFromImage(request.getImageData(), request.getImageMimeType())
+        String reusedText = nearDuplicateText(request);
+        byte[] image = reusedText == null ? imageBytes(request) : null;
+        if (useSinglePass(request, image)) {
+            return analyzeInSinglePass(request, image, promptTemplateService.getImageAnalysisPrompt(request.getQuery()),
+                "COMBINED", () -> analyzeCombinedInTwoSteps(request, image, null));
+        }
+        return analyzeCombinedInTwoSteps(request, image, reusedText);
+    }
+
+    private CompletableFuture<MedicineAnalysisResponse> analyzeCombinedInTwoSteps(MedicineAnalysisRequest request,
+                                                                                  byte[] image, String reusedText) {
+        // First extract text from image, or reuse the text of a near-duplicate upload
+        CompletableFuture<String> text = reusedText != null ? CompletableFuture.completedFuture(reusedText)
+            : extractTextFromImage(image, request.getImageMimeType(), request.getImageDigest());
+        return text
             .thenCompose(extractedText -> {
                 // Then analyze using both extracted text and user query
                 String combinedPrompt = promptTemplateService.getCombinedAnalysisPrompt(extractedText, request.getQuery());
@@ -114,6 +194,9 @@ public class GeminiAIService {
                             MedicineAnalysisResponse result = parseAnalysisResponse(response);
                             result.setAnalysisSource("COMBINED");
                             result.setExtractedText(extractedText);
+                            if (reusedText != null) {
+                                markNearDuplicate(result, request.getDuplicateSimilarity());
+                            }
                             return result;
                         } catch (Exception e) {
                             logger.error("Error parsing combined analysis response", e);
@@ -125,15 +208,214 @@ public class GeminiAIService {
     }
 
     /**
-     * Extract text from medicine packaging image
+     * Whether to analyse the image in one call: enabled, an image to send, and no text of
+     * this image cached already (which leaves a single call on the two-step path as well)
+     */
+    private boolean useSinglePass(MedicineAnalysisRequest request, byte[] image) {
+        if (!config.isSinglePassImageAnalysis() || image == null) {
+            return false;
+        }
+        return request.getImageDigest() == null || lookup(TEXT_EXTRACTION_CACHE,
+            analysisCacheKeys.extractionKeyFor(request.getImageDigest()), String.class) == null;
+    }
+
+    /**
+     * Send the image with the analysis prompt and read the analysis and the extracted text
+     * from the one response. A failed call or a response without the analysis JSON falls
+     * back to the two-step path, unless the concurrency limiter refused it; the extracted
+     * text is cached as if extracted separately.
+     */
+    private CompletableFuture<MedicineAnalysisResponse> analyzeInSinglePass(
+            MedicineAnalysisRequest request, byte[] image, String prompt, String analysisSource,
+            Supplier<CompletableFuture<MedicineAnalysisResponse>> twoStepFallback) {
+        GeminiRequest geminiRequest = createImageRequest(prompt, image, request.getImageMimeType());
+
+        return callGeminiAPI(geminiRequest)
+            .thenApply(this::parseSinglePassResponse)
+            .exceptionally(error -> {
+                if (isCapacityRejection(error)) {
+                    // Two more calls would only add to the queue that refused this one
+                    throw error instanceof CompletionException
+                        ? (CompletionException) error : new CompletionException(error);
+                }
+                logger.warn("Single-pass image analysis failed: {}", error.getMessage());
+                return null;
+            })
+            .thenCompose(result -> {
+                if (result == null) {
+                    logger.info("Falling back to two-step image analysis");
+                    return twoStepFallback.get();
+                }
+                result.setAnalysisSource(analysisSource);
+                rememberExtractedText(request.getImageDigest(), result.getExtractedText());
+                return CompletableFuture.completedFuture(result);
+            });
+    }
+
+    private static boolean isCapacityRejection(Throwable error) {
+        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+        return cause instanceof GeminiCapacityException;
+    }
+
+    /**
+     * Analysis in a single-pass response, or null when it holds no analysis JSON
+     */
+    private MedicineAnalysisResponse parseSinglePassResponse(GeminiResponse response) {
+        String jsonText = extractJsonFromText(extractTextFromGeminiResponse(response));
+        try {
+            return objectMapper.readValue(jsonText, MedicineAnalysisResponse.class);
+        } catch (JsonProcessingException e) {
+            logger.warn("Single-pass response is not the expected JSON: {}", e.getOriginalMessage());
+            return null;
+        }
+    }
+
+    private void rememberExtractedText(String imageDigest, String extractedText) {
+        if (imageDigest == null || extractedText == null || extractedText.isBlank()) {
+            return;
+        }
+        remember(TEXT_EXTRACTION_CACHE, analysisCacheKeys.extractionKeyFor(imageDigest),
+            AiResultStore.TEXT_EXTRACTION, extractedText);
+    }
+
+    /**
+     * The generation to stream for a request, and what is already known about its image
+     */
+    private static final class StreamedCall {
+        private final GeminiRequest geminiRequest;
+        private final String extractedText;
+        private final boolean singlePass;
+        private final boolean nearDuplicate;
+
+        StreamedCall(GeminiRequest geminiRequest, String extractedText, boolean singlePass, boolean nearDuplicate) {
+            this.geminiRequest = geminiRequest;
+            this.extractedText = extractedText;
+            this.singlePass = singlePass;
+            this.nearDuplicate = nearDuplicate;
+        }
+    }
+
+    /**
+     * The call whose generation is streamed: the analysis prompt for a text query; for an
+     * image the single-pass prompt when it applies, else the analysis of its extracted text,
+     * which is extracted first (or reused) without streaming
+     */
+    private Mono<StreamedCall> prepareStreamedCall(MedicineAnalysisRequest request) {
+        MedicineAnalysisRequest.AnalysisType type = request.getAnalysisType();
+        if (type == MedicineAnalysisRequest.AnalysisType.TEXT_QUERY) {
+            String prompt = promptTemplateService.getMedicineAnalysisPrompt(request.getQuery());
+            return Mono.just(new StreamedCall(createTextRequest(prompt), null, false, false));
+        }
+
+        boolean combined = type == MedicineAnalysisRequest.AnalysisType.COMBINED;
+        String reusedText = nearDuplicateText(request);
+        byte[] image = reusedText == null ? imageBytes(request) : null;
+        if (useSinglePass(request, image)) {
+            String prompt = promptTemplateService.getImageAnalysisPrompt(combined ? request.getQuery() : null);
+            return Mono.just(new StreamedCall(createImageRequest(prompt, image, request.getImageMimeType()),
+                null, true, false));
+        }
+        CompletableFuture<String> text = reusedText != null ? CompletableFuture.completedFuture(reusedText)
+            : extractTextFromImage(image, request.getImageMimeType(), request.getImageDigest());
+        return Mono.fromFuture(text).map(extractedText -> {
+            String prompt = combined
+                ? promptTemplateService.getCombinedAnalysisPrompt(extractedText, request.getQuery())
+                : promptTemplateService.getMedicineAnalysisPrompt(extractedText);
+            return new StreamedCall(createTextRequest(prompt), extractedText, false, reusedText != null);
+        });
+    }
+
+    private Flux<AnalysisStreamEvent> streamAnalysis(MedicineAnalysisRequest request, StreamedCall call, String key) {
+        IncrementalAnalysisParser parser = new IncrementalAnalysisParser(objectMapper);
+        StringBuilder fullText = new StringBuilder();
+
+        return streamFromGemini(call.geminiRequest)
+            .concatMapIterable(chunk -> {
+                fullText.append(chunk);
+                List<AnalysisStreamEvent> events = new ArrayList<>();
+                events.add(AnalysisStreamEvent.text(chunk));
+                for (IncrementalAnalysisParser.Field field : parser.feed(chunk)) {
+                    events.add(AnalysisStreamEvent.field(field.getName(), field.getValue()));
+                }
+                return events;
+            })
+            .concatWith(Mono.fromCallable(() ->
+                AnalysisStreamEvent.result(completeStreamedAnalysis(request, call, key, fullText.toString()))));
+    }
+
+    /**
+     * Result of a finished stream, parsed from its full text as a non-streamed response is
+     */
+    private MedicineAnalysisResponse completeStreamedAnalysis(MedicineAnalysisRequest request, StreamedCall call,
+                                                              String key, String fullText) {
+        if (fullText.isBlank()) {
+            return createErrorResponse("Empty response from AI service", request.getQuery());
+        }
+        MedicineAnalysisResponse result = parseAnalysisText(fullText);
+        result.setAnalysisSource(request.getAnalysisType().name());
+        if (call.extractedText != null) {
+            result.setExtractedText(call.extractedText);
+        } else if (call.singlePass) {
+            rememberExtractedText(request.getImageDigest(), result.getExtractedText());
+        }
+        if (call.nearDuplicate) {
+            markNearDuplicate(result, request.getDuplicateSimilarity());
+        }
+        if (key != null && isCacheableAnalysis(result)) {
+            remember(ANALYSIS_CACHE, key, request.getAnalysisType().name(), result);
+        }
+        return result;
+    }
+
+    /**
+     * Extract text from medicine packaging image, cached by the content digest of the upload
+     * when known, else by the digest of the request
      */
-    @Cacheable(value = "image-text-extraction", key = "#imageData.hashCode()")
-    public CompletableFuture<String> extractTextFromImage(String imageData, String mimeType) {
+    public CompletableFuture<String> extractTextFromImage(byte[] imageData, String mimeType, String imageDigest) {
         logger.info("Extracting text from image");
 
         String prompt = promptTemplateService.getImageTextExtractionPrompt();
         GeminiRequest geminiRequest = createImageRequest(prompt, imageData, mimeType);
+        String key = imageDigest != null ? analysisCacheKeys.extractionKeyFor(imageDigest)
+            : InFlightRequestRegistry.keyOf(config.getModel(), geminiRequest);
+
+        return cached(TEXT_EXTRACTION_CACHE, key,
+            AiResultStore.TEXT_EXTRACTION, String.class,
+            () -> extractText(geminiRequest), text -> !TEXT_EXTRACTION_FAILED.equals(text));
+    }
+
+    /**
+     * Cached text extracted from the near-duplicate upload named in the request, or null
+     */
+    private String nearDuplicateText(MedicineAnalysisRequest request) {
+        if (request.getSimilarImageDigest() == null) {
+            return null;
+        }
+        String text = lookup(TEXT_EXTRACTION_CACHE,
+            analysisCacheKeys.extractionKeyFor(request.getSimilarImageDigest()), String.class);
+        if (text != null) {
+            logger.info("Reusing text extracted from near-duplicate image {}", request.getSimilarImageDigest());
+        }
+        return text;
+    }
 
+    /**
+     * Image of the request: the bytes prepared from an upload, else the base64 image data
+     * supplied by the client, decoded
+     */
+    private static byte[] imageBytes(MedicineAnalysisRequest request) {
+        if (request.getImageBytes() != null) {
+            return request.getImageBytes();
+        }
+        return request.getImageData() != null ? Base64.getMimeDecoder().decode(request.getImageData()) : null;
+    }
+
+    private static void markNearDuplicate(MedicineAnalysisResponse response, Double similarity) {
+        response.setNearDuplicate(true);
+        response.setDuplicateSimilarity(similarity);
+    }
+
+    private CompletableFuture<String> extractText(GeminiRequest geminiRequest) {
         return callGeminiAPI(geminiRequest)
             .thenApply(response -> {
                 try {
@@ -142,7 +424,7 @@ public class GeminiAIService {
                     return responseText;
                 } catch (Exception e) {
                     logger.error("Error extracting text from image", e);
-                    return "Unable to extract text from image";
+                    return TEXT_EXTRACTION_FAILED;
                 }
             });
     }
@@ -159,7 +441,7 @@ public class GeminiAIService {
     /**
      * Create Gemini request for image + text analysis
      */
-    private GeminiRequest createImageRequest(String prompt, String imageData, String mimeType) {
+    private GeminiRequest createImageRequest(String prompt, byte[] imageData, String mimeType) {
         GeminiRequest.Part textPart = new GeminiRequest.Part(prompt);
         GeminiRequest.Part imagePart = new GeminiRequest.Part(
             new GeminiRequest.InlineData(mimeType, imageData)
@@ -169,31 +451,145 @@ public class GeminiAIService {
     }
 
     /**
-     * Call Gemini API with retry logic
+     * Cached value for the key if present in memory or in the durable result store, else the
+     * supplied computation; its result is stored in both only when it completes normally
+     * and passes the filter. A null key bypasses the caches.
+     */
+    private <T> CompletableFuture<T> cached(String cacheName, String key, String analysisType, Class<T> type,
+                                            Supplier<CompletableFuture<T>> compute, Predicate<T> cacheable) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null || key == null) {
+            return compute.get();
+        }
+        T value = lookup(cacheName, key, type);
+        if (value != null) {
+            return CompletableFuture.completedFuture(value);
+        }
+        return compute.get().whenComplete((result, error) -> {
+            if (error == null && result != null && cacheable.test(result)) {
+                remember(cacheName, key, analysisType, result);
+            }
+        });
+    }
+
+    /**
+     * Put a value in memory and in the durable result store
+     */
+    private void remember(String cacheName, String key, String analysisType, Object value) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return;
+        }
+        cache.put(key, value);
+        resultStore.put(cacheName, key, analysisType, value);
+    }
+
+    /**
+     * Value from memory, else from the durable store (promoting it into memory), else null
+     */
+    private <T> T lookup(String cacheName, String key, Class<T> type) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return null;
+        }
+        T value = cache.get(key, type);
+        if (value == null) {
+            value = resultStore.get(cacheName, key, type);
+            if (value != null) {
+                cache.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    private static boolean isCacheableAnalysis(MedicineAnalysisResponse response) {
+        return !"ERROR".equals(response.getAnalysisSource()) && !response.isNearDuplicate();
+    }
+
+    /**
+     * Call Gemini API under the concurrency limit, retrying 429s and server errors with
+     * jittered exponential backoff. Identical requests issued while one is still in
+     * flight share its upstream call.
      */
     private CompletableFuture<GeminiResponse> callGeminiAPI(GeminiRequest request) {
+        return inFlightRequests.share(InFlightRequestRegistry.keyOf(config.getModel(), request),
+            () -> sendToGemini(request));
+    }
+
+    private CompletableFuture<GeminiResponse> sendToGemini(GeminiRequest request) {
         String endpoint = String.format("/models/%s:generateContent?key=%s",
             config.getModel(), config.getApiKey());
 
-        return webClient.post()
+        Mono<GeminiResponse> call = webClient.post()
             .uri(endpoint)
             .bodyValue(request)
             .retrieve()
             .bodyToMono(GeminiResponse.class)
-            .timeout(Duration.ofSeconds(config.getTimeoutSeconds()))
-            .retryWhen(Retry.fixedDelay(config.getMaxRetries(), Duration.ofSeconds(2))
+            .timeout(Duration.ofSeconds(config.getTimeoutSeconds()));
+
+        // Each attempt takes its own permit, so a backed-off retry does not hold one while waiting
+        return concurrencyLimiter.limit(call)
+            .retryWhen(Retry.backoff(config.getMaxRetries(), config.getRetryInitialBackoff())
+                .maxBackoff(config.getRetryMaxBackoff())
+                .jitter(config.getRetryJitter())
                 .filter(throwable -> throwable instanceof WebClientResponseException.TooManyRequests ||
-                                   throwable instanceof WebClientResponseException.InternalServerError))
+                                   throwable instanceof WebClientResponseException.InternalServerError ||
+                                   throwable instanceof WebClientResponseException.ServiceUnavailable)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
             .doOnError(error -> logger.error("Gemini API call failed", error))
             .toFuture();
     }
 
+    /**
+     * Text chunks of a streamed generation, relayed from streamGenerateContent as server-sent
+     * events. Not retried: chunks already relayed to the client cannot be taken back.
+     */
+    private Flux<String> streamFromGemini(GeminiRequest request) {
+        String endpoint = String.format("/models/%s:streamGenerateContent?alt=sse&key=%s",
+            config.getModel(), config.getApiKey());
+
+        Flux<GeminiResponse> call = webClient.post()
+            .uri(endpoint)
+            .accept(MediaType.TEXT_EVENT_STREAM)
+            .bodyValue(request)
+            .retrieve()
+            .bodyToFlux(GeminiResponse.class)
+            // Bounds the wait for the first chunk and between chunks
+            .timeout(Duration.ofSeconds(config.getTimeoutSeconds()));
+
+        return concurrencyLimiter.limit(call)
+            .map(GeminiAIService::chunkText)
+            .filter(text -> !text.isEmpty());
+    }
+
+    private static String chunkText(GeminiResponse response) {
+        if (response.getCandidates() == null || response.getCandidates().isEmpty()) {
+            return "";
+        }
+        GeminiResponse.Content content = response.getCandidates().get(0).getContent();
+        if (content == null || content.getParts() == null) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder();
+        for (GeminiResponse.Part part : content.getParts()) {
+            if (part.getText() != null) {
+                text.append(part.getText());
+            }
+        }
+        return text.toString();
+    }
+
     /**
      * Parse Gemini response to MedicineAnalysisResponse
      */
     private MedicineAnalysisResponse parseAnalysisResponse(GeminiResponse response) throws JsonProcessingException {
-        String responseText = extractTextFromGeminiResponse(response);
+        return parseAnalysisText(extractTextFromGeminiResponse(response));
+    }
 
+    /**
+     * Parse the analysis JSON in model text, or keep the text as the description
+     */
+    private MedicineAnalysisResponse parseAnalysisText(String responseText) {
         // Clean up the response text to extract JSON
         String jsonText = extractJsonFromText(responseText);
 
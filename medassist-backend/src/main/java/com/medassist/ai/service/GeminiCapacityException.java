@@ -0,0 +1,12 @@
+package com.medassist.ai.service;
+
+/**
+ * A Gemini call refused locally because the concurrency limit was reached and the call
+ * could not wait for a permit: the queue was full or its deadline passed
+ */
+public class GeminiCapacityException extends RuntimeException {
+
+    public GeminiCapacityException(String message) {
+        super(message);
+    }
+}
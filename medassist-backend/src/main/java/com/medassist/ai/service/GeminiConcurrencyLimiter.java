@@ -0,0 +1,314 @@
+package com.medassist.ai.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Adaptive bound on concurrent Gemini calls. Each call holds a permit; calls beyond the
+ * limit wait in a FIFO queue, and are refused with {@link GeminiCapacityException} when
+ * the queue is full or they have waited past the queue timeout.
+ *
+ * The limit follows AIMD with a latency gradient. A successful call raises it by 1/limit
+ * (about one per round of calls) while the permits are in use. A 429 or a timed-out call
+ * cuts it by the backoff ratio, and so does a short-term latency average that has drifted
+ * past latency-tolerance times the long-term one. At most one cut is made per round trip,
+ * so a burst of 429s from one overload counts once.
+ */
+@Slf4j
+@Component
+public class GeminiConcurrencyLimiter {
+
+    // Weights of a new latency sample in the short- and long-term averages
+    private static final double SHORT_WEIGHT = 0.2;
+    private static final double LONG_WEIGHT = 0.02;
+    private static final long MIN_DECREASE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+
+    enum Outcome {
+        SUCCEEDED,
+        CONGESTED,
+        IGNORED
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedDeadline;
+    private final Counter decreases;
+    private final Timer queueWait;
+
+    private final ArrayDeque<Waiter> queue = new ArrayDeque<>();
+    private int inFlight;
+    private double estimatedLimit;
+    private double shortRtt;
+    private double longRtt;
+    private boolean decreased;
+    private long lastDecreaseAt;
+    private ScheduledExecutorService deadlines;
+
+    @Value("${gemini.limiter.initial-limit:8}")
+    private int initialLimit = 8;
+
+    @Value("${gemini.limiter.min-limit:1}")
+    private int minLimit = 1;
+
+    @Value("${gemini.limiter.max-limit:64}")
+    private int maxLimit = 64;
+
+    @Value("${gemini.limiter.max-queued:100}")
+    private int maxQueued = 100;
+
+    @Value("${gemini.limiter.queue-timeout-ms:10000}")
+    private long queueTimeoutMs = 10_000;
+
+    @Value("${gemini.limiter.backoff-ratio:0.7}")
+    private double backoffRatio = 0.7;
+
+    @Value("${gemini.limiter.latency-tolerance:2.0}")
+    private double latencyTolerance = 2.0;
+
+    public GeminiConcurrencyLimiter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.rejectedQueueFull = Counter.builder("gemini.limiter.rejected").tag("reason", "queue_full")
+            .description("Gemini calls refused without waiting because the queue was full")
+            .register(meterRegistry);
+        this.rejectedDeadline = Counter.builder("gemini.limiter.rejected").tag("reason", "deadline")
+            .description("Gemini calls refused after waiting past the queue timeout")
+            .register(meterRegistry);
+        this.decreases = Counter.builder("gemini.limiter.decreases")
+            .description("Cuts of the Gemini concurrency limit on 429s, timeouts or rising latency")
+            .register(meterRegistry);
+        this.queueWait = Timer.builder("gemini.limiter.queue_wait")
+            .description("Time Gemini calls waited for a permit")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        deadlines = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gemini-limiter-deadlines");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("gemini.limiter.limit", this, GeminiConcurrencyLimiter::getLimit)
+            .description("Current Gemini concurrency limit")
+            .register(meterRegistry);
+        Gauge.builder("gemini.limiter.permits.in_use", this, GeminiConcurrencyLimiter::getInFlight)
+            .description("Gemini calls holding a permit")
+            .register(meterRegistry);
+        Gauge.builder("gemini.limiter.queued", this, GeminiConcurrencyLimiter::getQueued)
+            .description("Gemini calls waiting for a permit")
+            .register(meterRegistry);
+        log.info("Gemini concurrency limit starts at {} (bounds {}-{}), up to {} calls queued for {} ms",
+            getLimit(), minLimit, maxLimit, maxQueued, queueTimeoutMs);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (deadlines != null) {
+            deadlines.shutdownNow();
+        }
+    }
+
+    /**
+     * The call run under a permit, taken on subscription and returned when it terminates.
+     * Each resubscription, such as a retry, takes a permit of its own.
+     */
+    public <T> Mono<T> limit(Mono<T> call) {
+        return limit(call.flux()).singleOrEmpty();
+    }
+
+    /**
+     * The streamed call run under a permit held until the stream terminates; its latency
+     * sample is the time to the first element
+     */
+    public <T> Flux<T> limit(Flux<T> call) {
+        return Flux.usingWhen(acquire(),
+            permit -> call.doOnNext(element -> permit.markFirstElement()),
+            permit -> Mono.fromRunnable(() -> release(permit, Outcome.SUCCEEDED)),
+            (permit, error) -> Mono.fromRunnable(() -> release(permit, classify(error))),
+            permit -> Mono.fromRunnable(() -> release(permit, Outcome.IGNORED)));
+    }
+
+    public synchronized int getLimit() {
+        return (int) estimatedLimit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return queue.size();
+    }
+
+    /**
+     * A call that has waited in the queue
+     */
+    private final class Waiter {
+        private final MonoSink<Permit> sink;
+        private final long enqueuedAt = System.nanoTime();
+        private ScheduledFuture<?> deadline;
+
+        Waiter(MonoSink<Permit> sink) {
+            this.sink = sink;
+        }
+    }
+
+    /**
+     * Right to one call; released once, by whichever of completion, error, cancellation or
+     * a discarded grant comes first
+     */
+    final class Permit {
+        private final long grantedAt = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile long firstElementAt;
+
+        private void markFirstElement() {
+            if (firstElementAt == 0) {
+                firstElementAt = System.nanoTime();
+            }
+        }
+
+        private long latencyNanos() {
+            long end = firstElementAt != 0 ? firstElementAt : System.nanoTime();
+            return end - grantedAt;
+        }
+    }
+
+    private Mono<Permit> acquire() {
+        return Mono.<Permit>create(sink -> {
+            Permit granted = null;
+            GeminiCapacityException refused = null;
+            synchronized (this) {
+                if (inFlight < getLimit() && queue.isEmpty()) {
+                    inFlight++;
+                    granted = new Permit();
+                } else if (queue.size() >= maxQueued) {
+                    refused = new GeminiCapacityException("Too many Gemini calls waiting (" + queue.size() + ")");
+                } else {
+                    Waiter waiter = new Waiter(sink);
+                    queue.addLast(waiter);
+                    waiter.deadline = deadlines.schedule(() -> expire(waiter), queueTimeoutMs, TimeUnit.MILLISECONDS);
+                    sink.onCancel(() -> withdraw(waiter));
+                }
+            }
+            if (granted != null) {
+                queueWait.record(0, TimeUnit.NANOSECONDS);
+                sink.success(granted);
+            } else if (refused != null) {
+                rejectedQueueFull.increment();
+                sink.error(refused);
+            }
+        }).doOnDiscard(Permit.class, permit -> release(permit, Outcome.IGNORED));
+    }
+
+    private void expire(Waiter waiter) {
+        synchronized (this) {
+            if (!queue.remove(waiter)) {
+                return;
+            }
+        }
+        rejectedDeadline.increment();
+        waiter.sink.error(new GeminiCapacityException(
+            "No Gemini call permit within " + queueTimeoutMs + " ms"));
+    }
+
+    private void withdraw(Waiter waiter) {
+        synchronized (this) {
+            if (queue.remove(waiter)) {
+                waiter.deadline.cancel(false);
+            }
+        }
+    }
+
+    void release(Permit permit, Outcome outcome) {
+        if (!permit.released.compareAndSet(false, true)) {
+            return;
+        }
+        long now = System.nanoTime();
+        List<Waiter> toGrant = new ArrayList<>();
+        synchronized (this) {
+            int inFlightBefore = inFlight;
+            inFlight--;
+            updateLimit(outcome, permit.latencyNanos(), inFlightBefore, now);
+            while (inFlight < getLimit() && !queue.isEmpty()) {
+                Waiter waiter = queue.pollFirst();
+                waiter.deadline.cancel(false);
+                inFlight++;
+                toGrant.add(waiter);
+            }
+        }
+        // Granted outside the lock: the call starts on this thread
+        for (Waiter waiter : toGrant) {
+            queueWait.record(now - waiter.enqueuedAt, TimeUnit.NANOSECONDS);
+            waiter.sink.success(new Permit());
+        }
+    }
+
+    /**
+     * Apply one sample to the limit; called with the lock held
+     */
+    void updateLimit(Outcome outcome, long latencyNanos, int inFlightBefore, long now) {
+        if (outcome == Outcome.CONGESTED) {
+            decrease(now);
+            return;
+        }
+        if (outcome != Outcome.SUCCEEDED || latencyNanos <= 0) {
+            return;
+        }
+        if (longRtt == 0) {
+            shortRtt = latencyNanos;
+            longRtt = latencyNanos;
+        } else {
+            shortRtt += SHORT_WEIGHT * (latencyNanos - shortRtt);
+            longRtt += LONG_WEIGHT * (latencyNanos - longRtt);
+        }
+        if (shortRtt > latencyTolerance * longRtt) {
+            decrease(now);
+        } else if (inFlightBefore * 2 >= estimatedLimit) {
+            // Only grow while the permits are actually in use
+            estimatedLimit = Math.min(maxLimit, estimatedLimit + 1.0 / estimatedLimit);
+        }
+    }
+
+    private void decrease(long now) {
+        long interval = Math.max(MIN_DECREASE_INTERVAL_NANOS, (long) shortRtt);
+        if (decreased && now - lastDecreaseAt < interval) {
+            return;
+        }
+        decreased = true;
+        lastDecreaseAt = now;
+        double previous = estimatedLimit;
+        estimatedLimit = Math.max(minLimit, estimatedLimit * backoffRatio);
+        decreases.increment();
+        log.debug("Gemini concurrency limit cut from {} to {}", (int) previous, (int) estimatedLimit);
+    }
+
+    static Outcome classify(Throwable error) {
+        if (error instanceof WebClientResponseException.TooManyRequests || error instanceof TimeoutException) {
+            return Outcome.CONGESTED;
+        }
+        return Outcome.IGNORED;
+    }
+}
@@ -30,6 +30,18 @@ public class GeminiConfig {
     @Value("${gemini.max-retries:3}")
     private int maxRetries;
 
+    @Value("${gemini.retry.initial-backoff-ms:1000}")
+    private long retryInitialBackoffMs = 1000;
+
+    @Value("${gemini.retry.max-backoff-ms:15000}")
+    private long retryMaxBackoffMs = 15_000;
+
+    @Value("${gemini.retry.jitter:0.5}")
+    private double retryJitter = 0.5;
+
+    @Value("${gemini.image-analysis.single-pass:true}")
+    private boolean singlePassImageAnalysis = true;
+
     @Bean
     public WebClient geminiWebClient() {
         return WebClient.builder()
@@ -57,6 +69,34 @@ public class GeminiConfig {
             "dosage-information"
         ));
 
+        // Per-entity caches for multi-get lookups; evicted on write, short TTL bounds cross-instance staleness
+        cacheManager.registerCustomCache("medicines-by-id", Caffeine.newBuilder()
+            .maximumSize(5000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .recordStats()
+            .build());
+        cacheManager.registerCustomCache("pharmacies-by-id", Caffeine.newBuilder()
+            .maximumSize(5000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .recordStats()
+            .build());
+
+        // Per-medicine availability heatmaps; evicted on pharmacy and inventory changes
+        cacheManager.registerCustomCache("availability-heatmap", Caffeine.newBuilder()
+            .maximumSize(500)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .recordStats()
+            .build());
+
+        // Processed uploads by content digest, bounded by total encoded size (~32MB)
+        cacheManager.registerCustomCache("processed-images", Caffeine.newBuilder()
+            .maximumWeight(32L * 1024 * 1024)
+            .<Object, Object>weigher((key, value) ->
+                value instanceof ProcessedImage image ? image.getData().length : 1)
+            .expireAfterAccess(Duration.ofHours(1))
+            .recordStats()
+            .build());
+
         return cacheManager;
     }
 
@@ -80,4 +120,20 @@ public class GeminiConfig {
     public int getMaxRetries() {
         return maxRetries;
     }
+
+    public Duration getRetryInitialBackoff() {
+        return Duration.ofMillis(retryInitialBackoffMs);
+    }
+
+    public Duration getRetryMaxBackoff() {
+        return Duration.ofMillis(retryMaxBackoffMs);
+    }
+
+    public double getRetryJitter() {
+        return retryJitter;
+    }
+
+    public boolean isSinglePassImageAnalysis() {
+        return singlePassImageAnalysis;
+    }
 }
@@ -0,0 +1,116 @@
+package com.medassist.ai.service;
+
+import java.util.ArrayDeque;
+
+/**
+ * BK-tree over 64-bit hashes under Hamming distance. Each child edge is labelled with the
+ * distance to its parent, so by the triangle inequality a search of radius r only descends
+ * into edges labelled within r of the query's distance to the node. Not thread-safe.
+ */
+public final class HammingBkTree<V> {
+
+    private static final int MAX_DISTANCE = Long.SIZE;
+
+    private Node<V> root;
+    private int size;
+
+    private static final class Node<V> {
+        private final long hash;
+        private V value;
+        private Node<V>[] children;
+
+        private Node(long hash, V value) {
+            this.hash = hash;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Closest entry found by a search and its distance from the query
+     */
+    public static final class Match<V> {
+        private final V value;
+        private final int distance;
+
+        private Match(V value, int distance) {
+            this.value = value;
+            this.distance = distance;
+        }
+
+        public V getValue() { return value; }
+        public int getDistance() { return distance; }
+    }
+
+    /**
+     * Add an entry; a hash already present has its value replaced
+     */
+    @SuppressWarnings("unchecked")
+    public void add(long hash, V value) {
+        if (root == null) {
+            root = new Node<>(hash, value);
+            size = 1;
+            return;
+        }
+        Node<V> node = root;
+        while (true) {
+            int distance = Long.bitCount(node.hash ^ hash);
+            if (distance == 0) {
+                node.value = value;
+                return;
+            }
+            if (node.children == null) {
+                node.children = (Node<V>[]) new Node[MAX_DISTANCE + 1];
+            }
+            Node<V> child = node.children[distance];
+            if (child == null) {
+                node.children[distance] = new Node<>(hash, value);
+                size++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Entry closest to the hash within maxDistance bits, or null. The search radius shrinks
+     * to the best distance found so far.
+     */
+    public Match<V> nearest(long hash, int maxDistance) {
+        if (root == null) {
+            return null;
+        }
+        Node<V> best = null;
+        int bestDistance = maxDistance + 1;
+
+        ArrayDeque<Node<V>> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node<V> node = pending.pop();
+            int distance = Long.bitCount(node.hash ^ hash);
+            if (distance < bestDistance) {
+                best = node;
+                bestDistance = distance;
+                if (distance == 0) {
+                    break;
+                }
+            }
+            if (node.children == null) {
+                continue;
+            }
+            int radius = bestDistance - 1;
+            int from = Math.max(1, distance - radius);
+            int to = Math.min(MAX_DISTANCE, distance + radius);
+            for (int edge = from; edge <= to; edge++) {
+                Node<V> child = node.children[edge];
+                if (child != null) {
+                    pending.push(child);
+                }
+            }
+        }
+        return best != null ? new Match<>(best.value, bestDistance) : null;
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,173 @@
+package com.medassist.ai.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Final encoding of the enhanced upload sent to Gemini. Photos are written as JPEG at the
+ * configured quality; crops that are essentially dark text on a light ground (or the
+ * reverse) are written as 8-bit grayscale PNG, which keeps glyph edges sharp and is
+ * smaller than JPEG for such content.
+ *
+ * Encoding goes through an in-memory image stream into pooled output buffers, so the only
+ * allocation per image is the exact-size result.
+ */
+@Component
+public class ImageOutputEncoder {
+
+    /** Output formats with the MIME type sent to Gemini */
+    public enum OutputFormat {
+        JPEG("image/jpeg"),
+        GRAYSCALE_PNG("image/png");
+
+        private final String mimeType;
+
+        OutputFormat(String mimeType) {
+            this.mimeType = mimeType;
+        }
+
+        public String getMimeType() {
+            return mimeType;
+        }
+    }
+
+    // A channel spread at most this large counts as grey
+    private static final int GREY_TOLERANCE = 24;
+    // Luma below DARK or above LIGHT counts as ink or paper
+    private static final int DARK = 80;
+    private static final int LIGHT = 176;
+    private static final double MIN_GREY_FRACTION = 0.92;
+    private static final double MIN_INK_OR_PAPER_FRACTION = 0.80;
+    // Every SAMPLE_STEP-th pixel of every SAMPLE_STEP-th row is inspected
+    private static final int SAMPLE_STEP = 4;
+
+    private static final int POOLED_BUFFERS = 4;
+    private static final int INITIAL_BUFFER_SIZE = 256 * 1024;
+
+    private final ArrayBlockingQueue<EncodeBuffer> buffers = new ArrayBlockingQueue<>(POOLED_BUFFERS);
+
+    @Value("${ai.image.output.jpeg-quality:0.85}")
+    private float jpegQuality = 0.85f;
+
+    @Value("${ai.image.output.grayscale-png-for-text:true}")
+    private boolean grayscalePngForText = true;
+
+    /**
+     * Format for the first width * height packed RGB pixels
+     */
+    public OutputFormat chooseFormat(int[] pixels, int width, int height) {
+        return grayscalePngForText && isTextLike(pixels, width, height) ? OutputFormat.GRAYSCALE_PNG : OutputFormat.JPEG;
+    }
+
+    /**
+     * Encode the image, whose pixels are the first width * height entries of the array
+     */
+    public byte[] encode(OutputFormat format, BufferedImage image, int[] pixels, int width, int height) throws IOException {
+        EncodeBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            buffer = new EncodeBuffer();
+        }
+        try {
+            if (format == OutputFormat.GRAYSCALE_PNG) {
+                write(toGrayscale(pixels, width, height), "png", null, buffer);
+            } else {
+                write(image, "jpeg", jpegQuality, buffer);
+            }
+            return buffer.copy();
+        } finally {
+            buffer.reset();
+            buffers.offer(buffer);
+        }
+    }
+
+    /**
+     * Whether the sampled pixels are nearly all grey and nearly all ink or paper
+     */
+    static boolean isTextLike(int[] pixels, int width, int height) {
+        int sampled = 0;
+        int grey = 0;
+        int inkOrPaper = 0;
+        for (int y = 0; y < height; y += SAMPLE_STEP) {
+            int offset = y * width;
+            for (int x = 0; x < width; x += SAMPLE_STEP) {
+                int rgb = pixels[offset + x];
+                int r = (rgb >> 16) & 0xFF;
+                int g = (rgb >> 8) & 0xFF;
+                int b = rgb & 0xFF;
+                int spread = Math.max(r, Math.max(g, b)) - Math.min(r, Math.min(g, b));
+                if (spread <= GREY_TOLERANCE) {
+                    grey++;
+                }
+                int luma = luma(r, g, b);
+                if (luma < DARK || luma > LIGHT) {
+                    inkOrPaper++;
+                }
+                sampled++;
+            }
+        }
+        return sampled > 0
+            && grey >= MIN_GREY_FRACTION * sampled
+            && inkOrPaper >= MIN_INK_OR_PAPER_FRACTION * sampled;
+    }
+
+    private static BufferedImage toGrayscale(int[] pixels, int width, int height) {
+        BufferedImage gray = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        byte[] out = ((DataBufferByte) gray.getRaster().getDataBuffer()).getData();
+        for (int i = 0; i < width * height; i++) {
+            int rgb = pixels[i];
+            out[i] = (byte) luma((rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF);
+        }
+        return gray;
+    }
+
+    // ITU-R BT.601 weights in 1/256ths
+    private static int luma(int r, int g, int b) {
+        return (77 * r + 150 * g + 29 * b) >> 8;
+    }
+
+    private static void write(BufferedImage image, String format, Float quality, ByteArrayOutputStream out)
+        throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+        if (!writers.hasNext()) {
+            throw new IOException("Failed to write image in " + format + " format");
+        }
+        ImageWriter writer = writers.next();
+        try (ImageOutputStream stream = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (quality != null && param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(quality);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    // Exposes the internal array so the result is copied once, at its exact size
+    private static final class EncodeBuffer extends ByteArrayOutputStream {
+
+        private EncodeBuffer() {
+            super(INITIAL_BUFFER_SIZE);
+        }
+
+        private byte[] copy() {
+            return Arrays.copyOf(buf, count);
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package com.medassist.ai.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import org.slf4j.Logger;
@@ -7,22 +11,32 @@ import org.slf4j.LoggerFactory;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.MessageDigest;
 import java.util.Arrays;
-import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Iterator;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 
 @Service
 public class ImageProcessingService {
 
     private static final Logger logger = LoggerFactory.getLogger(ImageProcessingService.class);
 
+    static final String PROCESSED_IMAGE_CACHE = "processed-images";
+
     private static final int MAX_WIDTH = 1024;
     private static final int MAX_HEIGHT = 1024;
-    private static final float JPEG_QUALITY = 0.8f;
+    private static final double DECODE_OVERSAMPLING = 1.5;
+    private static final int POOLED_BUFFERS = 4;
+    private static final int POOLED_UPLOAD_MAX_SIZE = 4 * 1024 * 1024;
+    private static final int READ_CHUNK = 64 * 1024;
     private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
 
     // Image magic bytes for validation
@@ -37,224 +51,238 @@ public class ImageProcessingService {
         "image/jpeg", "image/png", "image/gif", "image/webp", "image/bmp"
     );
 
+    private final CacheManager cacheManager;
+    private final ParallelRasterEnhancer rasterEnhancer;
+    private final ImageOutputEncoder outputEncoder;
+    private final PixelBufferPool pixelBuffers = new PixelBufferPool(POOLED_BUFFERS, MAX_WIDTH * MAX_HEIGHT);
+    private final UploadBufferPool uploadBuffers = new UploadBufferPool(POOLED_BUFFERS, POOLED_UPLOAD_MAX_SIZE);
+    private final Timer decodeTimer;
+    private final Timer scaleTimer;
+    private final Timer hashTimer;
+    private final Timer enhanceTimer;
+    private final Timer encodeTimer;
+
+    public ImageProcessingService(CacheManager cacheManager, ParallelRasterEnhancer rasterEnhancer,
+                                  ImageOutputEncoder outputEncoder, MeterRegistry meterRegistry) {
+        this.cacheManager = cacheManager;
+        this.rasterEnhancer = rasterEnhancer;
+        this.outputEncoder = outputEncoder;
+        this.decodeTimer = stageTimer(meterRegistry, "decode");
+        this.scaleTimer = stageTimer(meterRegistry, "scale");
+        this.hashTimer = stageTimer(meterRegistry, "hash");
+        this.enhanceTimer = stageTimer(meterRegistry, "enhance");
+        this.encodeTimer = stageTimer(meterRegistry, "encode");
+    }
+
     /**
-     * Process and optimize image for AI analysis
+     * Validate the upload and read it once into a pooled buffer, computing its SHA-256 on
+     * the same pass and checking its file signature from the buffer. The caller must close
+     * the returned upload once it has been processed.
      */
-    public String processImage(MultipartFile file) throws IOException {
-        logger.info("Processing image: {} ({})", file.getOriginalFilename(), file.getContentType());
-
-        // Validate the image before processing
-        validateImage(file);
+    public ImageUpload ingest(MultipartFile file) throws IOException {
+        validateUpload(file);
 
+        int length = (int) file.getSize();
+        byte[] buffer = uploadBuffers.acquire(length);
+        MessageDigest digest = InFlightRequestRegistry.sha256();
         try {
-            // Read the original image
-            BufferedImage originalImage = ImageIO.read(file.getInputStream());
-            if (originalImage == null) {
-                throw new IOException("Could not read image file - invalid or corrupted image data");
+            int read = 0;
+            try (InputStream in = file.getInputStream()) {
+                while (read < length) {
+                    int count = in.read(buffer, read, Math.min(READ_CHUNK, length - read));
+                    if (count < 0) {
+                        break;
+                    }
+                    digest.update(buffer, read, count);
+                    read += count;
+                }
+                if (read != length || in.read() != -1) {
+                    throw new IOException("Image upload size does not match its declared size");
+                }
             }
 
-            // Enhance image for better text recognition
-            BufferedImage processedImage = enhanceForTextRecognition(originalImage);
-
-            // Resize if necessary
-            processedImage = resizeImage(processedImage, MAX_WIDTH, MAX_HEIGHT);
-
-            // Convert to base64
-            String base64Data = convertToBase64(processedImage, "png");
-
-            logger.info("Image processed successfully. Original size: {}x{}, Processed size: {}x{}",
-                originalImage.getWidth(), originalImage.getHeight(),
-                processedImage.getWidth(), processedImage.getHeight());
-
-            return base64Data;
-
-        } catch (Exception e) {
-            logger.error("Error processing image: {}", e.getMessage(), e);
-            throw new IOException("Failed to process image: " + e.getMessage(), e);
+            if (!isValidImageMagicBytes(buffer, length)) {
+                logger.warn("Image magic bytes validation failed for file: {}", file.getOriginalFilename());
+                throw new IllegalArgumentException("Invalid image file - file signature does not match content type");
+            }
+        } catch (IOException | RuntimeException e) {
+            uploadBuffers.release(buffer);
+            throw e;
         }
+
+        logger.debug("Image validation passed: {} ({})", file.getOriginalFilename(), file.getContentType());
+        return new ImageUpload(buffer, length, file.getContentType(), file.getOriginalFilename(),
+            HexFormat.of().formatHex(digest.digest()), uploadBuffers);
     }
 
     /**
-     * Enhance image for better text recognition
+     * Process the image, reusing the result for an upload with the same content digest
      */
-    private BufferedImage enhanceForTextRecognition(BufferedImage original) {
-        int width = original.getWidth();
-        int height = original.getHeight();
-
-        BufferedImage enhanced = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-        Graphics2D g2d = enhanced.createGraphics();
-
-        // Apply rendering hints for better quality
-        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
-        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-
-        // Draw the original image
-        g2d.drawImage(original, 0, 0, null);
-        g2d.dispose();
-
-        // Apply contrast enhancement
-        enhanced = enhanceContrast(enhanced);
-
-        // Apply noise reduction
-        enhanced = reduceNoise(enhanced);
-
-        return enhanced;
+    public ProcessedImage processImage(ImageUpload upload) throws IOException {
+        Cache cache = cacheManager.getCache(PROCESSED_IMAGE_CACHE);
+        ProcessedImage processed = cache != null ? cache.get(upload.getDigest(), ProcessedImage.class) : null;
+        if (processed != null) {
+            logger.debug("Reusing processed image {}", upload.getDigest());
+            return processed;
+        }
+        processed = process(upload);
+        if (cache != null) {
+            cache.put(upload.getDigest(), processed);
+        }
+        return processed;
     }
 
     /**
-     * Enhance contrast for better text visibility
+     * Process and optimize image for AI analysis: decode near the target size, scale into a
+     * pooled pixel buffer, hash, enhance in place and encode
      */
-    private BufferedImage enhanceContrast(BufferedImage image) {
-        int width = image.getWidth();
-        int height = image.getHeight();
+    private ProcessedImage process(ImageUpload upload) throws IOException {
+        logger.info("Processing image: {} ({})", upload.getOriginalFilename(), upload.getContentType());
 
-        BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-
-        double contrastFactor = 1.2; // Increase contrast by 20%
-
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                Color pixel = new Color(image.getRGB(x, y));
-
-                int red = (int) Math.min(255, Math.max(0, (pixel.getRed() - 128) * contrastFactor + 128));
-                int green = (int) Math.min(255, Math.max(0, (pixel.getGreen() - 128) * contrastFactor + 128));
-                int blue = (int) Math.min(255, Math.max(0, (pixel.getBlue() - 128) * contrastFactor + 128));
+        int[] buffer = null;
+        try {
+            long start = System.nanoTime();
+            BufferedImage decoded = decodeNearTarget(upload);
+            int[] size = fitWithin(decoded.getWidth(), decoded.getHeight(), MAX_WIDTH, MAX_HEIGHT);
+            int width = size[0];
+            int height = size[1];
+            start = recordStage(decodeTimer, start);
+
+            // Scale into the working buffer, cleared first so transparent areas come out black
+            buffer = pixelBuffers.acquire();
+            Arrays.fill(buffer, 0, width * height, 0);
+            BufferedImage working = PixelBufferPool.wrap(buffer, width, height);
+            Graphics2D g2d = working.createGraphics();
+            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2d.drawImage(decoded, 0, 0, width, height, null);
+            g2d.dispose();
+            start = recordStage(scaleTimer, start);
+
+            long perceptualHash = PerceptualHash.dHash(working);
+            start = recordStage(hashTimer, start);
+
+            // Contrast enhancement and noise reduction on the pixel array, in parallel row bands
+            rasterEnhancer.enhance(buffer, width, height);
+            start = recordStage(enhanceTimer, start);
+
+            // JPEG for photos, grayscale PNG for text-like crops
+            ImageOutputEncoder.OutputFormat format = outputEncoder.chooseFormat(buffer, width, height);
+            byte[] data = outputEncoder.encode(format, working, buffer, width, height);
+            recordStage(encodeTimer, start);
+
+            logger.info("Image processed successfully. Decoded size: {}x{}, Processed size: {}x{}, {} ({} bytes)",
+                decoded.getWidth(), decoded.getHeight(), width, height, format.getMimeType(), data.length);
+
+            return new ProcessedImage(data, format.getMimeType(), perceptualHash);
 
-                Color newPixel = new Color(red, green, blue);
-                result.setRGB(x, y, newPixel.getRGB());
-            }
+        } catch (Exception e) {
+            logger.error("Error processing image: {}", e.getMessage(), e);
+            throw new IOException("Failed to process image: " + e.getMessage(), e);
+        } finally {
+            pixelBuffers.release(buffer);
         }
+    }
+
+    private static Timer stageTimer(MeterRegistry meterRegistry, String stage) {
+        return Timer.builder("image.processing.stage").tag("stage", stage)
+            .description("Time spent in each stage of upload image processing")
+            .register(meterRegistry);
+    }
 
-        return result;
+    // Records the time since start and returns the current time as the next stage's start
+    private static long recordStage(Timer timer, long start) {
+        long now = System.nanoTime();
+        timer.record(now - start, TimeUnit.NANOSECONDS);
+        return now;
     }
 
     /**
-     * Apply simple noise reduction
+     * Decode the image with source subsampling, so that a large photo is read at no more
+     * than a few times the target size instead of at full resolution
      */
-    private BufferedImage reduceNoise(BufferedImage image) {
-        int width = image.getWidth();
-        int height = image.getHeight();
-
-        BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-
-        // Simple 3x3 blur kernel for noise reduction
-        for (int y = 1; y < height - 1; y++) {
-            for (int x = 1; x < width - 1; x++) {
-                int totalRed = 0, totalGreen = 0, totalBlue = 0;
-                int count = 0;
-
-                // Sample 3x3 neighborhood
-                for (int dy = -1; dy <= 1; dy++) {
-                    for (int dx = -1; dx <= 1; dx++) {
-                        Color pixel = new Color(image.getRGB(x + dx, y + dy));
-                        totalRed += pixel.getRed();
-                        totalGreen += pixel.getGreen();
-                        totalBlue += pixel.getBlue();
-                        count++;
-                    }
+    private BufferedImage decodeNearTarget(ImageUpload upload) throws IOException {
+        try (ImageInputStream input = new ByteArrayImageInputStream(upload.buffer(), 0, upload.getLength())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("Could not read image file - invalid or corrupted image data");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                int subsampling = decodeSubsampling(sourceWidth, sourceHeight, MAX_WIDTH, MAX_HEIGHT);
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                if (subsampling > 1) {
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
                 }
-
-                // Apply mild averaging to reduce noise
-                Color center = new Color(image.getRGB(x, y));
-                int avgRed = totalRed / count;
-                int avgGreen = totalGreen / count;
-                int avgBlue = totalBlue / count;
-
-                // Blend original with averaged (70% original, 30% averaged)
-                int finalRed = (int) (center.getRed() * 0.7 + avgRed * 0.3);
-                int finalGreen = (int) (center.getGreen() * 0.7 + avgGreen * 0.3);
-                int finalBlue = (int) (center.getBlue() * 0.7 + avgBlue * 0.3);
-
-                Color newPixel = new Color(finalRed, finalGreen, finalBlue);
-                result.setRGB(x, y, newPixel.getRGB());
+                BufferedImage decoded = reader.read(0, param);
+                logger.debug("Decoded {}x{} image at 1/{} as {}x{}", sourceWidth, sourceHeight, subsampling,
+                    decoded.getWidth(), decoded.getHeight());
+                return decoded;
+            } finally {
+                reader.dispose();
             }
         }
-
-        // Copy border pixels
-        for (int x = 0; x < width; x++) {
-            result.setRGB(x, 0, image.getRGB(x, 0));
-            result.setRGB(x, height - 1, image.getRGB(x, height - 1));
-        }
-        for (int y = 0; y < height; y++) {
-            result.setRGB(0, y, image.getRGB(0, y));
-            result.setRGB(width - 1, y, image.getRGB(width - 1, y));
-        }
-
-        return result;
     }
 
     /**
-     * Resize image while maintaining aspect ratio
+     * Largest subsampling factor that still decodes at least DECODE_OVERSAMPLING times the
+     * size the image will be scaled to, so the final scaling pass can filter rather than
+     * point-sample; 1 when the image already fits
      */
-    private BufferedImage resizeImage(BufferedImage original, int maxWidth, int maxHeight) {
-        int originalWidth = original.getWidth();
-        int originalHeight = original.getHeight();
-
-        // Check if resizing is needed
-        if (originalWidth <= maxWidth && originalHeight <= maxHeight) {
-            return original;
-        }
-
-        // Calculate new dimensions maintaining aspect ratio
-        double scaleX = (double) maxWidth / originalWidth;
-        double scaleY = (double) maxHeight / originalHeight;
-        double scale = Math.min(scaleX, scaleY);
-
-        int newWidth = (int) (originalWidth * scale);
-        int newHeight = (int) (originalHeight * scale);
-
-        BufferedImage resized = new BufferedImage(newWidth, newHeight, BufferedImage.TYPE_INT_RGB);
-        Graphics2D g2d = resized.createGraphics();
-
-        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
-        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-
-        g2d.drawImage(original, 0, 0, newWidth, newHeight, null);
-        g2d.dispose();
-
-        logger.debug("Image resized from {}x{} to {}x{}", originalWidth, originalHeight, newWidth, newHeight);
-
-        return resized;
+    static int decodeSubsampling(int width, int height, int maxWidth, int maxHeight) {
+        double reduction = Math.max((double) width / maxWidth, (double) height / maxHeight);
+        return Math.max(1, (int) (reduction / DECODE_OVERSAMPLING));
     }
 
     /**
-     * Convert BufferedImage to Base64 string
+     * Dimensions scaled down to fit the bounds with the aspect ratio kept, or unchanged
+     * when they already fit
      */
-    private String convertToBase64(BufferedImage image, String format) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-
-        // Use PNG for lossless compression to preserve text quality
-        if (!ImageIO.write(image, format, baos)) {
-            throw new IOException("Failed to write image in " + format + " format");
+    static int[] fitWithin(int width, int height, int maxWidth, int maxHeight) {
+        if (width <= maxWidth && height <= maxHeight) {
+            return new int[]{width, height};
         }
-
-        byte[] imageBytes = baos.toByteArray();
-        return Base64.getEncoder().encodeToString(imageBytes);
+        double scale = Math.min((double) maxWidth / width, (double) maxHeight / height);
+        return new int[]{Math.max(1, (int) (width * scale)), Math.max(1, (int) (height * scale))};
     }
 
     /**
-     * Validate image dimensions and format
+     * Whether the upload's dimensions suit text recognition, read from the image header
+     * without decoding the pixels
      */
-    public boolean isValidMedicineImage(MultipartFile file) {
-        try {
-            BufferedImage image = ImageIO.read(file.getInputStream());
-            if (image == null) {
+    public boolean isValidMedicineImage(ImageUpload upload) {
+        try (ImageInputStream input = new ByteArrayImageInputStream(upload.buffer(), 0, upload.getLength())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
                 return false;
             }
+            ImageReader reader = readers.next();
+            int width;
+            int height;
+            try {
+                reader.setInput(input, true, true);
+                width = reader.getWidth(0);
+                height = reader.getHeight(0);
+            } finally {
+                reader.dispose();
+            }
 
             // Check minimum dimensions for text recognition
             int minDimension = 100;
-            if (image.getWidth() < minDimension || image.getHeight() < minDimension) {
-                logger.warn("Image too small for text recognition: {}x{}", image.getWidth(), image.getHeight());
+            if (width < minDimension || height < minDimension) {
+                logger.warn("Image too small for text recognition: {}x{}", width, height);
                 return false;
             }
 
             // Check maximum dimensions
             int maxDimension = 5000;
-            if (image.getWidth() > maxDimension || image.getHeight() > maxDimension) {
-                logger.warn("Image too large: {}x{}", image.getWidth(), image.getHeight());
+            if (width > maxDimension || height > maxDimension) {
+                logger.warn("Image too large: {}x{}", width, height);
                 return false;
             }
 
@@ -267,48 +295,39 @@ public class ImageProcessingService {
     }
 
     /**
-     * Validate image file using magic bytes, content type, and file size
-     * This prevents malicious file uploads disguised as images
+     * Validate the upload's size and declared content type before reading it; the file
+     * signature is checked once the bytes are in memory. Rejects malicious files disguised
+     * as images together with the magic-byte check.
      */
-    private void validateImage(MultipartFile file) throws IOException {
+    private void validateUpload(MultipartFile file) {
         // Check if file is empty
         if (file == null || file.isEmpty()) {
-            throw new IOException("Image file is empty or null");
+            throw new IllegalArgumentException("Image file cannot be empty");
         }
 
         // Check file size
         if (file.getSize() > MAX_FILE_SIZE) {
-            throw new IOException("Image file too large. Maximum size is 10MB");
+            throw new IllegalArgumentException("Image file size cannot exceed 10MB");
         }
 
         // Validate content type
         String contentType = file.getContentType();
         if (contentType == null || !ALLOWED_CONTENT_TYPES.contains(contentType.toLowerCase())) {
-            throw new IOException("Invalid image type. Allowed types: JPEG, PNG, GIF, WebP, BMP");
-        }
-
-        // Validate magic bytes (file signature)
-        if (!isValidImageMagicBytes(file)) {
-            logger.warn("Image magic bytes validation failed for file: {}", file.getOriginalFilename());
-            throw new IOException("Invalid image file - file signature does not match content type");
+            throw new IllegalArgumentException("Invalid image type. Allowed types: JPEG, PNG, GIF, WebP, BMP");
         }
-
-        logger.debug("Image validation passed: {} ({})", file.getOriginalFilename(), contentType);
     }
 
     /**
      * Check if file has valid image magic bytes
      * This detects files that claim to be images but aren't
      */
-    private boolean isValidImageMagicBytes(MultipartFile file) throws IOException {
-        byte[] header = new byte[12]; // Enough for all our magic byte checks
-
-        try (InputStream is = file.getInputStream()) {
-            int bytesRead = is.read(header);
-            if (bytesRead < 2) {
-                return false;
-            }
+    static boolean isValidImageMagicBytes(byte[] data, int length) {
+        if (length < 2) {
+            return false;
         }
+        // 12 bytes are enough for all our magic byte checks; bytes past the upload read as 0
+        byte[] header = Arrays.copyOf(data, 12);
+        Arrays.fill(header, Math.min(length, header.length), header.length, (byte) 0);
 
         // Check for JPEG (FFD8FF)
         if (startsWith(header, JPEG_MAGIC)) {
@@ -344,7 +363,7 @@ public class ImageProcessingService {
     /**
      * Check if byte array starts with the given prefix
      */
-    private boolean startsWith(byte[] data, byte[] prefix) {
+    private static boolean startsWith(byte[] data, byte[] prefix) {
         if (data.length < prefix.length) {
             return false;
         }
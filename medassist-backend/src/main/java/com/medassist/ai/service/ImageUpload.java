@@ -0,0 +1,64 @@
+package com.medassist.ai.service;
+
+/**
+ * An uploaded image read once into memory, with its SHA-256 content digest. The bytes sit
+ * in a pooled buffer that is handed back when the upload is closed, so an upload must not
+ * be used after {@link #close()}.
+ */
+public final class ImageUpload implements AutoCloseable {
+
+    private final byte[] buffer;
+    private final int length;
+    private final String contentType;
+    private final String originalFilename;
+    private final String digest;
+    private final UploadBufferPool pool;
+    private boolean closed;
+
+    ImageUpload(byte[] buffer, int length, String contentType, String originalFilename, String digest,
+                UploadBufferPool pool) {
+        this.buffer = buffer;
+        this.length = length;
+        this.contentType = contentType;
+        this.originalFilename = originalFilename;
+        this.digest = digest;
+        this.pool = pool;
+    }
+
+    /**
+     * Hex SHA-256 of the uploaded bytes
+     */
+    public String getDigest() {
+        return digest;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getOriginalFilename() {
+        return originalFilename;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Backing buffer; only the first {@link #getLength()} bytes belong to the upload
+     */
+    byte[] buffer() {
+        if (closed) {
+            throw new IllegalStateException("Upload " + digest + " has been closed");
+        }
+        return buffer;
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            pool.release(buffer);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.medassist.ai.service;
+
+import com.medassist.ai.dto.GeminiRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight registry for upstream Gemini calls. Callers that ask for the same key while
+ * a call is still running share its result instead of issuing their own; the entry is
+ * removed as soon as the call settles, so nothing (in particular no failure) outlives it.
+ */
+@Component
+public class InFlightRequestRegistry {
+
+    private final ConcurrentHashMap<String, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final Counter upstreamCalls;
+    private final Counter dedupHits;
+
+    public InFlightRequestRegistry(MeterRegistry meterRegistry) {
+        this.upstreamCalls = Counter.builder("gemini.requests.upstream")
+            .description("Gemini calls actually sent upstream")
+            .register(meterRegistry);
+        this.dedupHits = Counter.builder("gemini.requests.deduplicated")
+            .description("Gemini calls served by joining an identical in-flight call")
+            .register(meterRegistry);
+        Gauge.builder("gemini.requests.in_flight", inFlight, ConcurrentHashMap::size)
+            .description("Distinct Gemini calls currently in flight")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Result of the in-flight call for the key, starting one with the supplier if none is
+     * running. Each caller gets its own dependent future, so cancelling or completing it
+     * does not affect the other callers.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> share(String key, Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> shared = new CompletableFuture<>();
+        CompletableFuture<?> existing = inFlight.putIfAbsent(key, shared);
+        if (existing != null) {
+            dedupHits.increment();
+            return ((CompletableFuture<T>) existing).copy();
+        }
+
+        upstreamCalls.increment();
+        CompletableFuture<T> upstream;
+        try {
+            upstream = call.get();
+        } catch (RuntimeException e) {
+            upstream = CompletableFuture.failedFuture(e);
+        }
+        upstream.whenComplete((result, error) -> {
+            // Deregister before settling so a caller woken by the result cannot join a finished call
+            inFlight.remove(key, shared);
+            if (error != null) {
+                shared.completeExceptionally(error);
+            } else {
+                shared.complete(result);
+            }
+        });
+        return shared.copy();
+    }
+
+    /**
+     * Number of distinct calls currently in flight
+     */
+    public int size() {
+        return inFlight.size();
+    }
+
+    /**
+     * Key of a Gemini request: SHA-256 over the model, the prompt text with whitespace runs
+     * collapsed and trimmed, and any inline image data with its MIME type
+     */
+    public static String keyOf(String model, GeminiRequest request) {
+        MessageDigest digest = sha256();
+        update(digest, model);
+        if (request.getContents() != null) {
+            for (GeminiRequest.Content content : request.getContents()) {
+                if (content.getParts() == null) {
+                    continue;
+                }
+                for (GeminiRequest.Part part : content.getParts()) {
+                    if (part.getText() != null) {
+                        update(digest, "text");
+                        update(digest, normalizePrompt(part.getText()));
+                    }
+                    if (part.getInlineData() != null) {
+                        update(digest, "inline");
+                        update(digest, part.getInlineData().getMimeType());
+                        update(digest, part.getInlineData().getData());
+                    }
+                }
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    static String normalizePrompt(String prompt) {
+        return prompt.trim().replaceAll("\\s+", " ");
+    }
+
+    // Length-prefixed so that adjacent fields cannot run into each other
+    private static void update(MessageDigest digest, String value) {
+        update(digest, value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void update(MessageDigest digest, byte[] value) {
+        byte[] bytes = value == null ? new byte[0] : value;
+        digest.update((byte) (bytes.length >>> 24));
+        digest.update((byte) (bytes.length >>> 16));
+        digest.update((byte) (bytes.length >>> 8));
+        digest.update((byte) bytes.length);
+        digest.update(bytes);
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.medassist.ai.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the analysis JSON object out of streamed model text as it arrives, handing back
+ * each top-level field once its value is complete. Text before the opening brace (such as
+ * a code fence) and after the closing one is skipped. Not thread-safe; one per stream.
+ *
+ * Malformed JSON stops the parser quietly: the fields seen so far stand, and the caller
+ * falls back to parsing the full text once the stream ends.
+ */
+final class IncrementalAnalysisParser {
+
+    private final ObjectMapper objectMapper;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private boolean started;
+    private boolean done;
+    private int depth;
+    private String fieldName;
+    private TokenBuffer value;
+
+    /**
+     * A top-level field of the analysis with its complete value
+     */
+    static final class Field {
+        private final String name;
+        private final JsonNode value;
+
+        Field(String name, JsonNode value) {
+            this.name = name;
+            this.value = value;
+        }
+
+        String getName() { return name; }
+        JsonNode getValue() { return value; }
+    }
+
+    IncrementalAnalysisParser(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        try {
+            this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new IllegalStateException("Non-blocking JSON parser unavailable", e);
+        }
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Consume the next chunk of model text; returns the fields completed by it
+     */
+    List<Field> feed(String chunk) {
+        if (done || chunk == null || chunk.isEmpty()) {
+            return List.of();
+        }
+        if (!started) {
+            int start = chunk.indexOf('{');
+            if (start < 0) {
+                return List.of();
+            }
+            started = true;
+            chunk = chunk.substring(start);
+        }
+        List<Field> fields = new ArrayList<>();
+        try {
+            byte[] bytes = chunk.getBytes(StandardCharsets.UTF_8);
+            feeder.feedInput(bytes, 0, bytes.length);
+            JsonToken token;
+            while (!done && (token = parser.nextToken()) != JsonToken.NOT_AVAILABLE && token != null) {
+                readToken(token, fields);
+            }
+        } catch (IOException e) {
+            // Not the JSON we asked for; the full text is parsed when the stream ends
+            done = true;
+        }
+        return fields;
+    }
+
+    /**
+     * Whether the top-level object has been read completely
+     */
+    boolean isComplete() {
+        return started && done && depth == 0;
+    }
+
+    private void readToken(JsonToken token, List<Field> fields) throws IOException {
+        if (value != null) {
+            value.copyCurrentEvent(parser);
+        }
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+            depth++;
+        } else if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+            depth--;
+        }
+
+        if (depth == 0) {
+            // The analysis object itself has closed; ignore whatever follows
+            done = true;
+        } else if (depth == 1 && token == JsonToken.FIELD_NAME) {
+            fieldName = parser.currentName();
+            value = new TokenBuffer(parser, null);
+        } else if (depth == 1 && value != null) {
+            // The value that began after the field name is complete
+            JsonNode node = objectMapper.readTree(value.asParser());
+            fields.add(new Field(fieldName, node));
+            value = null;
+            fieldName = null;
+        }
+    }
+}
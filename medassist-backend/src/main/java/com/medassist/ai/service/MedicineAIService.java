@@ -1,18 +1,26 @@
 package com.medassist.ai.service;
 
+import com.medassist.ai.dto.AnalysisStreamEvent;
 import com.medassist.medicine.dto.MedicineAnalysisRequest;
 import com.medassist.medicine.dto.MedicineAnalysisResponse;
+import com.medassist.medicine.dto.MedicineSearchHit;
 import com.medassist.medicine.entity.Medicine;
+import com.medassist.medicine.service.MedicineRanker;
 import com.medassist.medicine.service.MedicineService;
+import com.medassist.medicine.service.MedicineSynonymIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
 @Service
@@ -23,7 +31,9 @@ public class MedicineAIService {
 
     private final GeminiAIService geminiAIService;
     private final MedicineService medicineService;
+    private final MedicineSynonymIndex medicineSynonymIndex;
     private final ImageProcessingService imageProcessingService;
+    private final NearDuplicateImageIndex nearDuplicateImageIndex;
 
     /**
      * Analyze medicine by text query
@@ -34,7 +44,7 @@ public class MedicineAIService {
         // First check if medicine exists in local database
         return checkLocalDatabase(query)
             .thenCompose(localResult -> {
-                if (localResult != null && localResult.getConfidenceScore() > 0.8) {
+                if (localResult != null && localResult.getConfidenceScore() >= MedicineRanker.STRONG_MATCH_SCORE) {
                     logger.info("Found high-confidence match in local database");
                     return CompletableFuture.completedFuture(localResult);
                 }
@@ -61,21 +71,25 @@ public class MedicineAIService {
             throws IOException {
         logger.info("Analyzing medicine by image: {}", imageFile.getOriginalFilename());
 
-        // Validate and process image
-        validateImageFile(imageFile);
-        String processedImageData = imageProcessingService.processImage(imageFile);
-        String mimeType = imageFile.getContentType();
+        try (ImageUpload upload = imageProcessingService.ingest(imageFile)) {
+            return analyzeMedicineByImage(upload);
+        }
+    }
 
+    /**
+     * Analyze medicine by an upload that has already been ingested. Returns once the image
+     * is processed, so the caller may close the upload then.
+     */
+    public CompletableFuture<MedicineAnalysisResponse> analyzeMedicineByImage(ImageUpload upload) throws IOException {
         MedicineAnalysisRequest request = new MedicineAnalysisRequest();
-        request.setImageData(processedImageData);
-        request.setImageMimeType(mimeType);
         request.setAnalysisType(MedicineAnalysisRequest.AnalysisType.IMAGE_ANALYSIS);
 
-        return geminiAIService.analyzeMedicine(request)
+        return analyzeUpload(request, upload)
             .thenCompose(aiResult -> {
                 // Try to enhance with local database information
-                if (aiResult.getMedicineName() != null) {
-                    return checkLocalDatabase(aiResult.getMedicineName())
+                String searchTerm = localLookupTerm(aiResult, null);
+                if (searchTerm != null) {
+                    return checkLocalDatabase(searchTerm)
                         .thenApply(localResult -> {
                             if (localResult != null) {
                                 return mergeResults(localResult, aiResult);
@@ -95,22 +109,25 @@ public class MedicineAIService {
         logger.info("Analyzing medicine with combined approach: query='{}', image='{}'",
             query, imageFile.getOriginalFilename());
 
-        // Validate and process image
-        validateImageFile(imageFile);
-        String processedImageData = imageProcessingService.processImage(imageFile);
-        String mimeType = imageFile.getContentType();
+        try (ImageUpload upload = imageProcessingService.ingest(imageFile)) {
+            return analyzeMedicineCombined(query, upload);
+        }
+    }
 
+    /**
+     * Analyze medicine using text and an upload that has already been ingested. Returns
+     * once the image is processed, so the caller may close the upload then.
+     */
+    public CompletableFuture<MedicineAnalysisResponse> analyzeMedicineCombined(
+            String query, ImageUpload upload) throws IOException {
         MedicineAnalysisRequest request = new MedicineAnalysisRequest();
         request.setQuery(query);
-        request.setImageData(processedImageData);
-        request.setImageMimeType(mimeType);
         request.setAnalysisType(MedicineAnalysisRequest.AnalysisType.COMBINED);
 
-        return geminiAIService.analyzeMedicine(request)
+        return analyzeUpload(request, upload)
             .thenCompose(aiResult -> {
                 // Enhance with local database information
-                String searchTerm = aiResult.getMedicineName() != null ?
-                    aiResult.getMedicineName() : query;
+                String searchTerm = localLookupTerm(aiResult, query);
 
                 return checkLocalDatabase(searchTerm)
                     .thenApply(localResult -> {
@@ -122,6 +139,60 @@ public class MedicineAIService {
             });
     }
 
+    /**
+     * Streamed analysis by text query: a strong local match is streamed as the result alone;
+     * otherwise the AI analysis streams, its result merged with any weaker local match
+     */
+    public Flux<AnalysisStreamEvent> streamMedicineByText(String query) {
+        logger.info("Streaming medicine analysis by text query: {}", query);
+
+        return Mono.fromFuture(() -> checkLocalDatabase(query))
+            .map(Optional::of)
+            .defaultIfEmpty(Optional.empty())
+            .flatMapMany(localResult -> {
+                if (localResult.isPresent()
+                        && localResult.get().getConfidenceScore() >= MedicineRanker.STRONG_MATCH_SCORE) {
+                    logger.info("Found high-confidence match in local database");
+                    return Flux.just(AnalysisStreamEvent.result(localResult.get()));
+                }
+                MedicineAnalysisRequest request = new MedicineAnalysisRequest(query,
+                    MedicineAnalysisRequest.AnalysisType.TEXT_QUERY);
+                return geminiAIService.streamMedicineAnalysis(request)
+                    .map(event -> localResult.isPresent() && isAnalysisResult(event)
+                        ? AnalysisStreamEvent.result(mergeResults(localResult.get(), event.getResult()))
+                        : event);
+            });
+    }
+
+    /**
+     * Streamed analysis by image upload; the upload is processed before this returns
+     */
+    public Flux<AnalysisStreamEvent> streamMedicineByImage(MultipartFile imageFile) throws IOException {
+        logger.info("Streaming medicine analysis by image: {}", imageFile.getOriginalFilename());
+
+        MedicineAnalysisRequest request = new MedicineAnalysisRequest();
+        request.setAnalysisType(MedicineAnalysisRequest.AnalysisType.IMAGE_ANALYSIS);
+        try (ImageUpload upload = imageProcessingService.ingest(imageFile)) {
+            return withLocalDatabase(streamUpload(request, upload), null);
+        }
+    }
+
+    /**
+     * Streamed analysis by text and image; the upload is processed before this returns
+     */
+    public Flux<AnalysisStreamEvent> streamMedicineCombined(String query, MultipartFile imageFile)
+            throws IOException {
+        logger.info("Streaming combined medicine analysis: query='{}', image='{}'",
+            query, imageFile.getOriginalFilename());
+
+        MedicineAnalysisRequest request = new MedicineAnalysisRequest();
+        request.setQuery(query);
+        request.setAnalysisType(MedicineAnalysisRequest.AnalysisType.COMBINED);
+        try (ImageUpload upload = imageProcessingService.ingest(imageFile)) {
+            return withLocalDatabase(streamUpload(request, upload), query);
+        }
+    }
+
     /**
      * Get drug interactions for a list of medicines
      */
@@ -139,18 +210,130 @@ public class MedicineAIService {
         return geminiAIService.analyzeMedicine(request);
     }
 
+    /**
+     * AI analysis of an uploaded image, identified by the SHA-256 of its bytes. A repeat
+     * upload whose analysis is cached skips decoding, enhancement and the Gemini call; a
+     * photo perceptually close to an analysed one reuses only the text extracted from it and
+     * is analysed afresh, flagged as a near duplicate.
+     */
+    private CompletableFuture<MedicineAnalysisResponse> analyzeUpload(MedicineAnalysisRequest request,
+                                                                      ImageUpload upload) throws IOException {
+        PreparedUpload prepared = prepareUpload(request, upload);
+        if (prepared.reused != null) {
+            return CompletableFuture.completedFuture(prepared.reused);
+        }
+        return geminiAIService.analyzeMedicine(request)
+            .thenApply(result -> {
+                registerAnalysed(prepared, result);
+                return result;
+            });
+    }
+
+    /**
+     * Streamed counterpart of {@link #analyzeUpload}: a reused analysis is streamed as its
+     * result alone
+     */
+    private Flux<AnalysisStreamEvent> streamUpload(MedicineAnalysisRequest request, ImageUpload upload)
+            throws IOException {
+        PreparedUpload prepared = prepareUpload(request, upload);
+        if (prepared.reused != null) {
+            return Flux.just(AnalysisStreamEvent.result(prepared.reused));
+        }
+        return geminiAIService.streamMedicineAnalysis(request)
+            .doOnNext(event -> {
+                if (event.getType() == AnalysisStreamEvent.Type.RESULT) {
+                    registerAnalysed(prepared, event.getResult());
+                }
+            });
+    }
+
+    /**
+     * An upload made ready for analysis: either a cached analysis of the same bytes to reuse,
+     * or the perceptual hash of the processed image, whose bytes are now on the request
+     */
+    private static final class PreparedUpload {
+        private final MedicineAnalysisResponse reused;
+        private final String digest;
+        private final long perceptualHash;
+
+        PreparedUpload(MedicineAnalysisResponse reused, String digest, long perceptualHash) {
+            this.reused = reused;
+            this.digest = digest;
+            this.perceptualHash = perceptualHash;
+        }
+    }
+
+    private PreparedUpload prepareUpload(MedicineAnalysisRequest request, ImageUpload upload) throws IOException {
+        String digest = upload.getDigest();
+        request.setImageDigest(digest);
+        request.setImageMimeType(upload.getContentType());
+
+        MedicineAnalysisResponse cached = geminiAIService.findCachedAnalysis(request);
+        if (cached != null) {
+            logger.info("Reusing cached analysis for image {}", digest);
+            return new PreparedUpload(cached, digest, 0);
+        }
+
+        ProcessedImage processed = imageProcessingService.processImage(upload);
+        HammingBkTree.Match<String> similar = nearDuplicateImageIndex.findNear(processed.getPerceptualHash());
+        if (similar != null && !similar.getValue().equals(digest)) {
+            // Packs of different strengths hash alike, so only the extracted text is reused
+            // and the analysis runs again; the result is flagged for the client to confirm
+            logger.info("Upload {} is a near duplicate of image {} (distance {})",
+                digest, similar.getValue(), similar.getDistance());
+            request.setSimilarImageDigest(similar.getValue());
+            request.setDuplicateSimilarity(NearDuplicateImageIndex.similarity(similar.getDistance()));
+        }
+
+        request.setImageBytes(processed.getData());
+        request.setImageMimeType(processed.getMimeType());
+        return new PreparedUpload(null, digest, processed.getPerceptualHash());
+    }
+
+    private void registerAnalysed(PreparedUpload prepared, MedicineAnalysisResponse result) {
+        // Near duplicates are not registered: their own text was never extracted
+        if (result != null && !result.isNearDuplicate() && !"ERROR".equals(result.getAnalysisSource())) {
+            nearDuplicateImageIndex.register(prepared.perceptualHash, prepared.digest);
+        }
+    }
+
+    /**
+     * Merge the streamed AI result with the local match for the medicine it names, as the
+     * non-streamed image analyses do
+     */
+    private Flux<AnalysisStreamEvent> withLocalDatabase(Flux<AnalysisStreamEvent> events, String fallbackTerm) {
+        return events.concatMap(event -> {
+            if (!isAnalysisResult(event)) {
+                return Mono.just(event);
+            }
+            String searchTerm = localLookupTerm(event.getResult(), fallbackTerm);
+            if (searchTerm == null) {
+                return Mono.just(event);
+            }
+            return Mono.fromFuture(() -> checkLocalDatabase(searchTerm))
+                .map(localResult -> AnalysisStreamEvent.result(mergeResults(localResult, event.getResult())))
+                .defaultIfEmpty(event);
+        });
+    }
+
+    private static boolean isAnalysisResult(AnalysisStreamEvent event) {
+        return event.getType() == AnalysisStreamEvent.Type.RESULT
+            && !"ERROR".equals(event.getResult().getAnalysisSource());
+    }
+
     /**
      * Check local database for medicine information
      */
     private CompletableFuture<MedicineAnalysisResponse> checkLocalDatabase(String query) {
         return CompletableFuture.supplyAsync(() -> {
             try {
-                // Search in local database
-                List<Medicine> medicines = medicineService.comprehensiveSearch(query);
+                // Best relevance-ranked match; collections are loaded inside the service transaction
+                Optional<MedicineSearchHit> bestMatch = medicineService.findBestMatch(query);
 
-                if (!medicines.isEmpty()) {
-                    Medicine medicine = medicines.get(0); // Take the first match
-                    return convertMedicineToAnalysisResponse(medicine);
+                if (bestMatch.isPresent()) {
+                    // Confidence leaves out the popularity bonus, so only a strong match skips the AI lookup
+                    return convertMedicineToAnalysisResponse(bestMatch.get().getMedicine(),
+                        bestMatch.get().getMatchScore());
                 }
 
                 return null;
@@ -161,16 +344,36 @@ public class MedicineAIService {
         });
     }
 
+    /**
+     * Name to look up locally for an AI result: the first of the identified medicine name,
+     * generic name or brand names that the synonym table knows, else the medicine name
+     * (or the fallback when the AI identified nothing)
+     */
+    private String localLookupTerm(MedicineAnalysisResponse aiResult, String fallback) {
+        List<String> names = new ArrayList<>();
+        names.add(aiResult.getMedicineName());
+        names.add(aiResult.getGenericName());
+        if (aiResult.getBrandNames() != null) {
+            names.addAll(aiResult.getBrandNames());
+        }
+        for (String name : names) {
+            if (name != null && !medicineSynonymIndex.resolve(name).isEmpty()) {
+                return name;
+            }
+        }
+        return aiResult.getMedicineName() != null ? aiResult.getMedicineName() : fallback;
+    }
+
     /**
      * Convert Medicine entity to MedicineAnalysisResponse
      */
-    private MedicineAnalysisResponse convertMedicineToAnalysisResponse(Medicine medicine) {
+    private MedicineAnalysisResponse convertMedicineToAnalysisResponse(Medicine medicine, double matchScore) {
         MedicineAnalysisResponse response = new MedicineAnalysisResponse();
 
         response.setMedicineName(medicine.getName());
         response.setGenericName(medicine.getGenericName());
         response.setBrandNames(medicine.getBrandNames());
-        response.setActiveIngredients(List.of(medicine.getActiveIngredient()));
+        response.setActiveIngredients(medicine.getActiveIngredients());
         response.setStrength(medicine.getStrength());
         response.setForm(medicine.getForm());
         response.setManufacturer(medicine.getManufacturer());
@@ -180,7 +383,7 @@ public class MedicineAIService {
         response.setStorageInstructions(medicine.getStorageInstructions());
         response.setRequiresPrescription(medicine.isRequiresPrescription());
         response.setAnalysisSource("LOCAL_DATABASE");
-        response.setConfidenceScore(0.9); // High confidence for local data
+        response.setConfidenceScore(matchScore); // Confidence follows how well the query matched
 
         return response;
     }
@@ -213,27 +416,9 @@ public class MedicineAIService {
         // Update analysis source to indicate merged data
         merged.setAnalysisSource("LOCAL_DATABASE_AND_AI");
         merged.setExtractedText(aiResult.getExtractedText());
+        merged.setNearDuplicate(aiResult.isNearDuplicate());
+        merged.setDuplicateSimilarity(aiResult.getDuplicateSimilarity());
 
         return merged;
     }
-
-    /**
-     * Validate uploaded image file
-     */
-    private void validateImageFile(MultipartFile file) throws IOException {
-        if (file.isEmpty()) {
-            throw new IllegalArgumentException("Image file cannot be empty");
-        }
-
-        String contentType = file.getContentType();
-        if (contentType == null || !contentType.startsWith("image/")) {
-            throw new IllegalArgumentException("File must be an image");
-        }
-
-        // Check file size (max 10MB)
-        if (file.getSize() > 10 * 1024 * 1024) {
-            throw new IllegalArgumentException("Image file size cannot exceed 10MB");
-        }
-        // Removed strict format check to allow any image type for analysis
-    }
 }
@@ -0,0 +1,74 @@
+package com.medassist.ai.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Perceptual hashes of analysed uploads, searchable by Hamming distance, so a new photo of
+ * an already-analysed pack can reuse the text extracted from it. Maps each hash to the
+ * content digest that text is cached under; an entry whose text has since been evicted
+ * simply misses. The tree is cleared when it reaches its size limit.
+ */
+@Slf4j
+@Component
+public class NearDuplicateImageIndex {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private HammingBkTree<String> tree = new HammingBkTree<>();
+
+    @Value("${ai.near-duplicate.max-distance:5}")
+    private int maxDistance = 5;
+
+    @Value("${ai.near-duplicate.max-entries:20000}")
+    private int maxEntries = 20000;
+
+    /**
+     * Remember that the upload with this digest and perceptual hash has a cached analysis
+     */
+    public void register(long perceptualHash, String imageDigest) {
+        lock.writeLock().lock();
+        try {
+            if (tree.size() >= maxEntries) {
+                log.info("Near-duplicate image index reached {} entries, starting over", tree.size());
+                tree = new HammingBkTree<>();
+            }
+            tree.add(perceptualHash, imageDigest);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Closest registered upload within the configured distance, or null
+     */
+    public HammingBkTree.Match<String> findNear(long perceptualHash) {
+        if (maxDistance < 0) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            return tree.nearest(perceptualHash, maxDistance);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Similarity in [0, 1] of two hashes at the given distance
+     */
+    public static double similarity(int distance) {
+        return 1.0 - (double) distance / Long.SIZE;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return tree.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.medassist.ai.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs {@link RasterEnhancer} over row bands of an image in parallel, on a dedicated
+ * fork-join pool capped at the configured parallelism, so image work cannot take threads
+ * from the servlet container, the async executors or the common pool.
+ *
+ * Bands are split recursively; at each split the two rows on either side of the boundary
+ * are copied as halo rows before either half runs, so the in-place blur of one band never
+ * sees pixels already rewritten by its neighbour and the result matches a sequential pass.
+ */
+@Slf4j
+@Component
+public class ParallelRasterEnhancer {
+
+    private final int parallelism;
+    private final int minBandRows;
+    private final ForkJoinPool pool;
+
+    public ParallelRasterEnhancer(@Value("${ai.image.parallelism:0}") int parallelism,
+                                  @Value("${ai.image.min-band-rows:64}") int minBandRows) {
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.minBandRows = Math.max(3, minBandRows);
+        this.pool = new ForkJoinPool(this.parallelism, ParallelRasterEnhancer::newWorker, null, false,
+            0, this.parallelism, 1, busy -> true, 60, TimeUnit.SECONDS);
+        log.info("Image enhancement pool: {} threads, bands of at least {} rows", this.parallelism, this.minBandRows);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Enhance the first width * height pixels in place, equivalent to
+     * {@link RasterEnhancer#enhance(int[], int, int)}
+     */
+    public void enhance(int[] pixels, int width, int height) {
+        if (height < 2 * minBandRows || parallelism == 1) {
+            RasterEnhancer.enhance(pixels, width, height);
+            return;
+        }
+        pool.invoke(new BandTask(pixels, width, height, 0, height, null, null, minBandRows));
+    }
+
+    int getParallelism() {
+        return parallelism;
+    }
+
+    private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("image-worker-" + thread.getPoolIndex());
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static final class BandTask extends RecursiveAction {
+
+        private final int[] pixels;
+        private final int width;
+        private final int height;
+        private final int fromRow;
+        private final int toRow;
+        private final int[] haloAbove;
+        private final int[] haloBelow;
+        private final int minBandRows;
+
+        private BandTask(int[] pixels, int width, int height, int fromRow, int toRow,
+                         int[] haloAbove, int[] haloBelow, int minBandRows) {
+            this.pixels = pixels;
+            this.width = width;
+            this.height = height;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.haloAbove = haloAbove;
+            this.haloBelow = haloBelow;
+            this.minBandRows = minBandRows;
+        }
+
+        @Override
+        protected void compute() {
+            if (toRow - fromRow < 2 * minBandRows) {
+                RasterEnhancer.enhanceRows(pixels, width, height, fromRow, toRow, haloAbove, haloBelow);
+                return;
+            }
+
+            // Neither half has started, so both boundary rows are still untouched
+            int mid = (fromRow + toRow) >>> 1;
+            int[] lastOfUpper = RasterEnhancer.copyRow(pixels, width, mid - 1);
+            int[] firstOfLower = RasterEnhancer.copyRow(pixels, width, mid);
+            invokeAll(new BandTask(pixels, width, height, fromRow, mid, haloAbove, firstOfLower, minBandRows),
+                new BandTask(pixels, width, height, mid, toRow, lastOfUpper, haloBelow, minBandRows));
+        }
+    }
+}
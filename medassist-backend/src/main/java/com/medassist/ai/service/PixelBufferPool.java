@@ -0,0 +1,51 @@
+package com.medassist.ai.service;
+
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Bounded pool of fixed-size packed-RGB pixel arrays, so the image pipeline does not
+ * allocate a fresh multi-megabyte raster per upload. When the pool is empty a new array is
+ * allocated; arrays released while the pool is full are left to the garbage collector.
+ */
+final class PixelBufferPool {
+
+    private static final DirectColorModel RGB = new DirectColorModel(24, 0x00FF0000, 0x0000FF00, 0x000000FF);
+
+    private final ArrayBlockingQueue<int[]> free;
+    private final int bufferSize;
+
+    PixelBufferPool(int capacity, int bufferSize) {
+        this.free = new ArrayBlockingQueue<>(capacity);
+        this.bufferSize = bufferSize;
+    }
+
+    int[] acquire() {
+        int[] buffer = free.poll();
+        return buffer != null ? buffer : new int[bufferSize];
+    }
+
+    void release(int[] buffer) {
+        if (buffer != null && buffer.length == bufferSize) {
+            free.offer(buffer);
+        }
+    }
+
+    int bufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * RGB image of the given size backed by the start of the buffer (row stride = width)
+     */
+    static BufferedImage wrap(int[] buffer, int width, int height) {
+        DataBufferInt data = new DataBufferInt(buffer, width * height);
+        WritableRaster raster = Raster.createPackedRaster(data, width, height, width, RGB.getMasks(), (Point) null);
+        return new BufferedImage(RGB, raster, false, null);
+    }
+}
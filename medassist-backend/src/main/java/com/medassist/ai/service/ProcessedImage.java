@@ -0,0 +1,31 @@
+package com.medassist.ai.service;
+
+/**
+ * An upload prepared for Gemini: the encoded enhanced image with its MIME type, and the
+ * perceptual hash of the decoded original, used to recognise near-duplicate photos. The
+ * bytes are kept raw; they are base64-encoded only while the request body is written.
+ */
+public final class ProcessedImage {
+
+    private final byte[] data;
+    private final String mimeType;
+    private final long perceptualHash;
+
+    public ProcessedImage(byte[] data, String mimeType, long perceptualHash) {
+        this.data = data;
+        this.mimeType = mimeType;
+        this.perceptualHash = perceptualHash;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    public long getPerceptualHash() {
+        return perceptualHash;
+    }
+}
@@ -6,6 +6,12 @@ import java.util.Map;
 @Service
 public class PromptTemplateService {
 
+    /**
+     * Version of the templates below; bump it whenever a template changes so that analyses
+     * cached under the previous wording are no longer served
+     */
+    public static final String TEMPLATE_VERSION = "1";
+
     private static final String MEDICINE_ANALYSIS_PROMPT = """
         You are an expert medical AI assistant specializing in medicine identification and analysis.
         Please analyze the following medicine information and provide a comprehensive response in JSON format.
@@ -102,6 +108,19 @@ public class PromptTemplateService {
         If the image is unclear or you cannot identify medicine-related text, indicate this in your response.
         """;
 
+    // Wraps the analysis prompt so one call both reads the packaging and analyses the medicine
+    private static final String IMAGE_ANALYSIS_PROMPT_PREFIX = """
+        The attached image shows medicine packaging. Read all text visible on it, including
+        the brand and generic names, strength, active ingredients and manufacturer, and use
+        it to identify the medicine.
+
+        """;
+
+    private static final String IMAGE_ANALYSIS_PROMPT_SUFFIX = """
+        - Add an "extracted_text" field to the JSON object holding all text visible in the image, verbatim
+        - If the image is unclear or shows no medicine, say so in the description and use a low confidence score
+        """;
+
     private static final String DRUG_INTERACTION_PROMPT = """
         You are a clinical pharmacist AI assistant specializing in drug interactions.
         Please analyze potential interactions for the following medicines:
@@ -176,6 +195,18 @@ public class PromptTemplateService {
         return IMAGE_TEXT_EXTRACTION_PROMPT;
     }
 
+    /**
+     * Prompt for analysing a medicine straight from an image in one call: the analysis JSON,
+     * with the text read from the packaging as "extracted_text". The user query is optional.
+     */
+    public String getImageAnalysisPrompt(String userQuery) {
+        String query = userQuery != null && !userQuery.isBlank()
+            ? "the medicine in the attached image; the user asks: " + userQuery
+            : "the medicine in the attached image";
+        return IMAGE_ANALYSIS_PROMPT_PREFIX + MEDICINE_ANALYSIS_PROMPT.replace("{query}", query)
+            + IMAGE_ANALYSIS_PROMPT_SUFFIX;
+    }
+
     public String getDrugInteractionPrompt(String primaryMedicine, String otherMedicines) {
         return DRUG_INTERACTION_PROMPT
             .replace("{primary_medicine}", primaryMedicine)
@@ -0,0 +1,185 @@
+package com.medassist.ai.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Text-legibility enhancement on packed RGB pixel arrays (the int[] raster behind a
+ * TYPE_INT_RGB image), without per-pixel objects.
+ *
+ * Contrast is a 256-entry lookup table applied per channel. Noise reduction blends each
+ * interior pixel with its 3x3 mean, computed as a separable box filter: horizontal 3-sums
+ * are kept for a rolling window of three rows, so the filter runs in place with O(width)
+ * scratch space and border pixels are left untouched. Both steps can run on a band of rows
+ * given copies of the rows bordering it.
+ *
+ * The per-row loops run on SIMD kernels when the JVM was started with
+ * --add-modules jdk.incubator.vector, and on plain Java otherwise; set the system property
+ * medassist.image.vector-kernels=false to force the scalar kernels.
+ */
+final class RasterEnhancer {
+
+    private static final Logger logger = LoggerFactory.getLogger(RasterEnhancer.class);
+
+    /** Contrast stretch around mid-grey used for packaging text */
+    static final double CONTRAST_FACTOR = 1.2;
+
+    /** Weight of the original pixel when blending with its 3x3 mean, in tenths */
+    static final int CENTER_WEIGHT_TENTHS = 7;
+
+    static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    static final RasterKernels SCALAR_KERNELS = new ScalarRasterKernels();
+
+    /** Vector kernels, or null when the module is not available */
+    static final RasterKernels VECTOR_KERNELS = loadVectorKernels();
+
+    private static final RasterKernels KERNELS = selectKernels();
+
+    private RasterEnhancer() {
+    }
+
+    /**
+     * Contrast enhancement followed by noise reduction on the first width * height pixels;
+     * the array may be larger, e.g. a pooled buffer
+     */
+    static void enhance(int[] pixels, int width, int height) {
+        enhanceRows(KERNELS, pixels, width, height, 0, height, null, null);
+    }
+
+    /**
+     * {@link #enhance(int[], int, int)} on the given kernels
+     */
+    static void enhance(RasterKernels kernels, int[] pixels, int width, int height) {
+        enhanceRows(kernels, pixels, width, height, 0, height, null, null);
+    }
+
+    /**
+     * Enhance rows [fromRow, toRow) only, so disjoint bands can run concurrently. The blur
+     * reads one row beyond each side of the band; those halo rows are passed as copies taken
+     * before any band was processed (null at the image edges), since a neighbouring band
+     * may already have overwritten them.
+     */
+    static void enhanceRows(int[] pixels, int width, int height, int fromRow, int toRow,
+                            int[] haloAbove, int[] haloBelow) {
+        enhanceRows(KERNELS, pixels, width, height, fromRow, toRow, haloAbove, haloBelow);
+    }
+
+    private static void enhanceRows(RasterKernels kernels, int[] pixels, int width, int height, int fromRow, int toRow,
+                                    int[] haloAbove, int[] haloBelow) {
+        kernels.contrast(pixels, fromRow * width, toRow * width);
+        if (haloAbove != null) {
+            kernels.contrast(haloAbove, 0, width);
+        }
+        if (haloBelow != null) {
+            kernels.contrast(haloBelow, 0, width);
+        }
+        denoiseRows(kernels, pixels, width, height, fromRow, toRow, haloAbove, haloBelow);
+    }
+
+    /**
+     * Copy of one row, for use as a halo
+     */
+    static int[] copyRow(int[] pixels, int width, int y) {
+        int[] row = new int[width];
+        System.arraycopy(pixels, y * width, row, 0, width);
+        return row;
+    }
+
+    /**
+     * Lookup table stretching channel values away from 128 by the factor, clamped to [0, 255]
+     */
+    static int[] contrastLut(double factor) {
+        int[] lut = new int[256];
+        for (int v = 0; v < 256; v++) {
+            lut[v] = (int) Math.min(255, Math.max(0, (v - 128) * factor + 128));
+        }
+        return lut;
+    }
+
+    /**
+     * Map every channel of the pixels in [from, to) through the table
+     */
+    static void applyLut(int[] pixels, int from, int to, int[] lut) {
+        for (int i = from; i < to; i++) {
+            int rgb = pixels[i];
+            pixels[i] = (lut[(rgb >> 16) & 0xFF] << 16) | (lut[(rgb >> 8) & 0xFF] << 8) | lut[rgb & 0xFF];
+        }
+    }
+
+    /**
+     * Blend each interior pixel 70/30 with the mean of its 3x3 neighbourhood, in place
+     */
+    static void denoise(int[] pixels, int width, int height) {
+        denoiseRows(KERNELS, pixels, width, height, 0, height, null, null);
+    }
+
+    /**
+     * Whether the SIMD kernels are in use
+     */
+    static boolean vectorized() {
+        return KERNELS == VECTOR_KERNELS;
+    }
+
+    private static void denoiseRows(RasterKernels kernels, int[] pixels, int width, int height, int fromRow, int toRow,
+                                    int[] haloAbove, int[] haloBelow) {
+        int first = Math.max(1, fromRow);
+        int last = Math.min(height - 1, toRow);
+        if (width < 3 || first >= last) {
+            return;
+        }
+        // Horizontal 3-sums of rows y-1, y and y+1 per channel, indexed by row % 3
+        int[][] red = new int[3][width];
+        int[][] green = new int[3][width];
+        int[][] blue = new int[3][width];
+        for (int y = first - 1; y <= first; y++) {
+            horizontalSums(kernels, pixels, width, y, fromRow, toRow, haloAbove, haloBelow, red, green, blue);
+        }
+
+        for (int y = first; y < last; y++) {
+            // Row y+1 is still unmodified; rows above were summed before being overwritten
+            horizontalSums(kernels, pixels, width, y + 1, fromRow, toRow, haloAbove, haloBelow, red, green, blue);
+            kernels.blendRow(pixels, y * width, width, red, green, blue, (y - 1) % 3, y % 3, (y + 1) % 3);
+        }
+    }
+
+    // Sums for row y into slot y % 3; rows outside the band are read from the halo copies
+    private static void horizontalSums(RasterKernels kernels, int[] pixels, int width, int y, int fromRow, int toRow,
+                                       int[] haloAbove, int[] haloBelow, int[][] red, int[][] green, int[][] blue) {
+        int[] source = pixels;
+        int offset = y * width;
+        if (y < fromRow) {
+            source = haloAbove;
+            offset = 0;
+        } else if (y >= toRow) {
+            source = haloBelow;
+            offset = 0;
+        }
+        int slot = y % 3;
+        kernels.horizontalSums(source, offset, width, red[slot], green[slot], blue[slot]);
+    }
+
+    private static RasterKernels loadVectorKernels() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return null;
+        }
+        try {
+            return (RasterKernels) Class.forName(RasterEnhancer.class.getPackageName() + ".VectorRasterKernels")
+                .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            logger.warn("Vector image kernels unavailable, using scalar kernels: {}", e.toString());
+            return null;
+        }
+    }
+
+    private static RasterKernels selectKernels() {
+        boolean allowed = Boolean.parseBoolean(System.getProperty("medassist.image.vector-kernels", "true"));
+        if (allowed && VECTOR_KERNELS != null) {
+            logger.info("Image enhancement using vector kernels");
+            return VECTOR_KERNELS;
+        }
+        logger.info("Image enhancement using scalar kernels{}",
+            VECTOR_KERNELS == null ? " (start with --add-modules " + VECTOR_MODULE + " to vectorize)" : "");
+        return SCALAR_KERNELS;
+    }
+}
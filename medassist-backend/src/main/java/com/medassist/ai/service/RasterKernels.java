@@ -0,0 +1,26 @@
+package com.medassist.ai.service;
+
+/**
+ * Inner loops of {@link RasterEnhancer}, so they can be swapped for a SIMD implementation.
+ * Implementations must produce identical pixels.
+ */
+interface RasterKernels {
+
+    /**
+     * Apply the default contrast stretch to the pixels in [from, to)
+     */
+    void contrast(int[] pixels, int from, int to);
+
+    /**
+     * Per-channel sums of each pixel of the row starting at offset with its left and right
+     * neighbours, for columns 1 to width - 2
+     */
+    void horizontalSums(int[] source, int offset, int width, int[] red, int[] green, int[] blue);
+
+    /**
+     * Blend columns 1 to width - 2 of the row starting at offset with their 3x3 means, given
+     * the horizontal sums of the rows above, at and below it
+     */
+    void blendRow(int[] pixels, int offset, int width, int[][] red, int[][] green, int[][] blue,
+                  int above, int row, int below);
+}
@@ -0,0 +1,57 @@
+package com.medassist.ai.service;
+
+/**
+ * Plain-Java raster kernels; always available, and used for the tail columns of the
+ * vector kernels.
+ */
+final class ScalarRasterKernels implements RasterKernels {
+
+    private static final int[] DEFAULT_CONTRAST_LUT = RasterEnhancer.contrastLut(RasterEnhancer.CONTRAST_FACTOR);
+
+    @Override
+    public void contrast(int[] pixels, int from, int to) {
+        RasterEnhancer.applyLut(pixels, from, to, DEFAULT_CONTRAST_LUT);
+    }
+
+    @Override
+    public void horizontalSums(int[] source, int offset, int width, int[] red, int[] green, int[] blue) {
+        sumColumns(source, offset, 1, width - 1, red, green, blue);
+    }
+
+    @Override
+    public void blendRow(int[] pixels, int offset, int width, int[][] red, int[][] green, int[][] blue,
+                         int above, int row, int below) {
+        blendColumns(pixels, offset, 1, width - 1, red, green, blue, above, row, below);
+    }
+
+    static void sumColumns(int[] source, int offset, int fromX, int toX, int[] red, int[] green, int[] blue) {
+        for (int x = fromX; x < toX; x++) {
+            int left = source[offset + x - 1];
+            int mid = source[offset + x];
+            int right = source[offset + x + 1];
+            red[x] = ((left >> 16) & 0xFF) + ((mid >> 16) & 0xFF) + ((right >> 16) & 0xFF);
+            green[x] = ((left >> 8) & 0xFF) + ((mid >> 8) & 0xFF) + ((right >> 8) & 0xFF);
+            blue[x] = (left & 0xFF) + (mid & 0xFF) + (right & 0xFF);
+        }
+    }
+
+    static void blendColumns(int[] pixels, int offset, int fromX, int toX, int[][] red, int[][] green, int[][] blue,
+                             int above, int row, int below) {
+        int[] r0 = red[above], r1 = red[row], r2 = red[below];
+        int[] g0 = green[above], g1 = green[row], g2 = green[below];
+        int[] b0 = blue[above], b1 = blue[row], b2 = blue[below];
+        for (int x = fromX; x < toX; x++) {
+            int center = pixels[offset + x];
+            int red9 = (r0[x] + r1[x] + r2[x]) / 9;
+            int green9 = (g0[x] + g1[x] + g2[x]) / 9;
+            int blue9 = (b0[x] + b1[x] + b2[x]) / 9;
+            pixels[offset + x] = (blend((center >> 16) & 0xFF, red9) << 16)
+                | (blend((center >> 8) & 0xFF, green9) << 8)
+                | blend(center & 0xFF, blue9);
+        }
+    }
+
+    private static int blend(int center, int mean) {
+        return (center * RasterEnhancer.CENTER_WEIGHT_TENTHS + mean * (10 - RasterEnhancer.CENTER_WEIGHT_TENTHS)) / 10;
+    }
+}
@@ -0,0 +1,37 @@
+package com.medassist.ai.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Bounded pool of byte arrays that uploads are read into. A pooled array too small for an
+ * upload is dropped and a larger one allocated; arrays above the pooling limit are never
+ * retained, so the pool holds at most capacity * maxPooledSize bytes.
+ */
+final class UploadBufferPool {
+
+    // Allocations are rounded up so one buffer serves uploads of similar size
+    private static final int SIZE_STEP = 256 * 1024;
+
+    private final ArrayBlockingQueue<byte[]> free;
+    private final int maxPooledSize;
+
+    UploadBufferPool(int capacity, int maxPooledSize) {
+        this.free = new ArrayBlockingQueue<>(capacity);
+        this.maxPooledSize = maxPooledSize;
+    }
+
+    byte[] acquire(int size) {
+        byte[] buffer = free.poll();
+        if (buffer != null && buffer.length >= size) {
+            return buffer;
+        }
+        int rounded = (int) Math.min(Integer.MAX_VALUE - 8, ((long) size + SIZE_STEP - 1) / SIZE_STEP * SIZE_STEP);
+        return new byte[Math.max(size, rounded)];
+    }
+
+    void release(byte[] buffer) {
+        if (buffer != null && buffer.length <= maxPooledSize) {
+            free.offer(buffer);
+        }
+    }
+}
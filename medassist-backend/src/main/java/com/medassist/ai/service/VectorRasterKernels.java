@@ -0,0 +1,117 @@
+package com.medassist.ai.service;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Raster kernels on the JDK Vector API (jdk.incubator.vector), processing one SIMD
+ * register of packed pixels at a time. Only loaded when the module is present, see
+ * {@link RasterEnhancer}.
+ *
+ * The contrast table lookup becomes arithmetic: with the factor 1.2 = 6/5, the stretched
+ * value is (6v - 128) / 5 clamped to [0, 255]. Divisions by 5, 9 and 10 are done as
+ * multiply-and-shift, exact over the value ranges that occur. The constructor checks the
+ * contrast against the scalar table, so a changed factor fails loading and falls back to
+ * the scalar kernels instead of silently diverging.
+ */
+final class VectorRasterKernels implements RasterKernels {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    // x / 5 == (x * 52429) >>> 18 for 0 <= x <= 1402
+    private static final int DIV5_MUL = 52429;
+    private static final int DIV5_SHIFT = 18;
+    // x / 9 == (x * 58255) >>> 19 for 0 <= x <= 2295
+    private static final int DIV9_MUL = 58255;
+    private static final int DIV9_SHIFT = 19;
+    // x / 10 == (x * 52429) >>> 19 for 0 <= x <= 2550
+    private static final int DIV10_MUL = 52429;
+    private static final int DIV10_SHIFT = 19;
+
+    private final ScalarRasterKernels scalar = new ScalarRasterKernels();
+
+    VectorRasterKernels() {
+        int[] expected = RasterEnhancer.contrastLut(RasterEnhancer.CONTRAST_FACTOR);
+        int[] probe = new int[256];
+        for (int v = 0; v < 256; v++) {
+            probe[v] = v;
+        }
+        int vectorEnd = SPECIES.loopBound(probe.length);
+        contrastLanes(probe, 0, vectorEnd);
+        for (int v = 0; v < vectorEnd; v++) {
+            if ((probe[v] & 0xFF) != expected[v]) {
+                throw new IllegalStateException("Vector contrast does not match factor " + RasterEnhancer.CONTRAST_FACTOR);
+            }
+        }
+    }
+
+    @Override
+    public void contrast(int[] pixels, int from, int to) {
+        int vectorEnd = from + SPECIES.loopBound(to - from);
+        contrastLanes(pixels, from, vectorEnd);
+        scalar.contrast(pixels, vectorEnd, to);
+    }
+
+    @Override
+    public void horizontalSums(int[] source, int offset, int width, int[] red, int[] green, int[] blue) {
+        int x = 1;
+        // Lanes x .. x + L - 1 read up to column x + L, which must be at most width - 1
+        for (; x + SPECIES.length() <= width - 1; x += SPECIES.length()) {
+            IntVector left = IntVector.fromArray(SPECIES, source, offset + x - 1);
+            IntVector mid = IntVector.fromArray(SPECIES, source, offset + x);
+            IntVector right = IntVector.fromArray(SPECIES, source, offset + x + 1);
+            channel(left, 16).add(channel(mid, 16)).add(channel(right, 16)).intoArray(red, x);
+            channel(left, 8).add(channel(mid, 8)).add(channel(right, 8)).intoArray(green, x);
+            channel(left, 0).add(channel(mid, 0)).add(channel(right, 0)).intoArray(blue, x);
+        }
+        ScalarRasterKernels.sumColumns(source, offset, x, width - 1, red, green, blue);
+    }
+
+    @Override
+    public void blendRow(int[] pixels, int offset, int width, int[][] red, int[][] green, int[][] blue,
+                         int above, int row, int below) {
+        int x = 1;
+        for (; x + SPECIES.length() <= width - 1; x += SPECIES.length()) {
+            IntVector center = IntVector.fromArray(SPECIES, pixels, offset + x);
+            IntVector r = blend(channel(center, 16), mean(red, above, row, below, x));
+            IntVector g = blend(channel(center, 8), mean(green, above, row, below, x));
+            IntVector b = blend(channel(center, 0), mean(blue, above, row, below, x));
+            r.lanewise(VectorOperators.LSHL, 16).or(g.lanewise(VectorOperators.LSHL, 8)).or(b)
+                .intoArray(pixels, offset + x);
+        }
+        ScalarRasterKernels.blendColumns(pixels, offset, x, width - 1, red, green, blue, above, row, below);
+    }
+
+    private static void contrastLanes(int[] pixels, int from, int to) {
+        for (int i = from; i < to; i += SPECIES.length()) {
+            IntVector rgb = IntVector.fromArray(SPECIES, pixels, i);
+            IntVector r = stretch(channel(rgb, 16));
+            IntVector g = stretch(channel(rgb, 8));
+            IntVector b = stretch(channel(rgb, 0));
+            r.lanewise(VectorOperators.LSHL, 16).or(g.lanewise(VectorOperators.LSHL, 8)).or(b).intoArray(pixels, i);
+        }
+    }
+
+    private static IntVector channel(IntVector rgb, int shift) {
+        return shift == 0 ? rgb.and(0xFF) : rgb.lanewise(VectorOperators.LSHR, shift).and(0xFF);
+    }
+
+    private static IntVector stretch(IntVector value) {
+        return value.mul(6).sub(128).max(0)
+            .mul(DIV5_MUL).lanewise(VectorOperators.LSHR, DIV5_SHIFT)
+            .min(255);
+    }
+
+    private static IntVector mean(int[][] sums, int above, int row, int below, int x) {
+        return IntVector.fromArray(SPECIES, sums[above], x)
+            .add(IntVector.fromArray(SPECIES, sums[row], x))
+            .add(IntVector.fromArray(SPECIES, sums[below], x))
+            .mul(DIV9_MUL).lanewise(VectorOperators.LSHR, DIV9_SHIFT);
+    }
+
+    private static IntVector blend(IntVector center, IntVector mean) {
+        return center.mul(RasterEnhancer.CENTER_WEIGHT_TENTHS).add(mean.mul(10 - RasterEnhancer.CENTER_WEIGHT_TENTHS))
+            .mul(DIV10_MUL).lanewise(VectorOperators.LSHR, DIV10_SHIFT);
+    }
+}
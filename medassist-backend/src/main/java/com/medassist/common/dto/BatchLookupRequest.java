@@ -0,0 +1,30 @@
+package com.medassist.common.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * Request body for multi-get endpoints that resolve many entities by id in one call.
+ */
+public class BatchLookupRequest {
+
+    @NotEmpty(message = "At least one id is required")
+    @JsonProperty("ids")
+    private List<Long> ids;
+
+    public BatchLookupRequest() {}
+
+    public BatchLookupRequest(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+}
@@ -0,0 +1,42 @@
+package com.medassist.common.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Response for multi-get endpoints: found entities in request order plus the ids that did not resolve.
+ *
+ * @param <T> The entity type being looked up
+ */
+public class BatchLookupResponse<T> {
+
+    @JsonProperty("results")
+    private List<T> results;
+
+    @JsonProperty("missing_ids")
+    private List<Long> missingIds;
+
+    public BatchLookupResponse() {}
+
+    public BatchLookupResponse(List<T> results, List<Long> missingIds) {
+        this.results = results;
+        this.missingIds = missingIds;
+    }
+
+    public List<T> getResults() {
+        return results;
+    }
+
+    public void setResults(List<T> results) {
+        this.results = results;
+    }
+
+    public List<Long> getMissingIds() {
+        return missingIds;
+    }
+
+    public void setMissingIds(List<Long> missingIds) {
+        this.missingIds = missingIds;
+    }
+}
@@ -75,6 +75,8 @@ public class CoreSecurityConfig {
                 // Admin-only endpoints (v1 API versioned)
                 .requestMatchers("/api/v1/medicines").hasRole("ADMIN")
                 .requestMatchers("/api/v1/pharmacies").hasRole("ADMIN")
+                .requestMatchers("/api/v1/inventory/**").hasAuthority("ADMIN_ACCESS")  // Pharmacy system feeds
+                .requestMatchers("/api/v1/availability/**").hasAuthority("ADMIN_ACCESS")
                 .requestMatchers("/actuator/**").hasRole("ADMIN")
 
                 // All other requests require authentication
@@ -0,0 +1,91 @@
+package com.medassist.common.service;
+
+import com.medassist.common.dto.BatchLookupResponse;
+import com.medassist.common.exception.BusinessValidationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Multi-get by id over a per-entity cache: cache probes first, then one loader call (an
+ * IN query) for the misses, which are prepared and cached before they are returned.
+ *
+ * @param <T> The entity type being looked up
+ */
+@Slf4j
+public final class CachedBatchLookup<T> {
+
+    private final Class<T> type;
+    private final Function<T, Long> idOf;
+    private final Function<List<Long>, ? extends Iterable<T>> loader;
+    private final Consumer<T> prepare;
+
+    /**
+     * @param loader loads the entities for the given ids, e.g. repository::findAllById
+     * @param prepare initialises lazy state of a loaded entity before it is cached
+     */
+    public CachedBatchLookup(Class<T> type, Function<T, Long> idOf,
+                             Function<List<Long>, ? extends Iterable<T>> loader, Consumer<T> prepare) {
+        this.type = type;
+        this.idOf = idOf;
+        this.loader = loader;
+        this.prepare = prepare;
+    }
+
+    /**
+     * Entities for the distinct non-null ids in request order, plus the ids not found.
+     * The cache may be null, in which case every id is loaded.
+     */
+    public BatchLookupResponse<T> lookup(List<Long> ids, int maxIds, Cache cache) {
+        List<Long> uniqueIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        uniqueIds.removeIf(id -> id == null);
+        if (uniqueIds.size() > maxIds) {
+            throw new BusinessValidationException(
+                "Batch lookup is limited to " + maxIds + " ids", "BATCH_TOO_LARGE");
+        }
+
+        Map<Long, T> found = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long id : uniqueIds) {
+            T cached = cache != null ? cache.get(id, type) : null;
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                misses.add(id);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            for (T entity : loader.apply(misses)) {
+                prepare.accept(entity);
+                Long id = idOf.apply(entity);
+                found.put(id, entity);
+                if (cache != null) {
+                    cache.put(id, entity);
+                }
+            }
+        }
+
+        log.debug("{} batch lookup: {} ids, {} cache hits",
+            type.getSimpleName(), uniqueIds.size(), uniqueIds.size() - misses.size());
+
+        List<T> results = new ArrayList<>(uniqueIds.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : uniqueIds) {
+            T entity = found.get(id);
+            if (entity != null) {
+                results.add(entity);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new BatchLookupResponse<>(results, missingIds);
+    }
+}
@@ -0,0 +1,28 @@
+package com.medassist.inventory.controller;
+
+import com.medassist.inventory.dto.InventoryIngestRequest;
+import com.medassist.inventory.dto.InventoryIngestResponse;
+import com.medassist.inventory.service.InventoryIngestService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import jakarta.validation.Valid;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/inventory")
+@RequiredArgsConstructor
+// CORS is handled globally by CoreSecurityConfig
+public class InventoryController {
+
+    private final InventoryIngestService inventoryIngestService;
+
+    /**
+     * Ingest stock snapshots and deltas from pharmacy systems
+     */
+    @PostMapping("/updates")
+    public ResponseEntity<InventoryIngestResponse> ingestUpdates(@Valid @RequestBody InventoryIngestRequest request) {
+        return ResponseEntity.ok(inventoryIngestService.ingest(request.getBatches()));
+    }
+}
@@ -0,0 +1,96 @@
+package com.medassist.inventory.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * One batch from a pharmacy's inventory feed.
+ *
+ * A SNAPSHOT carries absolute quantities and replaces the pharmacy's whole stock (medicines
+ * not listed are out of stock); a DELTA carries signed quantity changes. Sequences increase
+ * per pharmacy, and a batch whose sequence was already applied is skipped, so feeds can be
+ * re-sent safely. A snapshot may jump ahead, but a delta must carry the sequence right after
+ * the last applied one: a delta after a gap is rejected until a new snapshot arrives.
+ */
+public class InventoryBatch {
+
+    public static final int MAX_ITEMS = 10000;
+
+    @NotNull(message = "Pharmacy id is required")
+    @JsonProperty("pharmacy_id")
+    private Long pharmacyId;
+
+    @NotNull(message = "Sequence is required")
+    @PositiveOrZero(message = "Sequence cannot be negative")
+    @JsonProperty("sequence")
+    private Long sequence;
+
+    @NotNull(message = "Mode is required")
+    @JsonProperty("mode")
+    private Mode mode;
+
+    @NotNull(message = "Items are required")
+    @Size(max = MAX_ITEMS, message = "At most " + MAX_ITEMS + " items per batch")
+    @Valid
+    @JsonProperty("items")
+    private List<Item> items;
+
+    public enum Mode {
+        SNAPSHOT,
+        DELTA
+    }
+
+    public InventoryBatch() {}
+
+    public InventoryBatch(Long pharmacyId, Long sequence, Mode mode, List<Item> items) {
+        this.pharmacyId = pharmacyId;
+        this.sequence = sequence;
+        this.mode = mode;
+        this.items = items;
+    }
+
+    // Getters and setters
+    public Long getPharmacyId() { return pharmacyId; }
+    public void setPharmacyId(Long pharmacyId) { this.pharmacyId = pharmacyId; }
+
+    public Long getSequence() { return sequence; }
+    public void setSequence(Long sequence) { this.sequence = sequence; }
+
+    public Mode getMode() { return mode; }
+    public void setMode(Mode mode) { this.mode = mode; }
+
+    public List<Item> getItems() { return items; }
+    public void setItems(List<Item> items) { this.items = items; }
+
+    /**
+     * Stock line: absolute quantity in a snapshot, signed change in a delta
+     */
+    public static class Item {
+
+        @NotNull(message = "Medicine id is required")
+        @JsonProperty("medicine_id")
+        private Long medicineId;
+
+        @NotNull(message = "Quantity is required")
+        @JsonProperty("quantity")
+        private Integer quantity;
+
+        public Item() {}
+
+        public Item(Long medicineId, Integer quantity) {
+            this.medicineId = medicineId;
+            this.quantity = quantity;
+        }
+
+        public Long getMedicineId() { return medicineId; }
+        public void setMedicineId(Long medicineId) { this.medicineId = medicineId; }
+
+        public Integer getQuantity() { return quantity; }
+        public void setQuantity(Integer quantity) { this.quantity = quantity; }
+    }
+}
@@ -0,0 +1,38 @@
+package com.medassist.inventory.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Request body for the inventory ingest endpoint: one or more feed batches, applied in order.
+ * The whole request is applied in one transaction holding the feed locks of its pharmacies,
+ * so its size is capped; larger feeds are posted in several requests.
+ */
+public class InventoryIngestRequest {
+
+    public static final int MAX_BATCHES = 100;
+
+    @NotEmpty(message = "At least one batch is required")
+    @Size(max = MAX_BATCHES, message = "At most " + MAX_BATCHES + " batches per request")
+    @Valid
+    @JsonProperty("batches")
+    private List<InventoryBatch> batches;
+
+    public InventoryIngestRequest() {}
+
+    public InventoryIngestRequest(List<InventoryBatch> batches) {
+        this.batches = batches;
+    }
+
+    public List<InventoryBatch> getBatches() {
+        return batches;
+    }
+
+    public void setBatches(List<InventoryBatch> batches) {
+        this.batches = batches;
+    }
+}
@@ -0,0 +1,57 @@
+package com.medassist.inventory.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of an ingest call: how many batches and stock lines were applied, how many batches
+ * were skipped because their sequence had already been applied, and how many deltas were
+ * rejected after a sequence gap. Pharmacies listed in resync_pharmacy_ids must send a
+ * SNAPSHOT before their deltas can apply again.
+ */
+public class InventoryIngestResponse {
+
+    @JsonProperty("batches_applied")
+    private int batchesApplied;
+
+    @JsonProperty("batches_skipped")
+    private int batchesSkipped;
+
+    @JsonProperty("batches_rejected")
+    private int batchesRejected;
+
+    @JsonProperty("items_applied")
+    private int itemsApplied;
+
+    @JsonProperty("resync_pharmacy_ids")
+    private List<Long> resyncPharmacyIds = new ArrayList<>();
+
+    public InventoryIngestResponse() {}
+
+    public InventoryIngestResponse(int batchesApplied, int batchesSkipped, int batchesRejected, int itemsApplied,
+                                   List<Long> resyncPharmacyIds) {
+        this.batchesApplied = batchesApplied;
+        this.batchesSkipped = batchesSkipped;
+        this.batchesRejected = batchesRejected;
+        this.itemsApplied = itemsApplied;
+        this.resyncPharmacyIds = resyncPharmacyIds;
+    }
+
+    // Getters and setters
+    public int getBatchesApplied() { return batchesApplied; }
+    public void setBatchesApplied(int batchesApplied) { this.batchesApplied = batchesApplied; }
+
+    public int getBatchesSkipped() { return batchesSkipped; }
+    public void setBatchesSkipped(int batchesSkipped) { this.batchesSkipped = batchesSkipped; }
+
+    public int getBatchesRejected() { return batchesRejected; }
+    public void setBatchesRejected(int batchesRejected) { this.batchesRejected = batchesRejected; }
+
+    public int getItemsApplied() { return itemsApplied; }
+    public void setItemsApplied(int itemsApplied) { this.itemsApplied = itemsApplied; }
+
+    public List<Long> getResyncPharmacyIds() { return resyncPharmacyIds; }
+    public void setResyncPharmacyIds(List<Long> resyncPharmacyIds) { this.resyncPharmacyIds = resyncPharmacyIds; }
+}
@@ -0,0 +1,44 @@
+package com.medassist.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Current stock of one medicine at one pharmacy, as last reported by the pharmacy's system.
+ * Rows are written by PharmacyInventoryJdbcRepository in batches; the entity exists so the
+ * schema is managed alongside the rest of the model.
+ */
+@Entity
+@Table(name = "pharmacy_inventory",
+    uniqueConstraints = @UniqueConstraint(name = "uk_pharmacy_inventory_pharmacy_medicine",
+        columnNames = {"pharmacy_id", "medicine_id"}),
+    indexes = {
+        @Index(name = "idx_pharmacy_inventory_medicine", columnList = "medicine_id")
+    })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PharmacyInventory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "pharmacy_id", nullable = false)
+    private Long pharmacyId;
+
+    @Column(name = "medicine_id", nullable = false)
+    private Long medicineId;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,32 @@
+package com.medassist.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ingest position of one pharmacy's inventory feed: the highest batch sequence applied.
+ * A batch whose sequence is not above it is a replay and is skipped.
+ */
+@Entity
+@Table(name = "pharmacy_inventory_feed")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PharmacyInventoryFeed {
+
+    @Id
+    @Column(name = "pharmacy_id")
+    private Long pharmacyId;
+
+    @Column(name = "last_sequence", nullable = false)
+    private long lastSequence;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
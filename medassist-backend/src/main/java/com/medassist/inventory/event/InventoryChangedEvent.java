@@ -0,0 +1,57 @@
+package com.medassist.inventory.event;
+
+import com.medassist.inventory.dto.InventoryBatch;
+
+/**
+ * Published by InventoryIngestService for every feed batch it applies.
+ * The in-memory stock index applies the same batch once the write has committed.
+ */
+public class InventoryChangedEvent {
+
+    private final Long pharmacyId;
+    private final long sequence;
+    private final InventoryBatch.Mode mode;
+    private final long[] medicineIds;
+    private final int[] quantities;
+    private final long occurredAtMillis;
+
+    public InventoryChangedEvent(Long pharmacyId, long sequence, InventoryBatch.Mode mode,
+                                 long[] medicineIds, int[] quantities, long occurredAtMillis) {
+        this.pharmacyId = pharmacyId;
+        this.sequence = sequence;
+        this.mode = mode;
+        this.medicineIds = medicineIds;
+        this.quantities = quantities;
+        this.occurredAtMillis = occurredAtMillis;
+    }
+
+    public Long getPharmacyId() {
+        return pharmacyId;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public InventoryBatch.Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Medicine ids of the batch, parallel to getQuantities()
+     */
+    public long[] getMedicineIds() {
+        return medicineIds;
+    }
+
+    /**
+     * Absolute quantities for a snapshot, signed changes for a delta
+     */
+    public int[] getQuantities() {
+        return quantities;
+    }
+
+    public long getOccurredAtMillis() {
+        return occurredAtMillis;
+    }
+}
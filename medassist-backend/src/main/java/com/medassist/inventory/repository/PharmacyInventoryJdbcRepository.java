@@ -0,0 +1,169 @@
+package com.medassist.inventory.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC access to pharmacy_inventory and pharmacy_inventory_feed.
+ *
+ * Feed batches are written with JDBC batch upserts (PostgreSQL ON CONFLICT) rather than
+ * through the entity manager: a batch of thousands of stock lines becomes a handful of
+ * round trips with no per-row select, dirty checking or persistence-context growth.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PharmacyInventoryJdbcRepository {
+
+    private static final String ADVANCE_SEQUENCE_SQL =
+        "INSERT INTO pharmacy_inventory_feed (pharmacy_id, last_sequence, updated_at) VALUES (?, ?, ?) " +
+        "ON CONFLICT (pharmacy_id) DO UPDATE SET last_sequence = EXCLUDED.last_sequence, updated_at = EXCLUDED.updated_at " +
+        "WHERE pharmacy_inventory_feed.last_sequence < EXCLUDED.last_sequence";
+
+    private static final String NEXT_SEQUENCE_SQL =
+        "UPDATE pharmacy_inventory_feed SET last_sequence = ?, updated_at = ? WHERE pharmacy_id = ? AND last_sequence = ?";
+
+    private static final String SELECT_SEQUENCE_SQL =
+        "SELECT last_sequence FROM pharmacy_inventory_feed WHERE pharmacy_id = ?";
+
+    private static final String CLEAR_STOCK_SQL =
+        "UPDATE pharmacy_inventory SET quantity = 0, updated_at = ? WHERE pharmacy_id = ? AND quantity <> 0";
+
+    private static final String UPSERT_QUANTITY_SQL =
+        "INSERT INTO pharmacy_inventory (pharmacy_id, medicine_id, quantity, updated_at) VALUES (?, ?, ?, ?) " +
+        "ON CONFLICT (pharmacy_id, medicine_id) DO UPDATE SET quantity = EXCLUDED.quantity, updated_at = EXCLUDED.updated_at";
+
+    private static final String APPLY_DELTA_SQL =
+        "INSERT INTO pharmacy_inventory (pharmacy_id, medicine_id, quantity, updated_at) VALUES (?, ?, GREATEST(?, 0), ?) " +
+        "ON CONFLICT (pharmacy_id, medicine_id) DO UPDATE " +
+        "SET quantity = GREATEST(pharmacy_inventory.quantity + ?, 0), updated_at = EXCLUDED.updated_at";
+
+    private static final String SELECT_STOCK_SQL =
+        "SELECT pharmacy_id, medicine_id, quantity, updated_at FROM pharmacy_inventory";
+
+    private static final String SELECT_PHARMACY_STOCK_SQL = SELECT_STOCK_SQL + " WHERE pharmacy_id = ?";
+
+    private static final String SELECT_SEQUENCES_SQL =
+        "SELECT pharmacy_id, last_sequence FROM pharmacy_inventory_feed";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Receives stock rows as they are read, without materialising the result
+     */
+    @FunctionalInterface
+    public interface StockRowHandler {
+        void accept(long pharmacyId, long medicineId, int quantity, long updatedAtMillis);
+    }
+
+    /**
+     * Move a pharmacy's feed position forward to the given sequence, as a snapshot may.
+     * Returns false, changing nothing, when the sequence was already applied. The feed row
+     * stays locked until commit, so concurrent batches for one pharmacy are serialised.
+     */
+    public boolean advanceSequence(long pharmacyId, long sequence, Timestamp now) {
+        return jdbcTemplate.update(ADVANCE_SEQUENCE_SQL, pharmacyId, sequence, now) > 0;
+    }
+
+    /**
+     * Move a pharmacy's feed position from sequence - 1 to sequence, as a delta must.
+     * Returns false, changing nothing, when the position is anywhere else; the row stays
+     * locked until commit as for advanceSequence.
+     */
+    public boolean advanceSequenceByOne(long pharmacyId, long sequence, Timestamp now) {
+        return jdbcTemplate.update(NEXT_SEQUENCE_SQL, sequence, now, pharmacyId, sequence - 1) > 0;
+    }
+
+    /**
+     * Feed position of one pharmacy, or null when it has never sent a batch
+     */
+    public Long findLastSequence(long pharmacyId) {
+        List<Long> sequences = jdbcTemplate.queryForList(SELECT_SEQUENCE_SQL, Long.class, pharmacyId);
+        return sequences.isEmpty() ? null : sequences.get(0);
+    }
+
+    /**
+     * Zero every stock line of a pharmacy (a snapshot then re-states what is in stock)
+     */
+    public int clearStock(long pharmacyId, Timestamp now) {
+        return jdbcTemplate.update(CLEAR_STOCK_SQL, now, pharmacyId);
+    }
+
+    /**
+     * Set absolute quantities, inserting lines that do not exist yet
+     */
+    public void upsertQuantities(long pharmacyId, long[] medicineIds, int[] quantities, Timestamp now) {
+        jdbcTemplate.batchUpdate(UPSERT_QUANTITY_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, pharmacyId);
+                ps.setLong(2, medicineIds[i]);
+                ps.setInt(3, Math.max(0, quantities[i]));
+                ps.setTimestamp(4, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return medicineIds.length;
+            }
+        });
+    }
+
+    /**
+     * Add signed changes to quantities, never going below zero
+     */
+    public void applyDeltas(long pharmacyId, long[] medicineIds, int[] deltas, Timestamp now) {
+        jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, pharmacyId);
+                ps.setLong(2, medicineIds[i]);
+                ps.setInt(3, deltas[i]);
+                ps.setTimestamp(4, now);
+                ps.setInt(5, deltas[i]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return medicineIds.length;
+            }
+        });
+    }
+
+    /**
+     * Stream every stock line
+     */
+    public void forEachStockRow(StockRowHandler handler) {
+        jdbcTemplate.query(SELECT_STOCK_SQL, rs -> {
+            handler.accept(rs.getLong(1), rs.getLong(2), rs.getInt(3), rs.getTimestamp(4).getTime());
+        });
+    }
+
+    /**
+     * Stream the stock lines of one pharmacy
+     */
+    public void forEachStockRow(long pharmacyId, StockRowHandler handler) {
+        jdbcTemplate.query(SELECT_PHARMACY_STOCK_SQL, rs -> {
+            handler.accept(rs.getLong(1), rs.getLong(2), rs.getInt(3), rs.getTimestamp(4).getTime());
+        }, pharmacyId);
+    }
+
+    /**
+     * Feed position of every pharmacy that has reported stock
+     */
+    public Map<Long, Long> findLastSequences() {
+        Map<Long, Long> sequences = new HashMap<>();
+        jdbcTemplate.query(SELECT_SEQUENCES_SQL, rs -> {
+            sequences.put(rs.getLong(1), rs.getLong(2));
+        });
+        return sequences;
+    }
+}
@@ -0,0 +1,172 @@
+package com.medassist.inventory.service;
+
+import com.medassist.common.exception.BusinessValidationException;
+import com.medassist.inventory.dto.InventoryBatch;
+import com.medassist.inventory.dto.InventoryIngestResponse;
+import com.medassist.inventory.event.InventoryChangedEvent;
+import com.medassist.inventory.repository.PharmacyInventoryJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Applies inventory feed batches from pharmacy systems.
+ *
+ * All batches of one call are written in a single transaction with JDBC batch upserts.
+ * Each batch first advances its pharmacy's feed sequence. A batch whose sequence was already
+ * applied is skipped, which makes re-sending a feed (or part of one) harmless. A delta must
+ * follow the last applied sequence directly: one that arrives after a gap, or before any
+ * snapshot, has no base to apply to, so it is rejected and the pharmacy is reported as
+ * needing a fresh snapshot.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InventoryIngestService {
+
+    // Feed rows are locked in this order, so concurrent multi-pharmacy calls cannot deadlock
+    private static final Comparator<InventoryBatch> FEED_ORDER = Comparator
+        .comparing(InventoryBatch::getPharmacyId)
+        .thenComparing(InventoryBatch::getSequence);
+
+    private enum Outcome {
+        APPLIED,
+        SKIPPED,
+        RESYNC_REQUIRED
+    }
+
+    private final PharmacyInventoryJdbcRepository inventoryRepository;
+    private final InventoryStockIndex inventoryStockIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${inventory.ingest.max-items-per-batch:10000}")
+    private int maxItemsPerBatch = 10000;
+
+    @Value("${inventory.ingest.max-batches-per-request:100}")
+    private int maxBatchesPerRequest = 100;
+
+    @Value("${inventory.ingest.max-items-per-request:50000}")
+    private int maxItemsPerRequest = 50000;
+
+    /**
+     * Apply feed batches in pharmacy and sequence order, skipping those already applied and
+     * rejecting deltas that do not follow on from the last applied sequence
+     */
+    @Transactional
+    public InventoryIngestResponse ingest(List<InventoryBatch> batches) {
+        // One transaction holds the feed locks of every pharmacy in the request, so keep it short
+        if (batches.size() > maxBatchesPerRequest) {
+            throw new BusinessValidationException(
+                "Inventory requests are limited to " + maxBatchesPerRequest + " batches", "BATCH_TOO_LARGE");
+        }
+        long totalItems = 0;
+        for (InventoryBatch batch : batches) {
+            validate(batch);
+            totalItems += batch.getItems().size();
+        }
+        if (totalItems > maxItemsPerRequest) {
+            throw new BusinessValidationException(
+                "Inventory requests are limited to " + maxItemsPerRequest + " items", "BATCH_TOO_LARGE");
+        }
+        List<InventoryBatch> ordered = new ArrayList<>(batches);
+        ordered.sort(FEED_ORDER);
+
+        int applied = 0;
+        int skipped = 0;
+        int rejected = 0;
+        int items = 0;
+        Set<Long> resync = new LinkedHashSet<>();
+        for (InventoryBatch batch : ordered) {
+            // Later deltas of a pharmacy that needs a snapshot cannot apply either
+            Outcome outcome = resync.contains(batch.getPharmacyId()) && batch.getMode() == InventoryBatch.Mode.DELTA
+                ? Outcome.RESYNC_REQUIRED : apply(batch);
+            switch (outcome) {
+                case APPLIED -> {
+                    applied++;
+                    items += batch.getItems().size();
+                    resync.remove(batch.getPharmacyId());
+                }
+                case SKIPPED -> skipped++;
+                case RESYNC_REQUIRED -> {
+                    rejected++;
+                    resync.add(batch.getPharmacyId());
+                }
+            }
+        }
+
+        if (!resync.isEmpty()) {
+            log.warn("Inventory ingest: deltas rejected after a sequence gap, pharmacies {} need a snapshot", resync);
+        }
+        log.debug("Inventory ingest: {} batches applied ({} items), {} skipped, {} rejected",
+            applied, items, skipped, rejected);
+        return new InventoryIngestResponse(applied, skipped, rejected, items, new ArrayList<>(resync));
+    }
+
+    private Outcome apply(InventoryBatch batch) {
+        long pharmacyId = batch.getPharmacyId();
+        long sequence = batch.getSequence();
+        boolean snapshot = batch.getMode() == InventoryBatch.Mode.SNAPSHOT;
+
+        // Committed sequences are in the index, so most replays are rejected without a round trip
+        if (sequence <= inventoryStockIndex.lastSequence(pharmacyId)) {
+            return Outcome.SKIPPED;
+        }
+
+        long now = System.currentTimeMillis();
+        Timestamp timestamp = new Timestamp(now);
+        if (snapshot) {
+            if (!inventoryRepository.advanceSequence(pharmacyId, sequence, timestamp)) {
+                return Outcome.SKIPPED;
+            }
+        } else if (!inventoryRepository.advanceSequenceByOne(pharmacyId, sequence, timestamp)) {
+            Long last = inventoryRepository.findLastSequence(pharmacyId);
+            return last != null && sequence <= last ? Outcome.SKIPPED : Outcome.RESYNC_REQUIRED;
+        }
+
+        List<InventoryBatch.Item> items = batch.getItems();
+        long[] medicineIds = new long[items.size()];
+        int[] quantities = new int[items.size()];
+        for (int i = 0; i < medicineIds.length; i++) {
+            medicineIds[i] = items.get(i).getMedicineId();
+            quantities[i] = items.get(i).getQuantity();
+        }
+
+        if (snapshot) {
+            inventoryRepository.clearStock(pharmacyId, timestamp);
+            inventoryRepository.upsertQuantities(pharmacyId, medicineIds, quantities, timestamp);
+        } else {
+            inventoryRepository.applyDeltas(pharmacyId, medicineIds, quantities, timestamp);
+        }
+
+        eventPublisher.publishEvent(new InventoryChangedEvent(
+            pharmacyId, sequence, batch.getMode(), medicineIds, quantities, now));
+        return Outcome.APPLIED;
+    }
+
+    private void validate(InventoryBatch batch) {
+        List<InventoryBatch.Item> items = batch.getItems();
+        if (items.size() > maxItemsPerBatch) {
+            throw new BusinessValidationException(
+                "Inventory batches are limited to " + maxItemsPerBatch + " items", "BATCH_TOO_LARGE");
+        }
+        if (batch.getMode() == InventoryBatch.Mode.SNAPSHOT) {
+            for (InventoryBatch.Item item : items) {
+                if (item.getQuantity() < 0) {
+                    throw new BusinessValidationException(
+                        "Snapshot quantities cannot be negative (medicine " + item.getMedicineId() + ")",
+                        "INVALID_INVENTORY_QUANTITY");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.medassist.inventory.service;
+
+import com.medassist.inventory.dto.InventoryBatch;
+import com.medassist.inventory.event.InventoryChangedEvent;
+import com.medassist.inventory.repository.PharmacyInventoryJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory current stock per pharmacy, mirroring pharmacy_inventory.
+ *
+ * Loaded from the table at start-up and then kept current by applying each committed feed
+ * batch (InventoryChangedEvent), so availability checks read stock without a query. Each
+ * pharmacy's stock is a primitive open-addressing map from medicine id to quantity, guarded
+ * by its own monitor; batches for different pharmacies never contend. Batches for one
+ * pharmacy are applied one at a time under a separate update lock, so a batch that has to
+ * re-read the table does so without blocking readers of that pharmacy.
+ *
+ * The index reflects batches ingested through this instance. A pharmacy whose last batch
+ * is older than inventory.stock.max-age-hours reports UNKNOWN, so a silent feed degrades to
+ * the heuristic estimate instead of serving old stock.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InventoryStockIndex {
+
+    /**
+     * Quantity reported when the index has no current stock line for a medicine
+     */
+    public static final int UNKNOWN = -1;
+
+    private final PharmacyInventoryJdbcRepository inventoryRepository;
+
+    private final Map<Long, PharmacyStock> stocks = new ConcurrentHashMap<>();
+    private volatile boolean warmedUp;
+
+    @Value("${inventory.stock.max-age-hours:24}")
+    private long maxAgeHours = 24;
+
+    /**
+     * Load current stock once the application is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            long start = System.currentTimeMillis();
+            long[] rows = new long[1];
+            inventoryRepository.forEachStockRow((pharmacyId, medicineId, quantity, updatedAtMillis) -> {
+                PharmacyStock stock = stocks.computeIfAbsent(pharmacyId, id -> new PharmacyStock());
+                synchronized (stock.updateLock) {
+                    synchronized (stock) {
+                        stock.put(medicineId, quantity);
+                        stock.updatedAtMillis = Math.max(stock.updatedAtMillis, updatedAtMillis);
+                    }
+                }
+                rows[0]++;
+            });
+            for (Map.Entry<Long, Long> entry : inventoryRepository.findLastSequences().entrySet()) {
+                PharmacyStock stock = stocks.computeIfAbsent(entry.getKey(), id -> new PharmacyStock());
+                synchronized (stock.updateLock) {
+                    synchronized (stock) {
+                        stock.sequence = Math.max(stock.sequence, entry.getValue());
+                    }
+                }
+            }
+            warmedUp = true;
+            log.info("Inventory stock index loaded: {} stock lines for {} pharmacies in {}ms",
+                rows[0], stocks.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("Inventory stock index warm-up failed, pharmacies will load on their next batch: {}",
+                e.getMessage());
+        }
+    }
+
+    /**
+     * Apply a feed batch once its write has committed. Runs before other listeners so
+     * caches derived from stock are evicted only after the index is current.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        PharmacyStock stock = stocks.computeIfAbsent(event.getPharmacyId(), id -> new PharmacyStock());
+        // Only updates change a stock, so its fields can be read here without the monitor
+        synchronized (stock.updateLock) {
+            long sequence = event.getSequence();
+            if (sequence == stock.sequence) {
+                return; // Already applied
+            }
+
+            boolean snapshot = event.getMode() == InventoryBatch.Mode.SNAPSHOT;
+            if (sequence < stock.sequence) {
+                // Committed ahead of us but delivered late: an older snapshot is superseded,
+                // an older delta is already in the table, so re-read the table
+                if (!snapshot) {
+                    reload(event.getPharmacyId(), stock, stock.sequence);
+                }
+                return;
+            }
+            if (!snapshot && !warmedUp && stock.sequence == PharmacyStock.NO_SEQUENCE) {
+                // Never loaded, so there is no base to apply the delta to
+                reload(event.getPharmacyId(), stock, sequence);
+                return;
+            }
+
+            long[] medicineIds = event.getMedicineIds();
+            int[] quantities = event.getQuantities();
+            synchronized (stock) {
+                if (snapshot) {
+                    stock.clearQuantities();
+                    for (int i = 0; i < medicineIds.length; i++) {
+                        stock.put(medicineIds[i], Math.max(0, quantities[i]));
+                    }
+                } else {
+                    for (int i = 0; i < medicineIds.length; i++) {
+                        stock.add(medicineIds[i], quantities[i]);
+                    }
+                }
+                stock.sequence = sequence;
+                stock.updatedAtMillis = event.getOccurredAtMillis();
+            }
+        }
+    }
+
+    /**
+     * Current quantity of a medicine at a pharmacy, or UNKNOWN when the pharmacy has not
+     * reported it or its feed has gone quiet
+     */
+    public int quantity(Long pharmacyId, Long medicineId) {
+        if (pharmacyId == null || medicineId == null) {
+            return UNKNOWN;
+        }
+        PharmacyStock stock = stocks.get(pharmacyId);
+        if (stock == null) {
+            return UNKNOWN;
+        }
+        long oldestFresh = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(maxAgeHours);
+        synchronized (stock) {
+            if (stock.updatedAtMillis < oldestFresh) {
+                return UNKNOWN;
+            }
+            return stock.get(medicineId);
+        }
+    }
+
+    /**
+     * Highest feed sequence applied for a pharmacy, or -1 when none has been
+     */
+    public long lastSequence(Long pharmacyId) {
+        PharmacyStock stock = pharmacyId != null ? stocks.get(pharmacyId) : null;
+        if (stock == null) {
+            return PharmacyStock.NO_SEQUENCE;
+        }
+        synchronized (stock) {
+            return stock.sequence;
+        }
+    }
+
+    /**
+     * Number of pharmacies with stock in the index
+     */
+    public int size() {
+        return stocks.size();
+    }
+
+    // Caller holds the stock's update lock; readers keep the current stock until the swap
+    private void reload(Long pharmacyId, PharmacyStock stock, long sequence) {
+        PharmacyStock loaded = new PharmacyStock();
+        inventoryRepository.forEachStockRow(pharmacyId, (ignored, medicineId, quantity, updatedAtMillis) -> {
+            loaded.put(medicineId, quantity);
+            loaded.updatedAtMillis = Math.max(loaded.updatedAtMillis, updatedAtMillis);
+        });
+        synchronized (stock) {
+            stock.replaceLines(loaded);
+            stock.sequence = Math.max(stock.sequence, sequence);
+        }
+    }
+
+    /**
+     * Stock of one pharmacy: medicine id to quantity, open addressing with linear probing over
+     * parallel primitive arrays (0 marks an empty slot; medicine ids are positive). Not
+     * thread-safe: readers synchronise on the instance, and updates hold updateLock and then
+     * the instance.
+     */
+    static final class PharmacyStock {
+        static final long NO_SEQUENCE = -1;
+        private static final int MIN_CAPACITY = 16;
+
+        final Object updateLock = new Object();
+        long sequence = NO_SEQUENCE;
+        long updatedAtMillis;
+
+        private long[] keys = new long[MIN_CAPACITY];
+        private int[] values = new int[MIN_CAPACITY];
+        private int size;
+
+        int get(long medicineId) {
+            int mask = keys.length - 1;
+            int slot = spread(medicineId) & mask;
+            while (keys[slot] != 0) {
+                if (keys[slot] == medicineId) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return UNKNOWN;
+        }
+
+        void put(long medicineId, int quantity) {
+            if (medicineId <= 0) {
+                return;
+            }
+            int slot = slotFor(medicineId);
+            values[slot] = quantity;
+        }
+
+        void add(long medicineId, int delta) {
+            if (medicineId <= 0) {
+                return;
+            }
+            int slot = slotFor(medicineId);
+            values[slot] = (int) Math.max(0, Math.min(Integer.MAX_VALUE, (long) values[slot] + delta));
+        }
+
+        // A snapshot zeroes existing lines rather than dropping them, as the table does
+        void clearQuantities() {
+            Arrays.fill(values, 0);
+        }
+
+        // Take over the lines of a freshly loaded stock
+        void replaceLines(PharmacyStock loaded) {
+            keys = loaded.keys;
+            values = loaded.values;
+            size = loaded.size;
+            updatedAtMillis = loaded.updatedAtMillis;
+        }
+
+        int size() {
+            return size;
+        }
+
+        // Slot holding the key, inserting it (quantity 0) if absent
+        private int slotFor(long medicineId) {
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+            }
+            int mask = keys.length - 1;
+            int slot = spread(medicineId) & mask;
+            while (keys[slot] != 0) {
+                if (keys[slot] == medicineId) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = medicineId;
+            values[slot] = 0;
+            size++;
+            return slot;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int slot = spread(oldKeys[i]) & mask;
+                    while (keys[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+
+        // Mix high bits into the low ones used for the slot, as HashMap does
+        private static int spread(long key) {
+            int hash = Long.hashCode(key);
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.medassist.medicine.controller;
+
+import com.medassist.medicine.dto.AvailabilityKeywordRequest;
+import com.medassist.medicine.entity.AvailabilityKeyword;
+import com.medassist.medicine.service.AvailabilityKeywordService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import jakarta.validation.Valid;
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/availability/keywords")
+@RequiredArgsConstructor
+// CORS is handled globally by CoreSecurityConfig
+public class AvailabilityKeywordController {
+
+    private final AvailabilityKeywordService keywordService;
+
+    @GetMapping
+    public ResponseEntity<List<AvailabilityKeyword>> getKeywords(
+            @RequestParam(required = false) AvailabilityKeyword.KeywordList list) {
+        List<AvailabilityKeyword> keywords = keywordService.getKeywords(list);
+        return keywords.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(keywords);
+    }
+
+    @PostMapping
+    public ResponseEntity<AvailabilityKeyword> addKeyword(@Valid @RequestBody AvailabilityKeywordRequest request) {
+        AvailabilityKeyword keyword = keywordService.addKeyword(request.getKeywordList(), request.getKeyword());
+        return ResponseEntity.status(HttpStatus.CREATED).body(keyword);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteKeyword(@PathVariable Long id) {
+        // Service throws ResourceNotFoundException if not found
+        keywordService.deleteKeyword(id);
+        return ResponseEntity.noContent().build();
+    }
+}
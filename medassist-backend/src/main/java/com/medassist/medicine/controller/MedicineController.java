@@ -1,5 +1,9 @@
 package com.medassist.medicine.controller;
 
+import com.medassist.common.dto.BatchLookupRequest;
+import com.medassist.common.dto.BatchLookupResponse;
+import com.medassist.medicine.dto.MedicineFacetedSearchResponse;
+import com.medassist.medicine.dto.MedicineSearchHit;
 import com.medassist.medicine.entity.Medicine;
 import com.medassist.medicine.service.MedicineService;
 import lombok.RequiredArgsConstructor;
@@ -44,6 +48,11 @@ public class MedicineController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<BatchLookupResponse<Medicine>> getMedicinesByIds(@Valid @RequestBody BatchLookupRequest request) {
+        return ResponseEntity.ok(medicineService.getMedicinesByIds(request.getIds()));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Medicine> updateMedicine(@PathVariable Long id,
                                                   @Valid @RequestBody Medicine medicine) {
@@ -115,6 +124,27 @@ public class MedicineController {
         return medicines.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(medicines);
     }
 
+    @GetMapping("/search/ranked")
+    public ResponseEntity<List<MedicineSearchHit>> rankedSearch(@RequestParam String q,
+                                                                @RequestParam(defaultValue = "10") int limit) {
+        List<MedicineSearchHit> hits = medicineService.rankedSearch(q, limit);
+        return hits.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(hits);
+    }
+
+    @GetMapping("/search/faceted")
+    public ResponseEntity<MedicineFacetedSearchResponse> facetedSearch(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String form,
+            @RequestParam(required = false) String manufacturer,
+            @RequestParam(required = false) Boolean requiresPrescription,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        // Always 200: facet counts are useful even when the selected filters match nothing
+        return ResponseEntity.ok(medicineService.facetedSearch(q, category, form, manufacturer,
+                requiresPrescription, page, size));
+    }
+
     @GetMapping("/search/strength")
     public ResponseEntity<List<Medicine>> searchMedicinesByStrength(@RequestParam String strength) {
         List<Medicine> medicines = medicineService.findMedicinesByStrength(strength);
@@ -0,0 +1,35 @@
+package com.medassist.medicine.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.medassist.medicine.entity.AvailabilityKeyword;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Request body for adding a keyword to an availability keyword list.
+ */
+public class AvailabilityKeywordRequest {
+
+    @NotNull(message = "Keyword list is required")
+    @JsonProperty("keyword_list")
+    private AvailabilityKeyword.KeywordList keywordList;
+
+    @NotBlank(message = "Keyword is required")
+    @Size(max = 100, message = "Keyword cannot exceed 100 characters")
+    @JsonProperty("keyword")
+    private String keyword;
+
+    public AvailabilityKeywordRequest() {}
+
+    public AvailabilityKeywordRequest(AvailabilityKeyword.KeywordList keywordList, String keyword) {
+        this.keywordList = keywordList;
+        this.keyword = keyword;
+    }
+
+    public AvailabilityKeyword.KeywordList getKeywordList() { return keywordList; }
+    public void setKeywordList(AvailabilityKeyword.KeywordList keywordList) { this.keywordList = keywordList; }
+
+    public String getKeyword() { return keyword; }
+    public void setKeyword(String keyword) { this.keyword = keyword; }
+}
@@ -1,5 +1,6 @@
 package com.medassist.medicine.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.List;
 
@@ -11,9 +12,22 @@ public class MedicineAnalysisRequest {
     @JsonProperty("image_data")
     private String imageData;
 
+    // Encoded upload prepared server-side; sent to Gemini without a base64 copy in memory
+    @JsonIgnore
+    private byte[] imageBytes;
+
     @JsonProperty("image_mime_type")
     private String imageMimeType;
 
+    @JsonProperty("image_digest")
+    private String imageDigest;
+
+    @JsonProperty("similar_image_digest")
+    private String similarImageDigest;
+
+    @JsonProperty("duplicate_similarity")
+    private Double duplicateSimilarity;
+
     @JsonProperty("analysis_type")
     private AnalysisType analysisType;
 
@@ -52,6 +66,14 @@ public class MedicineAnalysisRequest {
         this.imageData = imageData;
     }
 
+    public byte[] getImageBytes() {
+        return imageBytes;
+    }
+
+    public void setImageBytes(byte[] imageBytes) {
+        this.imageBytes = imageBytes;
+    }
+
     public String getImageMimeType() {
         return imageMimeType;
     }
@@ -60,6 +82,30 @@ public class MedicineAnalysisRequest {
         this.imageMimeType = imageMimeType;
     }
 
+    public String getImageDigest() {
+        return imageDigest;
+    }
+
+    public void setImageDigest(String imageDigest) {
+        this.imageDigest = imageDigest;
+    }
+
+    public String getSimilarImageDigest() {
+        return similarImageDigest;
+    }
+
+    public void setSimilarImageDigest(String similarImageDigest) {
+        this.similarImageDigest = similarImageDigest;
+    }
+
+    public Double getDuplicateSimilarity() {
+        return duplicateSimilarity;
+    }
+
+    public void setDuplicateSimilarity(Double duplicateSimilarity) {
+        this.duplicateSimilarity = duplicateSimilarity;
+    }
+
     public AnalysisType getAnalysisType() {
         return analysisType;
     }
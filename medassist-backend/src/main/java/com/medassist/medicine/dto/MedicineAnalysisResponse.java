@@ -72,6 +72,12 @@ public class MedicineAnalysisResponse {
     @JsonProperty("emergency_info")
     private EmergencyInformation emergencyInfo;
 
+    @JsonProperty("near_duplicate")
+    private boolean nearDuplicate;
+
+    @JsonProperty("duplicate_similarity")
+    private Double duplicateSimilarity;
+
     public MedicineAnalysisResponse() {
         this.analysisTimestamp = LocalDateTime.now();
     }
@@ -202,4 +208,10 @@ public class MedicineAnalysisResponse {
 
     public EmergencyInformation getEmergencyInfo() { return emergencyInfo; }
     public void setEmergencyInfo(EmergencyInformation emergencyInfo) { this.emergencyInfo = emergencyInfo; }
+
+    public boolean isNearDuplicate() { return nearDuplicate; }
+    public void setNearDuplicate(boolean nearDuplicate) { this.nearDuplicate = nearDuplicate; }
+
+    public Double getDuplicateSimilarity() { return duplicateSimilarity; }
+    public void setDuplicateSimilarity(Double duplicateSimilarity) { this.duplicateSimilarity = duplicateSimilarity; }
 }
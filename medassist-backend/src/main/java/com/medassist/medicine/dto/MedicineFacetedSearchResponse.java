@@ -0,0 +1,94 @@
+package com.medassist.medicine.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.medassist.medicine.entity.Medicine;
+import java.util.List;
+
+public class MedicineFacetedSearchResponse {
+
+    @JsonProperty("results")
+    private List<Medicine> results;
+
+    @JsonProperty("page")
+    private int page;
+
+    @JsonProperty("size")
+    private int size;
+
+    @JsonProperty("total_results")
+    private long totalResults;
+
+    @JsonProperty("total_pages")
+    private int totalPages;
+
+    @JsonProperty("facets")
+    private Facets facets;
+
+    public static class Facets {
+        @JsonProperty("category")
+        private List<FacetCount> category;
+
+        @JsonProperty("form")
+        private List<FacetCount> form;
+
+        @JsonProperty("manufacturer")
+        private List<FacetCount> manufacturer;
+
+        @JsonProperty("requires_prescription")
+        private List<FacetCount> requiresPrescription;
+
+        // Getters and setters
+        public List<FacetCount> getCategory() { return category; }
+        public void setCategory(List<FacetCount> category) { this.category = category; }
+
+        public List<FacetCount> getForm() { return form; }
+        public void setForm(List<FacetCount> form) { this.form = form; }
+
+        public List<FacetCount> getManufacturer() { return manufacturer; }
+        public void setManufacturer(List<FacetCount> manufacturer) { this.manufacturer = manufacturer; }
+
+        public List<FacetCount> getRequiresPrescription() { return requiresPrescription; }
+        public void setRequiresPrescription(List<FacetCount> requiresPrescription) { this.requiresPrescription = requiresPrescription; }
+    }
+
+    public static class FacetCount {
+        @JsonProperty("value")
+        private String value;
+
+        @JsonProperty("count")
+        private long count;
+
+        public FacetCount() {}
+
+        public FacetCount(String value, long count) {
+            this.value = value;
+            this.count = count;
+        }
+
+        // Getters and setters
+        public String getValue() { return value; }
+        public void setValue(String value) { this.value = value; }
+
+        public long getCount() { return count; }
+        public void setCount(long count) { this.count = count; }
+    }
+
+    // Main getters and setters
+    public List<Medicine> getResults() { return results; }
+    public void setResults(List<Medicine> results) { this.results = results; }
+
+    public int getPage() { return page; }
+    public void setPage(int page) { this.page = page; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+
+    public long getTotalResults() { return totalResults; }
+    public void setTotalResults(long totalResults) { this.totalResults = totalResults; }
+
+    public int getTotalPages() { return totalPages; }
+    public void setTotalPages(int totalPages) { this.totalPages = totalPages; }
+
+    public Facets getFacets() { return facets; }
+    public void setFacets(Facets facets) { this.facets = facets; }
+}
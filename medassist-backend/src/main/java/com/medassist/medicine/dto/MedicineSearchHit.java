@@ -0,0 +1,61 @@
+package com.medassist.medicine.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.medassist.medicine.entity.Medicine;
+
+public class MedicineSearchHit {
+
+    @JsonProperty("medicine")
+    private Medicine medicine;
+
+    @JsonProperty("score")
+    private double score;
+
+    // The score before the popularity bonus, which only orders near-ties
+    @JsonProperty("match_score")
+    private double matchScore;
+
+    @JsonProperty("match_type")
+    private MatchType matchType;
+
+    @JsonProperty("matched_field")
+    private String matchedField;
+
+    public enum MatchType {
+        EXACT,
+        PREFIX,
+        INFIX,
+        FUZZY
+    }
+
+    public MedicineSearchHit() {}
+
+    public MedicineSearchHit(Medicine medicine, double score, MatchType matchType, String matchedField) {
+        this(medicine, score, score, matchType, matchedField);
+    }
+
+    public MedicineSearchHit(Medicine medicine, double score, double matchScore, MatchType matchType,
+                             String matchedField) {
+        this.medicine = medicine;
+        this.score = score;
+        this.matchScore = matchScore;
+        this.matchType = matchType;
+        this.matchedField = matchedField;
+    }
+
+    // Getters and setters
+    public Medicine getMedicine() { return medicine; }
+    public void setMedicine(Medicine medicine) { this.medicine = medicine; }
+
+    public double getScore() { return score; }
+    public void setScore(double score) { this.score = score; }
+
+    public double getMatchScore() { return matchScore; }
+    public void setMatchScore(double matchScore) { this.matchScore = matchScore; }
+
+    public MatchType getMatchType() { return matchType; }
+    public void setMatchType(MatchType matchType) { this.matchType = matchType; }
+
+    public String getMatchedField() { return matchedField; }
+    public void setMatchedField(String matchedField) { this.matchedField = matchedField; }
+}
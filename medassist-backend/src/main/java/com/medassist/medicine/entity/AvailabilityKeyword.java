@@ -0,0 +1,67 @@
+package com.medassist.medicine.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Keyword used by availability estimation to recognise common medicines and pharmacy chains
+ * by name. A keyword matches when it occurs anywhere in the name, ignoring case.
+ */
+@Entity
+@Table(name = "availability_keywords",
+    uniqueConstraints = @UniqueConstraint(name = "uk_availability_keyword_list_keyword",
+        columnNames = {"keyword_list", "keyword"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AvailabilityKeyword {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull(message = "Keyword list is required")
+    @Enumerated(EnumType.STRING)
+    @Column(name = "keyword_list", nullable = false, length = 30)
+    private KeywordList keywordList;
+
+    @NotBlank(message = "Keyword is required")
+    @Size(max = 100, message = "Keyword cannot exceed 100 characters")
+    @Column(nullable = false, length = 100)
+    private String keyword;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public enum KeywordList {
+        COMMON_MEDICINE,    // Medicines typically stocked by most pharmacies
+        MAJOR_CHAIN,        // Chains that typically have better stock
+        INDEPENDENT_PHARMACY;
+
+        /**
+         * Bit for this list in a KeywordMatcher match result
+         */
+        public int mask() {
+            return 1 << ordinal();
+        }
+    }
+
+    public AvailabilityKeyword(KeywordList keywordList, String keyword) {
+        this.keywordList = keywordList;
+        this.keyword = keyword;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -8,12 +8,17 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "medicines")
 @Table(name = "medicines", indexes = {
     @Index(name = "idx_medicine_name", columnList = "name"),
     @Index(name = "idx_medicine_generic_name", columnList = "genericName"),
@@ -42,6 +47,8 @@ public class Medicine {
     private String genericName;
 
     @ElementCollection(fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "medicine-brand-names")
     @CollectionTable(name = "medicine_brand_names", joinColumns = @JoinColumn(name = "medicine_id"))
     @Column(name = "brand_name")
     private List<String> brandNames;
@@ -56,6 +63,8 @@ public class Medicine {
     private String dosageInformation;
 
     @ElementCollection(fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "medicine-side-effects")
     @CollectionTable(name = "medicine_side_effects", joinColumns = @JoinColumn(name = "medicine_id"))
     @Column(name = "side_effect")
     private List<String> sideEffects;
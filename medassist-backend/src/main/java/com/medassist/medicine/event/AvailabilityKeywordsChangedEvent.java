@@ -0,0 +1,20 @@
+package com.medassist.medicine.event;
+
+import com.medassist.medicine.entity.AvailabilityKeyword;
+
+/**
+ * Published by AvailabilityKeywordService whenever an availability keyword list is edited.
+ * The keyword matcher and the availability matrix rebuild after commit.
+ */
+public class AvailabilityKeywordsChangedEvent {
+
+    private final AvailabilityKeyword.KeywordList keywordList;
+
+    public AvailabilityKeywordsChangedEvent(AvailabilityKeyword.KeywordList keywordList) {
+        this.keywordList = keywordList;
+    }
+
+    public AvailabilityKeyword.KeywordList getKeywordList() {
+        return keywordList;
+    }
+}
@@ -0,0 +1,30 @@
+package com.medassist.medicine.event;
+
+/**
+ * Published by MedicineService whenever the medicine catalogue is written.
+ * In-memory views of the catalogue listen for it and rebuild after commit.
+ */
+public class MedicineChangedEvent {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Long medicineId;
+    private final ChangeType changeType;
+
+    public MedicineChangedEvent(Long medicineId, ChangeType changeType) {
+        this.medicineId = medicineId;
+        this.changeType = changeType;
+    }
+
+    public Long getMedicineId() {
+        return medicineId;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+}
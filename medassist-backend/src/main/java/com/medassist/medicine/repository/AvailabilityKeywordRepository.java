@@ -0,0 +1,16 @@
+package com.medassist.medicine.repository;
+
+import com.medassist.medicine.entity.AvailabilityKeyword;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface AvailabilityKeywordRepository extends JpaRepository<AvailabilityKeyword, Long> {
+
+    // Keywords of one list, alphabetically
+    List<AvailabilityKeyword> findByKeywordListOrderByKeywordAsc(AvailabilityKeyword.KeywordList keywordList);
+
+    // Duplicate check before insert
+    boolean existsByKeywordListAndKeyword(AvailabilityKeyword.KeywordList keywordList, String keyword);
+}
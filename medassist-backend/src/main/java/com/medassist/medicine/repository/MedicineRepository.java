@@ -1,8 +1,11 @@
 package com.medassist.medicine.repository;
 
 import com.medassist.medicine.entity.Medicine;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
@@ -12,6 +15,7 @@ import java.util.Optional;
 public interface MedicineRepository extends JpaRepository<Medicine, Long> {
 
     // Find by name (case-insensitive)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Medicine> findByNameIgnoreCase(String name);
 
     // Find by generic name (case-insensitive)
@@ -69,4 +73,8 @@ public interface MedicineRepository extends JpaRepository<Medicine, Long> {
 
     // Find medicines by strength
     List<Medicine> findByStrengthIgnoreCase(String strength);
+
+    // Load the whole catalogue with brand names fetched in the same query (in-memory indexes)
+    @Query("SELECT DISTINCT m FROM Medicine m LEFT JOIN FETCH m.brandNames")
+    List<Medicine> findAllWithBrandNames();
 }
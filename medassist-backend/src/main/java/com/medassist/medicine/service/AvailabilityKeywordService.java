@@ -0,0 +1,55 @@
+package com.medassist.medicine.service;
+
+import com.medassist.common.exception.BusinessValidationException;
+import com.medassist.common.exception.ResourceNotFoundException;
+import com.medassist.medicine.entity.AvailabilityKeyword;
+import com.medassist.medicine.event.AvailabilityKeywordsChangedEvent;
+import com.medassist.medicine.repository.AvailabilityKeywordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Locale;
+
+@Slf4j
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class AvailabilityKeywordService {
+
+    private final AvailabilityKeywordRepository keywordRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional(readOnly = true)
+    public List<AvailabilityKeyword> getKeywords(AvailabilityKeyword.KeywordList keywordList) {
+        if (keywordList == null) {
+            return keywordRepository.findAll(Sort.by("keywordList", "keyword"));
+        }
+        return keywordRepository.findByKeywordListOrderByKeywordAsc(keywordList);
+    }
+
+    public AvailabilityKeyword addKeyword(AvailabilityKeyword.KeywordList keywordList, String keyword) {
+        String normalized = keyword.trim().toLowerCase(Locale.ROOT);
+        if (keywordRepository.existsByKeywordListAndKeyword(keywordList, normalized)) {
+            throw new BusinessValidationException(
+                "Keyword '" + normalized + "' already exists in " + keywordList, "KEYWORD_EXISTS");
+        }
+
+        AvailabilityKeyword saved = keywordRepository.save(new AvailabilityKeyword(keywordList, normalized));
+        log.info("Added availability keyword '{}' to {}", normalized, keywordList);
+        eventPublisher.publishEvent(new AvailabilityKeywordsChangedEvent(keywordList));
+        return saved;
+    }
+
+    public void deleteKeyword(Long id) {
+        AvailabilityKeyword keyword = keywordRepository.findById(id)
+            .orElseThrow(() -> new ResourceNotFoundException("Availability keyword", id));
+        keywordRepository.delete(keyword);
+        log.info("Removed availability keyword '{}' from {}", keyword.getKeyword(), keyword.getKeywordList());
+        eventPublisher.publishEvent(new AvailabilityKeywordsChangedEvent(keyword.getKeywordList()));
+    }
+}
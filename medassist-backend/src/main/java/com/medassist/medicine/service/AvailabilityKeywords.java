@@ -0,0 +1,118 @@
+package com.medassist.medicine.service;
+
+import com.medassist.medicine.entity.AvailabilityKeyword;
+import com.medassist.medicine.entity.AvailabilityKeyword.KeywordList;
+import com.medassist.medicine.event.AvailabilityKeywordsChangedEvent;
+import com.medassist.medicine.repository.AvailabilityKeywordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compiled matcher over the availability keyword lists (see AvailabilityKeyword).
+ *
+ * The lists live in the availability_keywords table, seeded from DEFAULT_KEYWORDS, so they
+ * can be edited at runtime; the matcher is rebuilt lazily after an edit. The built-in lists
+ * are used while the table is empty or unreadable.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AvailabilityKeywords {
+
+    /**
+     * Built-in keyword lists, used to seed the table
+     */
+    public static final Map<KeywordList, Set<String>> DEFAULT_KEYWORDS;
+
+    static {
+        Map<KeywordList, Set<String>> defaults = new EnumMap<>(KeywordList.class);
+        // Common medicines typically available at most pharmacies
+        defaults.put(KeywordList.COMMON_MEDICINE, Set.of(
+            "paracetamol", "acetaminophen", "ibuprofen", "aspirin", "tylenol",
+            "advil", "motrin", "benadryl", "claritin", "zyrtec", "sudafed",
+            "pepto bismol", "tums", "rolaids", "cough drops", "throat lozenges"
+        ));
+        // Chain pharmacies typically have better stock
+        defaults.put(KeywordList.MAJOR_CHAIN, Set.of(
+            "cvs", "walgreens", "rite aid", "walmart", "target", "costco",
+            "sam's club", "kroger", "safeway", "publix"
+        ));
+        defaults.put(KeywordList.INDEPENDENT_PHARMACY, Set.of("independent", "local"));
+        DEFAULT_KEYWORDS = Collections.unmodifiableMap(defaults);
+    }
+
+    private static final KeywordMatcher DEFAULT_MATCHER = build(DEFAULT_KEYWORDS);
+
+    private final AvailabilityKeywordRepository keywordRepository;
+
+    private final RebuildableSnapshot<KeywordMatcher> matcher =
+        new RebuildableSnapshot<>("availability keyword matcher", this::load, DEFAULT_MATCHER);
+
+    /**
+     * Matcher over the built-in lists only
+     */
+    public static KeywordMatcher defaultMatcher() {
+        return DEFAULT_MATCHER;
+    }
+
+    /**
+     * Build the matcher once the application (and seed data) is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        matcher();
+    }
+
+    /**
+     * Mark the matcher stale after a keyword edit has committed. Runs before the listeners
+     * of snapshots built from the matcher, so none of them is rebuilt from the old one.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onKeywordsChanged(AvailabilityKeywordsChangedEvent event) {
+        matcher.invalidate();
+    }
+
+    /**
+     * Current matcher; match results are bitmasks of KeywordList.mask()
+     */
+    public KeywordMatcher matcher() {
+        return matcher.get();
+    }
+
+    private KeywordMatcher load() {
+        List<AvailabilityKeyword> keywords = keywordRepository.findAll();
+        if (keywords.isEmpty()) {
+            return DEFAULT_MATCHER;
+        }
+        KeywordMatcher.Builder builder = KeywordMatcher.builder();
+        for (AvailabilityKeyword keyword : keywords) {
+            builder.add(keyword.getKeyword(), keyword.getKeywordList().ordinal());
+        }
+        KeywordMatcher built = builder.build();
+        log.info("Availability keyword matcher built: {} keywords", built.size());
+        return built;
+    }
+
+    static KeywordMatcher build(Map<KeywordList, ? extends Iterable<String>> keywordLists) {
+        KeywordMatcher.Builder builder = KeywordMatcher.builder();
+        for (Map.Entry<KeywordList, ? extends Iterable<String>> entry : keywordLists.entrySet()) {
+            for (String keyword : entry.getValue()) {
+                builder.add(keyword, entry.getKey().ordinal());
+            }
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,159 @@
+package com.medassist.medicine.service;
+
+import com.medassist.medicine.event.AvailabilityKeywordsChangedEvent;
+import com.medassist.pharmacy.entity.Pharmacy;
+import com.medassist.pharmacy.event.PharmacyChangedEvent;
+import com.medassist.pharmacy.repository.PharmacyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Precomputed availability confidence for every active pharmacy and medicine class.
+ *
+ * The confidence depends only on a few pharmacy features and on the medicine class (see
+ * MedicineAvailabilityService.medicineClassOf), so it can be tabulated ahead of time: one
+ * row of MEDICINE_CLASS_COUNT bytes per pharmacy, each cell the confidence in percent.
+ * Rows are ordered by pharmacy id and found by binary search. The matrix is rebuilt lazily
+ * after pharmacy writes; medicine writes need no rebuild because the class of a medicine
+ * is derived from the medicine itself at lookup time. Editing the chain keyword lists
+ * changes pharmacy scores, so keyword edits trigger a rebuild as well.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AvailabilityMatrix {
+
+    /**
+     * Listener order of matrix invalidation: after AvailabilityKeywords, before the
+     * heatmaps built from the matrix
+     */
+    private static final int LISTENER_ORDER = Ordered.HIGHEST_PRECEDENCE + 1;
+
+    private final PharmacyRepository pharmacyRepository;
+    private final AvailabilityKeywords availabilityKeywords;
+
+    private final RebuildableSnapshot<Lookup> matrix =
+        new RebuildableSnapshot<>("availability matrix", this::load, Lookup.EMPTY);
+
+    /**
+     * Build the matrix once the application (and sample data) is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        lookup();
+    }
+
+    /**
+     * Mark the matrix stale after a pharmacy write has committed
+     */
+    @Order(LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPharmacyChanged(PharmacyChangedEvent event) {
+        matrix.invalidate();
+    }
+
+    /**
+     * Mark the matrix stale after a keyword edit has committed, once the keyword matcher
+     * it is built from is stale
+     */
+    @Order(LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onKeywordsChanged(AvailabilityKeywordsChangedEvent event) {
+        matrix.invalidate();
+    }
+
+    /**
+     * Current matrix. If it cannot be built, an empty matrix is returned and callers
+     * compute confidences directly.
+     */
+    public Lookup lookup() {
+        return matrix.get();
+    }
+
+    private Lookup load() {
+        long start = System.currentTimeMillis();
+        Lookup built = Lookup.build(pharmacyRepository.findAllActiveWithServices(), availabilityKeywords.matcher());
+        log.info("Availability matrix built: {} pharmacies x {} medicine classes in {}ms",
+            built.size(), MedicineAvailabilityService.MEDICINE_CLASS_COUNT,
+            System.currentTimeMillis() - start);
+        return built;
+    }
+
+    /**
+     * Immutable pharmacy x medicine-class confidence table
+     */
+    public static final class Lookup {
+
+        static final Lookup EMPTY = new Lookup(new long[0], new byte[0]);
+
+        private static final int CLASSES = MedicineAvailabilityService.MEDICINE_CLASS_COUNT;
+
+        private final long[] pharmacyIds;
+        private final byte[] cells;
+
+        private Lookup(long[] pharmacyIds, byte[] cells) {
+            this.pharmacyIds = pharmacyIds;
+            this.cells = cells;
+        }
+
+        static Lookup build(List<Pharmacy> pharmacies, KeywordMatcher keywords) {
+            List<Pharmacy> rows = new ArrayList<>(pharmacies.size());
+            for (Pharmacy pharmacy : pharmacies) {
+                if (pharmacy.getId() != null) {
+                    rows.add(pharmacy);
+                }
+            }
+            rows.sort(Comparator.comparing(Pharmacy::getId));
+
+            double[] classScores = new double[CLASSES];
+            for (int c = 0; c < CLASSES; c++) {
+                classScores[c] = MedicineAvailabilityService.medicineClassScore(c);
+            }
+
+            long[] ids = new long[rows.size()];
+            byte[] cells = new byte[rows.size() * CLASSES];
+            for (int row = 0; row < ids.length; row++) {
+                Pharmacy pharmacy = rows.get(row);
+                ids[row] = pharmacy.getId();
+                double pharmacyScore = MedicineAvailabilityService.pharmacyScore(pharmacy, keywords);
+                for (int c = 0; c < CLASSES; c++) {
+                    double confidence = MedicineAvailabilityService.combine(classScores[c], pharmacyScore);
+                    cells[row * CLASSES + c] = (byte) Math.round(confidence * 100);
+                }
+            }
+            return new Lookup(ids, cells);
+        }
+
+        /**
+         * Confidence for a pharmacy and medicine class, or -1 if the pharmacy is not in the matrix
+         */
+        public double confidence(Long pharmacyId, int medicineClass) {
+            if (pharmacyId == null) {
+                return -1;
+            }
+            int row = Arrays.binarySearch(pharmacyIds, pharmacyId);
+            if (row < 0) {
+                return -1;
+            }
+            return cells[row * CLASSES + medicineClass] / 100.0;
+        }
+
+        /**
+         * Number of pharmacies in the matrix
+         */
+        public int size() {
+            return pharmacyIds.length;
+        }
+    }
+}
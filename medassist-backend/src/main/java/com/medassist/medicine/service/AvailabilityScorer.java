@@ -0,0 +1,56 @@
+package com.medassist.medicine.service;
+
+import com.medassist.inventory.service.InventoryStockIndex;
+import com.medassist.medicine.entity.Medicine;
+import com.medassist.pharmacy.entity.Pharmacy;
+
+/**
+ * Availability confidence of one resolved medicine at any pharmacy.
+ *
+ * Holds the medicine's class and the matrix and keyword snapshots taken when it was created,
+ * so scoring a pharmacy needs no database access; it is safe to use from several threads.
+ * Obtained from MedicineAvailabilityService.scorerFor.
+ */
+public final class AvailabilityScorer {
+
+    private final Medicine medicine;
+    private final KeywordMatcher keywords;
+    private final AvailabilityMatrix.Lookup matrix;
+    private final InventoryStockIndex inventoryStockIndex;
+    private final int medicineClass;
+    private final double medicineScore;
+
+    AvailabilityScorer(Medicine medicine, KeywordMatcher keywords, AvailabilityMatrix.Lookup matrix,
+                       InventoryStockIndex inventoryStockIndex) {
+        this.medicine = medicine;
+        this.keywords = keywords;
+        this.matrix = matrix;
+        this.inventoryStockIndex = inventoryStockIndex;
+        this.medicineClass = MedicineAvailabilityService.medicineClassOf(medicine, keywords);
+        this.medicineScore = MedicineAvailabilityService.medicineClassScore(medicineClass);
+    }
+
+    /**
+     * The medicine being scored
+     */
+    public Medicine getMedicine() {
+        return medicine;
+    }
+
+    /**
+     * Confidence that the pharmacy has the medicine: reported stock first, then the matrix,
+     * then direct scoring
+     */
+    public double confidence(Pharmacy pharmacy) {
+        int quantity = inventoryStockIndex.quantity(pharmacy.getId(), medicine.getId());
+        if (quantity != InventoryStockIndex.UNKNOWN) {
+            return MedicineAvailabilityService.stockConfidence(quantity);
+        }
+        double confidence = matrix.confidence(pharmacy.getId(), medicineClass);
+        if (confidence >= 0) {
+            return confidence;
+        }
+        return MedicineAvailabilityService.combine(medicineScore,
+            MedicineAvailabilityService.pharmacyScore(pharmacy, keywords));
+    }
+}
@@ -0,0 +1,223 @@
+package com.medassist.medicine.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Case-insensitive multi-keyword substring matcher (Aho-Corasick).
+ *
+ * Keywords are added to numbered groups (0-31). The automaton is compiled into a full
+ * transition table over the keywords' own alphabet, so matching is one table lookup per
+ * input character with no backtracking, no lower-casing copy of the input and no allocation.
+ * match() returns the bitmask of groups with at least one keyword occurring in the text.
+ * Instances are immutable and safe to share.
+ */
+public final class KeywordMatcher {
+
+    private static final int ASCII = 128;
+
+    // Symbol 0 stands for every character that occurs in no keyword
+    private final int[] asciiSymbols;
+    private final char[] otherChars;
+    private final int[] otherSymbols;
+    private final int alphabetSize;
+
+    // transitions[state * alphabetSize + symbol] = next state; outputs[state] = groups matched there
+    private final int[] transitions;
+    private final int[] outputs;
+    private final int keywordCount;
+
+    private KeywordMatcher(int[] asciiSymbols, char[] otherChars, int[] otherSymbols, int alphabetSize,
+                           int[] transitions, int[] outputs, int keywordCount) {
+        this.asciiSymbols = asciiSymbols;
+        this.otherChars = otherChars;
+        this.otherSymbols = otherSymbols;
+        this.alphabetSize = alphabetSize;
+        this.transitions = transitions;
+        this.outputs = outputs;
+        this.keywordCount = keywordCount;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Bitmask of the groups that have a keyword occurring anywhere in the text (0 for null)
+     */
+    public int match(CharSequence text) {
+        if (text == null) {
+            return 0;
+        }
+        int state = 0;
+        int found = 0;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            state = transitions[state * alphabetSize + symbol(Character.toLowerCase(text.charAt(i)))];
+            found |= outputs[state];
+        }
+        return found;
+    }
+
+    /**
+     * Whether a keyword of the given group occurs anywhere in the text
+     */
+    public boolean contains(CharSequence text, int group) {
+        return (match(text) & (1 << group)) != 0;
+    }
+
+    /**
+     * Number of distinct keywords in the automaton
+     */
+    public int size() {
+        return keywordCount;
+    }
+
+    private int symbol(char c) {
+        if (c < ASCII) {
+            return asciiSymbols[c];
+        }
+        int index = Arrays.binarySearch(otherChars, c);
+        return index >= 0 ? otherSymbols[index] : 0;
+    }
+
+    public static final class Builder {
+
+        private final Map<String, Integer> keywords = new LinkedHashMap<>();
+
+        private Builder() {}
+
+        /**
+         * Add a keyword to a group; blank keywords are ignored
+         */
+        public Builder add(String keyword, int group) {
+            if (group < 0 || group >= Integer.SIZE) {
+                throw new IllegalArgumentException("Keyword group must be between 0 and 31: " + group);
+            }
+            String folded = fold(keyword);
+            if (!folded.isEmpty()) {
+                keywords.merge(folded, 1 << group, (a, b) -> a | b);
+            }
+            return this;
+        }
+
+        public KeywordMatcher build() {
+            // Alphabet: the distinct characters of all keywords, numbered from 1
+            TreeSet<Character> chars = new TreeSet<>();
+            for (String keyword : keywords.keySet()) {
+                for (int i = 0; i < keyword.length(); i++) {
+                    chars.add(keyword.charAt(i));
+                }
+            }
+            int[] asciiSymbols = new int[ASCII];
+            List<Character> others = new ArrayList<>();
+            int alphabetSize = 1;
+            for (char c : chars) {
+                if (c < ASCII) {
+                    asciiSymbols[c] = alphabetSize++;
+                } else {
+                    others.add(c);
+                }
+            }
+            char[] otherChars = new char[others.size()];
+            int[] otherSymbols = new int[others.size()];
+            for (int i = 0; i < otherChars.length; i++) {
+                otherChars[i] = others.get(i);
+                otherSymbols[i] = alphabetSize++;
+            }
+
+            // Trie, with -1 for missing edges
+            List<int[]> gotos = new ArrayList<>();
+            List<Integer> outputs = new ArrayList<>();
+            gotos.add(newRow(alphabetSize));
+            outputs.add(0);
+            for (Map.Entry<String, Integer> entry : keywords.entrySet()) {
+                String keyword = entry.getKey();
+                int state = 0;
+                for (int i = 0; i < keyword.length(); i++) {
+                    int symbol = symbolOf(keyword.charAt(i), asciiSymbols, otherChars, otherSymbols);
+                    int next = gotos.get(state)[symbol];
+                    if (next < 0) {
+                        next = gotos.size();
+                        gotos.add(newRow(alphabetSize));
+                        outputs.add(0);
+                        gotos.get(state)[symbol] = next;
+                    }
+                    state = next;
+                }
+                outputs.set(state, outputs.get(state) | entry.getValue());
+            }
+
+            // Breadth-first: failure links, inherited outputs, and missing edges filled in
+            // from the failure state so the table becomes a complete DFA
+            int stateCount = gotos.size();
+            int[] transitions = new int[stateCount * alphabetSize];
+            int[] outputMasks = new int[stateCount];
+            int[] failure = new int[stateCount];
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+
+            int[] root = gotos.get(0);
+            for (int symbol = 0; symbol < alphabetSize; symbol++) {
+                int child = root[symbol];
+                if (child < 0) {
+                    transitions[symbol] = 0;
+                } else {
+                    transitions[symbol] = child;
+                    failure[child] = 0;
+                    queue.add(child);
+                }
+            }
+            outputMasks[0] = outputs.get(0);
+
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                outputMasks[state] = outputs.get(state) | outputMasks[failure[state]];
+                int[] row = gotos.get(state);
+                for (int symbol = 0; symbol < alphabetSize; symbol++) {
+                    int child = row[symbol];
+                    int fallback = transitions[failure[state] * alphabetSize + symbol];
+                    if (child < 0) {
+                        transitions[state * alphabetSize + symbol] = fallback;
+                    } else {
+                        transitions[state * alphabetSize + symbol] = child;
+                        failure[child] = fallback;
+                        queue.add(child);
+                    }
+                }
+            }
+
+            return new KeywordMatcher(asciiSymbols, otherChars, otherSymbols, alphabetSize,
+                transitions, outputMasks, keywords.size());
+        }
+
+        private static int[] newRow(int alphabetSize) {
+            int[] row = new int[alphabetSize];
+            Arrays.fill(row, -1);
+            return row;
+        }
+
+        private static int symbolOf(char c, int[] asciiSymbols, char[] otherChars, int[] otherSymbols) {
+            if (c < ASCII) {
+                return asciiSymbols[c];
+            }
+            return otherSymbols[Arrays.binarySearch(otherChars, c)];
+        }
+
+        // Same per-character folding as match(), so keywords and text compare alike
+        private static String fold(String keyword) {
+            if (keyword == null) {
+                return "";
+            }
+            String trimmed = keyword.trim();
+            StringBuilder folded = new StringBuilder(trimmed.length());
+            for (int i = 0; i < trimmed.length(); i++) {
+                folded.append(Character.toLowerCase(trimmed.charAt(i)));
+            }
+            return folded.toString();
+        }
+    }
+}
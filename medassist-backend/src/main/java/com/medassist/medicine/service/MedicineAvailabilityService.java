@@ -1,11 +1,13 @@
 package com.medassist.medicine.service;
 
+import com.medassist.inventory.service.InventoryStockIndex;
 import com.medassist.pharmacy.dto.PharmacyLocationResponse;
+import com.medassist.medicine.dto.MedicineSearchHit;
+import com.medassist.medicine.entity.AvailabilityKeyword.KeywordList;
 import com.medassist.medicine.entity.Medicine;
 import com.medassist.pharmacy.entity.Pharmacy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -18,122 +20,207 @@ public class MedicineAvailabilityService {
 
     private final MedicineService medicineService;
 
-    // Common medicines typically available at most pharmacies
-    private static final Set<String> COMMON_MEDICINES = Set.of(
-        "paracetamol", "acetaminophen", "ibuprofen", "aspirin", "tylenol",
-        "advil", "motrin", "benadryl", "claritin", "zyrtec", "sudafed",
-        "pepto bismol", "tums", "rolaids", "cough drops", "throat lozenges"
-    );
+    /**
+     * Confidence reported when the medicine is not in the catalogue
+     */
+    public static final double UNKNOWN_MEDICINE_CONFIDENCE = 0.1;
+
+    /**
+     * Confidence for a medicine the pharmacy reports as out of stock
+     */
+    public static final double OUT_OF_STOCK_CONFIDENCE = 0.0;
 
-    // Chain pharmacies typically have better stock
-    private static final Set<String> MAJOR_CHAINS = Set.of(
-        "cvs", "walgreens", "rite aid", "walmart", "target", "costco",
-        "sam's club", "kroger", "safeway", "publix"
-    );
+    // Confidence for reported stock at or below / above LOW_STOCK_QUANTITY units
+    private static final int LOW_STOCK_QUANTITY = 5;
+    private static final double LOW_STOCK_CONFIDENCE = 0.7;
+    private static final double IN_STOCK_CONFIDENCE = 0.95;
+
+    private static final double BASE_CONFIDENCE = 0.5;
+    private static final double LIKELY_AVAILABLE_THRESHOLD = 0.6;
 
     /**
-     * Estimate medicine availability at a pharmacy
+     * Confidence at or above which stock is estimated HIGH
      */
-    @Cacheable(value = "medicine-availability", key = "#pharmacy.id + '_' + #medicineName")
-    public PharmacyLocationResponse.MedicineAvailability estimateAvailability(
-            Pharmacy pharmacy, String medicineName) {
+    public static final double HIGH_STOCK_THRESHOLD = 0.8;
+
+    // Confidence adjustment per category bucket (see categoryBucket)
+    private static final double[] CATEGORY_ADJUSTMENTS = {0.0, 0.15, 0.1, 0.05, -0.1};
 
-        log.debug("Estimating availability of {} at {}", medicineName, pharmacy.getName());
+    /**
+     * Number of distinct medicine classes (see medicineClassOf)
+     */
+    static final int MEDICINE_CLASS_COUNT = 2 * 2 * CATEGORY_ADJUSTMENTS.length;
 
+    private final AvailabilityMatrix availabilityMatrix;
+    private final InventoryStockIndex inventoryStockIndex;
+    private final AvailabilityKeywords availabilityKeywords;
+
+    /**
+     * Estimate availability of one medicine at many pharmacies.
+     *
+     * The medicine is resolved once (see scorerFor). Returns one confidence per pharmacy, in
+     * the order given, or UNKNOWN_MEDICINE_CONFIDENCE everywhere if the medicine is unknown.
+     */
+    public double[] estimateAvailability(List<Pharmacy> pharmacies, String medicineName) {
+        double[] confidences = new double[pharmacies.size()];
+
+        AvailabilityScorer scorer = scorerFor(medicineName);
+        if (scorer == null) {
+            Arrays.fill(confidences, UNKNOWN_MEDICINE_CONFIDENCE);
+            return confidences;
+        }
+
+        for (int i = 0; i < confidences.length; i++) {
+            confidences[i] = scorer.confidence(pharmacies.get(i));
+        }
+        return confidences;
+    }
+
+    /**
+     * Scorer for one medicine across any number of pharmacies, or null if the medicine is
+     * unknown. Pharmacies whose inventory feed reports the medicine are scored from their
+     * current stock; for the rest the medicine is reduced to its medicine class and the
+     * confidence is a lookup in the precomputed availability matrix (computed directly for
+     * pharmacies the matrix does not cover).
+     */
+    public AvailabilityScorer scorerFor(String medicineName) {
+        Medicine medicine = findMedicineByName(medicineName);
+        return medicine != null ? scorerFor(medicine) : null;
+    }
+
+    /**
+     * Scorer for a medicine already resolved with findMedicineByName, over the matrix and
+     * keyword lists as they are now
+     */
+    public AvailabilityScorer scorerFor(Medicine medicine) {
+        return new AvailabilityScorer(medicine, availabilityKeywords.matcher(),
+            availabilityMatrix.lookup(), inventoryStockIndex);
+    }
+
+    /**
+     * Build the availability view for a confidence returned by the batch estimate
+     */
+    public PharmacyLocationResponse.MedicineAvailability toAvailability(String medicineName, double confidence) {
         PharmacyLocationResponse.MedicineAvailability availability =
             new PharmacyLocationResponse.MedicineAvailability();
 
         availability.setMedicineName(medicineName);
         availability.setLastUpdated(LocalDateTime.now());
+        availability.setAvailabilityConfidence(confidence);
 
-        // Get medicine information from database
-        Medicine medicine = findMedicineByName(medicineName);
-
-        if (medicine == null) {
+        // Exact match: the batch estimate writes this constant, and reported stock can score lower
+        if (confidence == UNKNOWN_MEDICINE_CONFIDENCE) {
             // Medicine not found in database
             availability.setLikelyAvailable(false);
-            availability.setAvailabilityConfidence(0.1);
             availability.setEstimatedStockLevel(PharmacyLocationResponse.MedicineAvailability.StockLevel.UNKNOWN);
             return availability;
         }
 
-        // Calculate availability based on multiple factors
-        double confidence = calculateAvailabilityConfidence(pharmacy, medicine);
-        boolean likelyAvailable = confidence > 0.6;
+        availability.setLikelyAvailable(confidence > LIKELY_AVAILABLE_THRESHOLD);
+        availability.setEstimatedStockLevel(estimateStockLevel(confidence));
+        return availability;
+    }
 
-        availability.setLikelyAvailable(likelyAvailable);
-        availability.setAvailabilityConfidence(confidence);
-        availability.setEstimatedStockLevel(estimateStockLevel(pharmacy, medicine, confidence));
+    /**
+     * Confidence from a quantity reported by the pharmacy's inventory feed
+     */
+    static double stockConfidence(int quantity) {
+        if (quantity <= 0) {
+            return OUT_OF_STOCK_CONFIDENCE;
+        }
+        return quantity <= LOW_STOCK_QUANTITY ? LOW_STOCK_CONFIDENCE : IN_STOCK_CONFIDENCE;
+    }
 
-        return availability;
+    /**
+     * Medicine class of a medicine: OTC flag x common flag x category bucket.
+     * The medicine's share of the availability confidence depends only on its class.
+     */
+    static int medicineClassOf(Medicine medicine, KeywordMatcher keywords) {
+        int otc = medicine.isRequiresPrescription() ? 0 : 1;
+        int common = isCommonMedicine(medicine.getName(), keywords)
+            || isCommonMedicine(medicine.getGenericName(), keywords) ? 1 : 0;
+        return (otc * 2 + common) * CATEGORY_ADJUSTMENTS.length + categoryBucket(medicine.getCategory());
     }
 
     /**
-     * Calculate availability confidence based on pharmacy and medicine characteristics
+     * Medicine-dependent part of the availability confidence, by medicine class
      */
-    private double calculateAvailabilityConfidence(Pharmacy pharmacy, Medicine medicine) {
-        double confidence = 0.5; // Base confidence
+    static double medicineClassScore(int medicineClass) {
+        int flags = medicineClass / CATEGORY_ADJUSTMENTS.length;
+        double score = 0.0;
 
         // Factor 1: Medicine type (prescription vs OTC)
-        if (!medicine.isRequiresPrescription()) {
-            confidence += 0.2; // OTC medicines more likely available
+        if ((flags & 2) != 0) {
+            score += 0.2; // OTC medicines more likely available
         }
 
         // Factor 2: Common medicine check
-        if (isCommonMedicine(medicine.getName()) || isCommonMedicine(medicine.getGenericName())) {
-            confidence += 0.3;
+        if ((flags & 1) != 0) {
+            score += 0.3;
         }
 
+        // Factor 7: Medicine category specific adjustments
+        score += CATEGORY_ADJUSTMENTS[medicineClass % CATEGORY_ADJUSTMENTS.length];
+
+        return score;
+    }
+
+    /**
+     * Pharmacy-dependent part of the availability confidence
+     */
+    static double pharmacyScore(Pharmacy pharmacy, KeywordMatcher keywords) {
+        double score = 0.0;
+
         // Factor 3: Pharmacy chain size and reputation
-        confidence += getChainReliabilityScore(pharmacy.getChainName());
+        score += getChainReliabilityScore(pharmacy.getChainName(), keywords);
 
         // Factor 4: Pharmacy services (more services = better stock)
         if (pharmacy.getServices() != null) {
-            confidence += Math.min(0.1, pharmacy.getServices().size() * 0.02);
+            score += Math.min(0.1, pharmacy.getServices().size() * 0.02);
         }
 
         // Factor 5: 24-hour pharmacies typically have better stock
         if (pharmacy.isIs24Hours()) {
-            confidence += 0.1;
+            score += 0.1;
         }
 
         // Factor 6: Pharmacies with consultation likely have broader inventory
         if (pharmacy.isHasConsultation()) {
-            confidence += 0.05;
+            score += 0.05;
         }
 
-        // Factor 7: Medicine category specific adjustments
-        confidence += getCategoryConfidenceAdjustment(medicine.getCategory());
+        return score;
+    }
 
-        // Ensure confidence is between 0 and 1
-        return Math.max(0.0, Math.min(1.0, confidence));
+    /**
+     * Final confidence from the two independent parts
+     */
+    static double combine(double medicineScore, double pharmacyScore) {
+        return Math.max(0.0, Math.min(1.0, BASE_CONFIDENCE + medicineScore + pharmacyScore));
     }
 
     /**
      * Check if medicine is commonly available
      */
-    private boolean isCommonMedicine(String medicineName) {
-        if (medicineName == null) return false;
-
-        String lowerName = medicineName.toLowerCase();
-        return COMMON_MEDICINES.stream().anyMatch(lowerName::contains);
+    private static boolean isCommonMedicine(String medicineName, KeywordMatcher keywords) {
+        return (keywords.match(medicineName) & KeywordList.COMMON_MEDICINE.mask()) != 0;
     }
 
     /**
      * Get reliability score based on pharmacy chain
      */
-    private double getChainReliabilityScore(String chainName) {
+    private static double getChainReliabilityScore(String chainName, KeywordMatcher keywords) {
         if (chainName == null) return 0.0;
 
-        String lowerChain = chainName.toLowerCase();
+        int matched = keywords.match(chainName);
 
         // Major chains get higher scores
-        if (MAJOR_CHAINS.stream().anyMatch(lowerChain::contains)) {
+        if ((matched & KeywordList.MAJOR_CHAIN.mask()) != 0) {
             return 0.2;
         }
 
         // Independent pharmacies get moderate score
-        if (lowerChain.contains("independent") || lowerChain.contains("local")) {
+        if ((matched & KeywordList.INDEPENDENT_PHARMACY.mask()) != 0) {
             return 0.1;
         }
 
@@ -141,33 +228,31 @@ public class MedicineAvailabilityService {
     }
 
     /**
-     * Get confidence adjustment based on medicine category
+     * Index into CATEGORY_ADJUSTMENTS for a medicine category
      */
-    private double getCategoryConfidenceAdjustment(String category) {
-        if (category == null) return 0.0;
+    private static int categoryBucket(String category) {
+        if (category == null) return 0;
 
         String lowerCategory = category.toLowerCase();
 
         return switch (lowerCategory) {
-            case "analgesic", "nsaid", "antihistamine" -> 0.15; // Very common
-            case "antibiotic", "antidiabetic" -> 0.1; // Common prescription
-            case "cardiovascular", "psychiatric" -> 0.05; // Specialized
-            case "oncology", "rare disease" -> -0.1; // Less likely
-            default -> 0.0;
+            case "analgesic", "nsaid", "antihistamine" -> 1; // Very common
+            case "antibiotic", "antidiabetic" -> 2; // Common prescription
+            case "cardiovascular", "psychiatric" -> 3; // Specialized
+            case "oncology", "rare disease" -> 4; // Less likely
+            default -> 0;
         };
     }
 
     /**
      * Estimate stock level based on confidence
      */
-    private PharmacyLocationResponse.MedicineAvailability.StockLevel estimateStockLevel(
-            Pharmacy pharmacy, Medicine medicine, double confidence) {
-
+    private PharmacyLocationResponse.MedicineAvailability.StockLevel estimateStockLevel(double confidence) {
         if (confidence < 0.3) {
             return PharmacyLocationResponse.MedicineAvailability.StockLevel.OUT_OF_STOCK;
         } else if (confidence < 0.5) {
             return PharmacyLocationResponse.MedicineAvailability.StockLevel.LOW;
-        } else if (confidence < 0.8) {
+        } else if (confidence < HIGH_STOCK_THRESHOLD) {
             return PharmacyLocationResponse.MedicineAvailability.StockLevel.MEDIUM;
         } else {
             return PharmacyLocationResponse.MedicineAvailability.StockLevel.HIGH;
@@ -175,34 +260,13 @@ public class MedicineAvailabilityService {
     }
 
     /**
-     * Find medicine by name (try exact match first, then fuzzy search)
+     * Find medicine by name: synonym table first, then the best relevance-ranked match
      */
-    private Medicine findMedicineByName(String medicineName) {
+    public Medicine findMedicineByName(String medicineName) {
         try {
-            // Try exact name match first
-            Optional<Medicine> exact = medicineService.findMedicineByName(medicineName);
-            if (exact.isPresent()) {
-                return exact.get();
-            }
-
-            // Try comprehensive search for partial matches
-            List<Medicine> matches = medicineService.comprehensiveSearch(medicineName);
-            if (!matches.isEmpty()) {
-                return matches.get(0); // Return best match
-            }
-
-            // Try generic name search
-            List<Medicine> genericMatches = medicineService.findMedicinesByGenericName(medicineName);
-            if (!genericMatches.isEmpty()) {
-                return genericMatches.get(0);
-            }
-
-            // Try brand name search
-            List<Medicine> brandMatches = medicineService.findMedicinesByBrandName(medicineName);
-            if (!brandMatches.isEmpty()) {
-                return brandMatches.get(0);
-            }
-
+            return medicineService.findBestMatch(medicineName)
+                .map(MedicineSearchHit::getMedicine)
+                .orElse(null);
         } catch (Exception e) {
             log.error("Error finding medicine: {}", medicineName, e);
         }
@@ -217,9 +281,10 @@ public class MedicineAvailabilityService {
             Pharmacy pharmacy, List<String> medicineNames) {
 
         Map<String, PharmacyLocationResponse.MedicineAvailability> summary = new HashMap<>();
+        List<Pharmacy> single = List.of(pharmacy);
 
         for (String medicineName : medicineNames) {
-            summary.put(medicineName, estimateAvailability(pharmacy, medicineName));
+            summary.put(medicineName, toAvailability(medicineName, estimateAvailability(single, medicineName)[0]));
         }
 
         return summary;
@@ -231,12 +296,14 @@ public class MedicineAvailabilityService {
     public List<Pharmacy> filterByMedicineAvailability(List<Pharmacy> pharmacies,
                                                        String medicineName,
                                                        double minConfidence) {
-        return pharmacies.stream()
-            .filter(pharmacy -> {
-                PharmacyLocationResponse.MedicineAvailability availability =
-                    estimateAvailability(pharmacy, medicineName);
-                return availability.getAvailabilityConfidence() >= minConfidence;
-            })
-            .toList();
+        double[] confidences = estimateAvailability(pharmacies, medicineName);
+
+        List<Pharmacy> available = new ArrayList<>();
+        for (int i = 0; i < confidences.length; i++) {
+            if (confidences[i] >= minConfidence) {
+                available.add(pharmacies.get(i));
+            }
+        }
+        return available;
     }
 }
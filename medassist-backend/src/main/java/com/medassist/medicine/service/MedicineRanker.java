@@ -0,0 +1,236 @@
+package com.medassist.medicine.service;
+
+import com.medassist.medicine.dto.MedicineSearchHit;
+import com.medassist.medicine.dto.MedicineSearchHit.MatchType;
+import com.medassist.medicine.entity.Medicine;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Relevance ranking for medicine search candidates.
+ *
+ * Each candidate is scored by its best field match: field weight (name, brand, generic,
+ * ingredient, manufacturer) times a match-type factor (exact, prefix, infix, fuzzy), plus a
+ * small popularity bonus that only breaks near-ties. Top-k selection uses a bounded min-heap,
+ * so ranking N candidates costs O(N log k) instead of a full sort.
+ */
+@Service
+public class MedicineRanker {
+
+    /**
+     * Match score at or above which a local match is trusted without an AI lookup (exact
+     * match on name, brand name or generic name). Compared before the popularity bonus,
+     * which would otherwise lift an ingredient or prefix match over it.
+     */
+    public static final double STRONG_MATCH_SCORE = 0.85;
+
+    private static final double NAME_WEIGHT = 1.0;
+    private static final double BRAND_WEIGHT = 0.95;
+    private static final double GENERIC_WEIGHT = 0.9;
+    private static final double INGREDIENT_WEIGHT = 0.8;
+    private static final double MANUFACTURER_WEIGHT = 0.3;
+
+    private static final double EXACT_FACTOR = 1.0;
+    private static final double PREFIX_FACTOR = 0.8;
+    private static final double WORD_PREFIX_FACTOR = 0.7;
+    private static final double INFIX_FACTOR = 0.6;
+    private static final double FUZZY_FACTOR = 0.5;
+
+    private static final double MAX_POPULARITY_BONUS = 0.05;
+    private static final int MIN_FUZZY_LENGTH = 4;
+
+    // Lowest score first, so the heap head is the candidate to evict
+    private static final Comparator<MedicineSearchHit> WORST_FIRST = Comparator
+        .comparingDouble(MedicineSearchHit::getScore)
+        .thenComparing(hit -> hit.getMedicine().getName(),
+            Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER.reversed()));
+
+    private final Map<Long, LongAdder> selections = new ConcurrentHashMap<>();
+    private final AtomicLong maxSelections = new AtomicLong();
+
+    /**
+     * Score candidates against the query and return the best k, highest score first.
+     * Candidates that do not match the query in any field are dropped.
+     */
+    public List<MedicineSearchHit> topK(String query, Collection<Medicine> candidates, int k) {
+        String normalizedQuery = MedicineSearchIndex.normalize(query);
+        if (normalizedQuery == null || k <= 0) {
+            return List.of();
+        }
+
+        PriorityQueue<MedicineSearchHit> heap = new PriorityQueue<>(k, WORST_FIRST);
+        for (Medicine medicine : candidates) {
+            MedicineSearchHit hit = score(normalizedQuery, medicine);
+            if (hit == null) {
+                continue;
+            }
+            if (heap.size() < k) {
+                heap.offer(hit);
+            } else if (WORST_FIRST.compare(hit, heap.peek()) > 0) {
+                heap.poll();
+                heap.offer(hit);
+            }
+        }
+
+        MedicineSearchHit[] ranked = new MedicineSearchHit[heap.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = heap.poll();
+        }
+        return Arrays.asList(ranked);
+    }
+
+    /**
+     * Record that a medicine was looked up, feeding the popularity signal
+     */
+    public void recordSelection(Long medicineId) {
+        if (medicineId == null) {
+            return;
+        }
+        LongAdder counter = selections.computeIfAbsent(medicineId, id -> new LongAdder());
+        counter.increment();
+        maxSelections.accumulateAndGet(counter.sum(), Math::max);
+    }
+
+    /**
+     * Score a single medicine; null when no field matches
+     */
+    MedicineSearchHit score(String normalizedQuery, Medicine medicine) {
+        Match best = null;
+        best = better(best, match(normalizedQuery, medicine.getName(), NAME_WEIGHT, "name"));
+        if (medicine.getBrandNames() != null) {
+            for (String brand : medicine.getBrandNames()) {
+                best = better(best, match(normalizedQuery, brand, BRAND_WEIGHT, "brand_name"));
+            }
+        }
+        best = better(best, match(normalizedQuery, medicine.getGenericName(), GENERIC_WEIGHT, "generic_name"));
+        best = better(best, match(normalizedQuery, medicine.getActiveIngredient(), INGREDIENT_WEIGHT, "active_ingredient"));
+        best = better(best, match(normalizedQuery, medicine.getManufacturer(), MANUFACTURER_WEIGHT, "manufacturer"));
+
+        if (best == null) {
+            return null;
+        }
+
+        double score = Math.min(1.0, best.score + popularityBonus(medicine.getId()));
+        return new MedicineSearchHit(medicine, score, best.score, best.type, best.field);
+    }
+
+    private static Match match(String query, String rawValue, double weight, String field) {
+        String value = MedicineSearchIndex.normalize(rawValue);
+        if (value == null) {
+            return null;
+        }
+
+        if (value.equals(query)) {
+            return new Match(weight * EXACT_FACTOR, MatchType.EXACT, field);
+        }
+
+        // Longer overlap ranks higher within the same match type
+        double coverage = (double) query.length() / value.length();
+        if (value.startsWith(query)) {
+            return new Match(weight * PREFIX_FACTOR * (0.8 + 0.2 * coverage), MatchType.PREFIX, field);
+        }
+        int index = value.indexOf(query);
+        if (index > 0) {
+            double factor = value.charAt(index - 1) == ' ' ? WORD_PREFIX_FACTOR : INFIX_FACTOR;
+            MatchType type = value.charAt(index - 1) == ' ' ? MatchType.PREFIX : MatchType.INFIX;
+            return new Match(weight * factor * (0.8 + 0.2 * coverage), type, field);
+        }
+
+        if (query.length() < MIN_FUZZY_LENGTH) {
+            return null;
+        }
+        int maxEdits = maxEditsFor(query.length());
+        double bestSimilarity = fuzzySimilarity(query, value, maxEdits);
+        for (String token : value.split(" ")) {
+            bestSimilarity = Math.max(bestSimilarity, fuzzySimilarity(query, token, maxEdits));
+        }
+        if (bestSimilarity > 0) {
+            return new Match(weight * FUZZY_FACTOR * bestSimilarity, MatchType.FUZZY, field);
+        }
+        return null;
+    }
+
+    private static double fuzzySimilarity(String query, String candidate, int maxEdits) {
+        int distance = boundedEditDistance(query, candidate, maxEdits);
+        if (distance > maxEdits) {
+            return 0;
+        }
+        return 1.0 - (double) distance / Math.max(query.length(), candidate.length());
+    }
+
+    private double popularityBonus(Long medicineId) {
+        LongAdder counter = medicineId != null ? selections.get(medicineId) : null;
+        long max = maxSelections.get();
+        if (counter == null || max == 0) {
+            return 0;
+        }
+        return MAX_POPULARITY_BONUS * Math.log1p(counter.sum()) / Math.log1p(max);
+    }
+
+    private static Match better(Match current, Match candidate) {
+        if (candidate == null) {
+            return current;
+        }
+        return current == null || candidate.score > current.score ? candidate : current;
+    }
+
+    /**
+     * Edits allowed for a fuzzy match: one for short words, two for longer ones
+     */
+    static int maxEditsFor(int length) {
+        return length <= 6 ? 1 : 2;
+    }
+
+    /**
+     * Levenshtein distance, abandoning early once it must exceed maxEdits
+     * (returns maxEdits + 1 in that case)
+     */
+    static int boundedEditDistance(String a, String b, int maxEdits) {
+        if (Math.abs(a.length() - b.length()) > maxEdits) {
+            return maxEdits + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], maxEdits + 1);
+    }
+
+    private static final class Match {
+        private final double score;
+        private final MatchType type;
+        private final String field;
+
+        private Match(double score, MatchType type, String field) {
+            this.score = score;
+            this.type = type;
+            this.field = field;
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package com.medassist.medicine.service;
+
+import com.medassist.medicine.dto.MedicineFacetedSearchResponse.FacetCount;
+import com.medassist.medicine.entity.Medicine;
+import com.medassist.medicine.event.MedicineChangedEvent;
+import com.medassist.medicine.repository.MedicineRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+/**
+ * In-memory posting-list index over the medicine catalogue.
+ *
+ * Text terms map to posting lists (BitSets of document ordinals); facet fields are
+ * stored column-wise as value ordinals. A search walks the candidate postings once
+ * and produces the requested page together with the facet counts.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MedicineSearchIndex {
+
+    public enum Facet {
+        CATEGORY,
+        FORM,
+        MANUFACTURER,
+        REQUIRES_PRESCRIPTION
+    }
+
+    private static final Facet[] FACETS = Facet.values();
+    private static final int NO_FILTER = -1;
+    private static final int NO_VALUE = -1;
+    private static final int UNKNOWN_VALUE = -2;
+
+    private final MedicineRepository medicineRepository;
+
+    private final RebuildableSnapshot<Snapshot> snapshot =
+        new RebuildableSnapshot<>("medicine search index", this::load);
+
+    /**
+     * Build the index once the application (and sample data) is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            refreshIfStale();
+        } catch (Exception e) {
+            log.warn("Medicine search index warm-up failed, will retry on first search: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Mark the index stale after a catalogue write has committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMedicineChanged(MedicineChangedEvent event) {
+        snapshot.invalidate();
+    }
+
+    /**
+     * Search the catalogue.
+     *
+     * Facet counts are computed the multi-select way: each facet counts documents that
+     * match the query and every selected filter except its own, so the client can offer
+     * alternatives to the value already picked.
+     */
+    public SearchResult search(String query, Map<Facet, String> filters, int page, int size) {
+        Snapshot index = refreshIfStale();
+
+        BitSet candidates = index.matchQuery(query);
+
+        int[] selected = new int[FACETS.length];
+        for (Facet facet : FACETS) {
+            String value = filters.get(facet);
+            selected[facet.ordinal()] = value == null ? NO_FILTER : index.ordinalOf(facet, value);
+        }
+
+        long[][] counts = new long[FACETS.length][];
+        for (Facet facet : FACETS) {
+            counts[facet.ordinal()] = new long[index.labels[facet.ordinal()].length];
+        }
+
+        // Long arithmetic so a far page is simply empty instead of wrapping round
+        long pageStart = (long) page * size;
+        long pageEnd = pageStart + size;
+        List<Long> pageIds = new ArrayList<>(size);
+        long total = 0;
+
+        for (int doc = candidates.nextSetBit(0); doc >= 0; doc = candidates.nextSetBit(doc + 1)) {
+            int failures = 0;
+            int failedFacet = -1;
+            for (int f = 0; f < FACETS.length; f++) {
+                if (selected[f] != NO_FILTER && index.ordinals[f][doc] != selected[f]) {
+                    failures++;
+                    failedFacet = f;
+                }
+            }
+
+            if (failures == 0) {
+                if (total >= pageStart && total < pageEnd) {
+                    pageIds.add(index.ids[doc]);
+                }
+                total++;
+                for (int f = 0; f < FACETS.length; f++) {
+                    int ordinal = index.ordinals[f][doc];
+                    if (ordinal >= 0) {
+                        counts[f][ordinal]++;
+                    }
+                }
+            } else if (failures == 1) {
+                int ordinal = index.ordinals[failedFacet][doc];
+                if (ordinal >= 0) {
+                    counts[failedFacet][ordinal]++;
+                }
+            }
+        }
+
+        Map<Facet, List<FacetCount>> facetCounts = new EnumMap<>(Facet.class);
+        for (Facet facet : FACETS) {
+            facetCounts.put(facet, toFacetCounts(index.labels[facet.ordinal()], counts[facet.ordinal()]));
+        }
+
+        return new SearchResult(pageIds, total, facetCounts);
+    }
+
+    /**
+     * Ids of medicines with an indexed term within a small edit distance of any query
+     * word. Used as a typo-tolerant fallback when the substring search finds nothing.
+     */
+    public List<Long> fuzzyCandidateIds(String query) {
+        String normalized = normalize(query);
+        if (normalized == null) {
+            return List.of();
+        }
+        Snapshot index = refreshIfStale();
+
+        BitSet candidates = new BitSet(index.ids.length);
+        for (String word : normalized.split(" ")) {
+            if (word.length() < 4) {
+                continue;
+            }
+            int maxEdits = MedicineRanker.maxEditsFor(word.length());
+            for (int t = 0; t < index.terms.length; t++) {
+                if (MedicineRanker.boundedEditDistance(word, index.terms[t], maxEdits) <= maxEdits) {
+                    candidates.or(index.postings[t]);
+                }
+            }
+        }
+
+        List<Long> ids = new ArrayList<>(candidates.cardinality());
+        for (int doc = candidates.nextSetBit(0); doc >= 0; doc = candidates.nextSetBit(doc + 1)) {
+            ids.add(index.ids[doc]);
+        }
+        return ids;
+    }
+
+    /**
+     * Number of medicines currently indexed
+     */
+    public int size() {
+        return refreshIfStale().ids.length;
+    }
+
+    /**
+     * Force a rebuild from the database
+     */
+    public void rebuild() {
+        snapshot.invalidate();
+        refreshIfStale();
+    }
+
+    private Snapshot refreshIfStale() {
+        return snapshot.get();
+    }
+
+    private Snapshot load() {
+        long start = System.currentTimeMillis();
+        Snapshot built = Snapshot.build(medicineRepository.findAllWithBrandNames());
+        log.info("Medicine search index built: {} medicines, {} terms in {}ms",
+            built.ids.length, built.terms.length, System.currentTimeMillis() - start);
+        return built;
+    }
+
+    private static List<FacetCount> toFacetCounts(String[] labels, long[] counts) {
+        List<FacetCount> result = new ArrayList<>();
+        for (int i = 0; i < labels.length; i++) {
+            if (counts[i] > 0) {
+                result.add(new FacetCount(labels[i], counts[i]));
+            }
+        }
+        result.sort(Comparator.comparingLong(FacetCount::getCount).reversed()
+            .thenComparing(FacetCount::getValue, String.CASE_INSENSITIVE_ORDER));
+        return result;
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String normalized = value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return normalized.isEmpty() ? null : normalized;
+    }
+
+    /**
+     * Immutable view of the catalogue at build time. Documents are ordered by name so
+     * pages are stable between requests.
+     */
+    private static final class Snapshot {
+        private final long[] ids;
+        private final String[][] fields;
+        private final String[] terms;
+        private final BitSet[] postings;
+        private final String[][] labels;
+        private final int[][] ordinals;
+        private final List<Map<String, Integer>> ordinalByKey;
+
+        private Snapshot(long[] ids, String[][] fields, String[] terms, BitSet[] postings,
+                         String[][] labels, int[][] ordinals, List<Map<String, Integer>> ordinalByKey) {
+            this.ids = ids;
+            this.fields = fields;
+            this.terms = terms;
+            this.postings = postings;
+            this.labels = labels;
+            this.ordinals = ordinals;
+            this.ordinalByKey = ordinalByKey;
+        }
+
+        static Snapshot build(List<Medicine> catalogue) {
+            List<Medicine> medicines = new ArrayList<>(catalogue);
+            medicines.sort(Comparator.comparing(Medicine::getName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)));
+
+            int n = medicines.size();
+            long[] ids = new long[n];
+            String[][] fields = new String[n][];
+            Map<String, BitSet> termPostings = new HashMap<>();
+
+            List<Map<String, Integer>> ordinalByKey = new ArrayList<>(FACETS.length);
+            List<List<String>> labelLists = new ArrayList<>(FACETS.length);
+            int[][] ordinals = new int[FACETS.length][n];
+            for (int f = 0; f < FACETS.length; f++) {
+                ordinalByKey.add(new HashMap<>());
+                labelLists.add(new ArrayList<>());
+            }
+
+            for (int doc = 0; doc < n; doc++) {
+                Medicine medicine = medicines.get(doc);
+                ids[doc] = medicine.getId();
+
+                List<String> docFields = new ArrayList<>();
+                addField(docFields, medicine.getName());
+                addField(docFields, medicine.getGenericName());
+                addField(docFields, medicine.getManufacturer());
+                addField(docFields, medicine.getActiveIngredient());
+                if (medicine.getBrandNames() != null) {
+                    for (String brand : medicine.getBrandNames()) {
+                        addField(docFields, brand);
+                    }
+                }
+                fields[doc] = docFields.toArray(new String[0]);
+
+                // Terms are whitespace-delimited, so any single-word substring of a field
+                // is a substring of exactly one of its terms
+                for (String field : fields[doc]) {
+                    for (String term : field.split(" ")) {
+                        termPostings.computeIfAbsent(term, k -> new BitSet(n)).set(doc);
+                    }
+                }
+
+                for (Facet facet : FACETS) {
+                    String raw = facetValue(medicine, facet);
+                    String key = normalize(raw);
+                    int f = facet.ordinal();
+                    if (key == null) {
+                        ordinals[f][doc] = NO_VALUE;
+                        continue;
+                    }
+                    Integer ordinal = ordinalByKey.get(f).get(key);
+                    if (ordinal == null) {
+                        ordinal = labelLists.get(f).size();
+                        ordinalByKey.get(f).put(key, ordinal);
+                        labelLists.get(f).add(raw.trim());
+                    }
+                    ordinals[f][doc] = ordinal;
+                }
+            }
+
+            String[] terms = termPostings.keySet().toArray(new String[0]);
+            BitSet[] postings = new BitSet[terms.length];
+            for (int i = 0; i < terms.length; i++) {
+                postings[i] = termPostings.get(terms[i]);
+            }
+
+            String[][] labels = new String[FACETS.length][];
+            for (int f = 0; f < FACETS.length; f++) {
+                labels[f] = labelLists.get(f).toArray(new String[0]);
+            }
+
+            return new Snapshot(ids, fields, terms, postings, labels, ordinals, ordinalByKey);
+        }
+
+        /**
+         * Candidate documents for a free-text query, with the same substring semantics as
+         * MedicineRepository.comprehensiveSearch
+         */
+        BitSet matchQuery(String query) {
+            String normalized = normalize(query);
+            if (normalized == null) {
+                BitSet all = new BitSet(ids.length);
+                all.set(0, ids.length);
+                return all;
+            }
+
+            String[] words = normalized.split(" ");
+            BitSet candidates = null;
+            for (String word : words) {
+                BitSet wordHits = new BitSet(ids.length);
+                for (int t = 0; t < terms.length; t++) {
+                    if (terms[t].contains(word)) {
+                        wordHits.or(postings[t]);
+                    }
+                }
+                if (candidates == null) {
+                    candidates = wordHits;
+                } else {
+                    candidates.and(wordHits);
+                }
+                if (candidates.isEmpty()) {
+                    return candidates;
+                }
+            }
+
+            // Multi-word queries must still match within a single field
+            if (words.length > 1) {
+                for (int doc = candidates.nextSetBit(0); doc >= 0; doc = candidates.nextSetBit(doc + 1)) {
+                    if (!anyFieldContains(fields[doc], normalized)) {
+                        candidates.clear(doc);
+                    }
+                }
+            }
+            return candidates;
+        }
+
+        int ordinalOf(Facet facet, String value) {
+            String key = normalize(value);
+            if (key == null) {
+                return NO_FILTER;
+            }
+            Integer ordinal = ordinalByKey.get(facet.ordinal()).get(key);
+            return ordinal != null ? ordinal : UNKNOWN_VALUE;
+        }
+
+        private static boolean anyFieldContains(String[] fields, String phrase) {
+            for (String field : fields) {
+                if (field.contains(phrase)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static void addField(List<String> fields, String value) {
+            String normalized = normalize(value);
+            if (normalized != null) {
+                fields.add(normalized);
+            }
+        }
+
+        private static String facetValue(Medicine medicine, Facet facet) {
+            return switch (facet) {
+                case CATEGORY -> medicine.getCategory();
+                case FORM -> medicine.getForm();
+                case MANUFACTURER -> medicine.getManufacturer();
+                case REQUIRES_PRESCRIPTION -> String.valueOf(medicine.isRequiresPrescription());
+            };
+        }
+    }
+
+    /**
+     * One page of matching medicine ids plus facet counts
+     */
+    public static class SearchResult {
+        private final List<Long> pageIds;
+        private final long total;
+        private final Map<Facet, List<FacetCount>> facetCounts;
+
+        public SearchResult(List<Long> pageIds, long total, Map<Facet, List<FacetCount>> facetCounts) {
+            this.pageIds = pageIds;
+            this.total = total;
+            this.facetCounts = facetCounts;
+        }
+
+        public List<Long> getPageIds() { return pageIds; }
+
+        public long getTotal() { return total; }
+
+        public Map<Facet, List<FacetCount>> getFacetCounts() { return facetCounts; }
+    }
+}
@@ -1,13 +1,27 @@
 package com.medassist.medicine.service;
 
+import com.medassist.common.dto.BatchLookupResponse;
 import com.medassist.common.exception.ResourceNotFoundException;
+import com.medassist.common.service.CachedBatchLookup;
+import com.medassist.medicine.dto.MedicineFacetedSearchResponse;
+import com.medassist.medicine.dto.MedicineSearchHit;
 import com.medassist.medicine.entity.Medicine;
+import com.medassist.medicine.event.MedicineChangedEvent;
 import com.medassist.medicine.repository.MedicineRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Slf4j
@@ -16,7 +30,19 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class MedicineService {
 
+    public static final String MEDICINES_BY_ID_CACHE = "medicines-by-id";
+
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final MedicineRepository medicineRepository;
+    private final MedicineSearchIndex medicineSearchIndex;
+    private final MedicineRanker medicineRanker;
+    private final MedicineSynonymIndex medicineSynonymIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+
+    @Value("${medicine.batch.max-ids:100}")
+    private int maxBatchIds;
 
     // CRUD Operations
 
@@ -24,7 +50,10 @@ public class MedicineService {
      * Create a new medicine
      */
     public Medicine createMedicine(Medicine medicine) {
-        return medicineRepository.save(medicine);
+        Medicine savedMedicine = medicineRepository.save(medicine);
+        eventPublisher.publishEvent(new MedicineChangedEvent(savedMedicine.getId(),
+            MedicineChangedEvent.ChangeType.CREATED));
+        return savedMedicine;
     }
 
     /**
@@ -40,12 +69,32 @@ public class MedicineService {
      */
     @Transactional(readOnly = true)
     public Optional<Medicine> getMedicineById(Long id) {
-        return medicineRepository.findById(id);
+        Optional<Medicine> medicine = medicineRepository.findById(id);
+        medicine.ifPresent(found -> medicineRanker.recordSelection(found.getId()));
+        return medicine;
+    }
+
+    /**
+     * Get many medicines by ID: per-entity cache first, then one IN query for the misses.
+     * Collections are initialised with batch fetching before the entities are cached.
+     */
+    @Transactional(readOnly = true)
+    public BatchLookupResponse<Medicine> getMedicinesByIds(List<Long> ids) {
+        BatchLookupResponse<Medicine> response = new CachedBatchLookup<>(Medicine.class, Medicine::getId,
+            medicineRepository::findAllById, medicine -> {
+                Hibernate.initialize(medicine.getBrandNames());
+                Hibernate.initialize(medicine.getSideEffects());
+            }).lookup(ids, maxBatchIds, cacheManager.getCache(MEDICINES_BY_ID_CACHE));
+        for (Medicine medicine : response.getResults()) {
+            medicineRanker.recordSelection(medicine.getId());
+        }
+        return response;
     }
 
     /**
      * Update medicine
      */
+    @CacheEvict(value = MEDICINES_BY_ID_CACHE, key = "#id")
     public Medicine updateMedicine(Long id, Medicine medicineDetails) {
         Medicine medicine = medicineRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Medicine", id));
@@ -64,17 +113,21 @@ public class MedicineService {
         medicine.setRequiresPrescription(medicineDetails.isRequiresPrescription());
         medicine.setActiveIngredient(medicineDetails.getActiveIngredient());
         medicine.setStorageInstructions(medicineDetails.getStorageInstructions());
-        return medicineRepository.save(medicine);
+        Medicine savedMedicine = medicineRepository.save(medicine);
+        eventPublisher.publishEvent(new MedicineChangedEvent(id, MedicineChangedEvent.ChangeType.UPDATED));
+        return savedMedicine;
     }
 
     /**
      * Delete medicine
      */
+    @CacheEvict(value = MEDICINES_BY_ID_CACHE, key = "#id")
     public void deleteMedicine(Long id) {
         if (!medicineRepository.existsById(id)) {
             throw new ResourceNotFoundException("Medicine", id);
         }
         medicineRepository.deleteById(id);
+        eventPublisher.publishEvent(new MedicineChangedEvent(id, MedicineChangedEvent.ChangeType.DELETED));
     }
 
     // Search Operations
@@ -159,6 +212,88 @@ public class MedicineService {
         return medicineRepository.comprehensiveSearch(searchTerm);
     }
 
+    /**
+     * Relevance-ranked search: the best matches scored by field, match type and popularity.
+     * Falls back to typo-tolerant candidates when the substring search finds nothing.
+     */
+    @Transactional(readOnly = true)
+    public List<MedicineSearchHit> rankedSearch(String searchTerm, int limit) {
+        if (searchTerm == null || searchTerm.trim().isEmpty()) {
+            return List.of();
+        }
+        int safeLimit = Math.min(Math.max(1, limit), MAX_PAGE_SIZE);
+
+        List<Medicine> candidates = medicineRepository.comprehensiveSearch(searchTerm.trim());
+        if (candidates.isEmpty()) {
+            List<Long> fuzzyIds = medicineSearchIndex.fuzzyCandidateIds(searchTerm);
+            candidates = fuzzyIds.isEmpty() ? List.of() : medicineRepository.findAllById(fuzzyIds);
+        }
+
+        List<MedicineSearchHit> hits = medicineRanker.topK(searchTerm, candidates, safeLimit);
+        // Hits may be used off the request thread (AI lookups), so load collections now
+        for (MedicineSearchHit hit : hits) {
+            Hibernate.initialize(hit.getMedicine().getBrandNames());
+            Hibernate.initialize(hit.getMedicine().getSideEffects());
+        }
+        return hits;
+    }
+
+    /**
+     * Best ranked match for a free-text name, if any. A name known to the synonym table
+     * (brand, generic, ingredient) is resolved without a LIKE search.
+     */
+    @Transactional(readOnly = true)
+    public Optional<MedicineSearchHit> findBestMatch(String searchTerm) {
+        List<Long> resolvedIds = medicineSynonymIndex.resolve(searchTerm);
+        List<MedicineSearchHit> hits = resolvedIds.isEmpty()
+            ? rankedSearch(searchTerm, 1)
+            : medicineRanker.topK(searchTerm, medicineRepository.findAllById(resolvedIds), 1);
+        if (hits.isEmpty()) {
+            return Optional.empty();
+        }
+        MedicineSearchHit best = hits.get(0);
+        Hibernate.initialize(best.getMedicine().getBrandNames());
+        Hibernate.initialize(best.getMedicine().getSideEffects());
+        return Optional.of(best);
+    }
+
+    /**
+     * Faceted search: one page of matches plus category/form/manufacturer/prescription counts,
+     * served from the in-memory search index in a single pass
+     */
+    @Transactional(readOnly = true)
+    public MedicineFacetedSearchResponse facetedSearch(String searchTerm, String category, String form,
+                                                       String manufacturer, Boolean requiresPrescription,
+                                                       int page, int size) {
+        int safePage = Math.max(0, page);
+        int safeSize = Math.min(Math.max(1, size), MAX_PAGE_SIZE);
+
+        Map<MedicineSearchIndex.Facet, String> filters = new EnumMap<>(MedicineSearchIndex.Facet.class);
+        putFilter(filters, MedicineSearchIndex.Facet.CATEGORY, category);
+        putFilter(filters, MedicineSearchIndex.Facet.FORM, form);
+        putFilter(filters, MedicineSearchIndex.Facet.MANUFACTURER, manufacturer);
+        if (requiresPrescription != null) {
+            filters.put(MedicineSearchIndex.Facet.REQUIRES_PRESCRIPTION, requiresPrescription.toString());
+        }
+
+        MedicineSearchIndex.SearchResult result = medicineSearchIndex.search(searchTerm, filters, safePage, safeSize);
+
+        MedicineFacetedSearchResponse.Facets facets = new MedicineFacetedSearchResponse.Facets();
+        facets.setCategory(result.getFacetCounts().get(MedicineSearchIndex.Facet.CATEGORY));
+        facets.setForm(result.getFacetCounts().get(MedicineSearchIndex.Facet.FORM));
+        facets.setManufacturer(result.getFacetCounts().get(MedicineSearchIndex.Facet.MANUFACTURER));
+        facets.setRequiresPrescription(result.getFacetCounts().get(MedicineSearchIndex.Facet.REQUIRES_PRESCRIPTION));
+
+        MedicineFacetedSearchResponse response = new MedicineFacetedSearchResponse();
+        response.setResults(findAllByIdInOrder(result.getPageIds()));
+        response.setPage(safePage);
+        response.setSize(safeSize);
+        response.setTotalResults(result.getTotal());
+        response.setTotalPages((int) ((result.getTotal() + safeSize - 1) / safeSize));
+        response.setFacets(facets);
+        return response;
+    }
+
     /**
      * Find medicines by description content
      */
@@ -200,4 +335,32 @@ public class MedicineService {
     public long getTotalMedicineCount() {
         return medicineRepository.count();
     }
+
+    /**
+     * Load medicines with one IN query, preserving the order of the given ids
+     */
+    private List<Medicine> findAllByIdInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Medicine> byId = new HashMap<>();
+        for (Medicine medicine : medicineRepository.findAllById(ids)) {
+            byId.put(medicine.getId(), medicine);
+        }
+        List<Medicine> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Medicine medicine = byId.get(id);
+            if (medicine != null) {
+                ordered.add(medicine);
+            }
+        }
+        return ordered;
+    }
+
+    private static void putFilter(Map<MedicineSearchIndex.Facet, String> filters,
+                                  MedicineSearchIndex.Facet facet, String value) {
+        if (value != null && !value.trim().isEmpty()) {
+            filters.put(facet, value);
+        }
+    }
 }
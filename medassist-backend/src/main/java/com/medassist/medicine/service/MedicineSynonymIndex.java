@@ -0,0 +1,173 @@
+package com.medassist.medicine.service;
+
+import com.medassist.medicine.entity.Medicine;
+import com.medassist.medicine.event.MedicineChangedEvent;
+import com.medassist.medicine.repository.MedicineRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory synonym table mapping every medicine name, brand name, generic name and
+ * active ingredient to the ids of the medicines it refers to.
+ *
+ * Keys are normalised and interned; the table uses open addressing with linear probing
+ * over parallel arrays, so resolve() costs one normalisation, one hash and a short probe
+ * with no database round trip. The table is rebuilt lazily after medicine writes.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MedicineSynonymIndex {
+
+    private final MedicineRepository medicineRepository;
+
+    private final RebuildableSnapshot<Table> table =
+        new RebuildableSnapshot<>("medicine synonym table", this::load);
+
+    /**
+     * Build the table once the application (and sample data) is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            refreshIfStale();
+        } catch (Exception e) {
+            log.warn("Medicine synonym table warm-up failed, will retry on first lookup: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Mark the table stale after a catalogue write has committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMedicineChanged(MedicineChangedEvent event) {
+        table.invalidate();
+    }
+
+    /**
+     * Ids of the medicines a name refers to (brand, generic, ingredient or medicine name),
+     * matched case- and whitespace-insensitively. Empty when the name is unknown.
+     */
+    public List<Long> resolve(String name) {
+        String key = MedicineSearchIndex.normalize(name);
+        if (key == null) {
+            return List.of();
+        }
+        return refreshIfStale().get(key);
+    }
+
+    /**
+     * Whether the name is a known synonym of the given medicine
+     */
+    public boolean refersTo(String name, Long medicineId) {
+        return medicineId != null && resolve(name).contains(medicineId);
+    }
+
+    /**
+     * Number of distinct names in the table
+     */
+    public int size() {
+        return refreshIfStale().size;
+    }
+
+    private Table refreshIfStale() {
+        return table.get();
+    }
+
+    private Table load() {
+        long start = System.currentTimeMillis();
+        Table built = Table.build(medicineRepository.findAllWithBrandNames());
+        log.info("Medicine synonym table built: {} names in {}ms",
+            built.size, System.currentTimeMillis() - start);
+        return built;
+    }
+
+    /**
+     * Immutable open-addressing hash table: keys[i] holds an interned name, ids[i] the
+     * medicine ids it resolves to. Capacity is a power of two kept at most half full.
+     */
+    private static final class Table {
+        private static final int MIN_CAPACITY = 16;
+
+        private final String[] keys;
+        private final List<Long>[] ids;
+        private final int mask;
+        private final int size;
+
+        private Table(String[] keys, List<Long>[] ids, int size) {
+            this.keys = keys;
+            this.ids = ids;
+            this.mask = keys.length - 1;
+            this.size = size;
+        }
+
+        @SuppressWarnings("unchecked")
+        static Table build(List<Medicine> medicines) {
+            Map<String, Set<Long>> synonyms = new LinkedHashMap<>();
+            for (Medicine medicine : medicines) {
+                Long id = medicine.getId();
+                add(synonyms, medicine.getName(), id);
+                add(synonyms, medicine.getGenericName(), id);
+                add(synonyms, medicine.getActiveIngredient(), id);
+                if (medicine.getBrandNames() != null) {
+                    for (String brand : medicine.getBrandNames()) {
+                        add(synonyms, brand, id);
+                    }
+                }
+            }
+
+            int capacity = MIN_CAPACITY;
+            while (capacity < synonyms.size() * 2) {
+                capacity <<= 1;
+            }
+            int mask = capacity - 1;
+            String[] keys = new String[capacity];
+            List<Long>[] ids = (List<Long>[]) new List[capacity];
+
+            for (Map.Entry<String, Set<Long>> entry : synonyms.entrySet()) {
+                int slot = spread(entry.getKey().hashCode()) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = entry.getKey().intern();
+                ids[slot] = Collections.unmodifiableList(new ArrayList<>(entry.getValue()));
+            }
+            return new Table(keys, ids, synonyms.size());
+        }
+
+        List<Long> get(String key) {
+            int slot = spread(key.hashCode()) & mask;
+            while (keys[slot] != null) {
+                if (keys[slot].equals(key)) {
+                    return ids[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return List.of();
+        }
+
+        // Mix high bits into the low ones used for the slot, as HashMap does
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+
+        private static void add(Map<String, Set<Long>> synonyms, String name, Long id) {
+            String key = MedicineSearchIndex.normalize(name);
+            if (key != null && id != null) {
+                synonyms.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(id);
+            }
+        }
+    }
+}
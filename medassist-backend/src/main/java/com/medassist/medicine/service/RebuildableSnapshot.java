@@ -0,0 +1,69 @@
+package com.medassist.medicine.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.function.Supplier;
+
+/**
+ * Immutable in-memory view built lazily from the database and rebuilt on the first read
+ * after invalidate(). Owners invalidate it from a @TransactionalEventListener so the
+ * rebuild only ever sees committed writes.
+ *
+ * A failed rebuild keeps serving the previous view and retries on the next read. With no
+ * previous view the fallback is served, or the failure is thrown when there is none.
+ */
+@Slf4j
+final class RebuildableSnapshot<T> {
+
+    private final String name;
+    private final Supplier<T> loader;
+    private final T fallback;
+
+    private volatile T current;
+    private volatile boolean stale = true;
+
+    RebuildableSnapshot(String name, Supplier<T> loader) {
+        this(name, loader, null);
+    }
+
+    RebuildableSnapshot(String name, Supplier<T> loader, T fallback) {
+        this.name = name;
+        this.loader = loader;
+        this.fallback = fallback;
+    }
+
+    /**
+     * Rebuild on the next read
+     */
+    void invalidate() {
+        stale = true;
+    }
+
+    T get() {
+        T snapshot = current;
+        if (snapshot != null && !stale) {
+            return snapshot;
+        }
+        synchronized (this) {
+            if (current != null && !stale) {
+                return current;
+            }
+            // Clear the flag before loading so a write that lands mid-load marks it stale again
+            stale = false;
+            try {
+                current = loader.get();
+            } catch (RuntimeException e) {
+                stale = true;
+                if (current == null) {
+                    if (fallback == null) {
+                        throw e;
+                    }
+                    log.error("Failed to build {}, serving fallback", name, e);
+                    return fallback;
+                }
+                log.error("Failed to rebuild {}, serving previous version", name, e);
+            }
+            return current;
+        }
+    }
+}
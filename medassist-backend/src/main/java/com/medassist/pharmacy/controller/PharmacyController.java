@@ -1,5 +1,7 @@
 package com.medassist.pharmacy.controller;
 
+import com.medassist.common.dto.BatchLookupRequest;
+import com.medassist.common.dto.BatchLookupResponse;
 import com.medassist.pharmacy.entity.Pharmacy;
 import com.medassist.pharmacy.service.PharmacyService;
 import lombok.RequiredArgsConstructor;
@@ -41,6 +43,11 @@ public class PharmacyController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<BatchLookupResponse<Pharmacy>> getPharmaciesByIds(@Valid @RequestBody BatchLookupRequest request) {
+        return ResponseEntity.ok(pharmacyService.getPharmaciesByIds(request.getIds()));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Pharmacy> updatePharmacy(@PathVariable Long id,
                                                   @Valid @RequestBody Pharmacy pharmacy) {
@@ -1,8 +1,10 @@
 package com.medassist.pharmacy.controller;
 
 import com.medassist.common.dto.ApiErrorResponse;
+import com.medassist.pharmacy.dto.AvailabilityHeatmapResponse;
 import com.medassist.pharmacy.dto.PharmacyLocationRequest;
 import com.medassist.pharmacy.dto.PharmacyLocationResponse;
+import com.medassist.pharmacy.service.AvailabilityHeatmapService;
 import com.medassist.pharmacy.service.PharmacyLocationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -35,6 +37,7 @@ import java.util.concurrent.CompletableFuture;
 public class PharmacyLocationController {
 
     private final PharmacyLocationService pharmacyLocationService;
+    private final AvailabilityHeatmapService availabilityHeatmapService;
 
     /**
      * Find nearby pharmacies based on user location
@@ -244,6 +247,35 @@ public class PharmacyLocationController {
         return findPharmaciesWithMedicine(request, minConfidence);
     }
 
+    /**
+     * Availability of a medicine across all active pharmacies, aggregated into geohash cells
+     */
+    @GetMapping("/heatmap")
+    @Operation(
+        summary = "Medicine availability heatmap",
+        description = "Aggregate availability confidence for one medicine over all active pharmacies into geohash cells"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully built heatmap",
+            content = @Content(schema = @Schema(implementation = AvailabilityHeatmapResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid precision",
+            content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))),
+        @ApiResponse(responseCode = "404", description = "Medicine not found",
+            content = @Content(schema = @Schema(implementation = ApiErrorResponse.class)))
+    })
+    public ResponseEntity<AvailabilityHeatmapResponse> getAvailabilityHeatmap(
+            @Parameter(description = "Medicine name, brand or generic name", required = true, example = "Ibuprofen")
+            @RequestParam String medicineName,
+
+            @Parameter(description = "Geohash precision (1-8); 5 is roughly 4.9 x 4.9 km", example = "5")
+            @RequestParam(defaultValue = "5") Integer precision) {
+
+        log.info("Building availability heatmap for {} at precision {}", medicineName, precision);
+
+        // Service throws ResourceNotFoundException if the medicine is unknown
+        return ResponseEntity.ok(availabilityHeatmapService.getHeatmap(medicineName, precision));
+    }
+
     /**
      * Get detailed information about a specific pharmacy with location context
      */
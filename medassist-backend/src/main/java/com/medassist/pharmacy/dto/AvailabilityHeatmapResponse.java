@@ -0,0 +1,111 @@
+package com.medassist.pharmacy.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Availability of one medicine across all active pharmacies, aggregated into geohash cells.
+ */
+public class AvailabilityHeatmapResponse {
+
+    @JsonProperty("medicine_id")
+    private Long medicineId;
+
+    @JsonProperty("medicine_name")
+    private String medicineName;
+
+    @JsonProperty("precision")
+    private int precision;
+
+    @JsonProperty("pharmacy_count")
+    private int pharmacyCount;
+
+    @JsonProperty("unlocated_count")
+    private int unlocatedCount; // Active pharmacies without coordinates, not in any cell
+
+    @JsonProperty("generated_at")
+    private LocalDateTime generatedAt;
+
+    @JsonProperty("cells")
+    private List<Cell> cells;
+
+    public AvailabilityHeatmapResponse() {}
+
+    // Getters and setters
+    public Long getMedicineId() { return medicineId; }
+    public void setMedicineId(Long medicineId) { this.medicineId = medicineId; }
+
+    public String getMedicineName() { return medicineName; }
+    public void setMedicineName(String medicineName) { this.medicineName = medicineName; }
+
+    public int getPrecision() { return precision; }
+    public void setPrecision(int precision) { this.precision = precision; }
+
+    public int getPharmacyCount() { return pharmacyCount; }
+    public void setPharmacyCount(int pharmacyCount) { this.pharmacyCount = pharmacyCount; }
+
+    public int getUnlocatedCount() { return unlocatedCount; }
+    public void setUnlocatedCount(int unlocatedCount) { this.unlocatedCount = unlocatedCount; }
+
+    public LocalDateTime getGeneratedAt() { return generatedAt; }
+    public void setGeneratedAt(LocalDateTime generatedAt) { this.generatedAt = generatedAt; }
+
+    public List<Cell> getCells() { return cells; }
+    public void setCells(List<Cell> cells) { this.cells = cells; }
+
+    /**
+     * One geohash cell: how many pharmacies it holds and how likely they are to have the medicine
+     */
+    public static class Cell {
+
+        @JsonProperty("geohash")
+        private String geohash;
+
+        @JsonProperty("latitude")
+        private double latitude; // Cell centre
+
+        @JsonProperty("longitude")
+        private double longitude;
+
+        @JsonProperty("pharmacy_count")
+        private int pharmacyCount;
+
+        @JsonProperty("mean_confidence")
+        private double meanConfidence;
+
+        @JsonProperty("high_stock_count")
+        private int highStockCount;
+
+        public Cell() {}
+
+        public Cell(String geohash, double latitude, double longitude, int pharmacyCount,
+                    double meanConfidence, int highStockCount) {
+            this.geohash = geohash;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.pharmacyCount = pharmacyCount;
+            this.meanConfidence = meanConfidence;
+            this.highStockCount = highStockCount;
+        }
+
+        public String getGeohash() { return geohash; }
+        public void setGeohash(String geohash) { this.geohash = geohash; }
+
+        public double getLatitude() { return latitude; }
+        public void setLatitude(double latitude) { this.latitude = latitude; }
+
+        public double getLongitude() { return longitude; }
+        public void setLongitude(double longitude) { this.longitude = longitude; }
+
+        public int getPharmacyCount() { return pharmacyCount; }
+        public void setPharmacyCount(int pharmacyCount) { this.pharmacyCount = pharmacyCount; }
+
+        public double getMeanConfidence() { return meanConfidence; }
+        public void setMeanConfidence(double meanConfidence) { this.meanConfidence = meanConfidence; }
+
+        public int getHighStockCount() { return highStockCount; }
+        public void setHighStockCount(int highStockCount) { this.highStockCount = highStockCount; }
+    }
+}
@@ -8,11 +8,16 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "pharmacies")
 @Table(name = "pharmacies", indexes = {
     @Index(name = "idx_pharmacy_name", columnList = "name"),
     @Index(name = "idx_pharmacy_city", columnList = "city"),
@@ -86,6 +91,8 @@ public class Pharmacy {
     private boolean hasConsultation;
 
     @ElementCollection(fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "pharmacy-services")
     @CollectionTable(name = "pharmacy_services", joinColumns = @JoinColumn(name = "pharmacy_id"))
     @Column(name = "service")
     private List<String> services;
@@ -0,0 +1,31 @@
+package com.medassist.pharmacy.event;
+
+/**
+ * Published by PharmacyService whenever a pharmacy is written.
+ * In-memory views over pharmacies listen for it and rebuild after commit.
+ */
+public class PharmacyChangedEvent {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DEACTIVATED,
+        DELETED
+    }
+
+    private final Long pharmacyId;
+    private final ChangeType changeType;
+
+    public PharmacyChangedEvent(Long pharmacyId, ChangeType changeType) {
+        this.pharmacyId = pharmacyId;
+        this.changeType = changeType;
+    }
+
+    public Long getPharmacyId() {
+        return pharmacyId;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+}
@@ -1,8 +1,11 @@
 package com.medassist.pharmacy.repository;
 
 import com.medassist.pharmacy.entity.Pharmacy;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
@@ -42,8 +45,13 @@ public interface PharmacyRepository extends JpaRepository<Pharmacy, Long> {
     List<Pharmacy> findByAcceptsInsurance(boolean acceptsInsurance);
 
     // Find active pharmacies
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Pharmacy> findByIsActive(boolean isActive);
 
+    // Active pharmacies with services loaded, for in-memory views
+    @Query("SELECT DISTINCT p FROM Pharmacy p LEFT JOIN FETCH p.services WHERE p.isActive = true")
+    List<Pharmacy> findAllActiveWithServices();
+
     // Search pharmacies by name or address
     @Query("SELECT p FROM Pharmacy p WHERE " +
            "LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
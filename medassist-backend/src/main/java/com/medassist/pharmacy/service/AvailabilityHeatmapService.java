@@ -0,0 +1,276 @@
+package com.medassist.pharmacy.service;
+
+import com.medassist.common.exception.BusinessValidationException;
+import com.medassist.common.exception.ResourceNotFoundException;
+import com.medassist.inventory.dto.InventoryBatch;
+import com.medassist.inventory.event.InventoryChangedEvent;
+import com.medassist.medicine.event.AvailabilityKeywordsChangedEvent;
+import com.medassist.medicine.entity.Medicine;
+import com.medassist.medicine.service.AvailabilityScorer;
+import com.medassist.medicine.service.MedicineAvailabilityService;
+import com.medassist.pharmacy.dto.AvailabilityHeatmapResponse;
+import com.medassist.pharmacy.entity.Pharmacy;
+import com.medassist.pharmacy.event.PharmacyChangedEvent;
+import com.medassist.pharmacy.repository.PharmacyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Availability of one medicine across every active pharmacy, bucketed into geohash cells.
+ *
+ * The medicine is resolved once; pharmacies are then scored and binned in parallel with a
+ * fork-join split over the pharmacy list, each leaf building its own cell map and parents
+ * merging their children's. Heatmaps are cached per medicine and precision. Inventory deltas
+ * evict only the medicines they touch; pharmacy, keyword and snapshot changes clear the
+ * cache. Generation counters keep a heatmap computed while a change landed out of the cache.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AvailabilityHeatmapService {
+
+    public static final String HEATMAP_CACHE = "availability-heatmap";
+
+    public static final int DEFAULT_PRECISION = 5;
+    public static final int MAX_PRECISION = 8;
+
+    // Pharmacies per fork-join leaf
+    private static final int LEAF_SIZE = 256;
+
+    // Deltas touching more medicines than this clear the cache instead
+    private static final int MAX_TARGETED_EVICTIONS = 256;
+
+    private final PharmacyRepository pharmacyRepository;
+    private final MedicineAvailabilityService medicineAvailabilityService;
+    private final CacheManager cacheManager;
+
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<Long, Long> medicineGenerations = new ConcurrentHashMap<>();
+
+    /**
+     * Heatmap of a medicine's availability at the given geohash precision (1-8)
+     */
+    public AvailabilityHeatmapResponse getHeatmap(String medicineName, int precision) {
+        if (precision < 1 || precision > MAX_PRECISION) {
+            throw new BusinessValidationException(
+                "Heatmap precision must be between 1 and " + MAX_PRECISION, "INVALID_PRECISION");
+        }
+
+        Medicine medicine = medicineAvailabilityService.findMedicineByName(medicineName);
+        if (medicine == null) {
+            throw new ResourceNotFoundException("Medicine", medicineName);
+        }
+        Long medicineId = medicine.getId();
+
+        Cache cache = cacheManager.getCache(HEATMAP_CACHE);
+        String key = cacheKey(medicineId, precision);
+        AvailabilityHeatmapResponse cached = cache != null ? cache.get(key, AvailabilityHeatmapResponse.class) : null;
+        if (cached != null) {
+            return cached;
+        }
+
+        // Read before the scorer takes its matrix and keyword snapshots, so a change landing
+        // in between keeps this heatmap out of the cache
+        long generationBefore = generation.get();
+        long medicineGenerationBefore = medicineGenerations.getOrDefault(medicineId, 0L);
+        AvailabilityScorer scorer = medicineAvailabilityService.scorerFor(medicine);
+
+        long start = System.currentTimeMillis();
+        AvailabilityHeatmapResponse heatmap = compute(scorer, pharmacyRepository.findAllActiveWithServices(), precision);
+        log.debug("Availability heatmap for {} at precision {}: {} cells from {} pharmacies in {}ms",
+            heatmap.getMedicineName(), precision, heatmap.getCells().size(), heatmap.getPharmacyCount(),
+            System.currentTimeMillis() - start);
+
+        if (cache != null && generation.get() == generationBefore
+                && medicineGenerations.getOrDefault(medicineId, 0L) == medicineGenerationBefore) {
+            cache.put(key, heatmap);
+        }
+        return heatmap;
+    }
+
+    /**
+     * Drop every heatmap after a pharmacy write has committed. Like the other listeners
+     * here it runs last, once the keyword matcher and matrix are stale, so a heatmap
+     * computed after the clear is built from their new versions.
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPharmacyChanged(PharmacyChangedEvent event) {
+        clear();
+    }
+
+    /**
+     * Drop every heatmap after a keyword edit has committed (pharmacy scores change)
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onKeywordsChanged(AvailabilityKeywordsChangedEvent event) {
+        clear();
+    }
+
+    /**
+     * Drop the heatmaps of the medicines a committed inventory batch touched.
+     * Runs after InventoryStockIndex has applied the batch (see its listener order).
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        if (event.getMode() == InventoryBatch.Mode.SNAPSHOT) {
+            // A snapshot also zeroes medicines it does not list
+            clear();
+            return;
+        }
+
+        Set<Long> medicineIds = new HashSet<>();
+        for (long medicineId : event.getMedicineIds()) {
+            medicineIds.add(medicineId);
+        }
+        if (medicineIds.size() > MAX_TARGETED_EVICTIONS) {
+            clear();
+            return;
+        }
+
+        Cache cache = cacheManager.getCache(HEATMAP_CACHE);
+        for (Long medicineId : medicineIds) {
+            medicineGenerations.merge(medicineId, 1L, Long::sum);
+            if (cache != null) {
+                for (int precision = 1; precision <= MAX_PRECISION; precision++) {
+                    cache.evict(cacheKey(medicineId, precision));
+                }
+            }
+        }
+    }
+
+    /**
+     * Score and bin the pharmacies; pharmacies without coordinates are counted but not binned
+     */
+    static AvailabilityHeatmapResponse compute(AvailabilityScorer scorer, List<Pharmacy> pharmacies, int precision) {
+        Map<String, CellAccumulator> cells = ForkJoinPool.commonPool()
+            .invoke(new HeatmapTask(scorer, pharmacies, precision, 0, pharmacies.size()));
+
+        List<String> geohashes = new ArrayList<>(cells.keySet());
+        geohashes.sort(null);
+        List<AvailabilityHeatmapResponse.Cell> responseCells = new ArrayList<>(geohashes.size());
+        int located = 0;
+        for (String geohash : geohashes) {
+            CellAccumulator cell = cells.get(geohash);
+            double[] bounds = Geohash.bounds(geohash);
+            responseCells.add(new AvailabilityHeatmapResponse.Cell(geohash,
+                (bounds[0] + bounds[2]) / 2, (bounds[1] + bounds[3]) / 2,
+                cell.count, cell.confidenceSum / cell.count, cell.highStockCount));
+            located += cell.count;
+        }
+
+        AvailabilityHeatmapResponse response = new AvailabilityHeatmapResponse();
+        response.setMedicineId(scorer.getMedicine().getId());
+        response.setMedicineName(scorer.getMedicine().getName());
+        response.setPrecision(precision);
+        response.setPharmacyCount(pharmacies.size());
+        response.setUnlocatedCount(pharmacies.size() - located);
+        response.setGeneratedAt(LocalDateTime.now());
+        response.setCells(responseCells);
+        return response;
+    }
+
+    private void clear() {
+        generation.incrementAndGet();
+        Cache cache = cacheManager.getCache(HEATMAP_CACHE);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private static String cacheKey(Long medicineId, int precision) {
+        return medicineId + ":" + precision;
+    }
+
+    /**
+     * Scores and bins pharmacies[from, to), splitting in halves down to LEAF_SIZE
+     */
+    private static final class HeatmapTask extends RecursiveTask<Map<String, CellAccumulator>> {
+
+        private final AvailabilityScorer scorer;
+        private final List<Pharmacy> pharmacies;
+        private final int precision;
+        private final int from;
+        private final int to;
+
+        private HeatmapTask(AvailabilityScorer scorer, List<Pharmacy> pharmacies, int precision, int from, int to) {
+            this.scorer = scorer;
+            this.pharmacies = pharmacies;
+            this.precision = precision;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Map<String, CellAccumulator> compute() {
+            if (to - from <= LEAF_SIZE) {
+                Map<String, CellAccumulator> cells = new HashMap<>();
+                for (int i = from; i < to; i++) {
+                    Pharmacy pharmacy = pharmacies.get(i);
+                    if (pharmacy.getLatitude() == null || pharmacy.getLongitude() == null) {
+                        continue;
+                    }
+                    String geohash = Geohash.encode(pharmacy.getLatitude(), pharmacy.getLongitude(), precision);
+                    cells.computeIfAbsent(geohash, g -> new CellAccumulator()).add(scorer.confidence(pharmacy));
+                }
+                return cells;
+            }
+
+            int mid = (from + to) >>> 1;
+            HeatmapTask left = new HeatmapTask(scorer, pharmacies, precision, from, mid);
+            HeatmapTask right = new HeatmapTask(scorer, pharmacies, precision, mid, to);
+            left.fork();
+            Map<String, CellAccumulator> rightCells = right.compute();
+            Map<String, CellAccumulator> leftCells = left.join();
+
+            // Merge the smaller map into the larger
+            Map<String, CellAccumulator> into = leftCells.size() >= rightCells.size() ? leftCells : rightCells;
+            Map<String, CellAccumulator> smaller = into == leftCells ? rightCells : leftCells;
+            for (Map.Entry<String, CellAccumulator> entry : smaller.entrySet()) {
+                into.merge(entry.getKey(), entry.getValue(), CellAccumulator::merge);
+            }
+            return into;
+        }
+    }
+
+    private static final class CellAccumulator {
+        private int count;
+        private double confidenceSum;
+        private int highStockCount;
+
+        void add(double confidence) {
+            count++;
+            confidenceSum += confidence;
+            if (confidence >= MedicineAvailabilityService.HIGH_STOCK_THRESHOLD) {
+                highStockCount++;
+            }
+        }
+
+        CellAccumulator merge(CellAccumulator other) {
+            count += other.count;
+            confidenceSum += other.confidenceSum;
+            highStockCount += other.highStockCount;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.medassist.pharmacy.service;
+
+import java.util.Arrays;
+
+/**
+ * Geohash encoding of coordinates (base-32, interleaved longitude/latitude bits).
+ * A hash of n characters names a cell; cells sharing a prefix are nested, so truncating a
+ * hash gives the enclosing coarser cell. Precision 5 is roughly 4.9 x 4.9 km.
+ */
+public final class Geohash {
+
+    public static final int MAX_PRECISION = 12;
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+    private static final int[] DECODE = new int[128];
+
+    static {
+        Arrays.fill(DECODE, -1);
+        for (int i = 0; i < BASE32.length; i++) {
+            DECODE[BASE32[i]] = i;
+        }
+    }
+
+    private Geohash() {}
+
+    /**
+     * Geohash of the cell containing the coordinates
+     */
+    public static String encode(double latitude, double longitude, int precision) {
+        if (precision < 1 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Geohash precision must be between 1 and " + MAX_PRECISION);
+        }
+        double minLat = -90, maxLat = 90;
+        double minLon = -180, maxLon = 180;
+        char[] hash = new char[precision];
+        boolean evenBit = true; // Bits alternate, starting with longitude
+        for (int c = 0; c < precision; c++) {
+            int index = 0;
+            for (int bit = 0; bit < 5; bit++) {
+                if (evenBit) {
+                    double mid = (minLon + maxLon) / 2;
+                    if (longitude >= mid) {
+                        index = index * 2 + 1;
+                        minLon = mid;
+                    } else {
+                        index = index * 2;
+                        maxLon = mid;
+                    }
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (latitude >= mid) {
+                        index = index * 2 + 1;
+                        minLat = mid;
+                    } else {
+                        index = index * 2;
+                        maxLat = mid;
+                    }
+                }
+                evenBit = !evenBit;
+            }
+            hash[c] = BASE32[index];
+        }
+        return new String(hash);
+    }
+
+    /**
+     * Bounds of a geohash cell as {minLatitude, minLongitude, maxLatitude, maxLongitude}
+     */
+    public static double[] bounds(String geohash) {
+        double minLat = -90, maxLat = 90;
+        double minLon = -180, maxLon = 180;
+        boolean evenBit = true;
+        for (int c = 0; c < geohash.length(); c++) {
+            char ch = geohash.charAt(c);
+            int index = ch < 128 ? DECODE[ch] : -1;
+            if (index < 0) {
+                throw new IllegalArgumentException("Invalid geohash: " + geohash);
+            }
+            for (int bit = 4; bit >= 0; bit--) {
+                int bitValue = (index >> bit) & 1;
+                if (evenBit) {
+                    double mid = (minLon + maxLon) / 2;
+                    if (bitValue == 1) {
+                        minLon = mid;
+                    } else {
+                        maxLon = mid;
+                    }
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (bitValue == 1) {
+                        minLat = mid;
+                    } else {
+                        maxLat = mid;
+                    }
+                }
+                evenBit = !evenBit;
+            }
+        }
+        return new double[] {minLat, minLon, maxLat, maxLon};
+    }
+}
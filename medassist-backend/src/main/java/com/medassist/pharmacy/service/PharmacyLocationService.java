@@ -38,42 +38,70 @@ public class PharmacyLocationService {
         log.info("Finding pharmacies near lat: {}, lon: {}, radius: {}km",
             request.getLatitude(), request.getLongitude(), request.getRadiusKm());
 
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                // Validate coordinates
-                if (!googleMapsService.isValidCoordinates(request.getLatitude(), request.getLongitude())) {
-                    throw new IllegalArgumentException("Invalid coordinates provided");
-                }
+        return CompletableFuture.supplyAsync(() -> locatePharmacies(request, null));
+    }
+
+    /**
+     * Spatial search shared by the nearby and with-medicine lookups. With a minimum
+     * confidence, candidates are cut down by medicine availability before any response
+     * building or travel-time lookups.
+     */
+    private List<PharmacyLocationResponse> locatePharmacies(PharmacyLocationRequest request,
+                                                            Double minAvailabilityConfidence) {
+        try {
+            // Validate coordinates
+            if (!googleMapsService.isValidCoordinates(request.getLatitude(), request.getLongitude())) {
+                throw new IllegalArgumentException("Invalid coordinates provided");
+            }
+
+            // Validate and adjust radius
+            double radiusKm = validateRadius(request.getRadiusKm());
 
-                // Validate and adjust radius
-                double radiusKm = validateRadius(request.getRadiusKm());
+            // Get pharmacies within bounding box (for initial filtering)
+            List<Pharmacy> nearbyPharmacies = findPharmaciesInBoundingBox(
+                request.getLatitude(), request.getLongitude(), radiusKm);
 
-                // Get pharmacies within bounding box (for initial filtering)
-                List<Pharmacy> nearbyPharmacies = findPharmaciesInBoundingBox(
-                    request.getLatitude(), request.getLongitude(), radiusKm);
+            // Apply filters
+            List<Pharmacy> filteredPharmacies = applyFilters(nearbyPharmacies, request);
 
-                // Apply filters
-                List<Pharmacy> filteredPharmacies = applyFilters(nearbyPharmacies, request);
+            // Score availability once for all candidates (matrix lookups)
+            double[] confidences = null;
+            if (hasMedicineName(request)) {
+                confidences = medicineAvailabilityService.estimateAvailability(
+                    filteredPharmacies, request.getMedicineName());
+            }
+
+            if (minAvailabilityConfidence != null && confidences != null) {
+                List<Pharmacy> stocking = new ArrayList<>();
+                List<Double> stockingConfidences = new ArrayList<>();
+                for (int i = 0; i < confidences.length; i++) {
+                    if (confidences[i] >= minAvailabilityConfidence) {
+                        stocking.add(filteredPharmacies.get(i));
+                        stockingConfidences.add(confidences[i]);
+                    }
+                }
+                filteredPharmacies = stocking;
+                confidences = stockingConfidences.stream().mapToDouble(Double::doubleValue).toArray();
+            }
 
-                // Calculate distances and convert to response objects
-                List<PharmacyLocationResponse> responses = convertToLocationResponses(
-                    filteredPharmacies, request);
+            // Calculate distances and convert to response objects
+            List<PharmacyLocationResponse> responses = convertToLocationResponses(
+                filteredPharmacies, request, confidences);
 
-                // Get travel times asynchronously
-                enrichWithTravelTimes(responses, request).join();
+            // Get travel times asynchronously
+            enrichWithTravelTimes(responses, request).join();
 
-                // Sort results
-                sortResults(responses, request.getSortBy());
+            // Sort results
+            sortResults(responses, request.getSortBy());
 
-                // Limit results
-                int maxResults = Math.min(request.getMaxResults(), 50); // Cap at 50
-                return responses.stream().limit(maxResults).collect(Collectors.toList());
+            // Limit results
+            int maxResults = Math.min(request.getMaxResults(), 50); // Cap at 50
+            return responses.stream().limit(maxResults).collect(Collectors.toList());
 
-            } catch (Exception e) {
-                log.error("Error finding nearby pharmacies", e);
-                throw new RuntimeException("Failed to find nearby pharmacies", e);
-            }
-        });
+        } catch (Exception e) {
+            log.error("Error finding nearby pharmacies", e);
+            throw new RuntimeException("Failed to find nearby pharmacies", e);
+        }
     }
 
     /**
@@ -169,64 +197,78 @@ public class PharmacyLocationService {
      */
     private List<PharmacyLocationResponse> convertToLocationResponses(List<Pharmacy> pharmacies,
                                                                      PharmacyLocationRequest request) {
-        return pharmacies.stream()
-            .map(pharmacy -> {
-                PharmacyLocationResponse response = new PharmacyLocationResponse();
-
-                // Basic pharmacy information
-                response.setPharmacyId(pharmacy.getId());
-                response.setName(pharmacy.getName());
-                response.setAddress(pharmacy.getAddress());
-                response.setCity(pharmacy.getCity());
-                response.setState(pharmacy.getState());
-                response.setZipCode(pharmacy.getZipCode());
-                response.setPhoneNumber(pharmacy.getPhoneNumber());
-                response.setEmailAddress(pharmacy.getEmailAddress());
-                response.setWebsiteUrl(pharmacy.getWebsiteUrl());
-                response.setLatitude(pharmacy.getLatitude());
-                response.setLongitude(pharmacy.getLongitude());
-
-                // Calculate distance
-                double distance = googleMapsService.calculateDistance(
-                    request.getLatitude(), request.getLongitude(),
-                    pharmacy.getLatitude(), pharmacy.getLongitude());
-                response.setDistanceKm(Math.round(distance * 100.0) / 100.0); // Round to 2 decimal places
-
-                // Operating information
-                response.setOperatingHours(pharmacy.getOperatingHours());
-                response.setEmergencyHours(pharmacy.getEmergencyHours());
-                response.setIsOpenNow(googleMapsService.isPharmacyOpenNow(
-                    pharmacy.getOperatingHours(), pharmacy.isIs24Hours()));
-                response.setIs24Hours(pharmacy.isIs24Hours());
-
-                // Services and features
-                response.setAcceptsInsurance(pharmacy.isAcceptsInsurance());
-                response.setHasDriveThrough(pharmacy.isHasDriveThrough());
-                response.setHasDelivery(pharmacy.isHasDelivery());
-                response.setHasConsultation(pharmacy.isHasConsultation());
-                response.setServices(pharmacy.getServices());
-
-                // Business information
-                response.setChainName(pharmacy.getChainName());
-                response.setManagerName(pharmacy.getManagerName());
-                response.setPharmacistName(pharmacy.getPharmacistName());
-                response.setRating(pharmacy.getRating());
-
-                // Generate directions URL
-                response.setDirectionsUrl(googleMapsService.generateDirectionsUrl(
-                    request.getLatitude(), request.getLongitude(),
-                    pharmacy.getLatitude(), pharmacy.getLongitude(), pharmacy.getName()));
+        // Availability for every pharmacy in one pass, resolving the medicine once
+        double[] confidences = hasMedicineName(request)
+            ? medicineAvailabilityService.estimateAvailability(pharmacies, request.getMedicineName())
+            : null;
+        return convertToLocationResponses(pharmacies, request, confidences);
+    }
 
-                // Medicine availability (if requested)
-                if (request.getMedicineName() != null && !request.getMedicineName().trim().isEmpty()) {
-                    PharmacyLocationResponse.MedicineAvailability availability =
-                        medicineAvailabilityService.estimateAvailability(pharmacy, request.getMedicineName());
-                    response.setMedicineAvailability(availability);
-                }
+    /**
+     * Convert pharmacy entities to location response objects, with availability confidences
+     * (one per pharmacy) when a medicine was requested
+     */
+    private List<PharmacyLocationResponse> convertToLocationResponses(List<Pharmacy> pharmacies,
+                                                                     PharmacyLocationRequest request,
+                                                                     double[] confidences) {
+        List<PharmacyLocationResponse> responses = new ArrayList<>(pharmacies.size());
+        for (int i = 0; i < pharmacies.size(); i++) {
+            Pharmacy pharmacy = pharmacies.get(i);
+            PharmacyLocationResponse response = new PharmacyLocationResponse();
+
+            // Basic pharmacy information
+            response.setPharmacyId(pharmacy.getId());
+            response.setName(pharmacy.getName());
+            response.setAddress(pharmacy.getAddress());
+            response.setCity(pharmacy.getCity());
+            response.setState(pharmacy.getState());
+            response.setZipCode(pharmacy.getZipCode());
+            response.setPhoneNumber(pharmacy.getPhoneNumber());
+            response.setEmailAddress(pharmacy.getEmailAddress());
+            response.setWebsiteUrl(pharmacy.getWebsiteUrl());
+            response.setLatitude(pharmacy.getLatitude());
+            response.setLongitude(pharmacy.getLongitude());
+
+            // Calculate distance
+            double distance = googleMapsService.calculateDistance(
+                request.getLatitude(), request.getLongitude(),
+                pharmacy.getLatitude(), pharmacy.getLongitude());
+            response.setDistanceKm(Math.round(distance * 100.0) / 100.0); // Round to 2 decimal places
+
+            // Operating information
+            response.setOperatingHours(pharmacy.getOperatingHours());
+            response.setEmergencyHours(pharmacy.getEmergencyHours());
+            response.setIsOpenNow(googleMapsService.isPharmacyOpenNow(
+                pharmacy.getOperatingHours(), pharmacy.isIs24Hours()));
+            response.setIs24Hours(pharmacy.isIs24Hours());
+
+            // Services and features
+            response.setAcceptsInsurance(pharmacy.isAcceptsInsurance());
+            response.setHasDriveThrough(pharmacy.isHasDriveThrough());
+            response.setHasDelivery(pharmacy.isHasDelivery());
+            response.setHasConsultation(pharmacy.isHasConsultation());
+            response.setServices(pharmacy.getServices());
+
+            // Business information
+            response.setChainName(pharmacy.getChainName());
+            response.setManagerName(pharmacy.getManagerName());
+            response.setPharmacistName(pharmacy.getPharmacistName());
+            response.setRating(pharmacy.getRating());
+
+            // Generate directions URL
+            response.setDirectionsUrl(googleMapsService.generateDirectionsUrl(
+                request.getLatitude(), request.getLongitude(),
+                pharmacy.getLatitude(), pharmacy.getLongitude(), pharmacy.getName()));
+
+            // Medicine availability (if requested)
+            if (confidences != null) {
+                response.setMedicineAvailability(
+                    medicineAvailabilityService.toAvailability(request.getMedicineName(), confidences[i]));
+            }
 
-                return response;
-            })
-            .collect(Collectors.toList());
+            responses.add(response);
+        }
+        return responses;
     }
 
     /**
@@ -300,14 +342,12 @@ public class PharmacyLocationService {
     public CompletableFuture<List<PharmacyLocationResponse>> findPharmaciesWithMedicine(
             PharmacyLocationRequest request, double minAvailabilityConfidence) {
 
-        return findNearbyPharmacies(request)
-            .thenApply(responses -> responses.stream()
-                .filter(response -> {
-                    PharmacyLocationResponse.MedicineAvailability availability = response.getMedicineAvailability();
-                    return availability != null &&
-                           availability.getAvailabilityConfidence() >= minAvailabilityConfidence;
-                })
-                .collect(Collectors.toList()));
+        // Not routed through the cached nearby lookup: its cache key ignores the medicine
+        return CompletableFuture.supplyAsync(() -> locatePharmacies(request, minAvailabilityConfidence));
+    }
+
+    private static boolean hasMedicineName(PharmacyLocationRequest request) {
+        return request.getMedicineName() != null && !request.getMedicineName().trim().isEmpty();
     }
 
     /**
@@ -1,10 +1,18 @@
 package com.medassist.pharmacy.service;
 
+import com.medassist.common.dto.BatchLookupResponse;
 import com.medassist.common.exception.ResourceNotFoundException;
+import com.medassist.common.service.CachedBatchLookup;
 import com.medassist.pharmacy.entity.Pharmacy;
+import com.medassist.pharmacy.event.PharmacyChangedEvent;
 import com.medassist.pharmacy.repository.PharmacyRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
@@ -16,7 +24,14 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class PharmacyService {
 
+    public static final String PHARMACIES_BY_ID_CACHE = "pharmacies-by-id";
+
     private final PharmacyRepository pharmacyRepository;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${pharmacy.batch.max-ids:100}")
+    private int maxBatchIds;
 
     // CRUD Operations
 
@@ -24,7 +39,10 @@ public class PharmacyService {
      * Create a new pharmacy
      */
     public Pharmacy createPharmacy(Pharmacy pharmacy) {
-        return pharmacyRepository.save(pharmacy);
+        Pharmacy savedPharmacy = pharmacyRepository.save(pharmacy);
+        eventPublisher.publishEvent(new PharmacyChangedEvent(savedPharmacy.getId(),
+            PharmacyChangedEvent.ChangeType.CREATED));
+        return savedPharmacy;
     }
 
     /**
@@ -43,9 +61,21 @@ public class PharmacyService {
         return pharmacyRepository.findById(id);
     }
 
+    /**
+     * Get many pharmacies by ID: per-entity cache first, then one IN query for the misses.
+     * Services are initialised with batch fetching before the entities are cached.
+     */
+    @Transactional(readOnly = true)
+    public BatchLookupResponse<Pharmacy> getPharmaciesByIds(List<Long> ids) {
+        return new CachedBatchLookup<>(Pharmacy.class, Pharmacy::getId, pharmacyRepository::findAllById,
+            pharmacy -> Hibernate.initialize(pharmacy.getServices()))
+            .lookup(ids, maxBatchIds, cacheManager.getCache(PHARMACIES_BY_ID_CACHE));
+    }
+
     /**
      * Update pharmacy
      */
+    @CacheEvict(value = PHARMACIES_BY_ID_CACHE, key = "#id")
     public Pharmacy updatePharmacy(Long id, Pharmacy pharmacyDetails) {
         Pharmacy pharmacy = pharmacyRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Pharmacy", id));
@@ -75,27 +105,33 @@ public class PharmacyService {
         pharmacy.setChainName(pharmacyDetails.getChainName());
         pharmacy.setRating(pharmacyDetails.getRating());
         pharmacy.setActive(pharmacyDetails.isActive());
-        return pharmacyRepository.save(pharmacy);
+        Pharmacy updatedPharmacy = pharmacyRepository.save(pharmacy);
+        eventPublisher.publishEvent(new PharmacyChangedEvent(id, PharmacyChangedEvent.ChangeType.UPDATED));
+        return updatedPharmacy;
     }
 
     /**
      * Delete pharmacy
      */
+    @CacheEvict(value = PHARMACIES_BY_ID_CACHE, key = "#id")
     public void deletePharmacy(Long id) {
         if (!pharmacyRepository.existsById(id)) {
             throw new ResourceNotFoundException("Pharmacy", id);
         }
         pharmacyRepository.deleteById(id);
+        eventPublisher.publishEvent(new PharmacyChangedEvent(id, PharmacyChangedEvent.ChangeType.DELETED));
     }
 
     /**
      * Soft delete pharmacy (set inactive)
      */
+    @CacheEvict(value = PHARMACIES_BY_ID_CACHE, key = "#id")
     public void deactivatePharmacy(Long id) {
         Pharmacy pharmacy = pharmacyRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Pharmacy", id));
         pharmacy.setActive(false);
         pharmacyRepository.save(pharmacy);
+        eventPublisher.publishEvent(new PharmacyChangedEvent(id, PharmacyChangedEvent.ChangeType.DEACTIVATED));
     }
 
     // Search Operations
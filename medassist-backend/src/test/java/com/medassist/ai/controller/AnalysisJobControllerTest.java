@@ -0,0 +1,85 @@
+package com.medassist.ai.controller;
+
+import com.medassist.ai.dto.AnalysisJobResponse;
+import com.medassist.ai.service.AnalysisJobService;
+import com.medassist.ai.service.AnalysisJobService.Priority;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for AnalysisJobController.
+ * Uses pure Mockito without Spring context for fast, isolated testing.
+ */
+@ExtendWith(MockitoExtension.class)
+class AnalysisJobControllerTest {
+
+    private static final MockMultipartFile FILE =
+        new MockMultipartFile("file", "pill.jpg", "image/jpeg", new byte[] {1, 2, 3});
+
+    @Mock
+    private AnalysisJobService analysisJobService;
+
+    @InjectMocks
+    private AnalysisJobController analysisJobController;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        AnalysisJobResponse job = new AnalysisJobResponse();
+        job.setJobId("job-1");
+        lenient().when(analysisJobService.submitImageAnalysis(any(), any())).thenReturn(job);
+        lenient().when(analysisJobService.submitCombinedAnalysis(anyString(), any(), any())).thenReturn(job);
+    }
+
+    @Test
+    void testSubmitImageAnalysis_AdminGetsHighPriority() throws Exception {
+        // When
+        ResponseEntity<AnalysisJobResponse> response =
+            analysisJobController.submitImageAnalysis(FILE, "high", user("ADMIN_ACCESS", "USER_ACCESS"));
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        verify(analysisJobService).submitImageAnalysis(FILE, Priority.HIGH);
+    }
+
+    @Test
+    void testSubmitImageAnalysis_HighPriorityWithoutAdminAccessIsQueuedAtNormal() throws Exception {
+        // When
+        analysisJobController.submitImageAnalysis(FILE, "HIGH", user("USER_ACCESS"));
+
+        // Then
+        verify(analysisJobService).submitImageAnalysis(FILE, Priority.NORMAL);
+    }
+
+    @Test
+    void testSubmitCombinedAnalysis_AnyCallerMayLowerTheirPriority() throws Exception {
+        // When
+        analysisJobController.submitCombinedAnalysis(" ibuprofen ", FILE, "LOW", user("USER_ACCESS"));
+
+        // Then
+        verify(analysisJobService).submitCombinedAnalysis("ibuprofen", FILE, Priority.LOW);
+    }
+
+    private static Authentication user(String... authorities) {
+        List<SimpleGrantedAuthority> granted = Arrays.stream(authorities)
+            .map(SimpleGrantedAuthority::new)
+            .toList();
+        return new UsernamePasswordAuthenticationToken("user", null, granted);
+    }
+}
@@ -0,0 +1,156 @@
+package com.medassist.ai.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medassist.ai.repository.AiResultJdbcRepository;
+import com.medassist.ai.repository.AiResultJdbcRepository.PendingResult;
+import com.medassist.medicine.dto.MedicineAnalysisResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the durable AI result tier.
+ */
+@ExtendWith(MockitoExtension.class)
+class AiResultStoreTest {
+
+    @Mock
+    private AiResultJdbcRepository repository;
+
+    private ConcurrentMapCacheManager cacheManager;
+    private AiResultStore store;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager(GeminiAIService.ANALYSIS_CACHE, GeminiAIService.TEXT_EXTRACTION_CACHE);
+        store = new AiResultStore(repository, new ObjectMapper().findAndRegisterModules(), cacheManager,
+            new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testPut_IsWrittenBehindAndReadableBeforeFlush() {
+        // Given
+        store.put(GeminiAIService.ANALYSIS_CACHE, "k", "TEXT_QUERY", analysis("Ibuprofen"));
+
+        // When
+        MedicineAnalysisResponse beforeFlush = store.get(GeminiAIService.ANALYSIS_CACHE, "k", MedicineAnalysisResponse.class);
+        store.flush();
+
+        // Then
+        assertThat(beforeFlush.getMedicineName()).isEqualTo("Ibuprofen");
+        verify(repository, never()).findPayload(anyString(), anyString(), any());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<PendingResult>> written = ArgumentCaptor.forClass(List.class);
+        verify(repository).upsert(written.capture());
+        PendingResult result = written.getValue().get(0);
+        assertThat(result.getCacheKey()).isEqualTo("k");
+        assertThat(result.getExpiresAt().getTime() - result.getCreatedAt().getTime())
+            .isEqualTo(Duration.ofHours(720).toMillis());
+        assertThat(store.pendingCount()).isZero();
+    }
+
+    @Test
+    void testGet_ReadsThroughAndCountsHits() {
+        // Given
+        when(repository.findPayload(eq(GeminiAIService.TEXT_EXTRACTION_CACHE), eq("img"), any()))
+            .thenReturn("\"IBUPROFEN 200MG\"");
+
+        // When
+        String first = store.get(GeminiAIService.TEXT_EXTRACTION_CACHE, "img", String.class);
+        store.get(GeminiAIService.TEXT_EXTRACTION_CACHE, "img", String.class);
+        store.flush();
+
+        // Then
+        assertThat(first).isEqualTo("IBUPROFEN 200MG");
+        verify(repository).recordHits(eq(Map.of("img", 2)), any());
+        verify(repository, never()).upsert(any());
+    }
+
+    @Test
+    void testGet_MissingOrUnreadablePayloadReturnsNull() {
+        // Given
+        when(repository.findPayload(anyString(), eq("broken"), any())).thenReturn("{not json");
+
+        // When / Then
+        assertThat(store.get(GeminiAIService.ANALYSIS_CACHE, "absent", MedicineAnalysisResponse.class)).isNull();
+        assertThat(store.get(GeminiAIService.ANALYSIS_CACHE, "broken", MedicineAnalysisResponse.class)).isNull();
+    }
+
+    @Test
+    void testFlush_FailureRequeuesResults() {
+        // Given
+        store.put(GeminiAIService.ANALYSIS_CACHE, "k", "COMBINED", analysis("Ibuprofen"));
+        doThrow(new DataAccessResourceFailureException("down")).when(repository).upsert(any());
+
+        // When
+        assertThatThrownBy(() -> store.flush()).isInstanceOf(DataAccessResourceFailureException.class);
+
+        // Then
+        assertThat(store.pendingCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testFlush_RejectedRowIsDroppedAndTheRestWritten() {
+        // Given
+        store.put(GeminiAIService.ANALYSIS_CACHE, "good", "TEXT_QUERY", analysis("Ibuprofen"));
+        store.put(GeminiAIService.ANALYSIS_CACHE, "bad", "TEXT_QUERY", analysis("Paracetamol"));
+        doThrow(new DataIntegrityViolationException("value too long")).when(repository)
+            .upsert(argThat(results -> results.stream().anyMatch(result -> result.getCacheKey().equals("bad"))));
+
+        // When
+        store.flush();
+
+        // Then
+        verify(repository).upsert(argThat(results -> results.size() == 1 && results.get(0).getCacheKey().equals("good")));
+        assertThat(store.pendingCount()).isZero();
+    }
+
+    @Test
+    void testWarmUp_LoadsHottestResultsIntoMemory() {
+        // Given
+        doAnswer(invocation -> {
+            AiResultJdbcRepository.ResultRowHandler handler = invocation.getArgument(3);
+            handler.accept("TEXT_QUERY|m|1|q=#7", "{\"medicine_name\":\"Ibuprofen\"}");
+            return null;
+        }).when(repository).forEachHottest(eq(GeminiAIService.ANALYSIS_CACHE), any(), anyInt(), any());
+
+        // When
+        store.warmUp();
+
+        // Then
+        MedicineAnalysisResponse cached = cacheManager.getCache(GeminiAIService.ANALYSIS_CACHE)
+            .get("TEXT_QUERY|m|1|q=#7", MedicineAnalysisResponse.class);
+        assertThat(cached.getMedicineName()).isEqualTo("Ibuprofen");
+        verify(repository).deleteExpired(any());
+    }
+
+    @Test
+    void testTtl_PerAnalysisType() {
+        // When / Then
+        assertThat(store.ttl("IMAGE_ANALYSIS")).isEqualTo(Duration.ofHours(168));
+        assertThat(store.ttl(AiResultStore.TEXT_EXTRACTION)).isEqualTo(Duration.ofHours(720));
+        assertThatThrownBy(() -> store.ttl("OTHER")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static MedicineAnalysisResponse analysis(String name) {
+        MedicineAnalysisResponse response = new MedicineAnalysisResponse();
+        response.setMedicineName(name);
+        return response;
+    }
+}
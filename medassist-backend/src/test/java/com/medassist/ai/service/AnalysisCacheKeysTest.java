@@ -0,0 +1,153 @@
+package com.medassist.ai.service;
+
+import com.medassist.medicine.dto.MedicineAnalysisRequest;
+import com.medassist.medicine.dto.MedicineAnalysisRequest.AnalysisType;
+import com.medassist.medicine.service.MedicineSynonymIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+
+/**
+ * Unit tests for canonical medicine-analysis cache keys.
+ */
+@ExtendWith(MockitoExtension.class)
+class AnalysisCacheKeysTest {
+
+    @Mock
+    private MedicineSynonymIndex medicineSynonymIndex;
+
+    @Mock
+    private GeminiConfig config;
+
+    @InjectMocks
+    private AnalysisCacheKeys analysisCacheKeys;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(config.getModel()).thenReturn("gemini-1.5-flash");
+        lenient().when(medicineSynonymIndex.resolve(anyString())).thenReturn(List.of());
+        lenient().when(medicineSynonymIndex.resolve("ibuprofen")).thenReturn(List.of(7L));
+        lenient().when(medicineSynonymIndex.resolve("advil")).thenReturn(List.of(7L));
+        lenient().when(medicineSynonymIndex.resolve("acetaminophen")).thenReturn(List.of(1L, 2L));
+    }
+
+    @Test
+    void testCanonicalQuery_FoldsCaseWhitespaceAndUnits() {
+        // When / Then
+        assertThat(AnalysisCacheKeys.canonicalQuery("  IBUPROFEN   200 MG ")).isEqualTo("ibuprofen 200mg");
+        assertThat(AnalysisCacheKeys.canonicalQuery("Amoxicillin 0.5 g")).isEqualTo("amoxicillin 500mg");
+        assertThat(AnalysisCacheKeys.canonicalQuery("Vitamin D 25 \u00b5g")).isEqualTo("vitamin d 25mcg");
+        assertThat(AnalysisCacheKeys.canonicalQuery("syrup 5 millilitres")).isEqualTo("syrup 5ml");
+        assertThat(AnalysisCacheKeys.canonicalQuery("2 grams of 4G")).isEqualTo("2000mg of 4000mg");
+        assertThat(AnalysisCacheKeys.canonicalQuery("   ")).isNull();
+    }
+
+    @Test
+    void testCanonicalQuery_CommaGroupsAreThousandsOtherCommasDecimals() {
+        // When / Then
+        assertThat(AnalysisCacheKeys.canonicalQuery("paracetamol 1,000 mg")).isEqualTo("paracetamol 1000mg");
+        assertThat(AnalysisCacheKeys.canonicalQuery("paracetamol 1 mg")).isEqualTo("paracetamol 1mg");
+        assertThat(AnalysisCacheKeys.canonicalQuery("vitamin d 1,000,000 IU")).isEqualTo("vitamin d 1000000iu");
+        assertThat(AnalysisCacheKeys.canonicalQuery("cream 2,5 %")).isEqualTo("cream 2.5%");
+        assertThat(AnalysisCacheKeys.canonicalQuery("amoxicillin 0,5 g")).isEqualTo("amoxicillin 500mg");
+    }
+
+    @Test
+    void testKeyFor_ThousandsSeparatorDoesNotShareKeyWithSmallerDose() {
+        // When
+        String thousand = analysisCacheKeys.keyFor(text("Paracetamol 1,000 mg"));
+        String one = analysisCacheKeys.keyFor(text("Paracetamol 1 mg"));
+
+        // Then
+        assertThat(thousand).isNotEqualTo(one);
+        assertThat(thousand).isEqualTo(analysisCacheKeys.keyFor(text("paracetamol 1000mg")));
+    }
+
+    @Test
+    void testKeyFor_SynonymsAndSpellingsShareKey() {
+        // When
+        String plain = analysisCacheKeys.keyFor(text("Ibuprofen 200mg"));
+        String spaced = analysisCacheKeys.keyFor(text(" ibuprofen 200 MG "));
+        String brand = analysisCacheKeys.keyFor(text("Advil 200 milligrams"));
+
+        // Then
+        assertThat(spaced).isEqualTo(plain);
+        assertThat(brand).isEqualTo(plain);
+        assertThat(plain).contains("|q=#7 200mg");
+        assertThat(analysisCacheKeys.keyFor(text("Ibuprofen 400mg"))).isNotEqualTo(plain);
+    }
+
+    @Test
+    void testKeyFor_AmbiguousNameKeepsText() {
+        // When
+        String key = analysisCacheKeys.keyFor(text("Acetaminophen"));
+
+        // Then
+        assertThat(key).endsWith("|q=acetaminophen");
+    }
+
+    @Test
+    void testKeyFor_IncludesTypeModelAndTemplateVersion() {
+        // When
+        String key = analysisCacheKeys.keyFor(text("ibuprofen"));
+
+        // Then
+        assertThat(key).startsWith("TEXT_QUERY|gemini-1.5-flash|" + PromptTemplateService.TEMPLATE_VERSION + "|");
+    }
+
+    @Test
+    void testKeyFor_ImagesDoNotCollide() {
+        // Given
+        MedicineAnalysisRequest first = image(null, "AAAA");
+        MedicineAnalysisRequest second = image(null, "AAAB");
+        MedicineAnalysisRequest combined = image("ibuprofen", "AAAA");
+        combined.setAnalysisType(AnalysisType.COMBINED);
+
+        // When / Then
+        assertThat(analysisCacheKeys.keyFor(first)).isNotEqualTo(analysisCacheKeys.keyFor(second));
+        assertThat(analysisCacheKeys.keyFor(first)).isEqualTo(analysisCacheKeys.keyFor(image(null, "AAAA")));
+        assertThat(analysisCacheKeys.keyFor(combined)).isNotEqualTo(analysisCacheKeys.keyFor(first));
+        assertThat(analysisCacheKeys.keyFor(combined)).isNotEqualTo(analysisCacheKeys.keyFor(text("ibuprofen")));
+    }
+
+    @Test
+    void testKeyFor_LongQueryIsKeyedByDigest() {
+        // Given
+        String longQuery = "which of these is safe with ".repeat(40);
+        String otherLongQuery = longQuery + "ibuprofen";
+
+        // When
+        String key = analysisCacheKeys.keyFor(text(longQuery));
+
+        // Then
+        assertThat(key).doesNotContain("|q=").contains("|qh=").hasSizeLessThan(AnalysisCacheKeys.MAX_QUERY_KEY_LENGTH);
+        assertThat(analysisCacheKeys.keyFor(text(longQuery.toUpperCase()))).isEqualTo(key);
+        assertThat(analysisCacheKeys.keyFor(text(otherLongQuery))).isNotEqualTo(key);
+    }
+
+    @Test
+    void testKeyFor_NothingToKeyReturnsNull() {
+        // When / Then
+        assertThat(analysisCacheKeys.keyFor(text(null))).isNull();
+    }
+
+    private static MedicineAnalysisRequest text(String query) {
+        return new MedicineAnalysisRequest(query, AnalysisType.TEXT_QUERY);
+    }
+
+    private static MedicineAnalysisRequest image(String query, String data) {
+        MedicineAnalysisRequest request = new MedicineAnalysisRequest(query, AnalysisType.IMAGE_ANALYSIS);
+        request.setImageData(data);
+        request.setImageMimeType("image/jpeg");
+        return request;
+    }
+}
@@ -0,0 +1,262 @@
+package com.medassist.ai.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medassist.ai.dto.AnalysisJobResponse;
+import com.medassist.ai.dto.AnalysisJobResponse.Status;
+import com.medassist.ai.repository.AnalysisJobJdbcRepository;
+import com.medassist.ai.repository.AnalysisJobJdbcRepository.StoredJob;
+import com.medassist.ai.service.AnalysisJobService.Priority;
+import com.medassist.medicine.dto.MedicineAnalysisRequest.AnalysisType;
+import com.medassist.medicine.dto.MedicineAnalysisResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for background analysis jobs.
+ */
+@ExtendWith(MockitoExtension.class)
+class AnalysisJobServiceTest {
+
+    private static final MockMultipartFile FILE =
+        new MockMultipartFile("file", "pill.jpg", "image/jpeg", new byte[] {1, 2, 3});
+
+    @Mock
+    private MedicineAIService medicineAIService;
+
+    @Mock
+    private ImageProcessingService imageProcessingService;
+
+    @Mock
+    private AnalysisJobJdbcRepository repository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final UploadBufferPool pool = new UploadBufferPool(4, 1024);
+    private AnalysisJobService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        service = new AnalysisJobService(medicineAIService, imageProcessingService, repository, objectMapper,
+            new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "workerCount", 1);
+        lenient().when(imageProcessingService.ingest(any())).thenAnswer(invocation -> upload());
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    @Test
+    void testSubmit_CompletesWithResultAndStoresIt() throws Exception {
+        // Given
+        service.start();
+
+        // When
+        AnalysisJobResponse submitted = service.submit(AnalysisType.IMAGE_ANALYSIS, Priority.NORMAL, FILE,
+            upload -> CompletableFuture.completedFuture(analysis("Ibuprofen")));
+        AnalysisJobResponse finished = awaitFinished(submitted.getJobId());
+
+        // Then
+        assertThat(submitted.getStatus()).isIn(Status.QUEUED, Status.RUNNING, Status.SUCCEEDED);
+        assertThat(finished.getStatus()).isEqualTo(Status.SUCCEEDED);
+        assertThat(finished.getResult().getMedicineName()).isEqualTo("Ibuprofen");
+        assertThat(finished.getCompletedAt()).isNotNull();
+        // The finished state is visible a moment before the worker has stored it
+        verify(repository, timeout(5000)).save(argThat(job -> job.getJobId().equals(submitted.getJobId())
+            && job.getStatus().equals("SUCCEEDED") && job.getResult().contains("Ibuprofen")), any(Timestamp.class));
+    }
+
+    @Test
+    void testQueuedJobs_RunByPriorityThenSubmissionOrder() throws Exception {
+        // Given: the only worker is busy, so the rest queue up
+        service.start();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        service.submit(AnalysisType.IMAGE_ANALYSIS, Priority.LOW, FILE, upload -> {
+            started.countDown();
+            await(release);
+            order.add("blocking");
+            return CompletableFuture.completedFuture(analysis("x"));
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        List<String> ids = new ArrayList<>();
+        for (String[] job : new String[][] {{"low", "LOW"}, {"normal", "NORMAL"}, {"high-1", "HIGH"}, {"high-2", "HIGH"}}) {
+            ids.add(service.submit(AnalysisType.IMAGE_ANALYSIS, Priority.valueOf(job[1]), FILE, upload -> {
+                order.add(job[0]);
+                return CompletableFuture.completedFuture(analysis("x"));
+            }).getJobId());
+        }
+        release.countDown();
+        for (String id : ids) {
+            awaitFinished(id);
+        }
+
+        // Then
+        assertThat(order).containsExactly("blocking", "high-1", "high-2", "normal", "low");
+    }
+
+    @Test
+    void testSubmit_RejectsWhenQueueIsFull() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(service, "maxQueued", 1);
+        service.start();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        AnalysisJobService.Analysis blocking = upload -> {
+            started.countDown();
+            await(release);
+            return CompletableFuture.completedFuture(analysis("x"));
+        };
+        service.submit(AnalysisType.IMAGE_ANALYSIS, Priority.NORMAL, FILE, blocking);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        service.submit(AnalysisType.IMAGE_ANALYSIS, Priority.NORMAL, FILE, blocking);
+
+        // When / Then
+        assertThatThrownBy(() -> service.submit(AnalysisType.IMAGE_ANALYSIS, Priority.HIGH, FILE, blocking))
+            .isInstanceOf(RejectedExecutionException.class);
+        verify(imageProcessingService, times(2)).ingest(any());
+        release.countDown();
+    }
+
+    @Test
+    void testSubmit_RejectsWhenQueuedUploadsExceedByteLimit() throws Exception {
+        // Given: a 1 MB budget and the only worker busy
+        ReflectionTestUtils.setField(service, "maxQueuedMb", 1L);
+        service.start();
+        MockMultipartFile large = new MockMultipartFile("file", "pill.jpg", "image/jpeg", new byte[600 * 1024]);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        AnalysisJobService.Analysis blocking = upload -> {
+            started.countDown();
+            await(release);
+            return CompletableFuture.completedFuture(analysis("x"));
+        };
+        service.submit(AnalysisType.IMAGE_ANALYSIS, Priority.NORMAL, large, blocking);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        service.submit(AnalysisType.IMAGE_ANALYSIS, Priority.NORMAL, large, blocking);
+
+        // When / Then: a second large upload would not fit, a small one still does
+        assertThatThrownBy(() -> service.submit(AnalysisType.IMAGE_ANALYSIS, Priority.NORMAL, large, blocking))
+            .isInstanceOf(RejectedExecutionException.class);
+        service.submit(AnalysisType.IMAGE_ANALYSIS, Priority.NORMAL, FILE, blocking);
+        verify(imageProcessingService, times(3)).ingest(any());
+        release.countDown();
+    }
+
+    @Test
+    void testErrorResult_FailsJobAndReleasesUpload() throws Exception {
+        // Given
+        service.start();
+        AtomicReference<ImageUpload> seen = new AtomicReference<>();
+        MedicineAnalysisResponse error = analysis(null);
+        error.setAnalysisSource("ERROR");
+        error.setDescription("AI service unavailable");
+
+        // When
+        String jobId = service.submit(AnalysisType.COMBINED, Priority.HIGH, FILE, upload -> {
+            seen.set(upload);
+            return CompletableFuture.completedFuture(error);
+        }).getJobId();
+        AnalysisJobResponse finished = awaitFinished(jobId);
+
+        // Then
+        assertThat(finished.getStatus()).isEqualTo(Status.FAILED);
+        assertThat(finished.getError()).isEqualTo("AI service unavailable");
+        assertThat(finished.getResult()).isNull();
+        assertThatThrownBy(() -> seen.get().buffer()).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testFind_FallsBackToStoredJob() throws Exception {
+        // Given
+        Timestamp submitted = new Timestamp(System.currentTimeMillis() - 60_000);
+        Timestamp completed = new Timestamp(System.currentTimeMillis() - 30_000);
+        when(repository.find(eq("job-1"), any(Timestamp.class))).thenReturn(new StoredJob("job-1", "SUCCEEDED",
+            "IMAGE_ANALYSIS", "NORMAL", objectMapper.writeValueAsString(analysis("Paracetamol")), null,
+            submitted, completed));
+        when(repository.find(eq("missing"), any(Timestamp.class))).thenReturn(null);
+
+        // When
+        AnalysisJobResponse found = service.find("job-1");
+
+        // Then
+        assertThat(found.getStatus()).isEqualTo(Status.SUCCEEDED);
+        assertThat(found.getResult().getMedicineName()).isEqualTo("Paracetamol");
+        assertThat(found.getCompletedAt()).isEqualTo(completed.toLocalDateTime());
+        assertThat(service.find("missing")).isNull();
+    }
+
+    @Test
+    void testSweep_EvictsFinishedJobsPastRetention() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(service, "storeEnabled", false);
+        service.start();
+        String jobId = service.submit(AnalysisType.IMAGE_ANALYSIS, Priority.NORMAL, FILE,
+            upload -> CompletableFuture.completedFuture(analysis("x"))).getJobId();
+        awaitFinished(jobId);
+
+        // When
+        service.sweep(System.currentTimeMillis());
+        AnalysisJobResponse withinRetention = service.find(jobId);
+        service.sweep(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(16));
+
+        // Then
+        assertThat(withinRetention).isNotNull();
+        assertThat(service.find(jobId)).isNull();
+        verifyNoInteractions(repository);
+    }
+
+    private AnalysisJobResponse awaitFinished(String jobId) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        AnalysisJobResponse current = service.subscribe(jobId, finished -> done.countDown());
+        if (current.getStatus().isTerminal()) {
+            return current;
+        }
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        return service.find(jobId);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ImageUpload upload() {
+        return new ImageUpload(pool.acquire(3), 3, "image/jpeg", "pill.jpg", "digest", pool);
+    }
+
+    private static MedicineAnalysisResponse analysis(String name) {
+        MedicineAnalysisResponse response = new MedicineAnalysisResponse();
+        response.setMedicineName(name);
+        response.setAnalysisSource("AI_ANALYSIS");
+        return response;
+    }
+}
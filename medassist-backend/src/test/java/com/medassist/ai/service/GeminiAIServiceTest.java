@@ -0,0 +1,248 @@
+package com.medassist.ai.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medassist.ai.dto.AnalysisStreamEvent;
+import com.medassist.medicine.dto.MedicineAnalysisRequest;
+import com.medassist.medicine.dto.MedicineAnalysisResponse;
+import com.medassist.medicine.service.MedicineSynonymIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests for single-pass, two-step and streamed analysis against a local Gemini stub.
+ */
+class GeminiAIServiceTest {
+
+    private static final byte[] IMAGE = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, 0x00};
+
+    private GeminiStubServer stub;
+    private GeminiConcurrencyLimiter concurrencyLimiter;
+    private GeminiConfig config;
+    private ConcurrentMapCacheManager cacheManager;
+    private AnalysisCacheKeys analysisCacheKeys;
+    private GeminiAIService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = new GeminiStubServer(0);
+        config = new GeminiConfig();
+        ReflectionTestUtils.setField(config, "apiKey", "test-key");
+        ReflectionTestUtils.setField(config, "model", "gemini-stub");
+        ReflectionTestUtils.setField(config, "timeoutSeconds", 5);
+        ReflectionTestUtils.setField(config, "maxRetries", 0);
+        // Analyses are not cached here, so every call reaches the stub
+        cacheManager = new ConcurrentMapCacheManager(GeminiAIService.TEXT_EXTRACTION_CACHE);
+        analysisCacheKeys = new AnalysisCacheKeys(mock(MedicineSynonymIndex.class), config);
+        concurrencyLimiter = new GeminiConcurrencyLimiter(new SimpleMeterRegistry());
+        concurrencyLimiter.start();
+        service = new GeminiAIService(WebClient.create(stub.baseUrl()), config, new PromptTemplateService(),
+            new ObjectMapper(), cacheManager, new InFlightRequestRegistry(new SimpleMeterRegistry()),
+            analysisCacheKeys, mock(AiResultStore.class), concurrencyLimiter);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+        concurrencyLimiter.stop();
+    }
+
+    @Test
+    void testImageAnalysis_SinglePassMakesOneCallAndCachesExtractedText() throws Exception {
+        // When
+        MedicineAnalysisResponse result = analyze(imageRequest("digest-1", null));
+
+        // Then
+        assertThat(stub.calls()).isEqualTo(1);
+        assertThat(result.getMedicineName()).isEqualTo("Ibuprofen");
+        assertThat(result.getExtractedText()).isEqualTo(GeminiStubServer.EXTRACTED_TEXT);
+        assertThat(result.getAnalysisSource()).isEqualTo("IMAGE_ANALYSIS");
+        assertThat(cacheManager.getCache(GeminiAIService.TEXT_EXTRACTION_CACHE)
+            .get(analysisCacheKeys.extractionKeyFor("digest-1"), String.class))
+            .isEqualTo(GeminiStubServer.EXTRACTED_TEXT);
+    }
+
+    @Test
+    void testCombinedAnalysis_SinglePassMakesOneCall() throws Exception {
+        // When
+        MedicineAnalysisResponse result = analyze(imageRequest("digest-2", "ibuprofen 400"));
+
+        // Then
+        assertThat(stub.calls()).isEqualTo(1);
+        assertThat(result.getAnalysisSource()).isEqualTo("COMBINED");
+        assertThat(result.getExtractedText()).isEqualTo(GeminiStubServer.EXTRACTED_TEXT);
+    }
+
+    @Test
+    void testImageAnalysis_FallsBackToTwoStepsWhenSinglePassFails() throws Exception {
+        // Given
+        stub.setFailSinglePass(true);
+
+        // When
+        MedicineAnalysisResponse result = analyze(imageRequest("digest-3", null));
+
+        // Then: the rejected call, then extraction and analysis
+        assertThat(stub.calls()).isEqualTo(3);
+        assertThat(result.getMedicineName()).isEqualTo("Ibuprofen");
+        assertThat(result.getAnalysisSource()).isEqualTo("IMAGE_ANALYSIS");
+        assertThat(result.getExtractedText()).isEqualTo(GeminiStubServer.EXTRACTION_JSON);
+    }
+
+    @Test
+    void testImageAnalysis_TwoStepsWhenSinglePassDisabled() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(config, "singlePassImageAnalysis", false);
+
+        // When
+        MedicineAnalysisResponse result = analyze(imageRequest("digest-4", null));
+
+        // Then
+        assertThat(stub.calls()).isEqualTo(2);
+        assertThat(result.getMedicineName()).isEqualTo("Ibuprofen");
+    }
+
+    @Test
+    void testImageAnalysis_CachedTextLeavesOneAnalysisCall() throws Exception {
+        // Given: text of this image extracted earlier
+        cacheManager.getCache(GeminiAIService.TEXT_EXTRACTION_CACHE)
+            .put(analysisCacheKeys.extractionKeyFor("digest-5"), GeminiStubServer.EXTRACTED_TEXT);
+
+        // When
+        MedicineAnalysisResponse result = analyze(imageRequest("digest-5", null));
+
+        // Then
+        assertThat(stub.calls()).isEqualTo(1);
+        assertThat(result.getExtractedText()).isEqualTo(GeminiStubServer.EXTRACTED_TEXT);
+    }
+
+    @Test
+    void testImageAnalysis_NearDuplicateResultIsNotCachedUnderTheNewImage() throws Exception {
+        // Given: text extracted from a similar earlier upload, and an analysis cache
+        cacheManager.setCacheNames(List.of(GeminiAIService.ANALYSIS_CACHE, GeminiAIService.TEXT_EXTRACTION_CACHE));
+        cacheManager.getCache(GeminiAIService.TEXT_EXTRACTION_CACHE)
+            .put(analysisCacheKeys.extractionKeyFor("digest-similar"), GeminiStubServer.EXTRACTED_TEXT);
+        MedicineAnalysisRequest request = imageRequest("digest-7", null);
+        request.setSimilarImageDigest("digest-similar");
+
+        // When
+        MedicineAnalysisResponse first = analyze(request);
+        MedicineAnalysisResponse second = analyze(request);
+
+        // Then: each analysis reaches the model, none is kept under this image's key
+        assertThat(first.isNearDuplicate()).isTrue();
+        assertThat(second.isNearDuplicate()).isTrue();
+        assertThat(stub.calls()).isEqualTo(2);
+        assertThat(cacheManager.getCache(GeminiAIService.ANALYSIS_CACHE).get(analysisCacheKeys.keyFor(request))).isNull();
+    }
+
+    @Test
+    void testImageAnalysis_CapacityRejectionDoesNotFallBackToTwoSteps() {
+        // Given: every permit held and no room to queue
+        for (int i = 0; i < concurrencyLimiter.getLimit(); i++) {
+            concurrencyLimiter.limit(Mono.never()).subscribe();
+        }
+        ReflectionTestUtils.setField(concurrencyLimiter, "maxQueued", 0);
+
+        // When / Then
+        assertThatThrownBy(() -> analyze(imageRequest("digest-6", null)))
+            .hasRootCauseInstanceOf(GeminiCapacityException.class);
+        assertThat(stub.calls()).isZero();
+    }
+
+    @Test
+    void testStreamMedicineAnalysis_RelaysChunksFieldsAndResult() {
+        // Given
+        MedicineAnalysisRequest request = new MedicineAnalysisRequest("ibuprofen 400",
+            MedicineAnalysisRequest.AnalysisType.TEXT_QUERY);
+
+        // When
+        List<AnalysisStreamEvent> events = service.streamMedicineAnalysis(request)
+            .collectList().block(Duration.ofSeconds(10));
+
+        // Then
+        assertThat(events).filteredOn(event -> event.getType() == AnalysisStreamEvent.Type.TEXT)
+            .hasSize(GeminiStubServer.STREAM_CHUNKS)
+            .extracting(AnalysisStreamEvent::getText)
+            .containsExactly(chunksOf(GeminiStubServer.ANALYSIS_JSON));
+        assertThat(events).filteredOn(event -> event.getType() == AnalysisStreamEvent.Type.FIELD)
+            .extracting(AnalysisStreamEvent::getField)
+            .containsExactly("medicine_name", "generic_name", "strength", "confidence_score");
+        AnalysisStreamEvent last = events.get(events.size() - 1);
+        assertThat(last.getType()).isEqualTo(AnalysisStreamEvent.Type.RESULT);
+        assertThat(last.getResult().getMedicineName()).isEqualTo("Ibuprofen");
+        assertThat(last.getResult().getAnalysisSource()).isEqualTo("TEXT_QUERY");
+        assertThat(last.getResult().getExtractedText()).isNull();
+        assertThat(stub.calls()).isEqualTo(1);
+    }
+
+    @Test
+    void testStreamMedicineAnalysis_ImageStreamsSinglePassAnswer() {
+        // Given
+        MedicineAnalysisRequest request = imageRequest("digest-stream", null);
+
+        // When
+        List<AnalysisStreamEvent> events = service.streamMedicineAnalysis(request)
+            .collectList().block(Duration.ofSeconds(10));
+
+        // Then: the image goes out with the analysis prompt in one streamed call
+        assertThat(stub.calls()).isEqualTo(1);
+        assertThat(events).filteredOn(event -> event.getType() == AnalysisStreamEvent.Type.TEXT)
+            .extracting(AnalysisStreamEvent::getText)
+            .containsExactly(chunksOf(GeminiStubServer.SINGLE_PASS_JSON));
+        AnalysisStreamEvent last = events.get(events.size() - 1);
+        assertThat(last.getType()).isEqualTo(AnalysisStreamEvent.Type.RESULT);
+        assertThat(last.getResult().getAnalysisSource()).isEqualTo("IMAGE_ANALYSIS");
+        assertThat(last.getResult().getExtractedText()).isEqualTo(GeminiStubServer.EXTRACTED_TEXT);
+    }
+
+    @Test
+    void testStreamMedicineAnalysis_EndsWithErrorEventWhenCallFails() {
+        // Given
+        stub.close();
+        MedicineAnalysisRequest request = new MedicineAnalysisRequest("ibuprofen",
+            MedicineAnalysisRequest.AnalysisType.TEXT_QUERY);
+
+        // When
+        List<AnalysisStreamEvent> events = service.streamMedicineAnalysis(request)
+            .collectList().block(Duration.ofSeconds(10));
+
+        // Then
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).getType()).isEqualTo(AnalysisStreamEvent.Type.ERROR);
+    }
+
+    private static String[] chunksOf(String text) {
+        int chunkLength = (text.length() + GeminiStubServer.STREAM_CHUNKS - 1) / GeminiStubServer.STREAM_CHUNKS;
+        String[] chunks = new String[GeminiStubServer.STREAM_CHUNKS];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = text.substring(i * chunkLength, Math.min(text.length(), (i + 1) * chunkLength));
+        }
+        return chunks;
+    }
+
+    private MedicineAnalysisResponse analyze(MedicineAnalysisRequest request) throws Exception {
+        return service.analyzeMedicine(request).get(10, TimeUnit.SECONDS);
+    }
+
+    private static MedicineAnalysisRequest imageRequest(String digest, String query) {
+        MedicineAnalysisRequest request = new MedicineAnalysisRequest(query, query == null
+            ? MedicineAnalysisRequest.AnalysisType.IMAGE_ANALYSIS : MedicineAnalysisRequest.AnalysisType.COMBINED);
+        request.setImageDigest(digest);
+        request.setImageBytes(IMAGE);
+        request.setImageMimeType("image/jpeg");
+        return request;
+    }
+}
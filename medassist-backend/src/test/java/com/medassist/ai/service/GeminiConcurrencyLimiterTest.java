@@ -0,0 +1,243 @@
+package com.medassist.ai.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for permits, queueing and limit adaptation of Gemini calls.
+ */
+class GeminiConcurrencyLimiterTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private SimpleMeterRegistry meterRegistry;
+    private GeminiConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = new GeminiConcurrencyLimiter(meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        limiter.stop();
+    }
+
+    @Test
+    void testLimit_CallsBeyondTheLimitWaitForAPermit() {
+        // Given
+        start(2, 10, 10_000);
+        AtomicInteger started = new AtomicInteger();
+        Sinks.One<String> first = Sinks.one();
+        Sinks.One<String> second = Sinks.one();
+        Sinks.One<String> third = Sinks.one();
+
+        // When
+        limiter.limit(tracked(first, started)).subscribe();
+        limiter.limit(tracked(second, started)).subscribe();
+        limiter.limit(tracked(third, started)).subscribe();
+
+        // Then
+        assertThat(started.get()).isEqualTo(2);
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+        assertThat(limiter.getQueued()).isEqualTo(1);
+        assertThat(meterRegistry.get("gemini.limiter.queued").gauge().value()).isEqualTo(1.0);
+
+        // When: the first call completes
+        first.tryEmitValue("done");
+
+        // Then: its permit passes to the waiting call
+        assertThat(started.get()).isEqualTo(3);
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+        assertThat(limiter.getQueued()).isZero();
+
+        second.tryEmitValue("done");
+        third.tryEmitValue("done");
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void testLimit_RejectsAtOnceWhenTheQueueIsFull() {
+        // Given
+        start(1, 0, 10_000);
+        limiter.limit(Mono.never()).subscribe();
+
+        // When / Then
+        assertThatThrownBy(() -> limiter.limit(Mono.just("second")).block(Duration.ofSeconds(5)))
+            .isInstanceOf(GeminiCapacityException.class);
+        assertThat(meterRegistry.get("gemini.limiter.rejected").tag("reason", "queue_full").counter().count())
+            .isEqualTo(1.0);
+    }
+
+    @Test
+    void testLimit_RejectsCallsStillQueuedAtTheirDeadline() {
+        // Given
+        start(1, 10, 50);
+        limiter.limit(Mono.never()).subscribe();
+
+        // When / Then
+        assertThatThrownBy(() -> limiter.limit(Mono.just("second")).block(Duration.ofSeconds(5)))
+            .isInstanceOf(GeminiCapacityException.class);
+        assertThat(limiter.getQueued()).isZero();
+        assertThat(meterRegistry.get("gemini.limiter.rejected").tag("reason", "deadline").counter().count())
+            .isEqualTo(1.0);
+    }
+
+    @Test
+    void testLimit_CancelledWaiterLeavesTheQueue() {
+        // Given
+        start(1, 10, 10_000);
+        Disposable holder = limiter.limit(Mono.never()).subscribe();
+        Disposable waiter = limiter.limit(Mono.just("second")).subscribe();
+
+        // When
+        waiter.dispose();
+        holder.dispose();
+
+        // Then
+        assertThat(limiter.getQueued()).isZero();
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void testLimit_TooManyRequestsCutsTheLimit() {
+        // Given
+        start(10, 10, 10_000);
+        WebClientResponseException tooManyRequests = WebClientResponseException.create(429, "Too Many Requests",
+            HttpHeaders.EMPTY, new byte[0], StandardCharsets.UTF_8);
+
+        // When
+        assertThatThrownBy(() -> limiter.limit(Mono.error(tooManyRequests)).block(Duration.ofSeconds(5)))
+            .isSameAs(tooManyRequests);
+
+        // Then
+        assertThat(limiter.getLimit()).isEqualTo(7);
+        assertThat(limiter.getInFlight()).isZero();
+        assertThat(meterRegistry.get("gemini.limiter.limit").gauge().value()).isEqualTo(7.0);
+    }
+
+    @Test
+    void testLimit_OtherErrorsLeaveTheLimit() {
+        // Given
+        start(10, 10, 10_000);
+
+        // When
+        assertThatThrownBy(() -> limiter.limit(Mono.error(new IllegalStateException("bad request")))
+            .block(Duration.ofSeconds(5))).isInstanceOf(IllegalStateException.class);
+
+        // Then
+        assertThat(limiter.getLimit()).isEqualTo(10);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void testUpdateLimit_OneCutPerRoundTrip() {
+        // Given
+        start(10, 10, 10_000);
+
+        // When: a burst of congestion signals, then another after a second
+        limiter.updateLimit(GeminiConcurrencyLimiter.Outcome.CONGESTED, 0, 10, 0);
+        limiter.updateLimit(GeminiConcurrencyLimiter.Outcome.CONGESTED, 0, 10, 10 * MILLIS);
+        limiter.updateLimit(GeminiConcurrencyLimiter.Outcome.CONGESTED, 0, 10, 20 * MILLIS);
+        int afterBurst = limiter.getLimit();
+        limiter.updateLimit(GeminiConcurrencyLimiter.Outcome.CONGESTED, 0, 10, 1000 * MILLIS);
+
+        // Then
+        assertThat(afterBurst).isEqualTo(7);
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void testUpdateLimit_NeverBelowTheMinimum() {
+        // Given
+        start(2, 10, 10_000);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            limiter.updateLimit(GeminiConcurrencyLimiter.Outcome.CONGESTED, 0, 2, i * 1000 * MILLIS);
+        }
+
+        // Then
+        assertThat(limiter.getLimit()).isEqualTo(1);
+    }
+
+    @Test
+    void testUpdateLimit_GrowsWhilePermitsAreInUse() {
+        // Given
+        start(4, 10, 10_000);
+
+        // When: a round of calls at steady latency with every permit taken
+        for (int i = 0; i < 5; i++) {
+            limiter.updateLimit(GeminiConcurrencyLimiter.Outcome.SUCCEEDED, 100 * MILLIS, 4, i * MILLIS);
+        }
+
+        // Then
+        assertThat(limiter.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    void testUpdateLimit_DoesNotGrowWhenMostPermitsAreIdle() {
+        // Given
+        start(8, 10, 10_000);
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            limiter.updateLimit(GeminiConcurrencyLimiter.Outcome.SUCCEEDED, 100 * MILLIS, 1, i * MILLIS);
+        }
+
+        // Then
+        assertThat(limiter.getLimit()).isEqualTo(8);
+    }
+
+    @Test
+    void testUpdateLimit_RisingLatencyCutsTheLimit() {
+        // Given: a steady baseline at 100 ms
+        start(10, 10, 10_000);
+        long now = 0;
+        for (int i = 0; i < 50; i++) {
+            limiter.updateLimit(GeminiConcurrencyLimiter.Outcome.SUCCEEDED, 100 * MILLIS, 1, now);
+            now += 100 * MILLIS;
+        }
+
+        // When: calls slow to a second
+        for (int i = 0; i < 5; i++) {
+            limiter.updateLimit(GeminiConcurrencyLimiter.Outcome.SUCCEEDED, 1000 * MILLIS, 1, now);
+            now += 1000 * MILLIS;
+        }
+
+        // Then
+        assertThat(limiter.getLimit()).isLessThan(10);
+        assertThat(meterRegistry.get("gemini.limiter.decreases").counter().count()).isPositive();
+    }
+
+    private void start(int initialLimit, int maxQueued, long queueTimeoutMs) {
+        ReflectionTestUtils.setField(limiter, "initialLimit", initialLimit);
+        ReflectionTestUtils.setField(limiter, "maxQueued", maxQueued);
+        ReflectionTestUtils.setField(limiter, "queueTimeoutMs", queueTimeoutMs);
+        limiter.start();
+    }
+
+    private static Mono<String> tracked(Sinks.One<String> result, AtomicInteger started) {
+        return Mono.defer(() -> {
+            started.incrementAndGet();
+            return result.asMono();
+        });
+    }
+}
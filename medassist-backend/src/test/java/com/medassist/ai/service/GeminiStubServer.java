@@ -0,0 +1,155 @@
+package com.medassist.ai.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for the Gemini generateContent endpoint that answers each call after a
+ * fixed latency. A request with an image and the analysis prompt gets the analysis with
+ * extracted text, one with an image only gets the extraction JSON, and one without an
+ * image gets the analysis. streamGenerateContent sends the same text as server-sent events
+ * in STREAM_CHUNKS pieces.
+ */
+final class GeminiStubServer implements AutoCloseable {
+
+    static final String EXTRACTED_TEXT = "IBUPROFEN 400 mg film-coated tablets";
+
+    static final String EXTRACTION_JSON =
+        "{\"extracted_text\": \"" + EXTRACTED_TEXT + "\", \"medicine_name\": \"Ibuprofen\"}";
+
+    static final String ANALYSIS_JSON =
+        "{\"medicine_name\": \"Ibuprofen\", \"generic_name\": \"ibuprofen\", \"strength\": \"400 mg\", "
+            + "\"confidence_score\": 0.9}";
+
+    static final String SINGLE_PASS_JSON =
+        "{\"medicine_name\": \"Ibuprofen\", \"generic_name\": \"ibuprofen\", \"strength\": \"400 mg\", "
+            + "\"confidence_score\": 0.9, \"extracted_text\": \"" + EXTRACTED_TEXT + "\"}";
+
+    static final int STREAM_CHUNKS = 4;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final long latencyMillis;
+    private volatile boolean failSinglePass;
+    private boolean closed;
+
+    GeminiStubServer(long latencyMillis) throws IOException {
+        this.latencyMillis = latencyMillis;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "gemini-stub");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    int calls() {
+        return calls.get();
+    }
+
+    /**
+     * Answer single-pass requests with 400, as for a model that rejects the combined prompt
+     */
+    void setFailSinglePass(boolean failSinglePass) {
+        this.failSinglePass = failSinglePass;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            calls.incrementAndGet();
+            pause();
+
+            boolean image = hasImage(body);
+            boolean analysis = body.contains("dosage_information");
+            if (image && analysis && failSinglePass) {
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            }
+            String text = image ? (analysis ? SINGLE_PASS_JSON : EXTRACTION_JSON) : ANALYSIS_JSON;
+            if (exchange.getRequestURI().getPath().endsWith(":streamGenerateContent")) {
+                stream(exchange, text);
+                return;
+            }
+            byte[] response = candidate(text);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        }
+    }
+
+    /**
+     * Whether a part carries image data; text parts serialise inline_data as null
+     */
+    private boolean hasImage(String body) throws IOException {
+        for (JsonNode content : objectMapper.readTree(body).path("contents")) {
+            for (JsonNode part : content.path("parts")) {
+                if (part.path("inline_data").isObject()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void stream(HttpExchange exchange, String text) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            int chunkLength = (text.length() + STREAM_CHUNKS - 1) / STREAM_CHUNKS;
+            for (int start = 0; start < text.length(); start += chunkLength) {
+                String chunk = text.substring(start, Math.min(text.length(), start + chunkLength));
+                out.write("data: ".getBytes(StandardCharsets.UTF_8));
+                out.write(candidate(chunk));
+                out.write("\n\n".getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+        }
+    }
+
+    private byte[] candidate(String text) throws IOException {
+        return objectMapper.writeValueAsBytes(Map.of("candidates", List.of(
+            Map.of("content", Map.of("parts", List.of(Map.of("text", text)))))));
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.medassist.ai.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the Hamming-distance BK-tree.
+ */
+class HammingBkTreeTest {
+
+    @Test
+    void testNearest_FindsClosestWithinDistance() {
+        // Given
+        HammingBkTree<String> tree = new HammingBkTree<>();
+        tree.add(0b0000L, "zero");
+        tree.add(0b1111L, "four");
+        tree.add(0xFFFF_0000L, "far");
+
+        // When
+        HammingBkTree.Match<String> match = tree.nearest(0b0111L, 2);
+
+        // Then
+        assertThat(match.getValue()).isEqualTo("four");
+        assertThat(match.getDistance()).isEqualTo(1);
+        assertThat(tree.nearest(0xFF00_FF00_FF00L, 5)).isNull();
+    }
+
+    @Test
+    void testAdd_SameHashReplacesValue() {
+        // Given
+        HammingBkTree<String> tree = new HammingBkTree<>();
+
+        // When
+        tree.add(7L, "first");
+        tree.add(7L, "second");
+
+        // Then
+        assertThat(tree.size()).isEqualTo(1);
+        assertThat(tree.nearest(7L, 0).getValue()).isEqualTo("second");
+    }
+
+    @Test
+    void testNearest_AgreesWithLinearScan() {
+        // Given
+        Random random = new Random(40);
+        long[] hashes = new long[2000];
+        HammingBkTree<Integer> tree = new HammingBkTree<>();
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = random.nextLong();
+            tree.add(hashes[i], i);
+        }
+
+        for (int q = 0; q < 500; q++) {
+            // Queries near a stored hash as well as random ones
+            long query = q % 2 == 0 ? hashes[random.nextInt(hashes.length)] ^ (1L << random.nextInt(64))
+                : random.nextLong();
+            int best = Integer.MAX_VALUE;
+            for (long hash : hashes) {
+                best = Math.min(best, Long.bitCount(hash ^ query));
+            }
+
+            // When
+            HammingBkTree.Match<Integer> match = tree.nearest(query, 20);
+
+            // Then
+            if (best <= 20) {
+                assertThat(match.getDistance()).isEqualTo(best);
+                assertThat(Long.bitCount(hashes[match.getValue()] ^ query)).isEqualTo(best);
+            } else {
+                assertThat(match).isNull();
+            }
+        }
+    }
+}
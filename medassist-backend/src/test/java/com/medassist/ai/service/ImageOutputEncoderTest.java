@@ -0,0 +1,95 @@
+package com.medassist.ai.service;
+
+import com.medassist.ai.service.ImageOutputEncoder.OutputFormat;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for choosing and writing the upload output format.
+ */
+class ImageOutputEncoderTest {
+
+    private final ImageOutputEncoder encoder = new ImageOutputEncoder();
+
+    @Test
+    void testChooseFormat_TextOnPaperIsGrayscalePng() {
+        // Given
+        BufferedImage image = textCrop(320, 120);
+
+        // When
+        OutputFormat format = encoder.chooseFormat(pixels(image), 320, 120);
+
+        // Then
+        assertThat(format).isEqualTo(OutputFormat.GRAYSCALE_PNG);
+    }
+
+    @Test
+    void testChooseFormat_ColourPhotoIsJpeg() {
+        // Given
+        BufferedImage image = photo(320, 240);
+
+        // When
+        OutputFormat format = encoder.chooseFormat(pixels(image), 320, 240);
+
+        // Then
+        assertThat(format).isEqualTo(OutputFormat.JPEG);
+    }
+
+    @Test
+    void testEncode_WritesReadableImageOfEachFormat() throws IOException {
+        // Given
+        BufferedImage text = textCrop(200, 80);
+        BufferedImage photo = photo(200, 150);
+
+        // When
+        byte[] png = encoder.encode(OutputFormat.GRAYSCALE_PNG, text, pixels(text), 200, 80);
+        byte[] jpeg = encoder.encode(OutputFormat.JPEG, photo, pixels(photo), 200, 150);
+
+        // Then
+        BufferedImage pngImage = ImageIO.read(new ByteArrayInputStream(png));
+        assertThat(pngImage.getType()).isEqualTo(BufferedImage.TYPE_BYTE_GRAY);
+        assertThat(pngImage.getWidth()).isEqualTo(200);
+        assertThat(jpeg[0]).isEqualTo((byte) 0xFF);
+        assertThat(jpeg[1]).isEqualTo((byte) 0xD8);
+        assertThat(ImageIO.read(new ByteArrayInputStream(jpeg)).getHeight()).isEqualTo(150);
+    }
+
+    private static BufferedImage textCrop(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, width, height);
+        g.setColor(Color.BLACK);
+        g.setFont(new Font(Font.SANS_SERIF, Font.BOLD, height / 3));
+        g.drawString("IBUPROFEN 200mg", 4, height / 2);
+        g.dispose();
+        return image;
+    }
+
+    private static BufferedImage photo(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(3);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int noise = random.nextInt(20);
+                image.setRGB(x, y, (60 + x * 150 / width + noise) << 16 | (90 + y * 120 / height) << 8 | 40 + noise);
+            }
+        }
+        return image;
+    }
+
+    private static int[] pixels(BufferedImage image) {
+        return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+}
@@ -0,0 +1,156 @@
+package com.medassist.ai.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for upload ingest, digests and processed-image reuse.
+ */
+class ImageProcessingServiceTest {
+
+    private ConcurrentMapCacheManager cacheManager;
+    private ImageProcessingService imageProcessingService;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager(ImageProcessingService.PROCESSED_IMAGE_CACHE);
+        imageProcessingService = new ImageProcessingService(cacheManager, new ParallelRasterEnhancer(2, 64),
+            new ImageOutputEncoder(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testIngest_DigestIsSha256OfRawBytes() throws Exception {
+        // Given
+        byte[] bytes = png(40, 30);
+        MockMultipartFile file = new MockMultipartFile("file", "a.png", "image/png", bytes);
+
+        // When
+        try (ImageUpload upload = imageProcessingService.ingest(file)) {
+
+            // Then
+            assertThat(upload.getDigest())
+                .isEqualTo(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes)));
+            assertThat(upload.getLength()).isEqualTo(bytes.length);
+        }
+    }
+
+    @Test
+    void testIngest_RejectsFileWhoseSignatureIsNotAnImage() {
+        // Given
+        MockMultipartFile file = new MockMultipartFile("file", "a.png", "image/png",
+            "not an image at all".getBytes(StandardCharsets.US_ASCII));
+
+        // When / Then
+        assertThatThrownBy(() -> imageProcessingService.ingest(file))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("signature");
+    }
+
+    @Test
+    void testIngest_RejectsDisallowedContentType() {
+        // Given
+        MockMultipartFile file = new MockMultipartFile("file", "a.svg", "image/svg+xml",
+            "<svg/>".getBytes(StandardCharsets.US_ASCII));
+
+        // When / Then
+        assertThatThrownBy(() -> imageProcessingService.ingest(file))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testProcessImage_ReusesResultForSameDigest() throws IOException {
+        // Given
+        MockMultipartFile file = new MockMultipartFile("file", "box.png", "image/png", png(40, 30));
+        ProcessedImage cached = new ProcessedImage(new byte[]{1}, "image/jpeg", 42L);
+
+        // When
+        ProcessedImage first;
+        ProcessedImage second;
+        try (ImageUpload upload = imageProcessingService.ingest(file)) {
+            first = imageProcessingService.processImage(upload);
+            cacheManager.getCache(ImageProcessingService.PROCESSED_IMAGE_CACHE).put(upload.getDigest(), cached);
+            second = imageProcessingService.processImage(upload);
+        }
+
+        // Then
+        assertThat(first.getData()).isNotEmpty();
+        assertThat(first.getMimeType()).isEqualTo("image/jpeg");
+        assertThat(second).isSameAs(cached);
+    }
+
+    @Test
+    void testProcessImage_LargeImageIsScaledToFitKeepingAspect() throws IOException {
+        // Given
+        MockMultipartFile file = new MockMultipartFile("file", "large.png", "image/png", png(3000, 1500));
+
+        // When
+        ProcessedImage processed;
+        try (ImageUpload upload = imageProcessingService.ingest(file)) {
+            processed = imageProcessingService.processImage(upload);
+        }
+
+        // Then
+        BufferedImage output = ImageIO.read(new ByteArrayInputStream(processed.getData()));
+        assertThat(output.getWidth()).isEqualTo(1024);
+        assertThat(output.getHeight()).isEqualTo(512);
+    }
+
+    @Test
+    void testIsValidMedicineImage_ChecksDimensionsFromHeader() throws IOException {
+        // Given
+        MockMultipartFile small = new MockMultipartFile("file", "small.png", "image/png", png(40, 30));
+        MockMultipartFile large = new MockMultipartFile("file", "large.png", "image/png", png(400, 300));
+
+        // When / Then
+        try (ImageUpload upload = imageProcessingService.ingest(small)) {
+            assertThat(imageProcessingService.isValidMedicineImage(upload)).isFalse();
+        }
+        try (ImageUpload upload = imageProcessingService.ingest(large)) {
+            assertThat(imageProcessingService.isValidMedicineImage(upload)).isTrue();
+        }
+    }
+
+    @Test
+    void testDecodeSubsampling_KeepsHeadroomAboveTarget() {
+        // When / Then
+        assertThat(ImageProcessingService.decodeSubsampling(800, 600, 1024, 1024)).isEqualTo(1);
+        assertThat(ImageProcessingService.decodeSubsampling(2048, 1536, 1024, 1024)).isEqualTo(1);
+        assertThat(ImageProcessingService.decodeSubsampling(4000, 3000, 1024, 1024)).isEqualTo(2);
+        assertThat(ImageProcessingService.decodeSubsampling(3000, 12000, 1024, 1024)).isEqualTo(7);
+    }
+
+    @Test
+    void testFitWithin_ScalesDownOnly() {
+        // When / Then
+        assertThat(ImageProcessingService.fitWithin(640, 480, 1024, 1024)).containsExactly(640, 480);
+        assertThat(ImageProcessingService.fitWithin(4000, 3000, 1024, 1024)).containsExactly(1024, 768);
+        assertThat(ImageProcessingService.fitWithin(1000, 5000, 1024, 1024)).containsExactly(204, 1024);
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, ((x * 6) & 0xFF) << 16 | ((y * 8) & 0xFF) << 8 | 0x40);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,139 @@
+package com.medassist.ai.service;
+
+import com.medassist.ai.dto.GeminiRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for single-flight sharing of Gemini calls.
+ */
+class InFlightRequestRegistryTest {
+
+    private MeterRegistry meterRegistry;
+    private InFlightRequestRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        registry = new InFlightRequestRegistry(meterRegistry);
+    }
+
+    @Test
+    void testShare_ConcurrentCallersShareOneUpstreamCall() throws Exception {
+        // Given
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        CompletableFuture<String> first = registry.share("k", () -> { calls.incrementAndGet(); return upstream; });
+        CompletableFuture<String> second = registry.share("k", () -> { calls.incrementAndGet(); return upstream; });
+        upstream.complete("result");
+
+        // Then
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(first.get()).isEqualTo("result");
+        assertThat(second.get()).isEqualTo("result");
+        assertThat(registry.size()).isZero();
+        assertThat(meterRegistry.counter("gemini.requests.deduplicated").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("gemini.requests.upstream").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void testShare_CompletedCallIsNotReused() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        registry.share("k", () -> CompletableFuture.completedFuture(calls.incrementAndGet())).join();
+        int second = registry.share("k", () -> CompletableFuture.completedFuture(calls.incrementAndGet())).join();
+
+        // Then
+        assertThat(second).isEqualTo(2);
+        assertThat(meterRegistry.counter("gemini.requests.deduplicated").count()).isZero();
+    }
+
+    @Test
+    void testShare_FailureReachesAllCallersAndIsForgotten() {
+        // Given
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        CompletableFuture<String> first = registry.share("k", () -> upstream);
+        CompletableFuture<String> second = registry.share("k", () -> upstream);
+
+        // When
+        upstream.completeExceptionally(new IllegalStateException("boom"));
+
+        // Then
+        assertThatThrownBy(first::get).isInstanceOf(ExecutionException.class);
+        assertThatThrownBy(second::get).isInstanceOf(ExecutionException.class);
+        assertThat(registry.size()).isZero();
+        assertThat(registry.share("k", () -> CompletableFuture.completedFuture("retry")).join()).isEqualTo("retry");
+    }
+
+    @Test
+    void testShare_CallerCancellationDoesNotAffectOthers() throws Exception {
+        // Given
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        CompletableFuture<String> first = registry.share("k", () -> upstream);
+        CompletableFuture<String> second = registry.share("k", () -> upstream);
+
+        // When
+        first.cancel(true);
+        upstream.complete("result");
+
+        // Then
+        assertThat(second.get()).isEqualTo("result");
+    }
+
+    @Test
+    void testShare_SupplierExceptionFailsFuture() {
+        // When
+        CompletableFuture<String> result = registry.share("k", () -> { throw new IllegalStateException("boom"); });
+
+        // Then
+        assertThat(result).isCompletedExceptionally();
+        assertThat(registry.size()).isZero();
+    }
+
+    @Test
+    void testKeyOf_NormalisesWhitespaceAndSeparatesModels() {
+        // Given
+        GeminiRequest spaced = textRequest("  Analyze   ibuprofen\n 200mg ");
+        GeminiRequest compact = textRequest("Analyze ibuprofen 200mg");
+
+        // When / Then
+        assertThat(InFlightRequestRegistry.keyOf("flash", spaced))
+            .isEqualTo(InFlightRequestRegistry.keyOf("flash", compact));
+        assertThat(InFlightRequestRegistry.keyOf("pro", compact))
+            .isNotEqualTo(InFlightRequestRegistry.keyOf("flash", compact));
+        assertThat(InFlightRequestRegistry.keyOf("flash", textRequest("Analyze paracetamol")))
+            .isNotEqualTo(InFlightRequestRegistry.keyOf("flash", compact));
+    }
+
+    @Test
+    void testKeyOf_DistinguishesImages() {
+        // Given
+        GeminiRequest.Part prompt = new GeminiRequest.Part("Extract text");
+        GeminiRequest first = new GeminiRequest(List.of(new GeminiRequest.Content(List.of(prompt,
+            new GeminiRequest.Part(new GeminiRequest.InlineData("image/jpeg", "AAAA"))))));
+        GeminiRequest second = new GeminiRequest(List.of(new GeminiRequest.Content(List.of(prompt,
+            new GeminiRequest.Part(new GeminiRequest.InlineData("image/jpeg", "AAAB"))))));
+
+        // When / Then
+        assertThat(InFlightRequestRegistry.keyOf("flash", first))
+            .isNotEqualTo(InFlightRequestRegistry.keyOf("flash", second));
+    }
+
+    private static GeminiRequest textRequest(String prompt) {
+        return new GeminiRequest(List.of(new GeminiRequest.Content(List.of(new GeminiRequest.Part(prompt)))));
+    }
+}
@@ -0,0 +1,98 @@
+package com.medassist.ai.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for reading analysis fields out of streamed model text.
+ */
+class IncrementalAnalysisParserTest {
+
+    private static final String TEXT = "```json\n{\n"
+        + "  \"medicine_name\": \"Ibuprofen\",\n"
+        + "  \"brand_names\": [\"Advil\", \"Nurofen\"],\n"
+        + "  \"dosage_information\": {\"adult_dosage\": \"200-400 mg\", \"frequency\": \"every 6 hours\"},\n"
+        + "  \"requires_prescription\": false,\n"
+        + "  \"pregnancy_category\": null,\n"
+        + "  \"confidence_score\": 0.85\n"
+        + "}\n```\nConsult a pharmacist {before use}.";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testFeed_FieldsCompleteWhateverTheChunkBoundaries() {
+        for (int chunkLength = 1; chunkLength <= 9; chunkLength++) {
+            // Given
+            IncrementalAnalysisParser parser = new IncrementalAnalysisParser(objectMapper);
+            List<IncrementalAnalysisParser.Field> fields = new ArrayList<>();
+
+            // When
+            for (int start = 0; start < TEXT.length(); start += chunkLength) {
+                fields.addAll(parser.feed(TEXT.substring(start, Math.min(TEXT.length(), start + chunkLength))));
+            }
+
+            // Then
+            assertThat(fields).extracting(IncrementalAnalysisParser.Field::getName).containsExactly(
+                "medicine_name", "brand_names", "dosage_information", "requires_prescription",
+                "pregnancy_category", "confidence_score");
+            assertThat(fields.get(0).getValue().asText()).isEqualTo("Ibuprofen");
+            assertThat(fields.get(1).getValue()).hasSize(2);
+            assertThat(fields.get(2).getValue().get("frequency").asText()).isEqualTo("every 6 hours");
+            assertThat(fields.get(3).getValue().asBoolean(true)).isFalse();
+            assertThat(fields.get(4).getValue().isNull()).isTrue();
+            assertThat(fields.get(5).getValue().asDouble()).isEqualTo(0.85);
+            assertThat(parser.isComplete()).isTrue();
+        }
+    }
+
+    @Test
+    void testFeed_NestedValueIsHandedBackOnlyOnceClosed() {
+        // Given
+        IncrementalAnalysisParser parser = new IncrementalAnalysisParser(objectMapper);
+
+        // When
+        List<IncrementalAnalysisParser.Field> partial = parser.feed("{\"side_effects\": [\"nausea\", ");
+        List<IncrementalAnalysisParser.Field> closed = parser.feed("\"dizziness\"], ");
+
+        // Then
+        assertThat(partial).isEmpty();
+        assertThat(closed).singleElement().satisfies(field -> {
+            assertThat(field.getName()).isEqualTo("side_effects");
+            assertThat(field.getValue()).hasSize(2);
+        });
+        assertThat(parser.isComplete()).isFalse();
+    }
+
+    @Test
+    void testFeed_MalformedJsonKeepsEarlierFieldsAndStops() {
+        // Given
+        IncrementalAnalysisParser parser = new IncrementalAnalysisParser(objectMapper);
+
+        // When
+        List<IncrementalAnalysisParser.Field> fields = parser.feed("{\"medicine_name\": \"Aspirin\", \"strength\": five hundred}");
+        List<IncrementalAnalysisParser.Field> after = parser.feed(", \"form\": \"tablet\"}");
+
+        // Then
+        assertThat(fields).extracting(IncrementalAnalysisParser.Field::getName).containsExactly("medicine_name");
+        assertThat(after).isEmpty();
+        assertThat(parser.isComplete()).isFalse();
+    }
+
+    @Test
+    void testFeed_TextWithoutJsonYieldsNothing() {
+        // Given
+        IncrementalAnalysisParser parser = new IncrementalAnalysisParser(objectMapper);
+
+        // When
+        List<IncrementalAnalysisParser.Field> fields = parser.feed("I could not identify a medicine in this image.");
+
+        // Then
+        assertThat(fields).isEmpty();
+        assertThat(parser.isComplete()).isFalse();
+    }
+}
@@ -0,0 +1,70 @@
+package com.medassist.ai.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for banded parallel enhancement.
+ */
+class ParallelRasterEnhancerTest {
+
+    private final ParallelRasterEnhancer enhancer = new ParallelRasterEnhancer(4, 3);
+
+    @AfterEach
+    void tearDown() {
+        enhancer.shutdown();
+    }
+
+    @Test
+    void testEnhance_MatchesSequentialPass() {
+        // Given: enough rows for several levels of band splitting
+        int width = 61;
+        int height = 97;
+        int[] pixels = randomPixels(width * height + 50, 17);
+        int[] expected = pixels.clone();
+        RasterEnhancer.enhance(expected, width, height);
+
+        // When
+        enhancer.enhance(pixels, width, height);
+
+        // Then
+        assertThat(pixels).containsExactly(expected);
+    }
+
+    @Test
+    void testEnhance_SmallImageRunsSequentially() {
+        // Given
+        int[] pixels = randomPixels(8 * 4, 5);
+        int[] expected = pixels.clone();
+        RasterEnhancer.enhance(expected, 8, 4);
+
+        // When
+        enhancer.enhance(pixels, 8, 4);
+
+        // Then
+        assertThat(pixels).containsExactly(expected);
+    }
+
+    @Test
+    void testParallelism_DefaultsToAvailableProcessors() {
+        // Given
+        ParallelRasterEnhancer defaults = new ParallelRasterEnhancer(0, 64);
+
+        // When / Then
+        assertThat(defaults.getParallelism()).isEqualTo(Runtime.getRuntime().availableProcessors());
+        defaults.shutdown();
+    }
+
+    private static int[] randomPixels(int count, long seed) {
+        Random random = new Random(seed);
+        int[] pixels = new int[count];
+        for (int i = 0; i < count; i++) {
+            pixels[i] = random.nextInt(0x1000000);
+        }
+        return pixels;
+    }
+}
@@ -0,0 +1,81 @@
+package com.medassist.ai.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the difference hash.
+ */
+class PerceptualHashTest {
+
+    @Test
+    void testDHash_SimilarPhotosAreClose() {
+        // Given
+        BufferedImage original = pack(640, 480, 0);
+        BufferedImage rescaled = scale(original, 500, 375);
+        BufferedImage brighter = brighten(original, 25);
+
+        // When
+        long hash = PerceptualHash.dHash(original);
+
+        // Then
+        assertThat(PerceptualHash.distance(hash, PerceptualHash.dHash(rescaled))).isLessThanOrEqualTo(5);
+        assertThat(PerceptualHash.distance(hash, PerceptualHash.dHash(brighter))).isLessThanOrEqualTo(5);
+    }
+
+    @Test
+    void testDHash_DifferentPhotosAreFar() {
+        // Given
+        BufferedImage first = pack(640, 480, 0);
+        BufferedImage second = pack(640, 480, 1);
+
+        // When / Then
+        assertThat(PerceptualHash.distance(PerceptualHash.dHash(first), PerceptualHash.dHash(second)))
+            .isGreaterThan(10);
+    }
+
+    // A synthetic "pack": dark text-like bars on a light background, laid out by variant
+    private static BufferedImage pack(int width, int height, int variant) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(new Color(235, 235, 225));
+        g.fillRect(0, 0, width, height);
+        g.setColor(new Color(30, 40, 120));
+        for (int i = 0; i < 6; i++) {
+            int barWidth = variant == 0 ? width / 2 - i * 40 : width / 6 + i * 50;
+            int x = variant == 0 ? width / 10 : width - barWidth - width / 12;
+            g.fillRect(x, height / 8 + i * height / 8, barWidth, height / 16);
+        }
+        g.dispose();
+        return image;
+    }
+
+    private static BufferedImage scale(BufferedImage source, int width, int height) {
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(source, 0, 0, width, height, null);
+        g.dispose();
+        return scaled;
+    }
+
+    private static BufferedImage brighten(BufferedImage source, int amount) {
+        BufferedImage result = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < source.getHeight(); y++) {
+            for (int x = 0; x < source.getWidth(); x++) {
+                int rgb = source.getRGB(x, y);
+                int r = Math.min(255, ((rgb >> 16) & 0xFF) + amount);
+                int gr = Math.min(255, ((rgb >> 8) & 0xFF) + amount);
+                int b = Math.min(255, (rgb & 0xFF) + amount);
+                result.setRGB(x, y, (r << 16) | (gr << 8) | b);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,128 @@
+package com.medassist.ai.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the raster enhancement kernels.
+ */
+class RasterEnhancerTest {
+
+    @Test
+    void testContrastLut_StretchesAroundMidGrey() {
+        // When
+        int[] lut = RasterEnhancer.contrastLut(1.2);
+
+        // Then
+        assertThat(lut[128]).isEqualTo(128);
+        assertThat(lut[0]).isZero();
+        assertThat(lut[255]).isEqualTo(255);
+        assertThat(lut[100]).isEqualTo(94);
+        assertThat(lut[200]).isEqualTo(214);
+    }
+
+    @Test
+    void testEnhance_MatchesPerPixelReference() {
+        // Given
+        int width = 37;
+        int height = 23;
+        int[] pixels = randomPixels(width * height, 41);
+        int[] expected = reference(pixels, width, height);
+
+        // When
+        RasterEnhancer.enhance(pixels, width, height);
+
+        // Then: integer blending may differ from the floating-point original by one level
+        for (int i = 0; i < pixels.length; i++) {
+            for (int shift = 0; shift <= 16; shift += 8) {
+                int actual = (pixels[i] >> shift) & 0xFF;
+                int wanted = (expected[i] >> shift) & 0xFF;
+                assertThat(Math.abs(actual - wanted)).as("pixel %d channel %d", i, shift).isLessThanOrEqualTo(1);
+            }
+        }
+    }
+
+    @Test
+    void testEnhance_LeavesPixelsPastImageUntouched() {
+        // Given: a 4x3 image at the start of a larger buffer
+        int[] buffer = randomPixels(20, 3);
+        int[] original = buffer.clone();
+
+        // When
+        RasterEnhancer.enhance(buffer, 4, 3);
+
+        // Then
+        for (int i = 12; i < buffer.length; i++) {
+            assertThat(buffer[i]).isEqualTo(original[i]);
+        }
+    }
+
+    @Test
+    void testDenoise_LeavesBorderAndTinyImagesUntouched() {
+        // Given
+        int width = 5;
+        int height = 4;
+        int[] pixels = randomPixels(width * height, 7);
+        int[] original = pixels.clone();
+        int[] tiny = randomPixels(4, 8);
+        int[] tinyOriginal = tiny.clone();
+
+        // When
+        RasterEnhancer.denoise(pixels, width, height);
+        RasterEnhancer.denoise(tiny, 2, 2);
+
+        // Then
+        for (int x = 0; x < width; x++) {
+            assertThat(pixels[x]).isEqualTo(original[x]);
+            assertThat(pixels[(height - 1) * width + x]).isEqualTo(original[(height - 1) * width + x]);
+        }
+        for (int y = 0; y < height; y++) {
+            assertThat(pixels[y * width]).isEqualTo(original[y * width]);
+            assertThat(pixels[y * width + width - 1]).isEqualTo(original[y * width + width - 1]);
+        }
+        assertThat(tiny).containsExactly(tinyOriginal);
+    }
+
+    private static int[] randomPixels(int count, long seed) {
+        Random random = new Random(seed);
+        int[] pixels = new int[count];
+        for (int i = 0; i < count; i++) {
+            pixels[i] = random.nextInt(0x1000000);
+        }
+        return pixels;
+    }
+
+    // Straightforward contrast then 3x3 blend from a copy, as the per-pixel version computed it
+    private static int[] reference(int[] source, int width, int height) {
+        int[] contrasted = new int[source.length];
+        for (int i = 0; i < source.length; i++) {
+            int value = 0;
+            for (int shift = 16; shift >= 0; shift -= 8) {
+                int channel = (source[i] >> shift) & 0xFF;
+                value |= (int) Math.min(255, Math.max(0, (channel - 128) * 1.2 + 128)) << shift;
+            }
+            contrasted[i] = value;
+        }
+        int[] result = contrasted.clone();
+        for (int y = 1; y < height - 1; y++) {
+            for (int x = 1; x < width - 1; x++) {
+                int value = 0;
+                for (int shift = 16; shift >= 0; shift -= 8) {
+                    int total = 0;
+                    for (int dy = -1; dy <= 1; dy++) {
+                        for (int dx = -1; dx <= 1; dx++) {
+                            total += (contrasted[(y + dy) * width + x + dx] >> shift) & 0xFF;
+                        }
+                    }
+                    int center = (contrasted[y * width + x] >> shift) & 0xFF;
+                    value |= (int) (center * 0.7 + total / 9 * 0.3) << shift;
+                }
+                result[y * width + x] = value;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,59 @@
+package com.medassist.ai.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Unit tests checking the Vector API kernels against the scalar kernels. Skipped when the
+ * JVM runs without jdk.incubator.vector.
+ */
+class VectorRasterKernelsTest {
+
+    @Test
+    void testEnhance_MatchesScalarKernels() {
+        assumeTrue(RasterEnhancer.VECTOR_KERNELS != null, "jdk.incubator.vector not available");
+
+        Random random = new Random(29);
+        for (int round = 0; round < 200; round++) {
+            // Given: widths around and between vector lengths, so both loops and tails run
+            int width = 1 + random.nextInt(80);
+            int height = 1 + random.nextInt(40);
+            int[] vector = new int[width * height];
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] = random.nextInt(0x1000000);
+            }
+            int[] scalar = vector.clone();
+
+            // When
+            RasterEnhancer.enhance(RasterEnhancer.VECTOR_KERNELS, vector, width, height);
+            RasterEnhancer.enhance(RasterEnhancer.SCALAR_KERNELS, scalar, width, height);
+
+            // Then
+            assertThat(vector).as("%dx%d", width, height).containsExactly(scalar);
+        }
+    }
+
+    @Test
+    void testContrast_MatchesLookupTableForEveryValue() {
+        assumeTrue(RasterEnhancer.VECTOR_KERNELS != null, "jdk.incubator.vector not available");
+
+        // Given
+        int[] lut = RasterEnhancer.contrastLut(RasterEnhancer.CONTRAST_FACTOR);
+        int[] pixels = new int[256];
+        for (int v = 0; v < 256; v++) {
+            pixels[v] = v << 16 | (255 - v) << 8 | v;
+        }
+
+        // When
+        RasterEnhancer.VECTOR_KERNELS.contrast(pixels, 0, pixels.length);
+
+        // Then
+        for (int v = 0; v < 256; v++) {
+            assertThat(pixels[v]).isEqualTo(lut[v] << 16 | lut[255 - v] << 8 | lut[v]);
+        }
+    }
+}
@@ -1,5 +1,10 @@
 package com.medassist.common.integration;
 
+import com.medassist.auth.entity.User;
+import com.medassist.auth.repository.RoleRepository;
+import com.medassist.auth.repository.UserRepository;
+import com.medassist.auth.service.JwtTokenService;
+import com.medassist.inventory.dto.InventoryIngestRequest;
 import com.medassist.medicine.entity.Medicine;
 import com.medassist.pharmacy.entity.Pharmacy;
 import com.medassist.medicine.repository.MedicineRepository;
@@ -10,11 +15,16 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -40,6 +50,15 @@ class MedAssistIntegrationTest {
     @Autowired
     private PharmacyRepository pharmacyRepository;
 
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private JwtTokenService jwtTokenService;
+
     private Medicine sampleMedicine;
     private Pharmacy samplePharmacy;
 
@@ -119,6 +138,37 @@ class MedAssistIntegrationTest {
                 .andExpect(jsonPath("$.genericName").value("Ibuprofen"));
     }
 
+    @Test
+    void testInventoryFeed_AdminUserIsAuthorized() throws Exception {
+        // Authorities of a real user are permission names, so the feed must not require ROLE_ADMIN.
+        // An empty body is enough: authorization is decided before the body is read, and
+        // applying a batch needs the PostgreSQL upsert, which H2 lacks.
+        InventoryIngestRequest request = new InventoryIngestRequest(List.of());
+
+        mockMvc.perform(post("/api/v1/inventory/updates")
+                .header(HttpHeaders.AUTHORIZATION, bearerTokenFor("inventory-admin", "ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(result -> assertThat(result.getResponse().getStatus()).isNotIn(401, 403));
+
+        mockMvc.perform(post("/api/v1/inventory/updates")
+                .header(HttpHeaders.AUTHORIZATION, bearerTokenFor("inventory-user", "USER"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testAvailabilityKeywords_ListedForAdminUserOnly() throws Exception {
+        mockMvc.perform(get("/api/v1/availability/keywords")
+                .header(HttpHeaders.AUTHORIZATION, bearerTokenFor("keywords-admin", "ADMIN")))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/availability/keywords")
+                .header(HttpHeaders.AUTHORIZATION, bearerTokenFor("keywords-user", "USER")))
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     void testHealthEndpoint() throws Exception {
         // Test health endpoint - accepts any JSON content type
@@ -134,6 +184,24 @@ class MedAssistIntegrationTest {
                 .andExpect(status().isOk());
     }
 
+    /**
+     * Access token of a stored user holding the given role, created on first use
+     */
+    private String bearerTokenFor(String username, String roleName) {
+        if (userRepository.findByUsername(username).isEmpty()) {
+            User user = new User();
+            user.setUsername(username);
+            user.setEmail(username + "@medassist.test");
+            user.setPassword("not-used");
+            user.setFirstName("Integration");
+            user.setLastName("Test");
+            user.setIsVerified(true);
+            user.setRoles(Set.of(roleRepository.findByName(roleName).orElseThrow()));
+            userRepository.save(user);
+        }
+        return "Bearer " + jwtTokenService.generateAccessToken(username);
+    }
+
     @Test
     void testSearchMedicinesByCategory() throws Exception {
         // Use the correct endpoint with query param
@@ -0,0 +1,295 @@
+package com.medassist.inventory.service;
+
+import com.medassist.common.exception.BusinessValidationException;
+import com.medassist.inventory.dto.InventoryBatch;
+import com.medassist.inventory.dto.InventoryIngestResponse;
+import com.medassist.inventory.event.InventoryChangedEvent;
+import com.medassist.inventory.repository.PharmacyInventoryJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for inventory ingestion, driven by the replay harness.
+ * The JDBC repository is mocked; its feed-sequence check is emulated in memory.
+ */
+@ExtendWith(MockitoExtension.class)
+class InventoryIngestServiceTest {
+
+    @Mock
+    private PharmacyInventoryJdbcRepository inventoryRepository;
+
+    private final Map<Long, Long> feedSequences = new HashMap<>();
+    private InventoryStockIndex stockIndex;
+    private InventoryIngestService ingestService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(inventoryRepository.advanceSequence(anyLong(), anyLong(), any())).thenAnswer(invocation -> {
+            long pharmacyId = invocation.getArgument(0);
+            long sequence = invocation.getArgument(1);
+            Long last = feedSequences.get(pharmacyId);
+            if (last != null && last >= sequence) {
+                return false;
+            }
+            feedSequences.put(pharmacyId, sequence);
+            return true;
+        });
+        lenient().when(inventoryRepository.advanceSequenceByOne(anyLong(), anyLong(), any())).thenAnswer(invocation -> {
+            long pharmacyId = invocation.getArgument(0);
+            long sequence = invocation.getArgument(1);
+            Long last = feedSequences.get(pharmacyId);
+            if (last == null || last != sequence - 1) {
+                return false;
+            }
+            feedSequences.put(pharmacyId, sequence);
+            return true;
+        });
+        lenient().when(inventoryRepository.findLastSequence(anyLong()))
+            .thenAnswer(invocation -> feedSequences.get(invocation.<Long>getArgument(0)));
+
+        stockIndex = new InventoryStockIndex(inventoryRepository);
+        stockIndex.warmUp();
+        // Without a transaction the index applies each batch as soon as it is published
+        ingestService = new InventoryIngestService(inventoryRepository, stockIndex,
+            event -> stockIndex.onInventoryChanged((InventoryChangedEvent) event));
+    }
+
+    @Test
+    void testReplayRecordedFeed_AppliesEachSequenceOnce() throws Exception {
+        // Given
+        List<InventoryBatch> feed = InventoryReplayHarness.readFeed("/inventory/replay-feed.jsonl");
+
+        // When
+        InventoryReplayHarness.Result result = InventoryReplayHarness.replay(feed, 3, ingestService::ingest);
+
+        // Then: the re-sent delta and the late sequence 9 are skipped
+        assertThat(result.batchesApplied).isEqualTo(6);
+        assertThat(result.batchesSkipped).isEqualTo(2);
+        assertThat(result.itemsApplied).isEqualTo(10);
+
+        assertThat(stockIndex.quantity(1L, 101L)).isEqualTo(15);
+        assertThat(stockIndex.quantity(1L, 102L)).isZero();
+        assertThat(stockIndex.quantity(1L, 103L)).isEqualTo(12);
+        assertThat(stockIndex.quantity(1L, 104L)).isEqualTo(InventoryStockIndex.UNKNOWN);
+        assertThat(stockIndex.quantity(2L, 101L)).isZero();
+        assertThat(stockIndex.quantity(2L, 104L)).isEqualTo(8);
+        assertThat(stockIndex.lastSequence(2L)).isEqualTo(12L);
+
+        verify(inventoryRepository, times(3)).clearStock(anyLong(), any());
+        verify(inventoryRepository, times(3)).upsertQuantities(anyLong(), any(), any(), any());
+        verify(inventoryRepository, times(3)).applyDeltas(anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void testReplayTwice_SecondPassChangesNothing() throws Exception {
+        // Given
+        List<InventoryBatch> feed = InventoryReplayHarness.readFeed("/inventory/replay-feed.jsonl");
+        InventoryReplayHarness.replay(feed, 4, ingestService::ingest);
+        clearInvocations(inventoryRepository);
+
+        // When
+        InventoryReplayHarness.Result result = InventoryReplayHarness.replay(feed, 4, ingestService::ingest);
+
+        // Then: every batch is rejected by the index without touching the database
+        assertThat(result.batchesApplied).isZero();
+        assertThat(result.batchesSkipped).isEqualTo(feed.size());
+        assertThat(stockIndex.quantity(1L, 101L)).isEqualTo(15);
+        verifyNoInteractions(inventoryRepository);
+    }
+
+    @Test
+    void testReplaySyntheticFeed_IndexMatchesModel() {
+        // Given
+        List<InventoryBatch> feed = InventoryReplayHarness.syntheticFeed(200, 50, 100, 500, 42L);
+
+        // When
+        InventoryReplayHarness.Result result = InventoryReplayHarness.replay(feed, 50, ingestService::ingest);
+
+        // Then
+        assertThat(result.calls).isEqualTo((200 * 56 + 49) / 50);
+        assertThat(result.batchesApplied).isEqualTo(200 * 51);
+        assertThat(result.batchesSkipped).isEqualTo(200 * 5);
+
+        Map<Long, Map<Long, Integer>> expected = model(feed);
+        for (Map.Entry<Long, Map<Long, Integer>> pharmacy : expected.entrySet()) {
+            for (Map.Entry<Long, Integer> line : pharmacy.getValue().entrySet()) {
+                assertThat(stockIndex.quantity(pharmacy.getKey(), line.getKey()))
+                    .as("pharmacy %d medicine %d", pharmacy.getKey(), line.getKey())
+                    .isEqualTo(line.getValue());
+            }
+        }
+    }
+
+    @Test
+    void testIngest_RejectsNegativeSnapshotQuantity() {
+        // Given
+        InventoryBatch batch = new InventoryBatch(1L, 1L, InventoryBatch.Mode.SNAPSHOT,
+            List.of(new InventoryBatch.Item(101L, -1)));
+
+        // When / Then
+        assertThatThrownBy(() -> ingestService.ingest(List.of(batch)))
+            .isInstanceOf(BusinessValidationException.class);
+        verify(inventoryRepository, never()).advanceSequence(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void testIngest_RejectsOversizedRequestBeforeTakingLocks() {
+        // Given: more batches than one request may carry
+        List<InventoryBatch> batches = new ArrayList<>();
+        for (long pharmacyId = 1; pharmacyId <= 101; pharmacyId++) {
+            batches.add(new InventoryBatch(pharmacyId, 1L, InventoryBatch.Mode.SNAPSHOT,
+                List.of(new InventoryBatch.Item(101L, 1))));
+        }
+
+        // When / Then
+        assertThatThrownBy(() -> ingestService.ingest(batches))
+            .isInstanceOf(BusinessValidationException.class)
+            .extracting("errorCode").isEqualTo("BATCH_TOO_LARGE");
+        verify(inventoryRepository, never()).advanceSequence(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void testIngest_ReturnsCounts() {
+        // Given
+        InventoryBatch snapshot = new InventoryBatch(5L, 1L, InventoryBatch.Mode.SNAPSHOT,
+            List.of(new InventoryBatch.Item(101L, 3), new InventoryBatch.Item(102L, 0)));
+
+        // When
+        InventoryIngestResponse first = ingestService.ingest(List.of(snapshot));
+        InventoryIngestResponse again = ingestService.ingest(List.of(snapshot));
+
+        // Then
+        assertThat(first.getBatchesApplied()).isEqualTo(1);
+        assertThat(first.getItemsApplied()).isEqualTo(2);
+        assertThat(again.getBatchesApplied()).isZero();
+        assertThat(again.getBatchesSkipped()).isEqualTo(1);
+    }
+
+    @Test
+    void testIngest_DeltaAfterGapIsRejectedUntilSnapshot() {
+        // Given
+        ingestService.ingest(List.of(new InventoryBatch(3L, 1L, InventoryBatch.Mode.SNAPSHOT,
+            List.of(new InventoryBatch.Item(101L, 10)))));
+        clearInvocations(inventoryRepository);
+        InventoryBatch afterGap = new InventoryBatch(3L, 3L, InventoryBatch.Mode.DELTA,
+            List.of(new InventoryBatch.Item(101L, -4)));
+        InventoryBatch next = new InventoryBatch(3L, 4L, InventoryBatch.Mode.DELTA,
+            List.of(new InventoryBatch.Item(101L, -1)));
+
+        // When
+        InventoryIngestResponse response = ingestService.ingest(List.of(afterGap, next));
+
+        // Then
+        assertThat(response.getBatchesApplied()).isZero();
+        assertThat(response.getBatchesRejected()).isEqualTo(2);
+        assertThat(response.getResyncPharmacyIds()).containsExactly(3L);
+        assertThat(stockIndex.quantity(3L, 101L)).isEqualTo(10);
+        assertThat(stockIndex.lastSequence(3L)).isEqualTo(1L);
+        verify(inventoryRepository, never()).applyDeltas(anyLong(), any(), any(), any());
+
+        // When: a snapshot re-establishes the base
+        InventoryIngestResponse resynced = ingestService.ingest(List.of(
+            new InventoryBatch(3L, 5L, InventoryBatch.Mode.SNAPSHOT, List.of(new InventoryBatch.Item(101L, 6))),
+            new InventoryBatch(3L, 6L, InventoryBatch.Mode.DELTA, List.of(new InventoryBatch.Item(101L, -2)))));
+
+        // Then
+        assertThat(resynced.getBatchesApplied()).isEqualTo(2);
+        assertThat(resynced.getResyncPharmacyIds()).isEmpty();
+        assertThat(stockIndex.quantity(3L, 101L)).isEqualTo(4);
+    }
+
+    @Test
+    void testIngest_DeltaBeforeAnySnapshotIsRejected() {
+        // Given
+        InventoryBatch delta = new InventoryBatch(4L, 1L, InventoryBatch.Mode.DELTA,
+            List.of(new InventoryBatch.Item(101L, 5)));
+
+        // When
+        InventoryIngestResponse response = ingestService.ingest(List.of(delta));
+
+        // Then
+        assertThat(response.getBatchesRejected()).isEqualTo(1);
+        assertThat(response.getResyncPharmacyIds()).containsExactly(4L);
+        verify(inventoryRepository, never()).applyDeltas(anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void testIngest_LocksFeedRowsInPharmacyOrder() {
+        // Given: batches listed out of pharmacy and sequence order
+        List<InventoryBatch> batches = List.of(
+            new InventoryBatch(9L, 1L, InventoryBatch.Mode.SNAPSHOT, List.of(new InventoryBatch.Item(101L, 1))),
+            new InventoryBatch(7L, 2L, InventoryBatch.Mode.DELTA, List.of(new InventoryBatch.Item(101L, 1))),
+            new InventoryBatch(7L, 1L, InventoryBatch.Mode.SNAPSHOT, List.of(new InventoryBatch.Item(101L, 1))));
+
+        // When
+        InventoryIngestResponse response = ingestService.ingest(batches);
+
+        // Then
+        assertThat(response.getBatchesApplied()).isEqualTo(3);
+        InOrder feedOrder = inOrder(inventoryRepository);
+        feedOrder.verify(inventoryRepository).advanceSequence(eq(7L), eq(1L), any());
+        feedOrder.verify(inventoryRepository).advanceSequenceByOne(eq(7L), eq(2L), any());
+        feedOrder.verify(inventoryRepository).advanceSequence(eq(9L), eq(1L), any());
+    }
+
+    @Test
+    void testOnInventoryChanged_ReloadGrowsPastInitialCapacity() {
+        // Given: a never-loaded pharmacy whose table holds more lines than the initial table
+        doAnswer(invocation -> {
+            PharmacyInventoryJdbcRepository.StockRowHandler handler = invocation.getArgument(1);
+            for (long medicineId = 1; medicineId <= 100; medicineId++) {
+                handler.accept(6L, medicineId, (int) medicineId, System.currentTimeMillis());
+            }
+            return null;
+        }).when(inventoryRepository).forEachStockRow(eq(6L), any());
+        InventoryStockIndex coldIndex = new InventoryStockIndex(inventoryRepository);
+
+        // When
+        coldIndex.onInventoryChanged(new InventoryChangedEvent(6L, 1L, InventoryBatch.Mode.DELTA,
+            new long[] {1L}, new int[] {5}, System.currentTimeMillis()));
+
+        // Then
+        assertThat(coldIndex.quantity(6L, 1L)).isEqualTo(1);
+        assertThat(coldIndex.quantity(6L, 100L)).isEqualTo(100);
+        assertThat(coldIndex.lastSequence(6L)).isEqualTo(1L);
+    }
+
+    // Straightforward re-statement of the feed semantics to check the index against
+    private static Map<Long, Map<Long, Integer>> model(List<InventoryBatch> feed) {
+        Map<Long, Map<Long, Integer>> stock = new HashMap<>();
+        Map<Long, Long> sequences = new HashMap<>();
+        for (InventoryBatch batch : feed) {
+            Long last = sequences.get(batch.getPharmacyId());
+            if (last != null && last >= batch.getSequence()) {
+                continue;
+            }
+            sequences.put(batch.getPharmacyId(), batch.getSequence());
+            Map<Long, Integer> lines = stock.computeIfAbsent(batch.getPharmacyId(), id -> new HashMap<>());
+            if (batch.getMode() == InventoryBatch.Mode.SNAPSHOT) {
+                lines.replaceAll((id, quantity) -> 0);
+            }
+            for (InventoryBatch.Item item : batch.getItems()) {
+                int current = lines.getOrDefault(item.getMedicineId(), 0);
+                int next = batch.getMode() == InventoryBatch.Mode.SNAPSHOT
+                    ? item.getQuantity()
+                    : Math.max(0, current + item.getQuantity());
+                lines.put(item.getMedicineId(), next);
+            }
+        }
+        return stock;
+    }
+}
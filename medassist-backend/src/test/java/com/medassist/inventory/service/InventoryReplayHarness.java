@@ -0,0 +1,120 @@
+package com.medassist.inventory.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medassist.inventory.dto.InventoryBatch;
+import com.medassist.inventory.dto.InventoryIngestResponse;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Local replay harness for the inventory ingest path.
+ *
+ * Reads a recorded feed (JSON lines, one InventoryBatch per line) or generates a synthetic
+ * one, and replays it through an ingest function in calls of a fixed number of batches, the
+ * way a pharmacy gateway posts to /api/v1/inventory/updates. Reports what was applied and
+ * the sustained stock-line rate.
+ */
+final class InventoryReplayHarness {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private InventoryReplayHarness() {}
+
+    /**
+     * Read a recorded feed from the classpath
+     */
+    static List<InventoryBatch> readFeed(String resource) throws IOException {
+        List<InventoryBatch> feed = new ArrayList<>();
+        try (InputStream in = InventoryReplayHarness.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Feed not found: " + resource);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    feed.add(OBJECT_MAPPER.readValue(line, InventoryBatch.class));
+                }
+            }
+        }
+        return feed;
+    }
+
+    /**
+     * Synthetic feed: an opening snapshot per pharmacy followed by deltas, interleaved across
+     * pharmacies, with every tenth delta re-sent as a duplicate
+     */
+    static List<InventoryBatch> syntheticFeed(int pharmacies, int deltasPerPharmacy, int itemsPerBatch,
+                                              int medicines, long seed) {
+        Random random = new Random(seed);
+        List<InventoryBatch> feed = new ArrayList<>();
+        for (long pharmacyId = 1; pharmacyId <= pharmacies; pharmacyId++) {
+            feed.add(new InventoryBatch(pharmacyId, 0L, InventoryBatch.Mode.SNAPSHOT,
+                items(random, itemsPerBatch, medicines, 0, 100)));
+        }
+        for (long sequence = 1; sequence <= deltasPerPharmacy; sequence++) {
+            for (long pharmacyId = 1; pharmacyId <= pharmacies; pharmacyId++) {
+                InventoryBatch delta = new InventoryBatch(pharmacyId, sequence, InventoryBatch.Mode.DELTA,
+                    items(random, itemsPerBatch, medicines, -10, 10));
+                feed.add(delta);
+                if (sequence % 10 == 0) {
+                    feed.add(delta);
+                }
+            }
+        }
+        return feed;
+    }
+
+    /**
+     * Replay a feed through the ingest function, batchesPerCall batches at a time
+     */
+    static Result replay(List<InventoryBatch> feed, int batchesPerCall,
+                         Function<List<InventoryBatch>, InventoryIngestResponse> ingest) {
+        Result result = new Result();
+        long start = System.nanoTime();
+        for (int from = 0; from < feed.size(); from += batchesPerCall) {
+            List<InventoryBatch> call = feed.subList(from, Math.min(feed.size(), from + batchesPerCall));
+            InventoryIngestResponse response = ingest.apply(call);
+            result.calls++;
+            result.batchesApplied += response.getBatchesApplied();
+            result.batchesSkipped += response.getBatchesSkipped();
+            result.itemsApplied += response.getItemsApplied();
+        }
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private static List<InventoryBatch.Item> items(Random random, int count, int medicines, int min, int max) {
+        List<InventoryBatch.Item> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new InventoryBatch.Item(1L + random.nextInt(medicines), min + random.nextInt(max - min + 1)));
+        }
+        return items;
+    }
+
+    static final class Result {
+        int calls;
+        int batchesApplied;
+        int batchesSkipped;
+        long itemsApplied;
+        long elapsedNanos;
+
+        double itemsPerSecond() {
+            return elapsedNanos == 0 ? 0 : itemsApplied * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d calls, %d batches applied, %d skipped, %d items in %.1fms (%.0f items/s)",
+                calls, batchesApplied, batchesSkipped, itemsApplied, elapsedNanos / 1e6, itemsPerSecond());
+        }
+    }
+}
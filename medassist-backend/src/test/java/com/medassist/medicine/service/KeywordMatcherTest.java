@@ -0,0 +1,95 @@
+package com.medassist.medicine.service;
+
+import com.medassist.medicine.entity.AvailabilityKeyword.KeywordList;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the Aho-Corasick keyword matcher.
+ */
+class KeywordMatcherTest {
+
+    @Test
+    void testMatch_CaseInsensitiveSubstringsAcrossGroups() {
+        // Given
+        KeywordMatcher matcher = KeywordMatcher.builder()
+            .add("cvs", 0)
+            .add("Rite Aid", 0)
+            .add("local", 1)
+            .build();
+
+        // When / Then
+        assertThat(matcher.match("CVS Pharmacy")).isEqualTo(1);
+        assertThat(matcher.match("RITE AID #4211")).isEqualTo(1);
+        assertThat(matcher.match("Local Independent")).isEqualTo(2);
+        assertThat(matcher.match("cvs local outlet")).isEqualTo(3);
+        assertThat(matcher.match("Corner Drugstore")).isZero();
+        assertThat(matcher.match(null)).isZero();
+        assertThat(matcher.contains("Rite Aid", 1)).isFalse();
+    }
+
+    @Test
+    void testMatch_OverlappingAndNestedKeywords() {
+        // Given: "he" ends inside "she", "hers" extends "he", "his" shares a prefix
+        KeywordMatcher matcher = KeywordMatcher.builder()
+            .add("he", 0)
+            .add("she", 1)
+            .add("his", 2)
+            .add("hers", 3)
+            .build();
+
+        // When / Then
+        assertThat(matcher.match("ushers")).isEqualTo(0b1011);
+        assertThat(matcher.match("this")).isEqualTo(0b0100);
+        assertThat(matcher.match("hhhe")).isEqualTo(0b0001);
+        assertThat(matcher.size()).isEqualTo(4);
+    }
+
+    @Test
+    void testMatch_NonAsciiKeywordsAndText() {
+        // Given
+        KeywordMatcher matcher = KeywordMatcher.builder()
+            .add("Apotheke M\u00fcller", 0)
+            .add("parac\u00e9tamol", 1)
+            .build();
+
+        // When / Then
+        assertThat(matcher.match("APOTHEKE M\u00dcLLER Berlin")).isEqualTo(1);
+        assertThat(matcher.match("Parac\u00e9tamol 500mg")).isEqualTo(2);
+        assertThat(matcher.match("Paracetamol 500mg")).isZero();
+    }
+
+    @Test
+    void testDefaultMatcher_AgreesWithSubstringScan() {
+        // Given
+        KeywordMatcher matcher = AvailabilityKeywords.defaultMatcher();
+        List<String> pool = List.of("cvs", "walgreens", "local", "aspirin", "tums", "sam's club",
+            "pharmacy", " ", "x", "CVS", "Tylenol", "rolaids", "independent");
+        Random random = new Random(7);
+
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder text = new StringBuilder();
+            int parts = random.nextInt(4);
+            for (int p = 0; p < parts; p++) {
+                text.append(pool.get(random.nextInt(pool.size())));
+            }
+
+            // When
+            int matched = matcher.match(text);
+
+            // Then: same answer as the lower-case contains() scan it replaces
+            int expected = 0;
+            String lower = text.toString().toLowerCase();
+            for (KeywordList list : KeywordList.values()) {
+                if (AvailabilityKeywords.DEFAULT_KEYWORDS.get(list).stream().anyMatch(lower::contains)) {
+                    expected |= list.mask();
+                }
+            }
+            assertThat(matched).as("text '%s'", text).isEqualTo(expected);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.medassist.medicine.service;
+
+import com.medassist.inventory.service.InventoryStockIndex;
+import com.medassist.medicine.dto.MedicineSearchHit;
+import com.medassist.medicine.entity.Medicine;
+import com.medassist.pharmacy.dto.PharmacyLocationResponse;
+import com.medassist.pharmacy.entity.Pharmacy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for availability estimation.
+ */
+@ExtendWith(MockitoExtension.class)
+class MedicineAvailabilityServiceTest {
+
+    @Mock
+    private MedicineService medicineService;
+
+    @Mock
+    private AvailabilityMatrix availabilityMatrix;
+
+    @Mock
+    private InventoryStockIndex inventoryStockIndex;
+
+    @Mock
+    private AvailabilityKeywords availabilityKeywords;
+
+    @InjectMocks
+    private MedicineAvailabilityService medicineAvailabilityService;
+
+    @BeforeEach
+    void setUp() {
+        // No pharmacy reports stock unless a test says so
+        lenient().when(inventoryStockIndex.quantity(any(), any())).thenReturn(InventoryStockIndex.UNKNOWN);
+        lenient().when(availabilityKeywords.matcher()).thenReturn(AvailabilityKeywords.defaultMatcher());
+    }
+
+    @Test
+    void testEstimateAvailability_BatchResolvesMedicineOnce() {
+        // Given
+        Medicine amoxicillin = new Medicine("Amoxicillin", "Amoxicillin", "PharmaCorp");
+        amoxicillin.setRequiresPrescription(true);
+        amoxicillin.setCategory("Antibiotic");
+        when(medicineService.findBestMatch("amoxicillin"))
+            .thenReturn(Optional.of(new MedicineSearchHit(amoxicillin, 1.0, MedicineSearchHit.MatchType.EXACT, "name")));
+
+        when(availabilityMatrix.lookup()).thenReturn(AvailabilityMatrix.Lookup.EMPTY);
+
+        Pharmacy chain = pharmacy("CVS Pharmacy", true, true, Arrays.asList("Vaccines", "Delivery"));
+        Pharmacy independent = pharmacy("Local Independent", false, false, null);
+        Pharmacy unknown = pharmacy(null, false, false, null);
+
+        // When
+        double[] confidences = medicineAvailabilityService.estimateAvailability(
+            List.of(chain, independent, unknown), "amoxicillin");
+
+        // Then: base 0.5 + antibiotic 0.1, plus each pharmacy's own terms
+        assertThat(confidences).hasSize(3);
+        assertThat(confidences[0]).isCloseTo(0.6 + 0.2 + 0.04 + 0.1 + 0.05, within(1e-9));
+        assertThat(confidences[1]).isCloseTo(0.6 + 0.1, within(1e-9));
+        assertThat(confidences[2]).isCloseTo(0.6, within(1e-9));
+        verify(medicineService, times(1)).findBestMatch("amoxicillin");
+    }
+
+    @Test
+    void testEstimateAvailability_UnknownMedicine() {
+        // Given
+        when(medicineService.findBestMatch("unobtainium")).thenReturn(Optional.empty());
+
+        // When
+        double[] confidences = medicineAvailabilityService.estimateAvailability(
+            List.of(pharmacy("CVS", true, true, null), pharmacy("Walgreens", false, false, null)), "unobtainium");
+        PharmacyLocationResponse.MedicineAvailability availability =
+            medicineAvailabilityService.toAvailability("unobtainium", confidences[0]);
+
+        // Then
+        assertThat(confidences).containsExactly(
+            MedicineAvailabilityService.UNKNOWN_MEDICINE_CONFIDENCE, MedicineAvailabilityService.UNKNOWN_MEDICINE_CONFIDENCE);
+        assertThat(availability.getLikelyAvailable()).isFalse();
+        assertThat(availability.getEstimatedStockLevel())
+            .isEqualTo(PharmacyLocationResponse.MedicineAvailability.StockLevel.UNKNOWN);
+    }
+
+    @Test
+    void testFilterByMedicineAvailability_KeepsOrderOfQualifyingPharmacies() {
+        // Given
+        Medicine paracetamol = new Medicine("Paracetamol", "Acetaminophen", "Generic Pharma");
+        paracetamol.setCategory("Analgesic");
+        when(medicineService.findBestMatch("paracetamol"))
+            .thenReturn(Optional.of(new MedicineSearchHit(paracetamol, 1.0, MedicineSearchHit.MatchType.EXACT, "name")));
+        when(availabilityMatrix.lookup()).thenReturn(AvailabilityMatrix.Lookup.EMPTY);
+        Pharmacy first = pharmacy("Walgreens", false, false, null);
+        Pharmacy second = pharmacy(null, false, false, null);
+
+        // When
+        List<Pharmacy> result = medicineAvailabilityService.filterByMedicineAvailability(
+            List.of(first, second), "paracetamol", 0.9);
+
+        // Then: OTC, common and analgesic saturate the score for both
+        assertThat(result).containsExactly(first, second);
+        verify(medicineService, times(1)).findBestMatch("paracetamol");
+    }
+
+    @Test
+    void testEstimateAvailability_MatrixAgreesWithDirectScoring() {
+        // Given
+        Medicine cetirizine = new Medicine("Cetirizine", "Cetirizine", "Allergy Labs");
+        cetirizine.setCategory("Antihistamine");
+        when(medicineService.findBestMatch("cetirizine"))
+            .thenReturn(Optional.of(new MedicineSearchHit(cetirizine, 1.0, MedicineSearchHit.MatchType.EXACT, "name")));
+
+        Pharmacy inMatrix = pharmacy("Local Independent", false, false, List.of("Vaccines"));
+        inMatrix.setId(7L);
+        Pharmacy notInMatrix = pharmacy("Local Independent", false, false, List.of("Vaccines"));
+        notInMatrix.setId(8L);
+        Pharmacy stale = pharmacy(null, false, false, null);
+        stale.setId(9L);
+        // The matrix row for 9 was built before the pharmacy became a 24h chain store
+        Pharmacy before = pharmacy("Kroger", true, true, List.of("Delivery"));
+        before.setId(9L);
+        when(availabilityMatrix.lookup()).thenReturn(AvailabilityMatrix.Lookup.build(
+            List.of(inMatrix, before), AvailabilityKeywords.defaultMatcher()));
+
+        // When
+        double[] confidences = medicineAvailabilityService.estimateAvailability(
+            List.of(inMatrix, notInMatrix, stale), "cetirizine");
+
+        // Then
+        assertThat(confidences[0]).isCloseTo(confidences[1], within(1e-9));
+        assertThat(confidences[0]).isCloseTo(0.5 + 0.2 + 0.15 + 0.1 + 0.02, within(1e-9));
+        assertThat(confidences[2]).isCloseTo(1.0, within(1e-9));
+    }
+
+    @Test
+    void testEstimateAvailability_PrefersReportedStock() {
+        // Given
+        Medicine ibuprofen = new Medicine("Ibuprofen", "Ibuprofen", "HealthCare Inc");
+        ibuprofen.setId(42L);
+        ibuprofen.setCategory("NSAID");
+        when(medicineService.findBestMatch("ibuprofen"))
+            .thenReturn(Optional.of(new MedicineSearchHit(ibuprofen, 1.0, MedicineSearchHit.MatchType.EXACT, "name")));
+        when(availabilityMatrix.lookup()).thenReturn(AvailabilityMatrix.Lookup.EMPTY);
+
+        Pharmacy soldOut = pharmacy("CVS Pharmacy", true, true, null);
+        soldOut.setId(1L);
+        Pharmacy lowStock = pharmacy("CVS Pharmacy", true, true, null);
+        lowStock.setId(2L);
+        Pharmacy noFeed = pharmacy("CVS Pharmacy", true, true, null);
+        noFeed.setId(3L);
+        when(inventoryStockIndex.quantity(1L, 42L)).thenReturn(0);
+        when(inventoryStockIndex.quantity(2L, 42L)).thenReturn(3);
+
+        // When
+        double[] confidences = medicineAvailabilityService.estimateAvailability(
+            List.of(soldOut, lowStock, noFeed), "ibuprofen");
+        PharmacyLocationResponse.MedicineAvailability soldOutAvailability =
+            medicineAvailabilityService.toAvailability("ibuprofen", confidences[0]);
+
+        // Then: reported stock wins over the heuristic, which would saturate for all three
+        assertThat(confidences[0]).isEqualTo(MedicineAvailabilityService.OUT_OF_STOCK_CONFIDENCE);
+        assertThat(confidences[1]).isEqualTo(MedicineAvailabilityService.stockConfidence(3));
+        assertThat(confidences[2]).isCloseTo(1.0, within(1e-9));
+        assertThat(soldOutAvailability.getLikelyAvailable()).isFalse();
+        assertThat(soldOutAvailability.getEstimatedStockLevel())
+            .isEqualTo(PharmacyLocationResponse.MedicineAvailability.StockLevel.OUT_OF_STOCK);
+    }
+
+    @Test
+    void testMedicineClasses_CoverEveryScoreCombination() {
+        // Given
+        Medicine rare = new Medicine("Imatinib", "Imatinib", "Onco Pharma");
+        rare.setRequiresPrescription(true);
+        rare.setCategory("Oncology");
+        Medicine common = new Medicine("Ibuprofen", "Ibuprofen", "HealthCare Inc");
+        common.setCategory("NSAID");
+
+        // When
+        KeywordMatcher keywords = AvailabilityKeywords.defaultMatcher();
+        int rareClass = MedicineAvailabilityService.medicineClassOf(rare, keywords);
+        int commonClass = MedicineAvailabilityService.medicineClassOf(common, keywords);
+
+        // Then
+        assertThat(rareClass).isBetween(0, MedicineAvailabilityService.MEDICINE_CLASS_COUNT - 1);
+        assertThat(commonClass).isBetween(0, MedicineAvailabilityService.MEDICINE_CLASS_COUNT - 1);
+        assertThat(MedicineAvailabilityService.medicineClassScore(rareClass)).isCloseTo(-0.1, within(1e-9));
+        assertThat(MedicineAvailabilityService.medicineClassScore(commonClass)).isCloseTo(0.2 + 0.3 + 0.15, within(1e-9));
+    }
+
+    private static Pharmacy pharmacy(String chainName, boolean is24Hours, boolean hasConsultation, List<String> services) {
+        Pharmacy pharmacy = new Pharmacy();
+        pharmacy.setChainName(chainName);
+        pharmacy.setIs24Hours(is24Hours);
+        pharmacy.setHasConsultation(hasConsultation);
+        pharmacy.setServices(services);
+        return pharmacy;
+    }
+}
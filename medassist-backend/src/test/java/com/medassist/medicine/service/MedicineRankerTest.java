@@ -0,0 +1,134 @@
+package com.medassist.medicine.service;
+
+import com.medassist.medicine.dto.MedicineSearchHit;
+import com.medassist.medicine.entity.Medicine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for medicine relevance ranking.
+ */
+class MedicineRankerTest {
+
+    private MedicineRanker medicineRanker;
+    private Medicine paracetamol;
+    private Medicine calpol;
+    private Medicine ibuprofen;
+
+    @BeforeEach
+    void setUp() {
+        medicineRanker = new MedicineRanker();
+
+        paracetamol = medicine(1L, "Paracetamol", "Acetaminophen", "Generic Pharma");
+        paracetamol.setBrandNames(Arrays.asList("Tylenol", "Panadol"));
+        calpol = medicine(2L, "Calpol Paracetamol Suspension", "Acetaminophen", "Paracetamol Labs");
+        ibuprofen = medicine(3L, "Ibuprofen", "Ibuprofen", "HealthCare Inc");
+    }
+
+    @Test
+    void testTopK_ExactNameOutranksPartialMatches() {
+        // When
+        List<MedicineSearchHit> hits = medicineRanker.topK("paracetamol",
+            Arrays.asList(calpol, ibuprofen, paracetamol), 10);
+
+        // Then
+        assertThat(hits).extracting(hit -> hit.getMedicine().getId()).containsExactly(1L, 2L);
+        assertThat(hits.get(0).getMatchType()).isEqualTo(MedicineSearchHit.MatchType.EXACT);
+        assertThat(hits.get(0).getScore()).isGreaterThanOrEqualTo(MedicineRanker.STRONG_MATCH_SCORE);
+        assertThat(hits.get(1).getScore()).isLessThan(MedicineRanker.STRONG_MATCH_SCORE);
+    }
+
+    @Test
+    void testTopK_PopularityDoesNotMakeAPartialMatchStrong() {
+        // Given: a popular medicine matched on its active ingredient only
+        Medicine panadolExtra = medicine(4L, "Panadol Extra", "Paracetamol and Caffeine", "Generic Pharma");
+        panadolExtra.setActiveIngredient("Paracetamol");
+        medicineRanker.recordSelection(4L);
+
+        // When
+        List<MedicineSearchHit> hits = medicineRanker.topK("paracetamol", List.of(panadolExtra), 10);
+
+        // Then: the bonus lifts the ranking score, not the match score the threshold applies to
+        assertThat(hits).hasSize(1);
+        assertThat(hits.get(0).getMatchedField()).isEqualTo("active_ingredient");
+        assertThat(hits.get(0).getScore()).isGreaterThanOrEqualTo(MedicineRanker.STRONG_MATCH_SCORE);
+        assertThat(hits.get(0).getMatchScore()).isLessThan(MedicineRanker.STRONG_MATCH_SCORE);
+    }
+
+    @Test
+    void testTopK_BrandNameMatchReportsField() {
+        // When
+        List<MedicineSearchHit> hits = medicineRanker.topK("TYLENOL", List.of(paracetamol, ibuprofen), 10);
+
+        // Then
+        assertThat(hits).hasSize(1);
+        assertThat(hits.get(0).getMatchedField()).isEqualTo("brand_name");
+        assertThat(hits.get(0).getMatchType()).isEqualTo(MedicineSearchHit.MatchType.EXACT);
+    }
+
+    @Test
+    void testTopK_ToleratesTypos() {
+        // When
+        List<MedicineSearchHit> hits = medicineRanker.topK("ibuprofin", List.of(paracetamol, ibuprofen), 10);
+
+        // Then
+        assertThat(hits).hasSize(1);
+        assertThat(hits.get(0).getMedicine()).isSameAs(ibuprofen);
+        assertThat(hits.get(0).getMatchType()).isEqualTo(MedicineSearchHit.MatchType.FUZZY);
+    }
+
+    @Test
+    void testTopK_KeepsOnlyBestK() {
+        // Given
+        List<Medicine> candidates = new ArrayList<>();
+        for (long i = 0; i < 50; i++) {
+            candidates.add(medicine(100 + i, "Ibuprofen Variant " + i, "Ibuprofen", "Maker"));
+        }
+        candidates.add(ibuprofen);
+
+        // When
+        List<MedicineSearchHit> hits = medicineRanker.topK("ibuprofen", candidates, 3);
+
+        // Then
+        assertThat(hits).hasSize(3);
+        assertThat(hits.get(0).getMedicine()).isSameAs(ibuprofen);
+        assertThat(hits.get(0).getScore()).isGreaterThanOrEqualTo(hits.get(1).getScore());
+        assertThat(hits.get(1).getScore()).isGreaterThanOrEqualTo(hits.get(2).getScore());
+    }
+
+    @Test
+    void testRecordSelection_PopularityBreaksTies() {
+        // Given
+        Medicine first = medicine(10L, "Cetirizine Tablets", "Cetirizine", "A");
+        Medicine second = medicine(11L, "Cetirizine Syrup", "Cetirizine", "B");
+        for (int i = 0; i < 5; i++) {
+            medicineRanker.recordSelection(11L);
+        }
+
+        // When
+        List<MedicineSearchHit> hits = medicineRanker.topK("cetirizine", List.of(first, second), 2);
+
+        // Then
+        assertThat(hits.get(0).getMedicine()).isSameAs(second);
+    }
+
+    @Test
+    void testBoundedEditDistance() {
+        assertThat(MedicineRanker.boundedEditDistance("kitten", "sitting", 3)).isEqualTo(3);
+        assertThat(MedicineRanker.boundedEditDistance("kitten", "sitting", 1)).isEqualTo(2);
+        assertThat(MedicineRanker.boundedEditDistance("abc", "abcdef", 2)).isEqualTo(3);
+    }
+
+    private static Medicine medicine(Long id, String name, String genericName, String manufacturer) {
+        Medicine medicine = new Medicine(name, genericName, manufacturer);
+        medicine.setId(id);
+        medicine.setActiveIngredient(genericName);
+        return medicine;
+    }
+}
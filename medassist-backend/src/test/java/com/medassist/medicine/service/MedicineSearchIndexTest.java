@@ -0,0 +1,148 @@
+package com.medassist.medicine.service;
+
+import com.medassist.medicine.dto.MedicineFacetedSearchResponse.FacetCount;
+import com.medassist.medicine.entity.Medicine;
+import com.medassist.medicine.event.MedicineChangedEvent;
+import com.medassist.medicine.repository.MedicineRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the in-memory faceted search index.
+ */
+@ExtendWith(MockitoExtension.class)
+class MedicineSearchIndexTest {
+
+    @Mock
+    private MedicineRepository medicineRepository;
+
+    @InjectMocks
+    private MedicineSearchIndex medicineSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        Medicine paracetamol = medicine(1L, "Paracetamol", "Acetaminophen", "Generic Pharma", "Analgesic", "Tablet", false);
+        paracetamol.setBrandNames(Arrays.asList("Tylenol", "Panadol"));
+        Medicine ibuprofen = medicine(2L, "Ibuprofen", "Ibuprofen", "HealthCare Inc", "NSAID", "Tablet", false);
+        Medicine amoxicillin = medicine(3L, "Amoxicillin", "Amoxicillin", "PharmaCorp", "Antibiotic", "Capsule", true);
+        Medicine calpol = medicine(4L, "Calpol Syrup", "Acetaminophen", "Generic Pharma", "Analgesic", "Syrup", false);
+
+        when(medicineRepository.findAllWithBrandNames())
+            .thenReturn(Arrays.asList(paracetamol, ibuprofen, amoxicillin, calpol));
+    }
+
+    @Test
+    void testSearch_NoQueryReturnsWholeCatalogueSortedByName() {
+        MedicineSearchIndex.SearchResult result = medicineSearchIndex.search(null, Map.of(), 0, 10);
+
+        assertThat(result.getTotal()).isEqualTo(4);
+        assertThat(result.getPageIds()).containsExactly(3L, 4L, 2L, 1L);
+        assertThat(counts(result, MedicineSearchIndex.Facet.FORM))
+            .containsEntry("Tablet", 2L).containsEntry("Capsule", 1L).containsEntry("Syrup", 1L);
+    }
+
+    @Test
+    void testSearch_QueryMatchesBrandAndGenericNamesCaseInsensitively() {
+        MedicineSearchIndex.SearchResult brand = medicineSearchIndex.search("TYLEN", Map.of(), 0, 10);
+        MedicineSearchIndex.SearchResult generic = medicineSearchIndex.search("acetaminophen", Map.of(), 0, 10);
+
+        assertThat(brand.getPageIds()).containsExactly(1L);
+        assertThat(generic.getPageIds()).containsExactly(4L, 1L);
+    }
+
+    @Test
+    void testSearch_MultiWordQueryMustMatchWithinOneField() {
+        MedicineSearchIndex.SearchResult phrase = medicineSearchIndex.search("calpol syrup", Map.of(), 0, 10);
+        MedicineSearchIndex.SearchResult acrossFields = medicineSearchIndex.search("paracetamol tylenol", Map.of(), 0, 10);
+
+        assertThat(phrase.getPageIds()).containsExactly(4L);
+        assertThat(acrossFields.getTotal()).isZero();
+    }
+
+    @Test
+    void testSearch_FacetCountsIgnoreOwnFilter() {
+        Map<MedicineSearchIndex.Facet, String> filters = new EnumMap<>(MedicineSearchIndex.Facet.class);
+        filters.put(MedicineSearchIndex.Facet.FORM, "tablet");
+
+        MedicineSearchIndex.SearchResult result = medicineSearchIndex.search(null, filters, 0, 10);
+
+        assertThat(result.getPageIds()).containsExactly(2L, 1L);
+        // Form counts still show the alternatives to the selected value
+        assertThat(counts(result, MedicineSearchIndex.Facet.FORM))
+            .containsEntry("Tablet", 2L).containsEntry("Capsule", 1L).containsEntry("Syrup", 1L);
+        // Other facets are restricted to tablets
+        assertThat(counts(result, MedicineSearchIndex.Facet.CATEGORY))
+            .containsEntry("Analgesic", 1L).containsEntry("NSAID", 1L).doesNotContainKey("Antibiotic");
+    }
+
+    @Test
+    void testSearch_UnknownFilterValueMatchesNothing() {
+        Map<MedicineSearchIndex.Facet, String> filters = new EnumMap<>(MedicineSearchIndex.Facet.class);
+        filters.put(MedicineSearchIndex.Facet.CATEGORY, "Oncology");
+
+        MedicineSearchIndex.SearchResult result = medicineSearchIndex.search(null, filters, 0, 10);
+
+        assertThat(result.getTotal()).isZero();
+        assertThat(counts(result, MedicineSearchIndex.Facet.CATEGORY)).hasSize(3);
+    }
+
+    @Test
+    void testSearch_Paging() {
+        MedicineSearchIndex.SearchResult result = medicineSearchIndex.search(null, Map.of(), 1, 3);
+
+        assertThat(result.getTotal()).isEqualTo(4);
+        assertThat(result.getPageIds()).containsExactly(1L);
+    }
+
+    @Test
+    void testSearch_FarPageIsEmptyWithoutOverflow() {
+        // 2^30 * 4 wraps to 0 in int arithmetic, which would return the first page
+        MedicineSearchIndex.SearchResult result = medicineSearchIndex.search(null, Map.of(), 1 << 30, 4);
+
+        assertThat(result.getPageIds()).isEmpty();
+        assertThat(result.getTotal()).isEqualTo(4);
+    }
+
+    @Test
+    void testOnMedicineChanged_RebuildsOnNextSearch() {
+        medicineSearchIndex.search(null, Map.of(), 0, 10);
+        medicineSearchIndex.search("ibuprofen", Map.of(), 0, 10);
+        verify(medicineRepository, times(1)).findAllWithBrandNames();
+
+        medicineSearchIndex.onMedicineChanged(new MedicineChangedEvent(2L, MedicineChangedEvent.ChangeType.UPDATED));
+        medicineSearchIndex.search(null, Map.of(), 0, 10);
+
+        verify(medicineRepository, times(2)).findAllWithBrandNames();
+    }
+
+    private static Map<String, Long> counts(MedicineSearchIndex.SearchResult result, MedicineSearchIndex.Facet facet) {
+        Map<String, Long> counts = new HashMap<>();
+        for (FacetCount count : result.getFacetCounts().get(facet)) {
+            counts.put(count.getValue(), count.getCount());
+        }
+        return counts;
+    }
+
+    private static Medicine medicine(Long id, String name, String genericName, String manufacturer,
+                                     String category, String form, boolean requiresPrescription) {
+        Medicine medicine = new Medicine(name, genericName, manufacturer);
+        medicine.setId(id);
+        medicine.setCategory(category);
+        medicine.setForm(form);
+        medicine.setActiveIngredient(genericName);
+        medicine.setRequiresPrescription(requiresPrescription);
+        return medicine;
+    }
+}
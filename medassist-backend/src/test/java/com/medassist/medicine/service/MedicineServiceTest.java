@@ -1,7 +1,10 @@
 package com.medassist.medicine.service;
 
+import com.medassist.common.dto.BatchLookupResponse;
+import com.medassist.common.exception.BusinessValidationException;
 import com.medassist.common.exception.ResourceNotFoundException;
 import com.medassist.medicine.entity.Medicine;
+import com.medassist.medicine.event.MedicineChangedEvent;
 import com.medassist.pharmacy.entity.Pharmacy;
 import com.medassist.medicine.repository.MedicineRepository;
 import com.medassist.pharmacy.repository.PharmacyRepository;
@@ -11,6 +14,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Arrays;
 import java.util.List;
@@ -26,6 +33,24 @@ class MedicineServiceTest {
     @Mock
     private MedicineRepository medicineRepository;
 
+    @Mock
+    private MedicineSearchIndex medicineSearchIndex;
+
+    @Mock
+    private MedicineRanker medicineRanker;
+
+    @Mock
+    private MedicineSynonymIndex medicineSynonymIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache cache;
+
     @InjectMocks
     private MedicineService medicineService;
 
@@ -40,6 +65,8 @@ class MedicineServiceTest {
         testMedicine.setStrength("500mg");
         testMedicine.setForm("Tablet");
         testMedicine.setRequiresPrescription(false);
+
+        ReflectionTestUtils.setField(medicineService, "maxBatchIds", 3);
     }
 
     @Test
@@ -157,6 +184,7 @@ class MedicineServiceTest {
         // Then
         verify(medicineRepository, times(1)).existsById(1L);
         verify(medicineRepository, times(1)).deleteById(1L);
+        verify(eventPublisher, times(1)).publishEvent(any(MedicineChangedEvent.class));
     }
 
     @Test
@@ -168,6 +196,7 @@ class MedicineServiceTest {
         assertThrows(ResourceNotFoundException.class, () -> medicineService.deleteMedicine(999L));
         verify(medicineRepository, times(1)).existsById(999L);
         verify(medicineRepository, never()).deleteById(any());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
     }
 
     @Test
@@ -208,4 +237,35 @@ class MedicineServiceTest {
         assertEquals(100L, result);
         verify(medicineRepository, times(1)).count();
     }
+
+    @Test
+    void testGetMedicinesByIds_CacheHitsSkipDatabase() {
+        // Given
+        Medicine ibuprofen = new Medicine("Ibuprofen", "Ibuprofen", "HealthCare Inc");
+        ibuprofen.setId(2L);
+        when(cacheManager.getCache(MedicineService.MEDICINES_BY_ID_CACHE)).thenReturn(cache);
+        when(cache.get(1L, Medicine.class)).thenReturn(testMedicine);
+        when(cache.get(2L, Medicine.class)).thenReturn(null);
+        when(cache.get(9L, Medicine.class)).thenReturn(null);
+        when(medicineRepository.findAllById(List.of(2L, 9L))).thenReturn(List.of(ibuprofen));
+
+        // When
+        BatchLookupResponse<Medicine> result = medicineService.getMedicinesByIds(Arrays.asList(2L, 1L, 2L, 9L));
+
+        // Then
+        assertEquals(2, result.getResults().size());
+        assertEquals("Ibuprofen", result.getResults().get(0).getName());
+        assertEquals("Paracetamol", result.getResults().get(1).getName());
+        assertEquals(List.of(9L), result.getMissingIds());
+        verify(medicineRepository, times(1)).findAllById(List.of(2L, 9L));
+        verify(cache, times(1)).put(2L, ibuprofen);
+    }
+
+    @Test
+    void testGetMedicinesByIds_TooManyIds() {
+        // When & Then
+        assertThrows(BusinessValidationException.class,
+            () -> medicineService.getMedicinesByIds(Arrays.asList(1L, 2L, 3L, 4L)));
+        verify(medicineRepository, never()).findAllById(any());
+    }
 }
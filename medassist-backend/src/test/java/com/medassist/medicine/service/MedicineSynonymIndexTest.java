@@ -0,0 +1,96 @@
+package com.medassist.medicine.service;
+
+import com.medassist.medicine.entity.Medicine;
+import com.medassist.medicine.event.MedicineChangedEvent;
+import com.medassist.medicine.repository.MedicineRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the brand/generic/ingredient synonym table.
+ */
+@ExtendWith(MockitoExtension.class)
+class MedicineSynonymIndexTest {
+
+    @Mock
+    private MedicineRepository medicineRepository;
+
+    @InjectMocks
+    private MedicineSynonymIndex medicineSynonymIndex;
+
+    private Medicine paracetamol;
+    private Medicine calpol;
+
+    @BeforeEach
+    void setUp() {
+        paracetamol = medicine(1L, "Paracetamol", "Acetaminophen");
+        paracetamol.setBrandNames(Arrays.asList("Tylenol", "Panadol"));
+        calpol = medicine(2L, "Calpol", "Acetaminophen");
+    }
+
+    @Test
+    void testResolve_BrandGenericAndIngredientNames() {
+        // Given
+        when(medicineRepository.findAllWithBrandNames()).thenReturn(Arrays.asList(paracetamol, calpol));
+
+        // Then
+        assertThat(medicineSynonymIndex.resolve("Tylenol")).containsExactly(1L);
+        assertThat(medicineSynonymIndex.resolve("  PANADOL ")).containsExactly(1L);
+        assertThat(medicineSynonymIndex.resolve("acetaminophen")).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(medicineSynonymIndex.resolve("calpol")).containsExactly(2L);
+        assertThat(medicineSynonymIndex.resolve("aspirin")).isEmpty();
+        assertThat(medicineSynonymIndex.resolve(null)).isEmpty();
+        assertThat(medicineSynonymIndex.refersTo("Tylenol", 1L)).isTrue();
+        assertThat(medicineSynonymIndex.refersTo("Tylenol", 2L)).isFalse();
+    }
+
+    @Test
+    void testResolve_GrowsPastInitialCapacity() {
+        // Given
+        List<Medicine> medicines = new ArrayList<>();
+        for (long i = 0; i < 500; i++) {
+            medicines.add(medicine(i, "Medicine " + i, "Generic " + i));
+        }
+        when(medicineRepository.findAllWithBrandNames()).thenReturn(medicines);
+
+        // Then
+        assertThat(medicineSynonymIndex.size()).isEqualTo(1000);
+        for (long i = 0; i < 500; i++) {
+            assertThat(medicineSynonymIndex.resolve("generic " + i)).containsExactly(i);
+        }
+    }
+
+    @Test
+    void testOnMedicineChanged_RebuildsOnNextLookup() {
+        // Given
+        when(medicineRepository.findAllWithBrandNames())
+            .thenReturn(List.of(paracetamol))
+            .thenReturn(Arrays.asList(paracetamol, calpol));
+        assertThat(medicineSynonymIndex.resolve("calpol")).isEmpty();
+
+        // When
+        medicineSynonymIndex.onMedicineChanged(new MedicineChangedEvent(2L, MedicineChangedEvent.ChangeType.CREATED));
+
+        // Then
+        assertThat(medicineSynonymIndex.resolve("calpol")).containsExactly(2L);
+        verify(medicineRepository, times(2)).findAllWithBrandNames();
+    }
+
+    private static Medicine medicine(Long id, String name, String genericName) {
+        Medicine medicine = new Medicine(name, genericName, "Generic Pharma");
+        medicine.setId(id);
+        medicine.setActiveIngredient(genericName);
+        return medicine;
+    }
+}
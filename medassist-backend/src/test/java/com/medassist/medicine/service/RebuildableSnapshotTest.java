@@ -0,0 +1,69 @@
+package com.medassist.medicine.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for lazily rebuilt in-memory snapshots.
+ */
+class RebuildableSnapshotTest {
+
+    @Test
+    void testGet_BuildsOnceUntilInvalidated() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        RebuildableSnapshot<Integer> snapshot = new RebuildableSnapshot<>("test", loads::incrementAndGet);
+
+        // When
+        int first = snapshot.get();
+        int again = snapshot.get();
+        snapshot.invalidate();
+        int rebuilt = snapshot.get();
+
+        // Then
+        assertThat(first).isEqualTo(1);
+        assertThat(again).isEqualTo(1);
+        assertThat(rebuilt).isEqualTo(2);
+    }
+
+    @Test
+    void testGet_FailedRebuildServesPreviousAndRetries() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        RebuildableSnapshot<Integer> snapshot = new RebuildableSnapshot<>("test", () -> {
+            if (loads.incrementAndGet() == 2) {
+                throw new IllegalStateException("database down");
+            }
+            return loads.get();
+        });
+        snapshot.get();
+        snapshot.invalidate();
+
+        // When
+        int duringOutage = snapshot.get();
+        int afterOutage = snapshot.get();
+
+        // Then
+        assertThat(duringOutage).isEqualTo(1);
+        assertThat(afterOutage).isEqualTo(3);
+    }
+
+    @Test
+    void testGet_FirstBuildFailureServesFallbackOrThrows() {
+        // Given
+        RebuildableSnapshot<String> withFallback = new RebuildableSnapshot<>("test", () -> {
+            throw new IllegalStateException("database down");
+        }, "built-in");
+        RebuildableSnapshot<String> withoutFallback = new RebuildableSnapshot<>("test", () -> {
+            throw new IllegalStateException("database down");
+        });
+
+        // When / Then
+        assertThat(withFallback.get()).isEqualTo("built-in");
+        assertThatThrownBy(withoutFallback::get).isInstanceOf(IllegalStateException.class);
+    }
+}
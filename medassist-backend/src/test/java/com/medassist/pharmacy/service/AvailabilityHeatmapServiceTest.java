@@ -0,0 +1,186 @@
+package com.medassist.pharmacy.service;
+
+import com.medassist.common.exception.BusinessValidationException;
+import com.medassist.common.exception.ResourceNotFoundException;
+import com.medassist.inventory.dto.InventoryBatch;
+import com.medassist.inventory.event.InventoryChangedEvent;
+import com.medassist.medicine.entity.Medicine;
+import com.medassist.medicine.service.AvailabilityScorer;
+import com.medassist.medicine.service.MedicineAvailabilityService;
+import com.medassist.pharmacy.dto.AvailabilityHeatmapResponse;
+import com.medassist.pharmacy.entity.Pharmacy;
+import com.medassist.pharmacy.repository.PharmacyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the availability heatmap.
+ */
+@ExtendWith(MockitoExtension.class)
+class AvailabilityHeatmapServiceTest {
+
+    @Mock
+    private PharmacyRepository pharmacyRepository;
+
+    @Mock
+    private MedicineAvailabilityService medicineAvailabilityService;
+
+    @Mock
+    private AvailabilityScorer scorer;
+
+    private AvailabilityHeatmapService heatmapService;
+
+    @BeforeEach
+    void setUp() {
+        heatmapService = new AvailabilityHeatmapService(pharmacyRepository, medicineAvailabilityService,
+            new ConcurrentMapCacheManager(AvailabilityHeatmapService.HEATMAP_CACHE));
+    }
+
+    @Test
+    void testGetHeatmap_AggregatesCellsAcrossForkedLeaves() {
+        // Given: 400 chain stores in Manhattan, 300 independents in Brooklyn, 5 without coordinates
+        List<Pharmacy> pharmacies = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            pharmacies.add(pharmacy("CVS", 40.7128, -74.0060));
+        }
+        for (int i = 0; i < 300; i++) {
+            pharmacies.add(pharmacy("Local", 40.6782, -73.9442));
+        }
+        for (int i = 0; i < 5; i++) {
+            pharmacies.add(pharmacy("CVS", null, null));
+        }
+        stubMedicine("ibuprofen", 42L);
+        when(pharmacyRepository.findAllActiveWithServices()).thenReturn(pharmacies);
+        when(scorer.confidence(any())).thenAnswer(invocation ->
+            "CVS".equals(((Pharmacy) invocation.getArgument(0)).getChainName()) ? 0.9 : 0.5);
+
+        // When
+        AvailabilityHeatmapResponse heatmap = heatmapService.getHeatmap("ibuprofen", 5);
+
+        // Then
+        assertThat(heatmap.getPharmacyCount()).isEqualTo(705);
+        assertThat(heatmap.getUnlocatedCount()).isEqualTo(5);
+        assertThat(heatmap.getCells()).hasSize(2);
+
+        AvailabilityHeatmapResponse.Cell manhattan = cell(heatmap, Geohash.encode(40.7128, -74.0060, 5));
+        assertThat(manhattan.getPharmacyCount()).isEqualTo(400);
+        assertThat(manhattan.getMeanConfidence()).isCloseTo(0.9, within(1e-9));
+        assertThat(manhattan.getHighStockCount()).isEqualTo(400);
+
+        AvailabilityHeatmapResponse.Cell brooklyn = cell(heatmap, Geohash.encode(40.6782, -73.9442, 5));
+        assertThat(brooklyn.getPharmacyCount()).isEqualTo(300);
+        assertThat(brooklyn.getMeanConfidence()).isCloseTo(0.5, within(1e-9));
+        assertThat(brooklyn.getHighStockCount()).isZero();
+    }
+
+    @Test
+    void testGetHeatmap_CachedUntilInventoryTouchesMedicine() {
+        // Given
+        stubMedicine("ibuprofen", 42L);
+        when(pharmacyRepository.findAllActiveWithServices()).thenReturn(List.of(pharmacy("CVS", 40.7128, -74.0060)));
+        when(scorer.confidence(any())).thenReturn(0.9);
+
+        // When
+        heatmapService.getHeatmap("ibuprofen", 5);
+        heatmapService.getHeatmap("ibuprofen", 5);
+        heatmapService.onInventoryChanged(delta(7L));
+        heatmapService.getHeatmap("ibuprofen", 5);
+        heatmapService.onInventoryChanged(delta(42L));
+        heatmapService.getHeatmap("ibuprofen", 5);
+
+        // Then: computed on the first call and after the delta for medicine 42 only
+        verify(pharmacyRepository, times(2)).findAllActiveWithServices();
+    }
+
+    @Test
+    void testGetHeatmap_SnapshotClearsCache() {
+        // Given
+        stubMedicine("ibuprofen", 42L);
+        when(pharmacyRepository.findAllActiveWithServices()).thenReturn(List.of(pharmacy("CVS", 40.7128, -74.0060)));
+        when(scorer.confidence(any())).thenReturn(0.9);
+
+        // When
+        heatmapService.getHeatmap("ibuprofen", 5);
+        heatmapService.onInventoryChanged(new InventoryChangedEvent(
+            1L, 3L, InventoryBatch.Mode.SNAPSHOT, new long[] {7L}, new int[] {1}, System.currentTimeMillis()));
+        heatmapService.getHeatmap("ibuprofen", 5);
+
+        // Then
+        verify(pharmacyRepository, times(2)).findAllActiveWithServices();
+    }
+
+    @Test
+    void testGetHeatmap_ChangeWhileScorerIsBuiltKeepsResultUncached() {
+        // Given: a pharmacy write commits just as the scorer takes its snapshots
+        Medicine medicine = stubMedicine("ibuprofen", 42L);
+        when(medicineAvailabilityService.scorerFor(medicine)).thenAnswer(invocation -> {
+            heatmapService.onPharmacyChanged(null);
+            return scorer;
+        }).thenReturn(scorer);
+        when(pharmacyRepository.findAllActiveWithServices()).thenReturn(List.of(pharmacy("CVS", 40.7128, -74.0060)));
+        when(scorer.confidence(any())).thenReturn(0.9);
+
+        // When
+        heatmapService.getHeatmap("ibuprofen", 5);
+        heatmapService.getHeatmap("ibuprofen", 5);
+        heatmapService.getHeatmap("ibuprofen", 5);
+
+        // Then: the first result was not cached, the second was
+        verify(pharmacyRepository, times(2)).findAllActiveWithServices();
+    }
+
+    @Test
+    void testGetHeatmap_UnknownMedicine() {
+        // Given
+        when(medicineAvailabilityService.findMedicineByName("unobtainium")).thenReturn(null);
+
+        // When / Then
+        assertThatThrownBy(() -> heatmapService.getHeatmap("unobtainium", 5))
+            .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> heatmapService.getHeatmap("ibuprofen", 9))
+            .isInstanceOf(BusinessValidationException.class);
+        verifyNoInteractions(pharmacyRepository);
+    }
+
+    private Medicine stubMedicine(String name, Long id) {
+        Medicine medicine = new Medicine(name, name, "HealthCare Inc");
+        medicine.setId(id);
+        when(medicineAvailabilityService.findMedicineByName(name)).thenReturn(medicine);
+        when(medicineAvailabilityService.scorerFor(medicine)).thenReturn(scorer);
+        when(scorer.getMedicine()).thenReturn(medicine);
+        return medicine;
+    }
+
+    private static InventoryChangedEvent delta(long medicineId) {
+        return new InventoryChangedEvent(1L, 2L, InventoryBatch.Mode.DELTA,
+            new long[] {medicineId}, new int[] {-1}, System.currentTimeMillis());
+    }
+
+    private static AvailabilityHeatmapResponse.Cell cell(AvailabilityHeatmapResponse heatmap, String geohash) {
+        return heatmap.getCells().stream()
+            .filter(cell -> cell.getGeohash().equals(geohash))
+            .findFirst()
+            .orElseThrow();
+    }
+
+    private static Pharmacy pharmacy(String chainName, Double latitude, Double longitude) {
+        Pharmacy pharmacy = new Pharmacy();
+        pharmacy.setChainName(chainName);
+        pharmacy.setLatitude(latitude);
+        pharmacy.setLongitude(longitude);
+        return pharmacy;
+    }
+}
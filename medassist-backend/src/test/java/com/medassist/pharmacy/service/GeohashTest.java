@@ -0,0 +1,51 @@
+package com.medassist.pharmacy.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for geohash encoding.
+ */
+class GeohashTest {
+
+    @Test
+    void testEncode_KnownHashes() {
+        // When / Then
+        assertThat(Geohash.encode(57.64911, 10.40744, 11)).isEqualTo("u4pruydqqvj");
+        assertThat(Geohash.encode(42.6, -5.6, 5)).isEqualTo("ezs42");
+        assertThat(Geohash.encode(40.7128, -74.0060, 5)).isEqualTo("dr5re");
+    }
+
+    @Test
+    void testEncode_PrefixIsEnclosingCell() {
+        // Given
+        String fine = Geohash.encode(40.7128, -74.0060, 8);
+
+        // When / Then
+        assertThat(Geohash.encode(40.7128, -74.0060, 5)).isEqualTo(fine.substring(0, 5));
+    }
+
+    @Test
+    void testBounds_ContainEncodedPoint() {
+        // Given
+        double latitude = -33.8688;
+        double longitude = 151.2093;
+
+        // When
+        double[] bounds = Geohash.bounds(Geohash.encode(latitude, longitude, 6));
+
+        // Then
+        assertThat(latitude).isBetween(bounds[0], bounds[2]);
+        assertThat(longitude).isBetween(bounds[1], bounds[3]);
+        assertThat(bounds[2] - bounds[0]).isLessThan(0.01);
+    }
+
+    @Test
+    void testEncode_RejectsInvalidPrecision() {
+        // When / Then
+        assertThatThrownBy(() -> Geohash.encode(0, 0, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Geohash.bounds("ai")).isInstanceOf(IllegalArgumentException.class);
+    }
+}